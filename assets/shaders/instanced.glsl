@@ -0,0 +1,39 @@
+#type vertex
+#version 330 core
+layout (location=0) in vec3 aPos;
+layout (location=1) in vec4 aColor;
+layout (location=2) in vec2 aUV;
+layout (location=3) in vec4 aRow0;
+layout (location=4) in vec4 aRow1;
+layout (location=5) in vec4 aRow2;
+layout (location=6) in vec4 aTint;
+layout (location=7) in vec4 aUVRect;
+
+uniform mat4 uProjection;
+uniform mat4 uView;
+
+out vec4 fColor;
+out vec2 fUV;
+
+void main() {
+    vec4 local = vec4(aPos, 1.0);
+    vec3 world = vec3(dot(aRow0, local), dot(aRow1, local), dot(aRow2, local));
+
+    fColor = aColor * aTint;
+    fUV = mix(aUVRect.xy, aUVRect.zw, aUV);
+    gl_Position = uProjection * uView * vec4(world, 1.0);
+}
+
+#type fragment
+#version 330 core
+
+in vec4 fColor;
+in vec2 fUV;
+
+uniform sampler2D uTexture;
+
+out vec4 color;
+
+void main() {
+    color = fColor * texture(uTexture, fUV);
+}
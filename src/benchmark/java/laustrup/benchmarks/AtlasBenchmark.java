@@ -0,0 +1,83 @@
+package laustrup.benchmarks;
+
+import laustrup.models.graphic.atlas.MaxRectsPacker;
+import laustrup.models.graphic.atlas.TextureAtlas;
+import laustrup.models.graphic.atlas.TextureAtlasBuilder;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Measures packing sprites into a texture atlas, both only the rectangles and the whole pages with pixels. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AtlasBenchmark {
+
+    /** The amount of sprites, with sizes of 8 to 64 pixels. */
+    @Param({"1000", "5000"})
+    public int _sprites;
+
+    /** The widths and heights of the sprites, sorted from the largest. */
+    private int[] _widths, _heights;
+
+    /** A builder of all the sprites, with the same pixels for every sprite. */
+    private TextureAtlasBuilder _builder;
+
+    /** The file of the saved atlas. */
+    private Path _cache;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        _widths = new int[_sprites];
+        _heights = new int[_sprites];
+        _builder = new TextureAtlasBuilder();
+        ByteBuffer pixels = ByteBuffer.allocateDirect(64 * 64 * 4);
+
+        for (int i = 0; i < _sprites; i++) {
+            _widths[i] = 8 + random.nextInt(57);
+            _heights[i] = 8 + random.nextInt(57);
+            _builder.add("sprite" + i, _widths[i], _heights[i], pixels);
+        }
+
+        _cache = Files.createTempFile("creethor", ".atlas");
+        _builder.build(_cache);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_cache);
+    }
+
+    @Benchmark
+    public int pack() {
+        MaxRectsPacker packer = new MaxRectsPacker(4096, 4096);
+        int[] position = new int[2];
+        int placed = 0;
+
+        for (int i = 0; i < _sprites; i++)
+            if (packer.insert(_widths[i] + 4, _heights[i] + 4, position))
+                placed++;
+
+        return placed;
+    }
+
+    @Benchmark
+    public TextureAtlas build() throws IOException {
+        return _builder.build();
+    }
+
+    @Benchmark
+    public TextureAtlas loadCached() throws IOException {
+        return _builder.build(_cache);
+    }
+}
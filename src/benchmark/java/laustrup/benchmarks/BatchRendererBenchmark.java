@@ -0,0 +1,76 @@
+package laustrup.benchmarks;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.batch.BatchRenderer;
+import laustrup.models.graphic.buffer.DynamicBuffer;
+import laustrup.models.graphic.device.RecordingDevice;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures submitting quads of a frame to the batch renderer, against a recording device without any graphics card,
+ * with each way of streaming the vertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchRendererBenchmark {
+
+    /** The amount of quads of each frame, which is from 4 to 1 million vertices. */
+    @Param({"1", "250", "25000", "250000"})
+    public int _quads;
+
+    /** The way the vertices of the batches are streamed. */
+    @Param({"UNSYNCHRONIZED_MAP", "SUB_DATA", "ORPHAN"})
+    public DynamicBuffer.Strategy _strategy;
+
+    /** The quads to be submitted. */
+    private Quad[] _submissions;
+
+    /** The renderer of the quads. */
+    private BatchRenderer _renderer;
+
+    /** The shader of the quads. */
+    private Shader _shader;
+
+    /** The shader file written for the benchmark. */
+    private Path _file;
+
+    @Setup
+    public void setup() throws IOException {
+        Window.get_instance().set_device(new RecordingDevice());
+        _file = Benchmarks.shaderFile();
+        _shader = new Shader(_file.toString());
+        _shader.compile();
+        _renderer = new BatchRenderer(BatchRenderer.DEFAULT_BATCH_CAPACITY, _strategy);
+
+        _submissions = new Quad[_quads];
+        for (int i = 0; i < _quads; i++)
+            _submissions[i] = new Quad(i % 100 * 0.01f, i / 100 * 0.01f, 0f, 0.01f, 0.01f, new float[]{1f, 0f, 0f, 1f});
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    @Benchmark
+    public int frame() {
+        _renderer.begin();
+        for (Quad quad : _submissions)
+            _renderer.submit(quad, _shader);
+        _renderer.end();
+
+        return _renderer.get_batchesPerFrame();
+    }
+}
@@ -0,0 +1,150 @@
+package laustrup.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Runs the benchmarks with allocation profiling of the garbage collector.
+ * Can save the results as a baseline and compare later runs against it, where regressions of time
+ * or allocation beyond a threshold are printed and makes the process exit with 1.
+ * <p>
+ * Arguments are any regex of benchmarks to include and the options:
+ * <ul>
+ *     <li>--save-baseline file, saves the scores into the file.</li>
+ *     <li>--baseline file, compares the scores against the file.</li>
+ *     <li>--threshold ratio, the allowed change before it is a regression, 0.1 as default.</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+    /** The secondary result of the gc profiler, with the bytes allocated by each operation. */
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class);
+        Path save = null, baseline = null;
+        double threshold = 0.1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--save-baseline" -> save = Paths.get(args[++i]);
+                case "--baseline" -> baseline = Paths.get(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                default -> options.include(args[i]);
+            }
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        if (save != null)
+            save(results, save);
+        if (baseline != null && regressions(results, baseline, threshold) > 0)
+            System.exit(1);
+    }
+
+    /**
+     * Saves the scores and allocations of the results.
+     * @param results The results of the run.
+     * @param file The file to save into.
+     * @throws IOException If the file couldn't be written.
+     */
+    private static void save(Collection<RunResult> results, Path file) throws IOException {
+        Properties properties = new Properties();
+
+        for (RunResult result : results) {
+            properties.setProperty(label(result), String.valueOf(result.getPrimaryResult().getScore()));
+            Result allocation = result.getSecondaryResults().get(ALLOCATION);
+            if (allocation != null)
+                properties.setProperty(label(result) + "." + ALLOCATION, String.valueOf(allocation.getScore()));
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "Baseline of CreeThor benchmarks");
+        }
+    }
+
+    /**
+     * Compares the results with a saved baseline and prints the comparison of each.
+     * @param results The results of the run.
+     * @param file The file of the baseline.
+     * @param threshold The ratio that a score can change, before it is counted as a regression.
+     * @return The amount of regressions.
+     * @throws IOException If the file couldn't be read.
+     */
+    private static int regressions(Collection<RunResult> results, Path file, double threshold) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            baseline.load(reader);
+        }
+
+        int regressions = 0;
+        for (RunResult result : results) {
+            String label = label(result);
+            boolean higherIsBetter = result.getParams().getMode() == Mode.Throughput;
+
+            regressions += compare(label, baseline.getProperty(label),
+                    result.getPrimaryResult().getScore(), higherIsBetter, threshold);
+
+            Result allocation = result.getSecondaryResults().get(ALLOCATION);
+            if (allocation != null)
+                regressions += compare(label + " allocation", baseline.getProperty(label + "." + ALLOCATION),
+                        allocation.getScore(), false, threshold);
+        }
+        System.out.println(regressions + " regressions compared to " + file);
+
+        return regressions;
+    }
+
+    /**
+     * Prints the change of a score compared to its baseline.
+     * @param label The name of the score.
+     * @param baseline The score of the baseline, or null if it isn't in the baseline.
+     * @param score The score of the run.
+     * @param higherIsBetter True if the score is better when it increases.
+     * @param threshold The ratio that a score can change, before it is counted as a regression.
+     * @return 1 if it is a regression, otherwise 0.
+     */
+    private static int compare(String label, String baseline, double score, boolean higherIsBetter, double threshold) {
+        if (baseline == null) {
+            System.out.println("NEW        " + label + " = " + score);
+            return 0;
+        }
+
+        double previous = Double.parseDouble(baseline),
+               change = previous == 0 ? (score == 0 ? 0 : 1) : (score - previous) / previous;
+        boolean regression = higherIsBetter ? change < -threshold : change > threshold;
+
+        System.out.printf("%-10s %s = %.3f (baseline %.3f, %+.1f%%)%n",
+                regression ? "REGRESSION" : "OK", label, score, previous, change * 100);
+
+        return regression ? 1 : 0;
+    }
+
+    /**
+     * Names a result by its benchmark and parameters.
+     * @param result The result to name.
+     * @return The name.
+     */
+    private static String label(RunResult result) {
+        StringBuilder label = new StringBuilder(result.getParams().getBenchmark());
+        for (String key : result.getParams().getParamsKeys())
+            label.append(':').append(key).append('=').append(result.getParams().getParam(key));
+
+        return label.toString();
+    }
+}
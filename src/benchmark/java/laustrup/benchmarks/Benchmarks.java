@@ -0,0 +1,51 @@
+package laustrup.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Shared setup of the benchmarks. */
+public class Benchmarks {
+
+    /** The default shader of the assets, with the line endings that it is saved with. */
+    public static final String DEFAULT_SHADER = String.join("\r\n",
+            "#type vertex",
+            "#version 330 core",
+            "layout (location=0) in vec3 aPos;",
+            "layout (location=1) in vec4 aColor;",
+            "",
+            "uniform mat4 uProjection;",
+            "uniform mat4 uView;",
+            "",
+            "out vec4 fColor;",
+            "",
+            "void main() {",
+            "    fColor = aColor;",
+            "    gl_Position = uProjection * uView * vec4(aPos, 1.0);",
+            "}",
+            "",
+            "#type fragment",
+            "#version 330 core",
+            "",
+            "in vec4 fColor;",
+            "",
+            "out vec4 color;",
+            "",
+            "void main() {",
+            "    color = fColor;",
+            "}",
+            ""
+    );
+
+    /**
+     * Writes the default shader into a temporary file.
+     * @return The path of the file, which should be deleted afterwards.
+     * @throws IOException If the file couldn't be written.
+     */
+    public static Path shaderFile() throws IOException {
+        Path file = Files.createTempFile("creethor", ".glsl");
+        Files.writeString(file, DEFAULT_SHADER);
+
+        return file;
+    }
+}
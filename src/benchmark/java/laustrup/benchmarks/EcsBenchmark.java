@@ -0,0 +1,71 @@
+package laustrup.benchmarks;
+
+import laustrup.models.ecs.Chunk;
+import laustrup.models.ecs.ComponentType;
+import laustrup.models.ecs.Query;
+import laustrup.models.ecs.World;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures moving entities by their velocities, iterating the chunks one after another and in parallel. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EcsBenchmark {
+
+    /** The types of the benchmark, types are global so they are only created once. */
+    private static final ComponentType POSITION = ComponentType.floats("Position", 2),
+                                       VELOCITY = ComponentType.floats("Velocity", 2);
+
+    /** The amount of entities. */
+    @Param({"100000", "500000"})
+    public int _entities;
+
+    /** The world of the entities. */
+    private World _world;
+
+    /** The entities with both positions and velocities. */
+    private Query _query;
+
+    /** The step of each simulation. */
+    private final float _step = 1f / 60;
+
+    @Setup
+    public void setup() {
+        _world = new World();
+        for (int i = 0; i < _entities; i++) {
+            int entity = _world.create(POSITION, VELOCITY);
+            _world.setFloat(entity, VELOCITY, 0, i % 7);
+            _world.setFloat(entity, VELOCITY, 1, i % 11);
+        }
+        _query = _world.query(POSITION, VELOCITY);
+    }
+
+    /** Adds the velocities of the entities of a chunk to their positions. */
+    private void move(Chunk chunk) {
+        float[] x = chunk.floats(POSITION, 0), y = chunk.floats(POSITION, 1),
+                velocityX = chunk.floats(VELOCITY, 0), velocityY = chunk.floats(VELOCITY, 1);
+
+        for (int i = 0; i < chunk.get_size(); i++) {
+            x[i] += velocityX[i] * _step;
+            y[i] += velocityY[i] * _step;
+        }
+    }
+
+    @Benchmark
+    public World sequential() {
+        _query.forEach(this::move);
+        return _world;
+    }
+
+    @Benchmark
+    public World parallel() {
+        _query.forEachParallel(this::move);
+        return _world;
+    }
+}
@@ -0,0 +1,66 @@
+package laustrup.benchmarks;
+
+import laustrup.models.graphic.fragment.Fragment;
+import laustrup.models.graphic.fragment.FragmentCollection;
+import laustrup.utilities.FragmentUtility;
+import laustrup.utilities.collections.lists.Liszt;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/** Measures counting and packing the indices of fragments. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FragmentBenchmark {
+
+    /** The amount of vertices of the mesh, which is drawn as quads of two fragments each. */
+    @Param({"4", "1000", "100000", "1000000"})
+    public int _vertices;
+
+    /** Two fragments for each quad of the vertices. */
+    private Fragment[] _fragments;
+
+    /** The collection of the fragments. */
+    private FragmentCollection _collection;
+
+    @Setup
+    public void setup() {
+        _fragments = new Fragment[_vertices / 4 * 2];
+        for (int quad = 0; quad < _fragments.length / 2; quad++) {
+            int offset = quad * 4;
+            _fragments[quad * 2] = new Fragment(new int[]{offset + 2, offset + 1, offset});
+            _fragments[quad * 2 + 1] = new Fragment(new int[]{offset, offset + 1, offset + 3});
+        }
+        _collection = new FragmentCollection(_fragments);
+    }
+
+    @Benchmark
+    public int amount() {
+        return _collection.amount();
+    }
+
+    @Benchmark
+    public int[] elementGraphicFormat() {
+        return FragmentUtility.elementGraphicFormat(_collection);
+    }
+
+    @Benchmark
+    public ByteBuffer elementBuffer() {
+        return FragmentUtility.elementBuffer(_collection);
+    }
+
+    @Benchmark
+    public FragmentCollection add() {
+        FragmentCollection collection = new FragmentCollection(new Liszt<>(new Fragment[0]));
+        for (Fragment fragment : _fragments)
+            collection.add(fragment);
+
+        return collection;
+    }
+}
@@ -0,0 +1,67 @@
+package laustrup.benchmarks;
+
+import laustrup.models.listeners.InputEventBuffer;
+import laustrup.models.listeners.InputSnapshot;
+import laustrup.models.listeners.KeyListener;
+import laustrup.models.listeners.MouseListener;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+/**
+ * Measures the callbacks at the amount of events of a frame from fast mice,
+ * 16 events is a mouse of 1000 Hz and 133 of 8000 Hz at 60 frames each second.
+ * Each benchmark drains the events into the snapshot of the frame, as the window does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+    /** The amount of events of each frame. */
+    @Param({"16", "133"})
+    public int _events;
+
+    /** The coordinate that the cursor moves along. */
+    private double _position;
+
+    @Benchmark
+    public InputSnapshot position() {
+        for (int i = 0; i < _events; i++) {
+            _position += 0.5;
+            MouseListener.positionCallback(0, _position, _position);
+        }
+
+        return InputEventBuffer.get_instance().drain();
+    }
+
+    @Benchmark
+    public InputSnapshot scroll() {
+        for (int i = 0; i < _events; i++)
+            MouseListener.scrollCallback(0, 0, i);
+
+        return InputEventBuffer.get_instance().drain();
+    }
+
+    @Benchmark
+    public InputSnapshot buttons() {
+        for (int i = 0; i < _events; i++)
+            MouseListener.buttonCallback(0, GLFW_MOUSE_BUTTON_LEFT, i % 2 == 0 ? GLFW_PRESS : GLFW_RELEASE, 0);
+
+        return InputEventBuffer.get_instance().drain();
+    }
+
+    @Benchmark
+    public InputSnapshot keys() {
+        for (int i = 0; i < _events; i++)
+            KeyListener.keyCallback(0, GLFW_KEY_A + i % 26, 0, i % 2 == 0 ? GLFW_PRESS : GLFW_RELEASE, 0);
+
+        return InputEventBuffer.get_instance().drain();
+    }
+}
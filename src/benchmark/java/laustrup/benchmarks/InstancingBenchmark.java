@@ -0,0 +1,103 @@
+package laustrup.benchmarks;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.batch.BatchRenderer;
+import laustrup.models.graphic.device.RecordingDevice;
+import laustrup.models.graphic.instance.InstanceBuffer;
+import laustrup.models.graphic.instance.InstancedMesh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures drawing a level of tiles as batched quads, which writes four vertices of each tile,
+ * against packing one instance of each tile and drawing them with one instanced draw call,
+ * with a recording device without any graphics card, that counts the uploaded bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstancingBenchmark {
+
+    /** The amount of tiles of each side of the level. */
+    @Param({"32", "256"})
+    public int _side;
+
+    /** The tiles as quads. */
+    private Quad[] _tiles;
+
+    /** The renderer of the batched quads. */
+    private BatchRenderer _renderer;
+
+    /** The shader of the batched quads. */
+    private Shader _shader;
+
+    /** The shader file written for the benchmark. */
+    private Path _file;
+
+    /** The square that the tiles are instances of. */
+    private InstancedMesh _mesh;
+
+    /** The packed tiles. */
+    private InstanceBuffer _instances;
+
+    /** The device that counts the uploaded bytes. */
+    private RecordingDevice _device;
+
+    @Setup
+    public void setup() throws IOException {
+        _device = new RecordingDevice();
+        Window.get_instance().set_device(_device);
+        _file = Benchmarks.shaderFile();
+        _shader = new Shader(_file.toString());
+        _shader.compile();
+        _renderer = new BatchRenderer();
+        _mesh = InstancedMesh.quad(_device);
+        _instances = new InstanceBuffer(_side * _side);
+
+        float size = 1f / _side;
+        _tiles = new Quad[_side * _side];
+        for (int i = 0; i < _tiles.length; i++)
+            _tiles[i] = new Quad(i % _side * size, i / _side * size, 0f, size, size, new float[]{1f, 1f, 1f, 1f});
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    /** @return The amount of bytes uploaded for the frame. */
+    @Benchmark
+    public long batched() {
+        _device.reset();
+        _renderer.begin();
+        for (Quad tile : _tiles)
+            _renderer.submit(tile, _shader);
+        _renderer.end();
+
+        return _device.get_uploadedBytes();
+    }
+
+    /** @return The amount of bytes uploaded for the frame. */
+    @Benchmark
+    public long instanced() {
+        _device.reset();
+        _instances.clear();
+        for (Quad tile : _tiles)
+            _instances.add(tile.get_x(), tile.get_y(), tile.get_z(), tile.get_width(), tile.get_height(),
+                    1f, 1f, 1f, 1f, 0f, 0f, 1f, 1f);
+        _mesh.draw(_instances);
+        _mesh.endFrame();
+
+        return _device.get_uploadedBytes();
+    }
+}
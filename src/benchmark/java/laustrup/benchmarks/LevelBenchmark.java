@@ -0,0 +1,134 @@
+package laustrup.benchmarks;
+
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+import laustrup.models.graphic.device.RecordingDevice;
+import laustrup.models.level.LevelFile;
+import laustrup.models.level.LevelMesh;
+import laustrup.models.level.LevelWriter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and loading level files, where a level of 5 million vertices is about 200 MB.
+ * Parsing the same file into a VertexStore is measured as well, which is what a level would cost without mapping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class LevelBenchmark {
+
+    /** The amount of vertices of the level, in meshes of 100 by 100 vertices. */
+    @Param({"100000", "5000000"})
+    public int _vertices;
+
+    /** The amount of vertices along each side of a mesh. */
+    private static final int SIDE = 100;
+
+    /** Has all the meshes of the level. */
+    private LevelWriter _writer;
+
+    /** The file that is loaded, and the file that is written. */
+    private Path _file, _written;
+
+    /** Counts the uploaded bytes, without any graphics card. */
+    private RecordingDevice _device;
+
+    @Setup
+    public void setup() throws IOException {
+        _writer = new LevelWriter();
+        for (int mesh = 0; mesh < _vertices / (SIDE * SIDE); mesh++)
+            _writer.add(grid(mesh * SIDE));
+
+        _file = Files.createTempFile("creethor", ".level");
+        _written = Files.createTempFile("creethor", ".level");
+        _writer.write(_file);
+        _device = new RecordingDevice();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+        Files.deleteIfExists(_written);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        _writer.write(_written);
+    }
+
+    /** Maps the file and reads its header, which is what is done before the pages are needed. */
+    @Benchmark
+    public LevelFile open() throws IOException {
+        return LevelFile.open(_file);
+    }
+
+    /** Maps the file, reads every page and hands the blocks to the upload, as the asset manager does. */
+    @Benchmark
+    public LevelMesh load() throws IOException {
+        LevelFile file = LevelFile.open(_file);
+        file.prefetch();
+
+        return new LevelMesh(file, _device);
+    }
+
+    /** Reads the file and parses each vertex into a VertexStore, as a level without mapping would be loaded. */
+    @Benchmark
+    public VertexStore parse() throws IOException {
+        try (FileChannel channel = FileChannel.open(_file)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.nativeOrder());
+            while (bytes.hasRemaining())
+                if (channel.read(bytes) < 0)
+                    break;
+
+            int vertices = bytes.getInt(20);
+            long offset = bytes.getLong(32 + 8);
+            VertexStore store = new VertexStore(vertices);
+            bytes.position((int) offset);
+            for (int i = 0; i < vertices; i++)
+                store.add(bytes.getFloat(), bytes.getFloat(), bytes.getFloat(),
+                        bytes.getFloat(), bytes.getFloat(), bytes.getFloat(), bytes.getFloat(),
+                        bytes.getFloat(), bytes.getFloat());
+
+            return store;
+        }
+    }
+
+    /**
+     * Creates a flat grid of vertices with two triangles between each four of them.
+     * @param row The row of the grid in the level, so the meshes doesn't overlap.
+     * @return The mesh of the grid.
+     */
+    private static MeshData grid(int row) {
+        VertexStore vertices = new VertexStore(SIDE * SIDE);
+        for (int y = 0; y < SIDE; y++)
+            for (int x = 0; x < SIDE; x++)
+                vertices.add(x, row + y, 0, x / (float) SIDE, y / (float) SIDE, 1, 1, x / (float) SIDE, y / (float) SIDE);
+
+        int[] indices = new int[(SIDE - 1) * (SIDE - 1) * 6];
+        int i = 0;
+        for (int y = 0; y < SIDE - 1; y++)
+            for (int x = 0; x < SIDE - 1; x++) {
+                int corner = y * SIDE + x;
+                indices[i++] = corner;
+                indices[i++] = corner + 1;
+                indices[i++] = corner + SIDE;
+                indices[i++] = corner + 1;
+                indices[i++] = corner + SIDE + 1;
+                indices[i++] = corner + SIDE;
+            }
+
+        return new MeshData(vertices, indices);
+    }
+}
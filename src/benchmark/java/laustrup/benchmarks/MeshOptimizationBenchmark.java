@@ -0,0 +1,82 @@
+package laustrup.benchmarks;
+
+import laustrup.models.assets.MeshLoader;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+import laustrup.utilities.MeshUtility;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures welding and ordering a grid of triangles, as an import without assimp would do,
+ * where every triangle has vertices of its own and the triangles are shuffled like a badly ordered model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class MeshOptimizationBenchmark {
+
+    /** The amount of quads of each side of the grid, which is from 20 thousand to 1 million triangles. */
+    @Param({"100", "708"})
+    public int _side;
+
+    /** The shuffled grid, before it is welded. */
+    private MeshData _imported;
+
+    /** The welded grid, before its triangles are ordered. */
+    private MeshData _welded;
+
+    @Setup
+    public void setup() {
+        VertexStore vertices = new VertexStore(_side * _side * 6);
+        int[] indices = new int[_side * _side * 6];
+
+        Random random = new Random(1);
+        int[] order = new int[_side * _side * 2];
+        for (int i = 0; i < order.length; i++) {
+            int swap = random.nextInt(i + 1);
+            order[i] = order[swap];
+            order[swap] = i;
+        }
+
+        for (int triangle : order) {
+            int quad = triangle / 2, x = quad % _side, y = quad / _side;
+            int[] corners = triangle % 2 == 0 ? new int[]{0, 0, 1, 0, 1, 1} : new int[]{0, 0, 1, 1, 0, 1};
+            for (int corner = 0; corner < 3; corner++) {
+                float cornerX = x + corners[corner * 2], cornerY = y + corners[corner * 2 + 1];
+                indices[vertices.get_size()] = vertices.add(cornerX, cornerY, 0, 1, 1, 1, 1,
+                        cornerX / _side, cornerY / _side);
+            }
+        }
+
+        _imported = new MeshData(vertices, indices);
+        _welded = MeshUtility.weld(_imported);
+    }
+
+    @Benchmark
+    public MeshData weld() {
+        return MeshUtility.weld(_imported);
+    }
+
+    @Benchmark
+    public int[] optimizeVertexCache() {
+        return MeshUtility.optimizeVertexCache(_welded.get_indices(), _welded.get_vertices().get_size());
+    }
+
+    @Benchmark
+    public float acmr() {
+        return MeshUtility.acmr(_welded.get_indices(), _welded.get_vertices().get_size(), MeshUtility.CACHE_SIZE);
+    }
+
+    /** Welds, orders the triangles and vertices, and calculates the cache miss ratios, as an import does. */
+    @Benchmark
+    public MeshData optimize() {
+        return MeshLoader.optimize(_imported);
+    }
+}
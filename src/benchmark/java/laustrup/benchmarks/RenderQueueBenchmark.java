@@ -0,0 +1,104 @@
+package laustrup.benchmarks;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.command.CommandBuffer;
+import laustrup.models.graphic.command.RenderQueue;
+import laustrup.models.graphic.device.RecordingDevice;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording draw commands on one thread and on every core, and sorting and submitting them,
+ * against a recording device without any graphics card.
+ * Each command does a little work before it is recorded, as culling an object would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderQueueBenchmark {
+
+    /** The amount of commands of each frame. */
+    @Param({"10000", "100000"})
+    public int _commands;
+
+    /** The amount of shaders, textures and vertex arrays that the commands are spread over. */
+    private static final int SHADERS = 4, TEXTURES = 32, VERTEX_ARRAYS = 64;
+
+    /** The queue of the commands. */
+    private RenderQueue _queue;
+
+    /** The ids of the registered shaders. */
+    private int[] _shaders;
+
+    /** The shader file written for the benchmark. */
+    private Path _file;
+
+    /** The device that counts the state changes. */
+    private RecordingDevice _device;
+
+    @Setup
+    public void setup() throws IOException {
+        _device = new RecordingDevice();
+        Window.get_instance().set_device(_device);
+        _file = Benchmarks.shaderFile();
+        _queue = new RenderQueue();
+
+        _shaders = new int[SHADERS];
+        for (int i = 0; i < SHADERS; i++) {
+            Shader shader = new Shader(_file.toString());
+            shader.compile();
+            _shaders[i] = _queue.register(shader);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    @Benchmark
+    public int recordSingle() {
+        _queue.record(1, this::record);
+        return _queue.submit(_device, null);
+    }
+
+    @Benchmark
+    public int recordParallel() {
+        _queue.record(ForkJoinPool.getCommonPoolParallelism(), this::record);
+        return _queue.submit(_device, null);
+    }
+
+    /** Only sorts and submits, the commands are recorded on the calling thread. */
+    @Benchmark
+    public long sortAndSubmit() {
+        _queue.record(1, this::record);
+        _queue.submit(_device, null);
+
+        return _queue.get_sortNanos();
+    }
+
+    /**
+     * Records the share of the commands of a task, spread over the shaders, textures and vertex arrays.
+     * @param buffer The buffer of the task.
+     * @param task The index of the task.
+     * @param tasks The amount of tasks.
+     */
+    private void record(CommandBuffer buffer, int task, int tasks) {
+        for (int i = _commands * task / tasks; i < _commands * (task + 1) / tasks; i++) {
+            int hash = i * 0x9E3779B9;
+            float depth = (hash >>> 8) / (float) (1 << 24);
+            buffer.draw(hash & 1, depth, _shaders[(hash >>> 4) % SHADERS], 1 + (hash >>> 12) % TEXTURES,
+                    1 + (hash >>> 20) % VERTEX_ARRAYS, 0, 6);
+        }
+    }
+}
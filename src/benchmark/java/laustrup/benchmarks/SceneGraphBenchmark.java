@@ -0,0 +1,73 @@
+package laustrup.benchmarks;
+
+import laustrup.models.scenes.SceneGraph;
+import laustrup.models.scenes.SceneNode;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures updating the world matrices of a scene graph of groups with 100 children each,
+ * when nothing, one group or every group has moved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneGraphBenchmark {
+
+    /** The amount of groups, each with 100 children. */
+    @Param({"10", "1000"})
+    public int _groups;
+
+    /** The amount of children of each group. */
+    private static final int CHILDREN = 100;
+
+    /** The graph of the groups. */
+    private SceneGraph _graph;
+
+    /** The groups under the root. */
+    private SceneNode[] _nodes;
+
+    /** The group that is moved next. */
+    private int _next;
+
+    @Setup
+    public void setup() {
+        _graph = new SceneGraph(_groups * (CHILDREN + 1) + 1);
+        SceneNode root = _graph.create(null);
+        _nodes = new SceneNode[_groups];
+
+        for (int i = 0; i < _groups; i++) {
+            _nodes[i] = root.createChild().setPosition(i, 0, 0);
+            for (int child = 0; child < CHILDREN; child++)
+                _nodes[i].createChild().setPosition(0, child, 0).setRotation(child * 0.1f);
+        }
+        _graph.update();
+    }
+
+    @Benchmark
+    public int unchanged() {
+        return _graph.update();
+    }
+
+    /** Moves one group, so only it and its children are recalculated. */
+    @Benchmark
+    public int moveOne() {
+        _nodes[_next].move(0.01f, 0, 0);
+        _next = (_next + 1) % _groups;
+
+        return _graph.update();
+    }
+
+    @Benchmark
+    public int moveAll() {
+        for (SceneNode node : _nodes)
+            node.move(0.01f, 0, 0);
+
+        return _graph.update();
+    }
+}
@@ -0,0 +1,46 @@
+package laustrup.benchmarks;
+
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.ShaderLibrary;
+import laustrup.models.graphic.ShaderSource;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Measures reading and splitting the source of a shader file, both parsed and from the cache of the library. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShaderBenchmark {
+
+    /** The shader file written for the benchmark. */
+    private Path _file;
+
+    @Setup
+    public void setup() throws IOException {
+        _file = Benchmarks.shaderFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    @Benchmark
+    public Shader construct() {
+        return new Shader(_file.toString());
+    }
+
+    @Benchmark
+    public ShaderSource parse() throws IOException {
+        return ShaderLibrary.get_instance().parse(_file.toString(), _file, new String[0], new ArrayList<>());
+    }
+}
@@ -0,0 +1,108 @@
+package laustrup.benchmarks;
+
+import laustrup.models.spatial.SpatialHashGrid;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the spatial hash grid at the scale of a large level, where every object moves each frame.
+ * The objects are squares of 1 to 2 units in a world of 4 units per object, with cells of 2 units.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialBenchmark {
+
+    /** The amount of objects. */
+    @Param({"100000", "500000"})
+    public int _objects;
+
+    /** The grid of the objects. */
+    private SpatialHashGrid _grid;
+
+    /** The bounds of the objects. */
+    private float[] _minX, _minY, _maxX, _maxY;
+
+    /** The velocities of the objects in units each frame. */
+    private float[] _velocityX, _velocityY;
+
+    /** The width and height of the world. */
+    private float _world;
+
+    /** Receives the ids of found objects. */
+    private final int[] _results = new int[4096];
+
+    /** The position of the cursor, that moves along the diagonal of the world. */
+    private float _cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        _world = (float) Math.sqrt(_objects * 4.0);
+        _minX = new float[_objects];
+        _minY = new float[_objects];
+        _maxX = new float[_objects];
+        _maxY = new float[_objects];
+        _velocityX = new float[_objects];
+        _velocityY = new float[_objects];
+
+        for (int i = 0; i < _objects; i++) {
+            float size = 1 + random.nextFloat();
+            _minX[i] = random.nextFloat() * _world;
+            _minY[i] = random.nextFloat() * _world;
+            _maxX[i] = _minX[i] + size;
+            _maxY[i] = _minY[i] + size;
+            _velocityX[i] = random.nextFloat() * 0.2f - 0.1f;
+            _velocityY[i] = random.nextFloat() * 0.2f - 0.1f;
+        }
+
+        _grid = new SpatialHashGrid(2, _objects);
+        _grid.rebuild(_objects, _minX, _minY, _maxX, _maxY);
+    }
+
+    /** Moves every object by its velocity, turning at the edges of the world, as a frame of simulation would. */
+    @Benchmark
+    public int moveAll() {
+        for (int i = 0; i < _objects; i++) {
+            if (_minX[i] < 0 || _maxX[i] > _world)
+                _velocityX[i] = -_velocityX[i];
+            if (_minY[i] < 0 || _maxY[i] > _world)
+                _velocityY[i] = -_velocityY[i];
+
+            _minX[i] += _velocityX[i];
+            _maxX[i] += _velocityX[i];
+            _minY[i] += _velocityY[i];
+            _maxY[i] += _velocityY[i];
+            _grid.move(i, _minX[i], _minY[i], _maxX[i], _maxY[i]);
+        }
+
+        return _grid.get_size();
+    }
+
+    /** Culls with a view of 64 by 36 units. */
+    @Benchmark
+    public int queryView() {
+        _cursor = (_cursor + 7.3f) % (_world - 64);
+        return _grid.query(_cursor, _cursor, _cursor + 64, _cursor + 36, _results);
+    }
+
+    /** Picks at the cursor. */
+    @Benchmark
+    public int queryPoint() {
+        _cursor = (_cursor + 0.37f) % _world;
+        return _grid.query(_cursor, _cursor, _results);
+    }
+
+    /** Replaces all objects, as loading a level does. */
+    @Benchmark
+    public int rebuild() {
+        _grid.rebuild(_objects, _minX, _minY, _maxX, _maxY);
+        return _grid.get_size();
+    }
+}
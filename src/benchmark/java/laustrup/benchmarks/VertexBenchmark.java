@@ -0,0 +1,94 @@
+package laustrup.benchmarks;
+
+import laustrup.models.graphic.Vertex;
+import laustrup.models.graphic.VertexLayout;
+import laustrup.models.graphic.VertexStore;
+import laustrup.utilities.VertexUtility;
+import laustrup.utilities.collections.lists.Liszt;
+
+import org.lwjgl.BufferUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/** Measures building vertices and writing them into the format of the graphics card. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexBenchmark {
+
+    /** The amount of vertices of the mesh. */
+    @Param({"4", "1000", "100000", "1000000"})
+    public int _vertices;
+
+    /** A Vertex for each of the vertices, sharing one store. */
+    private Liszt<Vertex> _vertexes;
+
+    /** The buffer that the vertices are written into. */
+    private FloatBuffer _buffer;
+
+    /** The values of the vertices to be appended. */
+    private float[] _positions, _colors, _position, _color;
+
+    @Setup
+    public void setup() {
+        _positions = new float[_vertices * VertexStore.POSITION_SIZE];
+        _colors = new float[_vertices * VertexStore.COLOR_SIZE];
+        for (int i = 0; i < _positions.length; i++)
+            _positions[i] = i * 0.001f;
+        for (int i = 0; i < _colors.length; i++)
+            _colors[i] = (i % 4) * 0.25f;
+        _position = new float[]{0.5f, 0.5f, 0f};
+        _color = new float[]{1f, 0f, 0f, 1f};
+
+        VertexStore store = new VertexStore(_vertices);
+        store.addAll(_positions, _colors);
+        Vertex[] vertexes = new Vertex[_vertices];
+        for (int i = 0; i < _vertices; i++)
+            vertexes[i] = new Vertex(store, i, 1);
+        _vertexes = new Liszt<>(vertexes);
+
+        _buffer = BufferUtils.createFloatBuffer(_vertices * VertexLayout.POSITION_COLOR.floats());
+    }
+
+    @Benchmark
+    public FloatBuffer write() {
+        _buffer.clear();
+        return VertexUtility.write(_vertexes, VertexLayout.POSITION_COLOR, _buffer);
+    }
+
+    @Benchmark
+    public int count() {
+        return VertexUtility.count(_vertexes);
+    }
+
+    @Benchmark
+    public VertexStore storeAdd() {
+        VertexStore store = new VertexStore();
+        for (int i = 0; i < _vertices; i++)
+            store.add(i, i, 0f, 1f, 0f, 0f, 1f);
+
+        return store;
+    }
+
+    @Benchmark
+    public VertexStore storeAddAll() {
+        VertexStore store = new VertexStore();
+        store.addAll(_positions, _colors);
+
+        return store;
+    }
+
+    @Benchmark
+    public Vertex vertexAppend() {
+        Vertex vertex = new Vertex(_position, _color);
+        for (int i = 1; i < _vertices; i++)
+            vertex.extend(_position, _color);
+
+        return vertex;
+    }
+}
@@ -1,12 +1,20 @@
 package laustrup.models;
 
+import laustrup.models.assets.AssetManager;
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.models.graphic.device.OpenGLDevice;
+import laustrup.models.graphic.device.RecordingDevice;
+import laustrup.models.graphic.device.StateCachingDevice;
+import laustrup.models.listeners.InputEventBuffer;
+import laustrup.models.listeners.InputSnapshot;
 import laustrup.models.listeners.KeyListener;
 import laustrup.models.listeners.MouseListener;
+import laustrup.models.logging.Logger;
+import laustrup.models.profiling.FrameProfiler;
 import laustrup.models.scenes.IScene;
 import laustrup.models.scenes.LevelEditorScene;
 import laustrup.models.scenes.LevelScene;
 import laustrup.utilities.TimeUtility;
-import laustrup.utilities.console.Printer;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -17,7 +25,7 @@ import org.lwjgl.opengl.GL;
 
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
 import static org.lwjgl.glfw.GLFW.*;
-import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
 /**
@@ -39,6 +47,17 @@ public class Window {
     @Getter @Setter
     private int _height;
 
+    /**
+     * The pixels of the framebuffer for each unit of the cursor horizontally,
+     * which is above 1 on screens of high density, where the framebuffer is larger than the window.
+     */
+    @Getter
+    private float _cursorScaleX = 1;
+
+    /** The pixels of the framebuffer for each unit of the cursor vertically. */
+    @Getter
+    private float _cursorScaleY = 1;
+
     /**
      * The title that will show in the top of the window.
      * Is at the moment final as CreeThor.
@@ -54,12 +73,90 @@ public class Window {
     @Getter
     private long _window;
 
+    /** Defines the ways the window can loop. */
+    public enum LoopMode {
+        /** Updates the scene once each frame with the change in time. */
+        VARIABLE,
+        /** Simulates the scene with a fixed tick rate and renders once each frame with an interpolation alpha. */
+        FIXED
+    }
+
+    /** The way the window loops, is fixed timestep as default. */
+    @Getter @Setter
+    private LoopMode _loopMode = LoopMode.FIXED;
+
+    /** The amount of simulations each second, when the loop mode is fixed. */
+    @Getter
+    private int _tickRate = 60;
+
+    /**
+     * The maximum amount of simulations to catch up with in one frame.
+     * If the loop is further behind, the rest of the time is skipped, so a spike can't stall the following frames.
+     */
+    @Getter
+    private int _maxTicksPerFrame = 5;
+
+    /**
+     * Changes the amount of simulations each second.
+     * @param tickRate The amount of simulations each second, must be positive.
+     */
+    public void set_tickRate(int tickRate) {
+        if (tickRate <= 0)
+            throw new IllegalArgumentException("The tick rate needs to be at least one simulation each second...");
+
+        _tickRate = tickRate;
+    }
+
+    /**
+     * Changes the maximum amount of simulations to catch up with in one frame.
+     * @param maxTicksPerFrame The maximum amount of simulations of one frame, must be positive.
+     */
+    public void set_maxTicksPerFrame(int maxTicksPerFrame) {
+        if (maxTicksPerFrame <= 0)
+            throw new IllegalArgumentException("A frame needs to be able to simulate at least once...");
+
+        _maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /** Times the phases of each frame of the loop. */
+    @Getter
+    private final FrameProfiler _profiler = FrameProfiler.get_instance();
+
+    /**
+     * The device that all rendering is performed with.
+     * Is openGL as default, but is replaced with a recording device when running headless.
+     * Is always wrapped in a cache of the state, so redundant binds and enables are skipped.
+     */
+    @Getter
+    private StateCachingDevice _device = new StateCachingDevice(new OpenGLDevice());
+
+    /**
+     * Replaces the device that all rendering is performed with.
+     * @param device The device, that will be wrapped in a cache of the state.
+     */
+    public void set_device(GraphicsDevice device) {
+        _device = device instanceof StateCachingDevice cache ? cache : new StateCachingDevice(device);
+    }
+
+    /**
+     * The input of the current frame, drained from the events of the callbacks after polling.
+     * Is valid for the current frame.
+     */
+    @Getter
+    private InputSnapshot _input = InputEventBuffer.get_instance().drain();
+
     /** The current scene of this window. */
     private static IScene _scene;
 
+    /**
+     * Changes the scene, initiates it and gives it the size.
+     * Scenes should request their files from the AssetManager at init, so the change doesn't stall a frame.
+     * @param scene The new scene.
+     */
     private void set_scene(IScene scene) {
         _scene = scene;
         _scene.init();
+        _scene.resize(_width, _height);
     }
 
     /**
@@ -109,29 +206,63 @@ public class Window {
         _window = glfwCreateWindow(_width, _height, _title, NULL, NULL);
         if (_window == NULL)
             throw new IllegalStateException("Failed to create the GLFW");
-        else
-            Printer.get_instance().print(
+        else {
+            int width = _width, height = _height;
+            Logger.get_instance().info(() ->
                     """
                         Window has been initiated with the values:
                         
                         width = $width
                         height = $height"""
-                .replace("$width",String.valueOf(_width))
-                .replace("$height",String.valueOf(_height))
+                .replace("$width",String.valueOf(width))
+                .replace("$height",String.valueOf(height))
             );
+        }
 
         configureListeners();
         configureOpenGL();
     }
 
-    /** If the glfw isn't NULL, it will open the window and createCapabilities for GL. */
+    /**
+     * If the glfw isn't NULL, it will open the window and createCapabilities for GL.
+     * The size is set to the size of the framebuffer, which can differ from the requested size.
+     */
     public void open() {
         if (_window != NULL) {
             glfwShowWindow(_window);
             GL.createCapabilities();
+
+            int[] width = new int[1], height = new int[1];
+            glfwGetFramebufferSize(_window, width, height);
+            resize(width[0], height[0]);
         }
     }
 
+    /**
+     * Changes the size and the viewport, and resizes the scene.
+     * The scale of the cursor is the framebuffer against the window, since the cursor is given in its coordinates.
+     * @param width The width of the framebuffer in pixels.
+     * @param height The height of the framebuffer in pixels.
+     */
+    private void resize(int width, int height) {
+        if (width <= 0 || height <= 0)
+            return;
+
+        _width = width;
+        _height = height;
+        _device.viewport(0, 0, width, height);
+
+        int[] windowWidth = new int[1], windowHeight = new int[1];
+        glfwGetWindowSize(_window, windowWidth, windowHeight);
+        if (windowWidth[0] > 0 && windowHeight[0] > 0) {
+            _cursorScaleX = (float) width / windowWidth[0];
+            _cursorScaleY = (float) height / windowHeight[0];
+        }
+
+        if (_scene != null)
+            _scene.resize(width, height);
+    }
+
     /** Configures the glfw with hints for the window. */
     private void configureGLFW() {
         glfwDefaultWindowHints();
@@ -147,12 +278,13 @@ public class Window {
     }
 
     /**
-     * Configures listeners of keys and mouse.
+     * Configures listeners of keys, mouse and changes of the size.
      * Will catch any auto collapse with a print.
      */
     private void configureListeners() {
         configureKeys();
         configureMouse();
+        glfwSetFramebufferSizeCallback(_window, (window, width, height) -> resize(width, height));
     }
 
     /**
@@ -163,7 +295,7 @@ public class Window {
         try {
             glfwSetKeyCallback(_window, KeyListener::keyCallback);
         } catch (Exception e) {
-            Printer.get_instance().print("Trouble configuring keys at window...",e);
+            Logger.get_instance().error("Trouble configuring keys at window...",e);
         }
     }
 
@@ -178,42 +310,126 @@ public class Window {
             glfwSetScrollCallback(_window, MouseListener::scrollCallback);
         }
         catch (Exception e) {
-            Printer.get_instance().print("Trouble configuring mouse at window...",e);
+            Logger.get_instance().error("Trouble configuring mouse at window...",e);
         }
     }
 
     /**
      * Keeps looping while the window should be open.
-     * Polls events.
+     * Polls events and uploads the assets that are loaded, within the budget of the AssetManager.
      * Then the window actions are acted and buffers will be swapped.
+     * The time is measured in nanoseconds of long, so precision isn't lost in long sessions.
      */
     private void loop() {
-        float beginning = TimeUtility.get_time(),
-              loopStart,
-              dt = 0;
+        long beginning = TimeUtility.get_nanos(),
+             previous = beginning,
+             accumulator = 0;
         set_scene(new LevelEditorScene());
 
         while (!glfwWindowShouldClose(_window)) {
-            loopStart = TimeUtility.get_time();
+            long now = TimeUtility.get_nanos(),
+                 frame = now - previous;
+            previous = now;
+            _profiler.beginFrame();
+
+            _profiler.begin(FrameProfiler.Phase.POLL);
             glfwPollEvents();
+            _input = InputEventBuffer.get_instance().drain();
+            _profiler.end(FrameProfiler.Phase.POLL);
 
-            glClearColor(1f,1f,1f,1f);
-            glClear(GL_COLOR_BUFFER_BIT);
+            _profiler.begin(FrameProfiler.Phase.UPLOAD);
+            AssetManager.get_instance().upload();
+            _profiler.end(FrameProfiler.Phase.UPLOAD);
 
-            _scene.update(dt);
+            _device.clearColor(1f,1f,1f,1f);
+            _device.clear(GL_COLOR_BUFFER_BIT);
 
+            if (_loopMode == LoopMode.FIXED)
+                accumulator = tick(accumulator + frame, frame);
+            else {
+                _profiler.begin(FrameProfiler.Phase.UPDATE);
+                _scene.update((float) TimeUtility.toSeconds(frame));
+                _profiler.end(FrameProfiler.Phase.UPDATE);
+            }
+
+            _profiler.begin(FrameProfiler.Phase.SWAP);
             glfwSwapBuffers(_window);
-            dt = TimeUtility.get_time() - loopStart;
+            _profiler.end(FrameProfiler.Phase.SWAP);
+            _profiler.endFrame();
+        }
+
+        int seconds = (int) TimeUtility.toSeconds(TimeUtility.get_nanos() - beginning);
+        Logger.get_instance().info(() -> "Loop of frame \"" + _title + "\" ended and lasted " + seconds + " seconds.");
+    }
+
+    /**
+     * Simulates the scene with fixed steps for the accumulated time and renders it afterwards.
+     * @param accumulator The nanoseconds that haven't been simulated yet.
+     * @param frame The nanoseconds of the current frame.
+     * @return The nanoseconds that are left to simulate in the next frame.
+     */
+    private long tick(long accumulator, long frame) {
+        long step = TimeUtility.NANOS_PER_SECOND / _tickRate;
+        float stepSeconds = (float) TimeUtility.toSeconds(step);
+
+        _profiler.begin(FrameProfiler.Phase.UPDATE);
+        for (int ticks = 0; accumulator >= step && ticks < _maxTicksPerFrame; ticks++) {
+            _scene.simulate(stepSeconds);
+            accumulator -= step;
+        }
+        if (accumulator >= step)
+            accumulator %= step;
+        _profiler.end(FrameProfiler.Phase.UPDATE);
+
+        _profiler.begin(FrameProfiler.Phase.RENDER);
+        _scene.render((float) TimeUtility.toSeconds(frame), (float) accumulator / step);
+        _profiler.end(FrameProfiler.Phase.RENDER);
+
+        return accumulator;
+    }
+
+    /**
+     * Runs a scene for an amount of frames without any window of glfw or context of openGL.
+     * All rendering is recorded by a recording device, which can be inspected afterwards.
+     * Each frame uploads loaded assets, simulates one tick of the tick rate and renders once.
+     * @param scene The scene to run.
+     * @param frames The amount of frames to run.
+     * @return The device that recorded the rendering.
+     */
+    public RecordingDevice runHeadless(IScene scene, int frames) {
+        RecordingDevice device = new RecordingDevice();
+        set_device(device);
+        set_scene(scene);
+
+        float step = 1f / _tickRate;
+        for (int i = 0; i < frames; i++) {
+            _profiler.beginFrame();
+            _profiler.begin(FrameProfiler.Phase.UPLOAD);
+            AssetManager.get_instance().upload();
+            _profiler.end(FrameProfiler.Phase.UPLOAD);
+
+            _device.clearColor(1f,1f,1f,1f);
+            _device.clear(GL_COLOR_BUFFER_BIT);
+
+            _profiler.begin(FrameProfiler.Phase.UPDATE);
+            _scene.simulate(step);
+            _profiler.end(FrameProfiler.Phase.UPDATE);
+
+            _profiler.begin(FrameProfiler.Phase.RENDER);
+            _scene.render(step, 1f);
+            _profiler.end(FrameProfiler.Phase.RENDER);
+            _profiler.endFrame();
         }
 
-        Printer.get_instance().print("Loop of frame \"" + _title + "\" ended and lasted " + ((int) (TimeUtility.get_time() - beginning)) + " seconds.");
+        return device;
     }
 
-    /** Will free the memory and terminate the whole window. */
+    /** Will free the memory and terminate the whole window, and writes any waiting log messages. */
     private void freeMemoryAndTerminate() {
         glfwFreeCallbacks(_window);
         glfwDestroyWindow(_window);
         glfwTerminate();
         glfwSetErrorCallback(null);
+        Logger.get_instance().flush();
     }
 }
@@ -0,0 +1,137 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle of an asset loaded by the AssetManager, that is shared by everyone requesting the same file.
+ * The asset is null until it is ready, the future can be used to wait for it or to react when it is.
+ * Each request is a reference, that should be released through the AssetManager when it isn't used anymore.
+ * @param <T> The type of the asset.
+ */
+@ToString(of = {"_key", "_state"})
+public class Asset<T> {
+
+    /** The steps of loading an asset. */
+    public enum State {
+        /** The file is read and parsed by a worker thread. */
+        DECODING,
+        /** The decoded data waits to be uploaded at the thread of the graphics context. */
+        UPLOADING,
+        /** The asset is uploaded and can be used. */
+        READY,
+        /** The file couldn't be loaded, the future contains the cause. */
+        FAILED
+    }
+
+    /** Identifies the asset, requests of the same key shares the asset. */
+    @Getter
+    private final String _key;
+
+    /** The path of the file. */
+    @Getter
+    private final String _path;
+
+    /** The step of loading the asset is at. */
+    @Getter
+    private volatile State _state = State.DECODING;
+
+    /** Is completed with the asset when it is ready, or exceptionally if it failed. */
+    @Getter
+    private final CompletableFuture<T> _future = new CompletableFuture<>();
+
+    /** Loads and unloads the asset. */
+    private final AssetLoader<?, T> _loader;
+
+    /** The amount of requests, that hasn't been released. */
+    private final AtomicInteger _references = new AtomicInteger(1);
+
+    /** True when every reference is released, the asset is unloaded or won't be uploaded. */
+    private volatile boolean _released;
+
+    /**
+     * Creates the handle with the reference of the first request.
+     * @param key Identifies the asset.
+     * @param path The path of the file.
+     * @param loader Loads and unloads the asset.
+     */
+    Asset(String key, String path, AssetLoader<?, T> loader) {
+        _key = key;
+        _path = path;
+        _loader = loader;
+    }
+
+    /** @return The asset, or null if it isn't ready. */
+    public T get() {
+        return _state == State.READY ? _future.join() : null;
+    }
+
+    /** @return True if the asset is uploaded and can be used. */
+    public boolean isReady() {
+        return _state == State.READY;
+    }
+
+    /** @return True if the asset is either ready or failed. */
+    public boolean isDone() {
+        return _state == State.READY || _state == State.FAILED;
+    }
+
+    /** @return The amount of requests, that hasn't been released. */
+    public int references() {
+        return _references.get();
+    }
+
+    /** @return True if every reference is released. */
+    boolean isReleased() {
+        return _released;
+    }
+
+    /** Adds the reference of another request. */
+    void retain() {
+        _references.incrementAndGet();
+    }
+
+    /**
+     * Removes a reference.
+     * @return True if it was the last reference.
+     */
+    boolean release() {
+        if (_references.decrementAndGet() != 0)
+            return false;
+
+        _released = true;
+        return true;
+    }
+
+    /** Marks that the decoded data waits to be uploaded. */
+    void uploading() {
+        _state = State.UPLOADING;
+    }
+
+    /** @param asset The uploaded asset. */
+    void ready(T asset) {
+        _state = State.READY;
+        _future.complete(asset);
+    }
+
+    /** @param cause The reason the asset couldn't be loaded. */
+    void fail(Throwable cause) {
+        _state = State.FAILED;
+        _future.completeExceptionally(cause);
+    }
+
+    /**
+     * Deletes the asset, if it is ready.
+     * @param device The device it was uploaded to.
+     */
+    void unload(GraphicsDevice device) {
+        T asset = get();
+        if (asset != null)
+            _loader.unload(asset, device);
+    }
+}
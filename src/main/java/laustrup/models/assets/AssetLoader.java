@@ -0,0 +1,44 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import java.io.IOException;
+
+/**
+ * Loads a kind of asset in two steps, so the slow work is kept away from the thread of the graphics context.
+ * Decoding reads and parses the file on a worker thread, uploading creates the asset with the device afterwards.
+ * @param <D> The decoded data, which must not need the graphics context.
+ * @param <T> The uploaded asset.
+ */
+public interface AssetLoader<D, T> {
+
+    /**
+     * Reads and parses a file, is called on a worker thread.
+     * @param path The path of the file.
+     * @return The decoded data.
+     * @throws IOException If the file couldn't be read or parsed.
+     */
+    D decode(String path) throws IOException;
+
+    /**
+     * Creates the asset of decoded data, is called on the thread of the graphics context.
+     * The data isn't used afterwards, so it should be freed if it holds any native memory.
+     * @param data The decoded data.
+     * @param device The device to upload to.
+     * @return The asset.
+     */
+    T upload(D data, GraphicsDevice device);
+
+    /**
+     * Frees decoded data that will never be uploaded, since its asset was released while it was loading.
+     * @param data The decoded data.
+     */
+    default void discard(D data) {}
+
+    /**
+     * Deletes an uploaded asset, is called on the thread of the graphics context.
+     * @param asset The asset.
+     * @param device The device it was uploaded to.
+     */
+    void unload(T asset, GraphicsDevice device);
+}
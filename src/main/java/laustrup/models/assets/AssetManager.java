@@ -0,0 +1,249 @@
+package laustrup.models.assets;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.Texture;
+import laustrup.models.level.LevelMesh;
+import laustrup.models.logging.Logger;
+import laustrup.utilities.TimeUtility;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads assets in the background, so scenes can request them without stalling a frame.
+ * Files are decoded by a pool of worker threads, afterwards the uploads waits in a queue,
+ * which the window works through at the thread of the graphics context within a budget of time each frame.
+ * Requests of the same asset while it is loaded or in use are given the same handle, which counts the references.
+ * Releasing must happen at the thread of the graphics context, since the last release unloads the asset.
+ * Is a singleton class.
+ */
+public class AssetManager {
+
+    /** The single instance of AssetManager. */
+    private static AssetManager _instance;
+
+    /** The loaders of the kinds of assets, that doesn't need any options. */
+    private static final TextureLoader TEXTURES = new TextureLoader();
+    private static final MeshLoader MESHES = new MeshLoader();
+    private static final LevelLoader LEVELS = new LevelLoader();
+
+    /** The nanoseconds of each frame that can be spent uploading, at least one upload is done each frame. */
+    @Getter @Setter
+    private long _uploadBudget = TimeUtility.NANOS_PER_SECOND / 500;
+
+    /** The threads decoding the files. */
+    private final ExecutorService _workers;
+
+    /** The assets that are loading or in use by their keys. */
+    private final Map<String, Asset<?>> _assets = new ConcurrentHashMap<>();
+
+    /** The uploads of decoded assets, that waits for the thread of the graphics context. */
+    private final Queue<Runnable> _uploads = new ConcurrentLinkedQueue<>();
+
+    /** The amount of assets requested and the amount of those that are done, since the progress was reset. */
+    private final AtomicInteger _requested = new AtomicInteger(), _finished = new AtomicInteger();
+
+    /** The amount of assets uploaded. */
+    @Getter
+    private long _uploaded;
+
+    /** Starts a daemon worker for each processor but the one of the graphics context. */
+    private AssetManager() {
+        AtomicInteger threads = new AtomicInteger();
+        _workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), task -> {
+            Thread thread = new Thread(task, "CreeThor assets " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * Is synchronized, since assets can be requested from any thread.
+     * @return The singleton instance.
+     */
+    public static synchronized AssetManager get_instance() {
+        if (AssetManager._instance == null)
+            AssetManager._instance = new AssetManager();
+
+        return AssetManager._instance;
+    }
+
+    /**
+     * Requests the shared program of a shader file.
+     * @param path The path of the shader file.
+     * @param defines Defines to be injected into each stage.
+     * @return The handle of the Shader.
+     */
+    public Asset<Shader> shader(String path, String... defines) {
+        return load("shader:" + path + "|" + String.join(",", defines), path, new ShaderLoader(defines));
+    }
+
+    /**
+     * Requests the texture of an image file.
+     * @param path The path of the image file.
+     * @return The handle of the Texture.
+     */
+    public Asset<Texture> texture(String path) {
+        return load("texture:" + path, path, TEXTURES);
+    }
+
+    /**
+     * Requests the mesh of a model file.
+     * @param path The path of the model file.
+     * @return The handle of the Mesh.
+     */
+    public Asset<Mesh> mesh(String path) {
+        return load("mesh:" + path, path, MESHES);
+    }
+
+    /**
+     * Requests the meshes of a level file, which is mapped instead of parsed.
+     * @param path The path of the level file.
+     * @return The handle of the LevelMesh.
+     */
+    public Asset<LevelMesh> level(String path) {
+        return load("level:" + path, path, LEVELS);
+    }
+
+    /**
+     * Requests an asset, which is loaded if it isn't loading or in use already.
+     * An asset that failed is loaded again.
+     * @param key Identifies the asset, requests of the same key shares the asset.
+     * @param path The path of the file.
+     * @param loader Loads the asset, if it isn't loading or in use already.
+     * @return The handle of the asset, with a reference that should be released.
+     */
+    @SuppressWarnings("unchecked")
+    public <D, T> Asset<T> load(String key, String path, AssetLoader<D, T> loader) {
+        Asset<T>[] created = new Asset[1];
+        Asset<?> asset = _assets.compute(key, (k, existing) -> {
+            if (existing != null && existing.get_state() != Asset.State.FAILED) {
+                existing.retain();
+                return existing;
+            }
+            return created[0] = new Asset<>(key, path, loader);
+        });
+
+        if (created[0] != null) {
+            _requested.incrementAndGet();
+            _workers.execute(() -> decode(created[0], loader));
+        }
+
+        return (Asset<T>) asset;
+    }
+
+    /**
+     * Removes a reference of an asset, the last reference unloads it.
+     * If it is still loading, it won't be uploaded.
+     * Must be called at the thread of the graphics context.
+     * @param asset The handle given by a request.
+     */
+    public void release(Asset<?> asset) {
+        boolean[] last = new boolean[1];
+        // Released inside the map, so a request can't retain an asset that is about to be removed.
+        _assets.compute(asset.get_key(), (key, existing) -> {
+            last[0] = asset.release();
+            return last[0] && existing == asset ? null : existing;
+        });
+
+        if (last[0])
+            asset.unload(Window.get_instance().get_device());
+    }
+
+    /**
+     * Performs the waiting uploads, until the budget of the frame is spent.
+     * Must be called at the thread of the graphics context, which the window does each frame.
+     * @return The amount of uploads performed.
+     */
+    public int upload() {
+        long start = TimeUtility.get_nanos();
+        int uploads = 0;
+
+        for (Runnable upload = _uploads.poll(); upload != null; upload = _uploads.poll()) {
+            upload.run();
+            uploads++;
+            if (TimeUtility.get_nanos() - start >= _uploadBudget)
+                break;
+        }
+
+        return uploads;
+    }
+
+    /**
+     * The progress of loading, such as for a loading screen.
+     * @return The part of the requested assets that are done since the last reset, 1 if nothing is requested.
+     */
+    public float progress() {
+        int requested = _requested.get();
+        return requested == 0 ? 1f : Math.min(1f, (float) _finished.get() / requested);
+    }
+
+    /** @return The amount of assets that are still loading. */
+    public int pending() {
+        return _requested.get() - _finished.get();
+    }
+
+    /** Starts the progress over, such as at the start of a new loading screen, the assets still loading are kept. */
+    public void resetProgress() {
+        _requested.addAndGet(-_finished.getAndSet(0));
+    }
+
+    /**
+     * Decodes the file of an asset and queues its upload, is performed by a worker.
+     * @param asset The handle of the asset.
+     * @param loader Loads the asset.
+     */
+    private <D, T> void decode(Asset<T> asset, AssetLoader<D, T> loader) {
+        try {
+            D data = loader.decode(asset.get_path());
+            asset.uploading();
+            _uploads.add(() -> upload(asset, loader, data));
+        } catch (IOException | RuntimeException e) {
+            fail(asset, e);
+        }
+    }
+
+    /**
+     * Uploads the decoded data of an asset, unless it was released while it was decoded.
+     * @param asset The handle of the asset.
+     * @param loader Loads the asset.
+     * @param data The decoded data.
+     */
+    private <D, T> void upload(Asset<T> asset, AssetLoader<D, T> loader, D data) {
+        if (asset.isReleased())
+            loader.discard(data);
+        else {
+            try {
+                asset.ready(loader.upload(data, Window.get_instance().get_device()));
+                _uploaded++;
+            } catch (RuntimeException e) {
+                fail(asset, e);
+                return;
+            }
+        }
+        _finished.incrementAndGet();
+    }
+
+    /**
+     * Marks an asset as failed and logs the cause.
+     * @param asset The handle of the asset.
+     * @param cause The reason it couldn't be loaded.
+     */
+    private void fail(Asset<?> asset, Exception cause) {
+        asset.fail(cause);
+        _finished.incrementAndGet();
+        Logger.get_instance().error("Couldn't load the asset \"" + asset.get_path() + "\"...", cause);
+    }
+}
@@ -0,0 +1,33 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.models.level.LevelFile;
+import laustrup.models.level.LevelMesh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Maps level files and uploads their blocks of vertices and indices directly.
+ * The pages of the file are read on the worker thread, so the upload only copies memory.
+ */
+public class LevelLoader implements AssetLoader<LevelFile, LevelMesh> {
+
+    @Override
+    public LevelFile decode(String path) throws IOException {
+        LevelFile file = LevelFile.open(Path.of(path));
+        file.prefetch();
+
+        return file;
+    }
+
+    @Override
+    public LevelMesh upload(LevelFile file, GraphicsDevice device) {
+        return new LevelMesh(file, device);
+    }
+
+    @Override
+    public void unload(LevelMesh level, GraphicsDevice device) {
+        level.delete();
+    }
+}
@@ -0,0 +1,186 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.models.level.LevelFile;
+import laustrup.models.level.LevelWriter;
+import laustrup.models.logging.Logger;
+import laustrup.utilities.MeshUtility;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.assimp.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.lwjgl.assimp.Assimp.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Imports model files with assimp and uploads them as meshes.
+ * All meshes of a file are merged into one, vertices without colors are white.
+ * The imported vertices are welded, and the triangles and vertices are ordered for the caches of the graphics card.
+ * The optimized mesh is cached next to the model as a level file of one mesh,
+ * so later loads map the cache and upload it directly, without assimp, until the model is changed.
+ * Everything but the upload is done on a worker of the AssetManager.
+ */
+public class MeshLoader implements AssetLoader<LevelFile, Mesh> {
+
+    /** Is appended to the path of a model, to get the path of its cache. */
+    public static final String CACHE_EXTENSION = ".mesh";
+
+    /** The steps of assimp that turns the file into triangles, the vertices are welded afterwards. */
+    private static final int FLAGS = aiProcess_Triangulate;
+
+    @Override
+    public LevelFile decode(String path) throws IOException {
+        Path model = Path.of(path), cache = Path.of(path + CACHE_EXTENSION);
+
+        if (isCached(model, cache))
+            try {
+                return open(cache);
+            } catch (IOException e) {
+                Logger.get_instance().warning("The cache \"" + cache + "\" is invalid, the model is imported again...");
+            }
+
+        LevelWriter writer = new LevelWriter();
+        writer.add(optimize(read(path)));
+        try {
+            writer.write(cache);
+        } catch (IOException e) {
+            Logger.get_instance().warning("Couldn't write the cache \"" + cache + "\", it is written as a temporary file...");
+            cache = Files.createTempFile("creethor", CACHE_EXTENSION);
+            cache.toFile().deleteOnExit();
+            writer.write(cache);
+        }
+
+        return open(cache);
+    }
+
+    @Override
+    public Mesh upload(LevelFile file, GraphicsDevice device) {
+        return new Mesh(file.vertices(), file.indices(), device);
+    }
+
+    @Override
+    public void unload(Mesh mesh, GraphicsDevice device) {
+        mesh.delete();
+    }
+
+    /**
+     * Imports a model file with assimp, without optimizing it.
+     * The values are read directly from the memory of assimp, without an object for each vertex or face.
+     * @param path The path of the model file.
+     * @return The vertices and indices of all meshes of the file.
+     * @throws IOException If assimp couldn't import the file.
+     */
+    public static MeshData read(String path) throws IOException {
+        AIScene scene = aiImportFile(path, FLAGS);
+        if (scene == null)
+            throw new IOException("Couldn't import the mesh \"" + path + "\", " + aiGetErrorString());
+
+        try {
+            PointerBuffer meshes = scene.mMeshes();
+            int vertexCount = 0, indexCount = 0;
+            for (int i = 0; i < scene.mNumMeshes(); i++) {
+                AIMesh mesh = AIMesh.create(meshes.get(i));
+                vertexCount += mesh.mNumVertices();
+                indexCount += mesh.mNumFaces() * 3;
+            }
+
+            VertexStore vertices = new VertexStore(vertexCount);
+            int[] indices = new int[indexCount];
+            int amount = 0;
+
+            for (int i = 0; i < scene.mNumMeshes(); i++) {
+                AIMesh mesh = AIMesh.create(meshes.get(i));
+                int first = vertices.get_size();
+
+                AIColor4D.Buffer colorBuffer = mesh.mColors(0);
+                AIVector3D.Buffer uvBuffer = mesh.mTextureCoords(0);
+                long positions = mesh.mVertices().address(),
+                        colors = colorBuffer != null ? colorBuffer.address() : NULL,
+                        uvs = uvBuffer != null ? uvBuffer.address() : NULL;
+
+                for (int v = 0; v < mesh.mNumVertices(); v++) {
+                    long position = positions + (long) v * AIVector3D.SIZEOF,
+                            color = colors + (long) v * AIColor4D.SIZEOF,
+                            uv = uvs + (long) v * AIVector3D.SIZEOF;
+
+                    vertices.add(memGetFloat(position + AIVector3D.X), memGetFloat(position + AIVector3D.Y),
+                            memGetFloat(position + AIVector3D.Z),
+                            colors != NULL ? memGetFloat(color + AIColor4D.R) : 1,
+                            colors != NULL ? memGetFloat(color + AIColor4D.G) : 1,
+                            colors != NULL ? memGetFloat(color + AIColor4D.B) : 1,
+                            colors != NULL ? memGetFloat(color + AIColor4D.A) : 1,
+                            uvs != NULL ? memGetFloat(uv + AIVector3D.X) : 0,
+                            uvs != NULL ? memGetFloat(uv + AIVector3D.Y) : 0);
+                }
+
+                long faces = mesh.mFaces().address();
+                for (int f = 0; f < mesh.mNumFaces(); f++) {
+                    long face = faces + (long) f * AIFace.SIZEOF;
+                    // Points and lines are left as they are by triangulation, they aren't drawn.
+                    if (memGetInt(face + AIFace.MNUMINDICES) != 3)
+                        continue;
+
+                    long corners = memGetAddress(face + AIFace.MINDICES);
+                    for (int c = 0; c < 3; c++)
+                        indices[amount++] = first + memGetInt(corners + (long) c * Integer.BYTES);
+                }
+            }
+
+            return new MeshData(vertices, amount == indices.length ? indices : Arrays.copyOf(indices, amount));
+        } finally {
+            aiReleaseImport(scene);
+        }
+    }
+
+    /**
+     * Welds the vertices, orders the triangles for the vertex cache and the vertices by their first use,
+     * and logs the average cache miss ratio before and after.
+     * @param data The imported vertices and indices.
+     * @return The optimized vertices and indices, the data isn't changed.
+     */
+    public static MeshData optimize(MeshData data) {
+        MeshData welded = MeshUtility.weld(data);
+        int vertices = welded.get_vertices().get_size();
+        int[] ordered = MeshUtility.optimizeVertexCache(welded.get_indices(), vertices);
+        MeshData optimized = MeshUtility.optimizeVertexFetch(new MeshData(welded.get_vertices(), ordered));
+
+        float before = MeshUtility.acmr(welded.get_indices(), vertices, MeshUtility.CACHE_SIZE),
+              after = MeshUtility.acmr(ordered, vertices, MeshUtility.CACHE_SIZE);
+        Logger.get_instance().info("Welded " + data.get_vertices().get_size() + " vertices into " + vertices
+                + ", the ACMR of " + data.triangles() + " triangles went from " + before + " to " + after + "...");
+
+        return optimized;
+    }
+
+    /**
+     * @param model The path of the model file.
+     * @param cache The path of its cache.
+     * @return True if the cache exists and isn't older than the model, or the model is only shipped as its cache.
+     * @throws IOException If the times of the files couldn't be read.
+     */
+    private static boolean isCached(Path model, Path cache) throws IOException {
+        return Files.exists(cache) && (!Files.exists(model)
+                || Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(model)) >= 0);
+    }
+
+    /**
+     * Maps a cache and reads it into physical memory.
+     * @param cache The path of the cache.
+     * @return The mapped cache.
+     * @throws IOException If the cache couldn't be mapped or isn't a valid level file.
+     */
+    private static LevelFile open(Path cache) throws IOException {
+        LevelFile file = LevelFile.open(cache);
+        file.prefetch();
+
+        return file;
+    }
+}
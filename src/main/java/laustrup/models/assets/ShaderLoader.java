@@ -0,0 +1,39 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.ShaderLibrary;
+import laustrup.models.graphic.ShaderProgramCache;
+import laustrup.models.graphic.ShaderSource;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import java.io.IOException;
+
+/**
+ * Parses shader files through the ShaderLibrary and acquires their programs from the ShaderProgramCache,
+ * so programs are still shared with shaders acquired without the AssetManager.
+ */
+public class ShaderLoader implements AssetLoader<ShaderSource, Shader> {
+
+    /** The defines to be injected into each stage. */
+    private final String[] _defines;
+
+    /** @param defines The defines to be injected into each stage. */
+    public ShaderLoader(String... defines) {
+        _defines = defines;
+    }
+
+    @Override
+    public ShaderSource decode(String path) throws IOException {
+        return ShaderLibrary.get_instance().load(path, _defines);
+    }
+
+    @Override
+    public Shader upload(ShaderSource source, GraphicsDevice device) {
+        return ShaderProgramCache.get_instance().acquire(source);
+    }
+
+    @Override
+    public void unload(Shader shader, GraphicsDevice device) {
+        ShaderProgramCache.get_instance().release(shader);
+    }
+}
@@ -0,0 +1,35 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.Image;
+import laustrup.models.graphic.Texture;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import java.io.IOException;
+
+/** Decodes image files with stb and uploads them as textures. */
+public class TextureLoader implements AssetLoader<Image, Texture> {
+
+    @Override
+    public Image decode(String path) throws IOException {
+        return Image.decode(path);
+    }
+
+    @Override
+    public Texture upload(Image image, GraphicsDevice device) {
+        try {
+            return new Texture(image, device);
+        } finally {
+            image.free();
+        }
+    }
+
+    @Override
+    public void discard(Image image) {
+        image.free();
+    }
+
+    @Override
+    public void unload(Texture texture, GraphicsDevice device) {
+        texture.delete();
+    }
+}
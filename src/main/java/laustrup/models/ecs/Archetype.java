@@ -0,0 +1,109 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The entities with exactly the same types of components, stored in chunks.
+ * The entities are kept dense, so every chunk is full except the last in use,
+ * the place of an entity is its location, which is the index of its chunk times the capacity plus its row.
+ */
+@ToString(of = {"_types", "_size"})
+public class Archetype {
+
+    /** The bits of the types of components. */
+    @Getter
+    private final long _mask;
+
+    /** The types of components in the order of their ids. */
+    @Getter
+    private final ComponentType[] _types;
+
+    /** The index of each type of component in the types, by the id of the type, -1 if it isn't there. */
+    private final int[] _indices = new int[ComponentType.MAX_TYPES];
+
+    /** The chunks, which are kept when they are emptied, so they can be filled again. */
+    private final List<Chunk> _chunks = new ArrayList<>();
+
+    /** The amount of entities. */
+    @Getter
+    private int _size;
+
+    /** @param types The types of components. */
+    Archetype(ComponentType[] types) {
+        _types = types.clone();
+        Arrays.sort(_types, Comparator.comparingInt(ComponentType::get_id));
+        _mask = ComponentType.mask(types);
+
+        Arrays.fill(_indices, -1);
+        for (int i = 0; i < _types.length; i++)
+            _indices[_types[i].get_id()] = i;
+    }
+
+    /**
+     * @param type A type of component.
+     * @return The index of the type in the types, -1 if the archetype doesn't have it.
+     */
+    public int index(ComponentType type) {
+        return _indices[type.get_id()];
+    }
+
+    /** @return The amount of chunks that contains entities. */
+    public int chunks() {
+        return (_size + Chunk.CAPACITY - 1) / Chunk.CAPACITY;
+    }
+
+    /**
+     * @param index The index of a chunk that contains entities.
+     * @return The chunk.
+     */
+    public Chunk chunk(int index) {
+        return _chunks.get(index);
+    }
+
+    /**
+     * @param location The location of an entity.
+     * @return The chunk of the entity.
+     */
+    Chunk chunkAt(int location) {
+        return _chunks.get(location / Chunk.CAPACITY);
+    }
+
+    /**
+     * Adds an entity with values of zero at the end.
+     * @param entity The id of the entity.
+     * @return The location of the entity.
+     */
+    int add(int entity) {
+        int index = _size / Chunk.CAPACITY;
+        if (index == _chunks.size())
+            _chunks.add(new Chunk(this));
+
+        _chunks.get(index).add(entity);
+        return _size++;
+    }
+
+    /**
+     * Removes an entity by moving the last entity into its place.
+     * @param location The location of the entity.
+     * @return The id of the entity that was moved into the location, or -1 if it was the last entity.
+     */
+    int remove(int location) {
+        int last = --_size;
+        Chunk lastChunk = _chunks.get(last / Chunk.CAPACITY);
+        int moved = -1;
+
+        if (location != last) {
+            lastChunk.copy(last % Chunk.CAPACITY, chunkAt(location), location % Chunk.CAPACITY);
+            moved = lastChunk.entity(last % Chunk.CAPACITY);
+        }
+        lastChunk.removeLast();
+
+        return moved;
+    }
+}
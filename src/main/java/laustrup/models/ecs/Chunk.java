@@ -0,0 +1,127 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A fixed amount of entities of the same archetype, with each field of their components in an array of its own.
+ * The rows from 0 to the size are in use, so systems iterate the arrays from 0 to the size.
+ */
+@ToString(of = {"_size"})
+public class Chunk {
+
+    /** The amount of entities of a chunk, so a column of floats is 4 KB. */
+    public static final int CAPACITY = 1024;
+
+    /** The archetype of the entities. */
+    @Getter
+    private final Archetype _archetype;
+
+    /** The ids of the entities by their rows. */
+    private final int[] _entities = new int[CAPACITY];
+
+    /** The amount of entities. */
+    @Getter
+    private int _size;
+
+    /** The columns of float fields by the index of the component in the archetype, null for int components. */
+    private final float[][][] _floats;
+
+    /** The columns of int fields by the index of the component in the archetype, null for float components. */
+    private final int[][][] _ints;
+
+    /** @param archetype The archetype of the entities. */
+    Chunk(Archetype archetype) {
+        _archetype = archetype;
+
+        ComponentType[] types = archetype.get_types();
+        _floats = new float[types.length][][];
+        _ints = new int[types.length][][];
+        for (int i = 0; i < types.length; i++)
+            if (types[i].get_kind() == ComponentType.Kind.FLOAT)
+                _floats[i] = new float[types[i].get_fields()][CAPACITY];
+            else
+                _ints[i] = new int[types[i].get_fields()][CAPACITY];
+    }
+
+    /**
+     * The values of a float field of every entity, by their rows.
+     * @param type A float type of the archetype.
+     * @param field The index of the field.
+     * @return The column of the field.
+     */
+    public float[] floats(ComponentType type, int field) {
+        return _floats[_archetype.index(type)][field];
+    }
+
+    /**
+     * The values of an int field of every entity, by their rows.
+     * @param type An int type of the archetype.
+     * @param field The index of the field.
+     * @return The column of the field.
+     */
+    public int[] ints(ComponentType type, int field) {
+        return _ints[_archetype.index(type)][field];
+    }
+
+    /**
+     * @param row The row of an entity.
+     * @return The id of the entity.
+     */
+    public int entity(int row) {
+        return _entities[row];
+    }
+
+    /** @return True if there isn't room for another entity. */
+    public boolean isFull() {
+        return _size == CAPACITY;
+    }
+
+    /**
+     * Adds an entity with values of zero.
+     * @param entity The id of the entity.
+     * @return The row of the entity.
+     */
+    int add(int entity) {
+        _entities[_size] = entity;
+        for (int i = 0; i < _floats.length; i++)
+            if (_floats[i] != null)
+                for (float[] column : _floats[i])
+                    column[_size] = 0;
+            else
+                for (int[] column : _ints[i])
+                    column[_size] = 0;
+
+        return _size++;
+    }
+
+    /** Removes the last entity. */
+    void removeLast() {
+        _size--;
+    }
+
+    /**
+     * Copies the values of an entity into a row of another chunk.
+     * Only the components that both archetypes have are copied.
+     * @param row The row of the entity in this chunk.
+     * @param target The chunk to copy into, which can be this chunk.
+     * @param targetRow The row in the target.
+     */
+    void copy(int row, Chunk target, int targetRow) {
+        target._entities[targetRow] = _entities[row];
+
+        ComponentType[] types = _archetype.get_types();
+        for (int i = 0; i < types.length; i++) {
+            int index = target._archetype.index(types[i]);
+            if (index < 0)
+                continue;
+
+            if (_floats[i] != null)
+                for (int field = 0; field < _floats[i].length; field++)
+                    target._floats[index][field][targetRow] = _floats[i][field][row];
+            else
+                for (int field = 0; field < _ints[i].length; field++)
+                    target._ints[index][field][targetRow] = _ints[i][field][row];
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes a kind of component as an amount of primitive fields of the same kind, such as a position of three floats.
+ * Each field is stored in an array of its own in the chunks, so systems can iterate them without boxing.
+ * Types are interned by their names, so a type asked for again by its name is the same type with the same id,
+ * such as when a scene is created again or by another world.
+ * Every name is given an id of its own, there can be at most 64 names, since archetypes are masks of their ids.
+ */
+@ToString(of = {"_name", "_kind", "_fields"})
+public class ComponentType {
+
+    /** The largest amount of types. */
+    public static final int MAX_TYPES = Long.SIZE;
+
+    /** The types by their names, the id of each type is the amount of types before it. */
+    private static final Map<String, ComponentType> _types = new ConcurrentHashMap<>();
+
+    /** The kinds of primitive values of the fields. */
+    public enum Kind {
+        FLOAT,
+        INT
+    }
+
+    /** The name, which identifies the type. */
+    @Getter
+    private final String _name;
+
+    /** The kind of the fields. */
+    @Getter
+    private final Kind _kind;
+
+    /** The amount of fields. */
+    @Getter
+    private final int _fields;
+
+    /** The id of the type, which is the index of its bit in masks. */
+    @Getter
+    private final int _id;
+
+    /**
+     * @param name The name, which identifies the type.
+     * @param kind The kind of the fields.
+     * @param fields The amount of fields.
+     * @param id The id of the type.
+     */
+    private ComponentType(String name, Kind kind, int fields, int id) {
+        _name = name;
+        _kind = kind;
+        _fields = fields;
+        _id = id;
+    }
+
+    /**
+     * Gives the type of a name, it is created the first time the name is asked for.
+     * @param name The name, which identifies the type.
+     * @param kind The kind of the fields.
+     * @param fields The amount of fields.
+     * @return The type of the name.
+     * @throws IllegalArgumentException If the type of the name has another kind or amount of fields.
+     * @throws IllegalStateException If there already are 64 types.
+     */
+    public static ComponentType of(String name, Kind kind, int fields) {
+        ComponentType type = _types.get(name);
+        if (type == null)
+            synchronized (_types) {
+                type = _types.get(name);
+                if (type == null) {
+                    if (_types.size() >= MAX_TYPES)
+                        throw new IllegalStateException("There can't be more than " + MAX_TYPES + " types of components...");
+
+                    type = new ComponentType(name, kind, fields, _types.size());
+                    _types.put(name, type);
+                }
+            }
+
+        if (type._kind != kind || type._fields != fields)
+            throw new IllegalArgumentException("The type of components \"" + name + "\" is already "
+                    + type._fields + " fields of " + type._kind + "...");
+
+        return type;
+    }
+
+    /** @return A type of float fields. */
+    public static ComponentType floats(String name, int fields) {
+        return of(name, Kind.FLOAT, fields);
+    }
+
+    /** @return A type of int fields. */
+    public static ComponentType ints(String name, int fields) {
+        return of(name, Kind.INT, fields);
+    }
+
+    /** @return The bit of this type in masks. */
+    public long bit() {
+        return 1L << _id;
+    }
+
+    /**
+     * @param types Types of components.
+     * @return The mask of the types.
+     */
+    public static long mask(ComponentType... types) {
+        long mask = 0;
+        for (ComponentType type : types)
+            mask |= type.bit();
+
+        return mask;
+    }
+}
@@ -0,0 +1,44 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+
+/**
+ * Updates the entities of a world each simulation, such as movement or physics.
+ * Declares the types of components it reads and writes,
+ * so the SystemScheduler can run systems that doesn't conflict at the same time.
+ * A system must not create or destroy entities or change their components while it runs.
+ */
+public abstract class EntitySystem {
+
+    /** The bits of the types of components, that are read. */
+    @Getter
+    private final long _reads;
+
+    /** The bits of the types of components, that are written. */
+    @Getter
+    private final long _writes;
+
+    /**
+     * @param reads The types of components, that are only read.
+     * @param writes The types of components, that are written and maybe read.
+     */
+    protected EntitySystem(ComponentType[] reads, ComponentType[] writes) {
+        _writes = ComponentType.mask(writes);
+        _reads = ComponentType.mask(reads) | _writes;
+    }
+
+    /**
+     * Updates the entities.
+     * @param world The world of the entities.
+     * @param step The time in seconds to advance.
+     */
+    public abstract void update(World world, float step);
+
+    /**
+     * @param other Another system.
+     * @return True if one of the systems writes a type of component, that the other reads or writes.
+     */
+    public boolean conflicts(EntitySystem other) {
+        return (_writes & other._reads) != 0 || (other._writes & _reads) != 0;
+    }
+}
@@ -0,0 +1,146 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the chunks of the entities that has some types of components, and maybe hasn't others.
+ * The matching archetypes are remembered and only new archetypes of the world are checked,
+ * so iterating doesn't search or allocate.
+ */
+public class Query {
+
+    /** Works on the entities of a chunk, from row 0 to its size. */
+    @FunctionalInterface
+    public interface ChunkAction {
+        void run(Chunk chunk);
+    }
+
+    /** The world of the entities. */
+    private final World _world;
+
+    /** The bits of the types that the entities must have. */
+    @Getter
+    private final long _required;
+
+    /** The bits of the types that the entities must not have. */
+    @Getter
+    private long _excluded;
+
+    /** The archetypes that matches. */
+    private final List<Archetype> _matched = new ArrayList<>();
+
+    /** The amount of archetypes of the world, that has been checked. */
+    private int _checked;
+
+    /** The chunks of a parallel iteration, is reused. */
+    private Chunk[] _chunks = new Chunk[16];
+
+    /**
+     * @param world The world of the entities.
+     * @param required The bits of the types that the entities must have.
+     */
+    Query(World world, long required) {
+        _world = world;
+        _required = required;
+    }
+
+    /**
+     * Excludes entities that has components of some types.
+     * @param types The types the entities must not have.
+     * @return This query.
+     */
+    public Query without(ComponentType... types) {
+        _excluded |= ComponentType.mask(types);
+        _matched.clear();
+        _checked = 0;
+
+        return this;
+    }
+
+    /** @return The amount of matching entities. */
+    public int count() {
+        refresh();
+
+        int count = 0;
+        for (Archetype archetype : _matched)
+            count += archetype.get_size();
+
+        return count;
+    }
+
+    /**
+     * Runs an action on every chunk with matching entities, one after another.
+     * @param action The action.
+     */
+    public void forEach(ChunkAction action) {
+        refresh();
+
+        for (Archetype archetype : _matched)
+            for (int i = 0; i < archetype.chunks(); i++)
+                action.run(archetype.chunk(i));
+    }
+
+    /**
+     * Runs an action on every chunk with matching entities, where chunks are split between the threads of the
+     * ForkJoin pool of the calling thread, or the common pool.
+     * The action must only write into the rows of the chunk it is given.
+     * @param action The action.
+     */
+    public void forEachParallel(ChunkAction action) {
+        refresh();
+
+        int amount = 0;
+        for (Archetype archetype : _matched)
+            for (int i = 0; i < archetype.chunks(); i++) {
+                if (amount == _chunks.length)
+                    _chunks = Arrays.copyOf(_chunks, amount * 2);
+                _chunks[amount++] = archetype.chunk(i);
+            }
+
+        if (amount == 1)
+            action.run(_chunks[0]);
+        else if (amount > 1)
+            new ChunkTask(action, _chunks, 0, amount).invoke();
+    }
+
+    /** Checks the archetypes that has been created since the last check. */
+    private void refresh() {
+        for (; _checked < _world.archetypes(); _checked++) {
+            Archetype archetype = _world.archetype(_checked);
+            long mask = archetype.get_mask();
+
+            if ((mask & _required) == _required && (mask & _excluded) == 0)
+                _matched.add(archetype);
+        }
+    }
+
+    /** Splits chunks in halves, until each task has one chunk. */
+    private static class ChunkTask extends RecursiveAction {
+
+        private final ChunkAction _action;
+        private final Chunk[] _chunks;
+        private final int _from, _to;
+
+        ChunkTask(ChunkAction action, Chunk[] chunks, int from, int to) {
+            _action = action;
+            _chunks = chunks;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from == 1)
+                _action.run(_chunks[_from]);
+            else {
+                int middle = (_from + _to) >>> 1;
+                invokeAll(new ChunkTask(_action, _chunks, _from, middle), new ChunkTask(_action, _chunks, middle, _to));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs the systems of a scene in the order they were registered, in phases of systems that doesn't conflict.
+ * A system is placed in the phase after the last phase of a system it conflicts with,
+ * so systems still see the changes of earlier systems of the same components.
+ * The systems of a phase runs at the same time on a ForkJoin pool.
+ */
+public class SystemScheduler {
+
+    /** The pool that phases of more than one system runs on. */
+    @Getter @Setter
+    private ForkJoinPool _pool = ForkJoinPool.commonPool();
+
+    /** The systems in the order they were registered. */
+    private final List<EntitySystem> _systems = new ArrayList<>();
+
+    /** The phase of each system, in the order they were registered. */
+    private final List<Integer> _phaseOf = new ArrayList<>();
+
+    /** The systems of each phase. */
+    private final List<List<EntitySystem>> _phases = new ArrayList<>();
+
+    /**
+     * Adds a system, that runs after the systems it conflicts with.
+     * @param system The system.
+     */
+    public void register(EntitySystem system) {
+        int phase = 0;
+        for (int i = 0; i < _systems.size(); i++)
+            if (_systems.get(i).conflicts(system))
+                phase = Math.max(phase, _phaseOf.get(i) + 1);
+
+        if (phase == _phases.size())
+            _phases.add(new ArrayList<>());
+        _phases.get(phase).add(system);
+        _systems.add(system);
+        _phaseOf.add(phase);
+    }
+
+    /** @return The amount of phases. */
+    public int phases() {
+        return _phases.size();
+    }
+
+    /** @return The amount of systems. */
+    public int systems() {
+        return _systems.size();
+    }
+
+    /**
+     * Runs every system once, phase after phase.
+     * @param world The world of the entities.
+     * @param step The time in seconds to advance.
+     */
+    public void run(World world, float step) {
+        for (List<EntitySystem> phase : _phases) {
+            if (phase.size() == 1) {
+                phase.get(0).update(world, step);
+                continue;
+            }
+
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[phase.size()];
+            for (int i = 0; i < tasks.length; i++) {
+                EntitySystem system = phase.get(i);
+                tasks[i] = _pool.submit(() -> system.update(world, step));
+            }
+            for (ForkJoinTask<?> task : tasks)
+                task.join();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package laustrup.models.ecs;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.*;
+
+/**
+ * Contains the entities of a scene, grouped into archetypes by their types of components.
+ * An entity is only an id, its components are rows in the chunks of its archetype.
+ * Adding or removing a component moves the entity into another archetype.
+ * Changing which entities or components exists isn't thread safe, so it should happen outside of parallel systems.
+ */
+@ToString(of = {"_size"})
+public class World {
+
+    /** The archetypes by their masks. */
+    private final Map<Long, Archetype> _archetypesByMask = new HashMap<>();
+
+    /** The archetypes in the order they were created, they are never removed. */
+    private final List<Archetype> _archetypes = new ArrayList<>();
+
+    /** The archetype of each entity by its id, null if the id isn't in use. */
+    private Archetype[] _archetypeOf = new Archetype[64];
+
+    /** The location of each entity in its archetype by its id. */
+    private int[] _locations = new int[64];
+
+    /** The ids of destroyed entities, that can be given again. */
+    private int[] _freeIds = new int[64];
+
+    /** The amount of free ids and the next id that has never been given. */
+    private int _freeIdCount, _nextId;
+
+    /** The amount of entities. */
+    @Getter
+    private int _size;
+
+    /**
+     * Creates an entity with components of zero values.
+     * @param types The types of the components.
+     * @return The id of the entity.
+     */
+    public int create(ComponentType... types) {
+        int entity = _freeIdCount > 0 ? _freeIds[--_freeIdCount] : _nextId++;
+        if (entity >= _archetypeOf.length) {
+            _archetypeOf = Arrays.copyOf(_archetypeOf, _archetypeOf.length * 2);
+            _locations = Arrays.copyOf(_locations, _archetypeOf.length);
+            _freeIds = Arrays.copyOf(_freeIds, _archetypeOf.length);
+        }
+
+        Archetype archetype = archetype(types);
+        _archetypeOf[entity] = archetype;
+        _locations[entity] = archetype.add(entity);
+        _size++;
+
+        return entity;
+    }
+
+    /**
+     * Removes an entity and its components, its id can be given to another entity afterwards.
+     * @param entity The id of the entity.
+     */
+    public void destroy(int entity) {
+        Archetype archetype = _archetypeOf[entity];
+        int moved = archetype.remove(_locations[entity]);
+        if (moved >= 0)
+            _locations[moved] = _locations[entity];
+
+        _archetypeOf[entity] = null;
+        _freeIds[_freeIdCount++] = entity;
+        _size--;
+    }
+
+    /** @return True if the id is of an entity that exists. */
+    public boolean isAlive(int entity) {
+        return entity >= 0 && entity < _nextId && _archetypeOf[entity] != null;
+    }
+
+    /** @return True if the entity has a component of the type. */
+    public boolean has(int entity, ComponentType type) {
+        return _archetypeOf[entity].index(type) >= 0;
+    }
+
+    /**
+     * Adds a component of zero values to an entity, nothing happens if it already has it.
+     * @param entity The id of the entity.
+     * @param type The type of the component.
+     */
+    public void add(int entity, ComponentType type) {
+        Archetype current = _archetypeOf[entity];
+        if (current.index(type) >= 0)
+            return;
+
+        ComponentType[] types = Arrays.copyOf(current.get_types(), current.get_types().length + 1);
+        types[types.length - 1] = type;
+        move(entity, archetype(types));
+    }
+
+    /**
+     * Removes a component of an entity, nothing happens if it doesn't have it.
+     * @param entity The id of the entity.
+     * @param type The type of the component.
+     */
+    public void remove(int entity, ComponentType type) {
+        Archetype current = _archetypeOf[entity];
+        if (current.index(type) < 0)
+            return;
+
+        ComponentType[] types = new ComponentType[current.get_types().length - 1];
+        int i = 0;
+        for (ComponentType other : current.get_types())
+            if (other != type)
+                types[i++] = other;
+        move(entity, archetype(types));
+    }
+
+    /** @return A float field of the component of an entity. */
+    public float getFloat(int entity, ComponentType type, int field) {
+        int location = _locations[entity];
+        return _archetypeOf[entity].chunkAt(location).floats(type, field)[location % Chunk.CAPACITY];
+    }
+
+    /** Sets a float field of the component of an entity. */
+    public void setFloat(int entity, ComponentType type, int field, float value) {
+        int location = _locations[entity];
+        _archetypeOf[entity].chunkAt(location).floats(type, field)[location % Chunk.CAPACITY] = value;
+    }
+
+    /** @return An int field of the component of an entity. */
+    public int getInt(int entity, ComponentType type, int field) {
+        int location = _locations[entity];
+        return _archetypeOf[entity].chunkAt(location).ints(type, field)[location % Chunk.CAPACITY];
+    }
+
+    /** Sets an int field of the component of an entity. */
+    public void setInt(int entity, ComponentType type, int field, int value) {
+        int location = _locations[entity];
+        _archetypeOf[entity].chunkAt(location).ints(type, field)[location % Chunk.CAPACITY] = value;
+    }
+
+    /**
+     * Creates a query of the entities that has components of some types, it should be kept and reused.
+     * @param types The types that the entities must have.
+     * @return The query.
+     */
+    public Query query(ComponentType... types) {
+        return new Query(this, ComponentType.mask(types));
+    }
+
+    /** @return The amount of archetypes. */
+    public int archetypes() {
+        return _archetypes.size();
+    }
+
+    /**
+     * @param index The index of an archetype, in the order they were created.
+     * @return The archetype.
+     */
+    public Archetype archetype(int index) {
+        return _archetypes.get(index);
+    }
+
+    /**
+     * Finds the archetype of some types, it is created if it doesn't exist.
+     * @param types The types of components.
+     * @return The archetype.
+     */
+    private Archetype archetype(ComponentType[] types) {
+        long mask = ComponentType.mask(types);
+        Archetype archetype = _archetypesByMask.get(mask);
+
+        if (archetype == null) {
+            archetype = new Archetype(types);
+            _archetypesByMask.put(mask, archetype);
+            _archetypes.add(archetype);
+        }
+
+        return archetype;
+    }
+
+    /**
+     * Moves an entity into another archetype, with the values of the components that both has.
+     * @param entity The id of the entity.
+     * @param target The archetype to move into.
+     */
+    private void move(int entity, Archetype target) {
+        Archetype source = _archetypeOf[entity];
+        int from = _locations[entity], to = target.add(entity);
+
+        source.chunkAt(from).copy(from % Chunk.CAPACITY, target.chunkAt(to), to % Chunk.CAPACITY);
+        int moved = source.remove(from);
+        if (moved >= 0)
+            _locations[moved] = from;
+
+        _archetypeOf[entity] = target;
+        _locations[entity] = to;
+    }
+}
@@ -0,0 +1,218 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.*;
+
+/**
+ * Views a scene with an orthographic projection for 2D, or a perspective projection.
+ * Owns the matrices of the projection, the view, their product and its inverse,
+ * which are only calculated again when something they depend on has changed.
+ * Can tell if bounds are inside the view, so renderables outside of it are culled before they are batched.
+ */
+@ToString(of = {"_projection", "_position", "_viewportWidth", "_viewportHeight"})
+public class Camera {
+
+    /** The kinds of projections. */
+    public enum Projection {
+        ORTHOGRAPHIC,
+        PERSPECTIVE
+    }
+
+    /** The kind of projection. */
+    @Getter
+    private Projection _projection = Projection.ORTHOGRAPHIC;
+
+    /** The position of the camera, it looks towards negative z. */
+    private final Vector3f _position = new Vector3f();
+
+    /** The zoom of an orthographic projection, 2 shows half as much. */
+    @Getter
+    private float _zoom = 1;
+
+    /**
+     * The height of the view of an orthographic projection in units of the world, at a zoom of 1.
+     * Is 2 as default, so the height is the same as the clip space.
+     */
+    @Getter
+    private float _viewHeight = 2;
+
+    /** The vertical field of view of a perspective projection in radians. */
+    @Getter
+    private float _fieldOfView = (float) java.lang.Math.toRadians(60);
+
+    /** The distances to the near and far planes. */
+    @Getter
+    private float _near = -1, _far = 1;
+
+    /** The size of the viewport in pixels. */
+    @Getter
+    private int _viewportWidth = 1, _viewportHeight = 1;
+
+    /** The matrices, that are calculated when they are dirty. */
+    private final Matrix4f _projectionMatrix = new Matrix4f(),
+                           _viewMatrix = new Matrix4f(),
+                           _viewProjectionMatrix = new Matrix4f(),
+                           _inverseMatrix = new Matrix4f();
+
+    /** The planes of the view, for culling. */
+    private final FrustumIntersection _frustum = new FrustumIntersection();
+
+    /** The viewport as openGL describes it, for converting positions of the screen. */
+    private final int[] _viewport = new int[4];
+
+    /** True if the projection or view has changed since their matrices were calculated. */
+    private boolean _projectionDirty = true, _viewDirty = true;
+
+    /**
+     * Changes into an orthographic projection.
+     * @param viewHeight The height of the view in units of the world, at a zoom of 1.
+     * @param near The distance to the near plane, can be negative.
+     * @param far The distance to the far plane.
+     */
+    public void orthographic(float viewHeight, float near, float far) {
+        _projection = Projection.ORTHOGRAPHIC;
+        _viewHeight = viewHeight;
+        _near = near;
+        _far = far;
+        _projectionDirty = true;
+    }
+
+    /**
+     * Changes into a perspective projection.
+     * @param fieldOfView The vertical field of view in radians.
+     * @param near The distance to the near plane, must be positive.
+     * @param far The distance to the far plane.
+     */
+    public void perspective(float fieldOfView, float near, float far) {
+        _projection = Projection.PERSPECTIVE;
+        _fieldOfView = fieldOfView;
+        _near = near;
+        _far = far;
+        _projectionDirty = true;
+    }
+
+    /**
+     * Follows the size of the window, nothing is calculated if the size is the same.
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     */
+    public void resize(int width, int height) {
+        if (width <= 0 || height <= 0 || (width == _viewportWidth && height == _viewportHeight))
+            return;
+
+        _viewportWidth = width;
+        _viewportHeight = height;
+        _projectionDirty = true;
+    }
+
+    /** @return The position of the camera, which is changed with setPosition or move. */
+    public Vector3fc get_position() {
+        return _position;
+    }
+
+    /** Places the camera. */
+    public void setPosition(float x, float y, float z) {
+        _position.set(x, y, z);
+        _viewDirty = true;
+    }
+
+    /** Moves the camera from where it is. */
+    public void move(float x, float y, float z) {
+        _position.add(x, y, z);
+        _viewDirty = true;
+    }
+
+    /** @param zoom The zoom of an orthographic projection, 2 shows half as much. */
+    public void setZoom(float zoom) {
+        _zoom = zoom;
+        _projectionDirty = true;
+    }
+
+    /** @return The matrix of the projection. */
+    public Matrix4fc get_projectionMatrix() {
+        update();
+        return _projectionMatrix;
+    }
+
+    /** @return The matrix of the view. */
+    public Matrix4fc get_viewMatrix() {
+        update();
+        return _viewMatrix;
+    }
+
+    /** @return The projection times the view. */
+    public Matrix4fc get_viewProjectionMatrix() {
+        update();
+        return _viewProjectionMatrix;
+    }
+
+    /** @return The inverse of the projection times the view. */
+    public Matrix4fc get_inverseMatrix() {
+        update();
+        return _inverseMatrix;
+    }
+
+    /**
+     * Tests bounds against the view.
+     * @return True if any part of the bounds can be inside the view.
+     */
+    public boolean isVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        update();
+        return _frustum.testAab(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Tests a Quad against the view.
+     * @param quad The Quad.
+     * @return True if any part of it can be inside the view.
+     */
+    public boolean isVisible(Quad quad) {
+        float x = quad.get_x(), y = quad.get_y(), z = quad.get_z();
+        return isVisible(x, y, z, x + quad.get_width(), y + quad.get_height(), z);
+    }
+
+    /**
+     * Converts a position of the screen into the world, such as the cursor.
+     * The position is at the near plane, which for an orthographic projection doesn't change x and y.
+     * The cursor is given in the coordinates of the window, which must be scaled by the cursor scale of the Window,
+     * since the viewport is in pixels of the framebuffer, which are more on screens of high density.
+     * @param x The pixels from the left edge of the viewport.
+     * @param y The pixels from the top edge of the viewport, as the cursor is given.
+     * @param destination Is given the position in the world.
+     * @return The destination.
+     */
+    public Vector3f screenToWorld(double x, double y, Vector3f destination) {
+        update();
+        return _inverseMatrix.unprojectInv((float) x, (float) (_viewportHeight - y), 0, _viewport, destination);
+    }
+
+    /** Calculates the matrices that are dirty, and the ones that depends on them. */
+    private void update() {
+        if (!_projectionDirty && !_viewDirty)
+            return;
+
+        if (_projectionDirty) {
+            float aspect = (float) _viewportWidth / _viewportHeight;
+
+            if (_projection == Projection.ORTHOGRAPHIC) {
+                float halfHeight = _viewHeight / (2 * _zoom), halfWidth = halfHeight * aspect;
+                _projectionMatrix.setOrtho(-halfWidth, halfWidth, -halfHeight, halfHeight, _near, _far);
+            }
+            else
+                _projectionMatrix.setPerspective(_fieldOfView, aspect, _near, _far);
+
+            _viewport[2] = _viewportWidth;
+            _viewport[3] = _viewportHeight;
+        }
+        if (_viewDirty)
+            _viewMatrix.translation(-_position.x, -_position.y, -_position.z);
+
+        _projectionMatrix.mul(_viewMatrix, _viewProjectionMatrix);
+        _viewProjectionMatrix.invert(_inverseMatrix);
+        _frustum.set(_viewProjectionMatrix);
+        _projectionDirty = false;
+        _viewDirty = false;
+    }
+}
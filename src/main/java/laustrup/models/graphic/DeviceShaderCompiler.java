@@ -0,0 +1,119 @@
+package laustrup.models.graphic;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.utilities.console.Printer;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.GL_NUM_PROGRAM_BINARY_FORMATS;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT;
+
+/** Compiles shaders with the operations of a GraphicsDevice. */
+public class DeviceShaderCompiler implements ShaderCompiler {
+
+    /** The device that the programs are created with. */
+    private final GraphicsDevice _device;
+
+    /** The amount of binary formats of the driver, or -1 before it has been asked. */
+    private int _binaryFormats = -1;
+
+    /** @param device The device that the programs are created with. */
+    public DeviceShaderCompiler(GraphicsDevice device) {
+        _device = device;
+    }
+
+    @Override
+    public int compile(ShaderSource source, boolean retrievable) {
+        int vertexId = initiateStage(GL_VERTEX_SHADER, source.get_vertex(), "Vertex"),
+            fragmentId = initiateStage(GL_FRAGMENT_SHADER, source.get_fragment(), "Fragment");
+
+        return linkProgram(vertexId, fragmentId, retrievable && binaryFormats() > 0);
+    }
+
+    /**
+     * Will both pass and compile a shader source and checks if it is a success.
+     * @param type The type of the shader, such as GL_VERTEX_SHADER.
+     * @param source The glsl source of the stage.
+     * @param unit Is used to describe to the Printer what unit there was a issue with.
+     * @return The id of the compiled shader.
+     */
+    private int initiateStage(int type, String source, String unit) {
+        int id = _device.createShader(type);
+        _device.shaderSource(id, source);
+        _device.compileShader(id);
+        checkInitiationStatus(id, false, unit);
+
+        return id;
+    }
+
+    /**
+     * The program is created before linked and its status is checked.
+     * The shaders are deleted afterwards, since the program keeps what it needs.
+     * @param vertexId The id of the compiled vertex shader.
+     * @param fragmentId The id of the compiled fragment shader.
+     * @param retrievable True if the driver should be hinted, that the binary will be retrieved.
+     * @return The id of the linked program.
+     */
+    private int linkProgram(int vertexId, int fragmentId, boolean retrievable) {
+        int id = _device.createProgram();
+        _device.attachShader(id, vertexId);
+        _device.attachShader(id, fragmentId);
+        if (retrievable)
+            _device.programParameteri(id, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+        _device.linkProgram(id);
+        checkInitiationStatus(id, true, "program link");
+
+        _device.deleteShader(vertexId);
+        _device.deleteShader(fragmentId);
+
+        return id;
+    }
+
+    /**
+     * Will check the status of various initialisations.
+     * @param id The id of the object to be checked.
+     * @param isProgram True if the object is a program, otherwise it is a shader.
+     * @param unit Is used to describe to the Printer what unit there was a issue with.
+     */
+    private void checkInitiationStatus(int id, boolean isProgram, String unit) {
+        if (isProgram ? _device.getProgrami(id, GL_LINK_STATUS) == GL_FALSE : _device.getShaderi(id,GL_COMPILE_STATUS) == GL_FALSE) {
+            Printer.get_instance().print("Error occurred when initiating " + unit + "...",
+                    new InstantiationException(
+                            "\n" + (isProgram ? _device.getProgramInfoLog(id) : _device.getShaderInfoLog(id)))
+            );
+            assert false : "";
+        }
+    }
+
+    /** @return The amount of binary formats of the driver, which is only asked the first time. */
+    private int binaryFormats() {
+        if (_binaryFormats < 0)
+            _binaryFormats = _device.getInteger(GL_NUM_PROGRAM_BINARY_FORMATS);
+
+        return _binaryFormats;
+    }
+
+    @Override
+    public ByteBuffer binary(int program, int[] format) {
+        return _device.getProgramBinary(program, format);
+    }
+
+    @Override
+    public int load(int format, ByteBuffer binary) {
+        int id = _device.createProgram();
+        _device.programBinary(id, format, binary);
+
+        if (_device.getProgrami(id, GL_LINK_STATUS) == GL_FALSE) {
+            _device.deleteProgram(id);
+            return 0;
+        }
+
+        return id;
+    }
+
+    @Override
+    public String driver() {
+        return _device.getString(GL_VENDOR) + " | " + _device.getString(GL_RENDERER) + " | " + _device.getString(GL_VERSION);
+    }
+}
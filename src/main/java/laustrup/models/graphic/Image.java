@@ -0,0 +1,72 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.stb.STBImage.*;
+
+/**
+ * The decoded pixels of an image file, before they are uploaded into a Texture.
+ * The pixels are always four channels of rgba with the first row at the bottom, as openGL expects.
+ * Decoding doesn't need a graphics context, so it can be done on any thread.
+ * The pixels are allocated by stb and must be freed, when they aren't needed anymore.
+ */
+@ToString(of = {"_width", "_height"})
+public class Image {
+
+    /** The amount of channels of the pixels. */
+    public static final int CHANNELS = 4;
+
+    /** The amount of pixels of each row. */
+    @Getter
+    private final int _width;
+
+    /** The amount of rows. */
+    @Getter
+    private final int _height;
+
+    /** The rgba pixels, null after they are freed. */
+    @Getter
+    private ByteBuffer _pixels;
+
+    private Image(int width, int height, ByteBuffer pixels) {
+        _width = width;
+        _height = height;
+        _pixels = pixels;
+    }
+
+    /**
+     * Decodes an image file, such as png or jpg.
+     * @param path The path of the image file.
+     * @return The decoded image, which must be freed.
+     * @throws IOException If the file couldn't be read or decoded.
+     */
+    public static Image decode(String path) throws IOException {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.mallocInt(1),
+                      height = stack.mallocInt(1),
+                      channels = stack.mallocInt(1);
+
+            stbi_set_flip_vertically_on_load_thread(1);
+            ByteBuffer pixels = stbi_load(path, width, height, channels, CHANNELS);
+            if (pixels == null)
+                throw new IOException("Couldn't decode the image \"" + path + "\", " + stbi_failure_reason());
+
+            return new Image(width.get(0), height.get(0), pixels);
+        }
+    }
+
+    /** Frees the pixels, the image can't be used afterwards. */
+    public void free() {
+        if (_pixels != null) {
+            stbi_image_free(_pixels);
+            _pixels = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package laustrup.models.graphic;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.utilities.VertexUtility;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * Vertices and indices of a mesh uploaded to the graphics card, in a vertex array of their own.
+ * Should only be created and used from the thread of the graphics context.
+ */
+@ToString(of = {"_vertexArray", "_count"})
+public class Mesh {
+
+    /** The layout that the vertices are uploaded after. */
+    public static final VertexLayout LAYOUT = VertexLayout.POSITION_COLOR_UV;
+
+    /** The ids of the objects generated from the device. */
+    @Getter
+    private final int _vertexArray, _vertexBuffer, _elementBuffer;
+
+    /** The amount of indices to draw. */
+    @Getter
+    private final int _count;
+
+    /** The device that the mesh is uploaded to. */
+    private final GraphicsDevice _device;
+
+    /**
+     * Uploads the vertices and indices of mesh data, the data isn't needed afterwards.
+     * @param data The vertices and indices.
+     * @param device The device to upload to.
+     */
+    public Mesh(MeshData data, GraphicsDevice device) {
+        this(vertices(data.get_vertices()),
+                BufferUtils.createIntBuffer(data.get_indices().length).put(data.get_indices()).flip(),
+                data.get_indices().length, device);
+    }
+
+    /**
+     * Uploads vertices and indices that are already in the format of the graphics card, such as a mapped level file.
+     * @param vertices The vertices in the layout of the meshes, from the position to the limit.
+     * @param indices The unsigned int indices, from the position to the limit.
+     * @param device The device to upload to.
+     */
+    public Mesh(ByteBuffer vertices, ByteBuffer indices, GraphicsDevice device) {
+        this(vertices, indices, indices.remaining() / Integer.BYTES, device);
+    }
+
+    /**
+     * Uploads the vertices and indices into buffers of a vertex array of their own.
+     * @param vertices The vertices in the layout of the meshes, from the position to the limit.
+     * @param indices The unsigned int indices, from the position to the limit.
+     * @param count The amount of indices.
+     * @param device The device to upload to.
+     */
+    private Mesh(Buffer vertices, Buffer indices, int count, GraphicsDevice device) {
+        _device = device;
+        _count = count;
+
+        _vertexArray = device.genVertexArray();
+        device.bindVertexArray(_vertexArray);
+
+        _vertexBuffer = device.genBuffer();
+        device.bindBuffer(GL_ARRAY_BUFFER, _vertexBuffer);
+        device.bufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
+
+        _elementBuffer = device.genBuffer();
+        device.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, _elementBuffer);
+        device.bufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+
+        LAYOUT.configure(device);
+    }
+
+    /**
+     * Writes the vertices of a store in the layout of the meshes.
+     * @param store The store of the vertices.
+     * @return The written vertices, ready to be read.
+     */
+    private static FloatBuffer vertices(VertexStore store) {
+        FloatBuffer vertices = BufferUtils.createFloatBuffer(store.get_size() * LAYOUT.floats());
+        return VertexUtility.write(List.of(new Vertex(store, 0, store.get_size())), LAYOUT, vertices).flip();
+    }
+
+    /** Draws all the triangles with the program in use. */
+    public void draw() {
+        _device.bindVertexArray(_vertexArray);
+        _device.drawElements(GL_TRIANGLES, _count, GL_UNSIGNED_INT, 0);
+    }
+
+    /**
+     * Draws a range of the triangles with the program in use, such as one mesh of a level.
+     * @param first The index of the first index of the range.
+     * @param count The amount of indices of the range.
+     */
+    public void draw(int first, int count) {
+        _device.bindVertexArray(_vertexArray);
+        _device.drawElements(GL_TRIANGLES, count, GL_UNSIGNED_INT, (long) first * Integer.BYTES);
+    }
+
+    /** Deletes the objects from the device, the mesh can't be drawn afterwards. */
+    public void delete() {
+        _device.deleteVertexArray(_vertexArray);
+        _device.deleteBuffer(_vertexBuffer);
+        _device.deleteBuffer(_elementBuffer);
+    }
+}
@@ -0,0 +1,34 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The vertices and triangle indices of a mesh, before they are uploaded into a Mesh.
+ * Is only data of the memory, so it can be created and changed on any thread.
+ */
+@ToString(of = {"_vertices"})
+public class MeshData {
+
+    /** The vertices of the mesh. */
+    @Getter
+    private final VertexStore _vertices;
+
+    /** The indices of the vertices of each triangle, three after each other. */
+    @Getter
+    private final int[] _indices;
+
+    /**
+     * @param vertices The vertices of the mesh.
+     * @param indices The indices of the vertices of each triangle, three after each other.
+     */
+    public MeshData(VertexStore vertices, int[] indices) {
+        _vertices = vertices;
+        _indices = indices;
+    }
+
+    /** @return The amount of triangles. */
+    public int triangles() {
+        return _indices.length / 3;
+    }
+}
@@ -0,0 +1,119 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A rectangle of four corners, that can be submitted to a batch for drawing.
+ * The corners are ordered as bottom right, top left, top right and bottom left.
+ */
+@ToString
+public class Quad {
+
+    /** The amount of corners of a Quad. */
+    public static final int CORNERS = 4;
+
+    /** The x position of the bottom left corner. */
+    @Getter
+    private float _x;
+
+    /** The y position of the bottom left corner. */
+    @Getter
+    private float _y;
+
+    /** The depth of the Quad. */
+    @Getter
+    private float _z;
+
+    /** The width of the Quad. */
+    @Getter
+    private float _width;
+
+    /** The height of the Quad. */
+    @Getter
+    private float _height;
+
+    /** The colors of each corner, with four values of each corner in the order of the corners. */
+    @Getter
+    private float[] _colors;
+
+    /**
+     * Initiates a Quad with one color for all of its corners.
+     * @param x The x position of the bottom left corner.
+     * @param y The y position of the bottom left corner.
+     * @param z The depth of the Quad.
+     * @param width The width of the Quad.
+     * @param height The height of the Quad.
+     * @param color The rgba color of all the corners.
+     */
+    public Quad(float x, float y, float z, float width, float height, float[] color) {
+        this(x, y, z, width, height);
+        _colors = new float[CORNERS * 4];
+        for (int corner = 0; corner < CORNERS; corner++)
+            System.arraycopy(color, 0, _colors, corner * 4, 4);
+    }
+
+    /**
+     * Initiates the placement of a Quad, the colors are set by the caller.
+     * @param x The x position of the bottom left corner.
+     * @param y The y position of the bottom left corner.
+     * @param z The depth of the Quad.
+     * @param width The width of the Quad.
+     * @param height The height of the Quad.
+     */
+    private Quad(float x, float y, float z, float width, float height) {
+        _x = x;
+        _y = y;
+        _z = z;
+        _width = width;
+        _height = height;
+    }
+
+    /**
+     * Creates a Quad with a color for each corner.
+     * @param x The x position of the bottom left corner.
+     * @param y The y position of the bottom left corner.
+     * @param z The depth of the Quad.
+     * @param width The width of the Quad.
+     * @param height The height of the Quad.
+     * @param colors The rgba colors of the corners in the order of the corners, must have a length of 16.
+     * @return The created Quad.
+     */
+    public static Quad ofCorners(float x, float y, float z, float width, float height, float[] colors) {
+        if (colors.length != CORNERS * 4)
+            throw new IllegalArgumentException("A Quad needs four rgba values for each of its corners...");
+
+        Quad quad = new Quad(x, y, z, width, height);
+        quad._colors = colors;
+
+        return quad;
+    }
+
+    /**
+     * Moves the Quad to a new position.
+     * @param x The new x position of the bottom left corner.
+     * @param y The new y position of the bottom left corner.
+     */
+    public void move(float x, float y) {
+        _x = x;
+        _y = y;
+    }
+
+    /**
+     * Finds the x position of a corner.
+     * @param corner The index of the corner.
+     * @return The x position.
+     */
+    public float cornerX(int corner) {
+        return corner == 0 || corner == 2 ? _x + _width : _x;
+    }
+
+    /**
+     * Finds the y position of a corner.
+     * @param corner The index of the corner.
+     * @return The y position.
+     */
+    public float cornerY(int corner) {
+        return corner == 1 || corner == 2 ? _y + _height : _y;
+    }
+}
@@ -1,108 +1,313 @@
 package laustrup.models.graphic;
 
-import laustrup.utilities.console.Printer;
+import laustrup.models.Window;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+
+import org.joml.Matrix3fc;
+import org.joml.Matrix4fc;
+import org.joml.Vector2fc;
+import org.joml.Vector3fc;
+import org.joml.Vector4fc;
+import org.lwjgl.BufferUtils;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
-import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL20.GL_ACTIVE_UNIFORMS;
 
+/**
+ * A program of a vertex and fragment stage, with typed setters of its uniforms.
+ * The locations of uniforms are resolved once, and the last uploaded value of each uniform is kept,
+ * so setting a uniform to the value it already has doesn't call the device.
+ */
 public class Shader {
 
-    private int _id, _vertexId, _fragmentId;
+    /** The most values of any uniform type, which is a mat4. */
+    private static final int MAX_VALUES = 16;
 
-    private String _vertex, _fragment, _filePath;
+    /** The last uploaded int of a slot, that hasn't been given an int yet. */
+    private static final long NO_INTEGER = Long.MIN_VALUE;
 
-    public Shader(String filepath) {
-        _filePath = filepath;
-        try {
-            String source = new String(Files.readAllBytes(Paths.get(filepath)));
-            String[] line = source.split("(#type)( )+([a-zA-Z]+)");
+    /** The id of the linked program, 0 until it is compiled. */
+    @Getter
+    private int _id;
+
+    /** The parsed sources of the stages, null if the file couldn't be loaded. */
+    @Getter
+    private ShaderSource _source;
+
+    private String _filePath;
+
+    /** The device that the shader is compiled and used with, is the device of the window at compile. */
+    @Getter
+    private GraphicsDevice _device;
+
+    /** The slots of the resolved uniforms by their names. */
+    private final Map<String, Integer> _uniforms = new HashMap<>();
+
+    /** The locations of the uniforms in the order of their slots. */
+    private int[] _locations = new int[0];
 
-            int startOfLine = source.indexOf("#type") + 6,
-                endOfLine = source.indexOf("\r\n",startOfLine);
+    /** The last uploaded values of each slot, null if nothing is uploaded yet. */
+    private float[][] _values = new float[0][];
 
-            configureFilePattern(source.substring(startOfLine, endOfLine).trim(), line[1], filepath);
-            configureFilePattern(source.substring(
-                    source.indexOf("#type", endOfLine) + 6,
-                    source.indexOf("\r\n",source.indexOf("#type", endOfLine) + 6)
-            ), line[2], filepath);
+    /**
+     * The last uploaded int of each slot, such as of samplers, or NO_INTEGER.
+     * Is kept apart from the floats, since many ints are the same NaN as floats.
+     */
+    private long[] _integers = new long[0];
+
+    /** Is used to compare and upload new values, without allocating. */
+    private final float[] _scratch = new float[MAX_VALUES];
+
+    /** Is used to pass matrices to the device, without allocating. */
+    private final FloatBuffer _matrix = BufferUtils.createFloatBuffer(MAX_VALUES);
+
+    /** The amount of uniforms that were passed to the device. */
+    @Getter
+    private long _uploadedUniforms;
+
+    /** The amount of uniforms that were skipped, since they already had the value. */
+    @Getter
+    private long _skippedUniforms;
+
+    /**
+     * Takes the sources of a shader file from the ShaderLibrary, so the file is only read once.
+     * @param filepath The path of the shader file.
+     * @param defines Defines to be injected into each stage, such as "MAX_LIGHTS 4".
+     */
+    public Shader(String filepath, String... defines) {
+        _filePath = filepath;
+        try {
+            _source = ShaderLibrary.get_instance().load(filepath, defines);
         } catch (IOException e) {
             e.printStackTrace();
             assert false : "Couldn't open file: \"" + filepath + "\" for shader...";
         }
     }
 
-    private void configureFilePattern(String pattern, String content, String filepath) throws IOException {
-        if (pattern.equals("vertex"))
-            _vertex = content;
-        else if (pattern.equals("fragment"))
-            _fragment = content;
-        else
-            throw new IOException("Unexpected token \"" + pattern + "\" in the file \"" + filepath + "\"...");
+    /**
+     * Uses sources that are already parsed.
+     * @param source The parsed sources of a shader file.
+     */
+    public Shader(ShaderSource source) {
+        _filePath = source.get_path();
+        _source = source;
     }
 
+    /**
+     * A shader of a program that is already linked, which is how the ShaderProgramCache shares programs.
+     * @param source The parsed sources of the program.
+     * @param id The id of the linked program.
+     * @param device The device of the program.
+     */
+    Shader(ShaderSource source, int id, GraphicsDevice device) {
+        this(source);
+        _id = id;
+        _device = device;
+        resolveUniforms();
+    }
+
+    /** Compiles and links the stages into a program with the device of the window. */
     public void compile() {
-        initiateVertex();
-        initiateFragments();
-        linkProgram();
+        _device = Window.get_instance().get_device();
+        _id = new DeviceShaderCompiler(_device).compile(_source);
+        resolveUniforms();
+    }
+
+    /**
+     * Resolves the locations of all the active uniforms of the linked program, and forgets any uploaded values.
+     * Uniforms of arrays can be found both with and without "[0]".
+     */
+    private void resolveUniforms() {
+        _uniforms.clear();
+        _locations = new int[0];
+        _values = new float[0][];
+        _integers = new long[0];
+
+        int[] size = new int[1], type = new int[1];
+        for (int i = 0; i < _device.getProgrami(_id, GL_ACTIVE_UNIFORMS); i++) {
+            String name = _device.getActiveUniform(_id, i, size, type);
+            int slot = slot(name, _device.getUniformLocation(_id, name));
+
+            if (name.endsWith("[0]"))
+                _uniforms.put(name.substring(0, name.length() - 3), slot);
+        }
+    }
+
+    /**
+     * Adds a slot for a uniform.
+     * @param name The name of the uniform.
+     * @param location The location of the uniform.
+     * @return The added slot.
+     */
+    private int slot(String name, int location) {
+        int slot = _locations.length;
+        _locations = Arrays.copyOf(_locations, slot + 1);
+        _values = Arrays.copyOf(_values, slot + 1);
+        _integers = Arrays.copyOf(_integers, slot + 1);
+        _locations[slot] = location;
+        _integers[slot] = NO_INTEGER;
+        _uniforms.put(name, slot);
+
+        return slot;
     }
 
-    /** Initiates Vertexes and checks if it is a success. */
-    private void initiateVertex() {
-        _vertexId = glCreateShader(GL_VERTEX_SHADER);
-        passShaderSourceToGPU(_vertexId);
-        checkInitiationStatus(_vertexId, "Vertex");
+    /**
+     * Finds the slot of a uniform, names that wasn't active at link are looked up once.
+     * @param name The name of the uniform.
+     * @return The slot of the uniform.
+     */
+    private int slot(String name) {
+        Integer slot = _uniforms.get(name);
+        return slot != null ? slot : slot(name, _device.getUniformLocation(_id, name));
+    }
+
+    /**
+     * Compares the scratch values with the last uploaded values of a uniform,
+     * and keeps them as the uploaded values if they differ.
+     * @param slot The slot of the uniform.
+     * @param count The amount of values.
+     * @return True if the values changed and should be uploaded, false if they are skipped.
+     */
+    private boolean changed(int slot, int count) {
+        if (_locations[slot] < 0)
+            return false;
+
+        float[] values = _values[slot];
+        if (values != null && values.length == count && Arrays.equals(values, 0, count, _scratch, 0, count)) {
+            _skippedUniforms++;
+            return false;
+        }
+
+        if (values == null || values.length != count)
+            _values[slot] = values = new float[count];
+        System.arraycopy(_scratch, 0, values, 0, count);
+        _integers[slot] = NO_INTEGER;
+        _uploadedUniforms++;
+
+        return true;
     }
 
-    /** Initiates Fragments and checks if it is a success. */
-    private void initiateFragments() {
-        _fragmentId = glCreateShader(GL_FRAGMENT_SHADER);
-        passShaderSourceToGPU(_fragmentId);
-        checkInitiationStatus(_fragmentId, "Fragment");
+    /**
+     * Sets an int uniform, such as a sampler, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param value The value.
+     */
+    public void upload(String name, int value) {
+        int slot = slot(name);
+        if (_locations[slot] < 0)
+            return;
+
+        if (_integers[slot] == value) {
+            _skippedUniforms++;
+            return;
+        }
+
+        _integers[slot] = value;
+        _values[slot] = null;
+        _uploadedUniforms++;
+        _device.uniform1i(_locations[slot], value);
     }
 
     /**
-     * Will both pass and compile a shader source.
-     * @param id The id of the shader source to be passed and compiled.
+     * Sets a float uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param value The value.
      */
-    private void passShaderSourceToGPU(int id) {
-        glShaderSource(id, id == _vertexId ? _vertex : _fragment);
-        glCompileShader(id);
+    public void upload(String name, float value) {
+        int slot = slot(name);
+        _scratch[0] = value;
+        if (changed(slot, 1))
+            _device.uniform1f(_locations[slot], value);
     }
 
     /**
-     * Will check the status of various initialisations.
-     * @param id The id of the object to be checked.
-     * @param unit Is used to describe to the Printer what unit there was a issue with.
+     * Sets a vec2 uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param vector The value.
      */
-    private void checkInitiationStatus(int id, String unit) {
-        boolean isProgram = id == _id;
-
-        if (isProgram ? glGetProgrami(id, GL_LINK_STATUS) == GL_FALSE : glGetShaderi(id,GL_COMPILE_STATUS) == GL_FALSE) {
-            Printer.get_instance().print("Error occurred when initiating " + unit + "...",
-                    new InstantiationException(
-                            "\n" + (isProgram ? glGetProgramInfoLog(_id, glGetProgrami(id, GL_LINK_STATUS)) : glGetShaderInfoLog(id, glGetShaderi(id, GL_INFO_LOG_LENGTH))))
-            );
-            assert false : "";
+    public void upload(String name, Vector2fc vector) {
+        int slot = slot(name);
+        _scratch[0] = vector.x();
+        _scratch[1] = vector.y();
+        if (changed(slot, 2))
+            _device.uniform2f(_locations[slot], vector.x(), vector.y());
+    }
+
+    /**
+     * Sets a vec3 uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param vector The value.
+     */
+    public void upload(String name, Vector3fc vector) {
+        int slot = slot(name);
+        _scratch[0] = vector.x();
+        _scratch[1] = vector.y();
+        _scratch[2] = vector.z();
+        if (changed(slot, 3))
+            _device.uniform3f(_locations[slot], vector.x(), vector.y(), vector.z());
+    }
+
+    /**
+     * Sets a vec4 uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param vector The value.
+     */
+    public void upload(String name, Vector4fc vector) {
+        int slot = slot(name);
+        _scratch[0] = vector.x();
+        _scratch[1] = vector.y();
+        _scratch[2] = vector.z();
+        _scratch[3] = vector.w();
+        if (changed(slot, 4))
+            _device.uniform4f(_locations[slot], vector.x(), vector.y(), vector.z(), vector.w());
+    }
+
+    /**
+     * Sets a mat3 uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param matrix The value.
+     */
+    public void upload(String name, Matrix3fc matrix) {
+        int slot = slot(name);
+        matrix.get(_scratch);
+        if (changed(slot, 9)) {
+            _matrix.clear();
+            _device.uniformMatrix3fv(_locations[slot], false, _matrix.put(_scratch, 0, 9).flip());
         }
     }
 
-    /** The program is created before linked and its status is checked. */
-    private void linkProgram() {
-        _id = glCreateProgram();
-        glAttachShader(_id, _vertexId);
-        glAttachShader(_id, _fragmentId);
-        glLinkProgram(_id);
-        checkInitiationStatus(_id, "program link");
+    /**
+     * Sets a mat4 uniform, the shader must be in use.
+     * @param name The name of the uniform.
+     * @param matrix The value.
+     */
+    public void upload(String name, Matrix4fc matrix) {
+        int slot = slot(name);
+        matrix.get(_scratch);
+        if (changed(slot, 16)) {
+            _matrix.clear();
+            _device.uniformMatrix4fv(_locations[slot], false, _matrix.put(_scratch, 0, 16).flip());
+        }
     }
 
     public void use() {
-        glUseProgram(_id);
+        _device.useProgram(_id);
     }
 
     public void detach() {
-        glUseProgram(0);
+        _device.useProgram(0);
+    }
+
+    /** Deletes the program, after which the shader can't be used before it is compiled again. */
+    public void delete() {
+        _device.deleteProgram(_id);
+        _id = 0;
     }
 }
@@ -0,0 +1,49 @@
+package laustrup.models.graphic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns the sources of a shader into a linked program, and the program into a binary and back.
+ * Is what the ShaderProgramCache compiles with, so it can be replaced when testing without a graphics card.
+ */
+public interface ShaderCompiler {
+
+    /**
+     * Compiles both stages and links them into a program, whose binary won't be retrieved.
+     * @param source The sources of the stages.
+     * @return The id of the linked program.
+     */
+    default int compile(ShaderSource source) {
+        return compile(source, false);
+    }
+
+    /**
+     * Compiles both stages and links them into a program.
+     * @param source The sources of the stages.
+     * @param retrievable True if the binary of the program will be retrieved, such as to save it.
+     * @return The id of the linked program.
+     */
+    int compile(ShaderSource source, boolean retrievable);
+
+    /**
+     * Retrieves the binary of a linked program.
+     * @param program The id of the program.
+     * @param format Is given the format of the binary at index 0.
+     * @return The binary, or null if binaries aren't supported.
+     */
+    ByteBuffer binary(int program, int[] format);
+
+    /**
+     * Creates a program from a binary.
+     * @param format The format of the binary.
+     * @param binary The binary from its position to its limit.
+     * @return The id of the program, or 0 if the binary was rejected.
+     */
+    int load(int format, ByteBuffer binary);
+
+    /**
+     * Describes the driver, a binary is only valid for the same driver that created it.
+     * @return The description of the vendor, renderer and version.
+     */
+    String driver();
+}
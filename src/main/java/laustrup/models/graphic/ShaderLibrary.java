@@ -0,0 +1,339 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads the sources of shader files and keeps them, so each file is only read and parsed once.
+ * A file is split into stages by lines of "#type vertex" and "#type fragment" in one pass with any line ending.
+ * Lines of "#include "file"" are replaced with the content of the file relative to the including file,
+ * and defines are injected after the "#version" line of each stage, even behind comments,
+ * or before its first line of code if it has no "#version".
+ * A file is read again if it or one of its includes has been modified,
+ * and sources with the same content are shared, found by their hash and compared by their text.
+ * Is a singleton class, that can be used from any thread.
+ */
+public class ShaderLibrary {
+
+    /** The single instance of ShaderLibrary. */
+    private static ShaderLibrary _instance;
+
+    /** The parsed sources by the path and defines they were loaded with. */
+    private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+
+    /** The parsed sources by their hash, a source is only shared if its text is the same as well. */
+    private final Map<Long, ShaderSource> _sources = new ConcurrentHashMap<>();
+
+    /** The amount of files that has been read. */
+    private final AtomicLong _reads = new AtomicLong();
+
+    /** The amount of loads, that reused a parsed source. */
+    private final AtomicLong _hits = new AtomicLong();
+
+    /** A parsed source with the files it was parsed from and when they were modified. */
+    private record Entry(ShaderSource source, Path[] files, FileTime[] modified) {
+
+        /**
+         * Determines if any of the files has been modified since the source was parsed.
+         * @return True if they are all unmodified.
+         * @throws IOException If one of the files can't be found anymore.
+         */
+        boolean isCurrent() throws IOException {
+            for (int i = 0; i < files.length; i++)
+                if (!Files.getLastModifiedTime(files[i]).equals(modified[i]))
+                    return false;
+
+            return true;
+        }
+    }
+
+    private ShaderLibrary() {}
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * @return The singleton instance.
+     */
+    public static synchronized ShaderLibrary get_instance() {
+        if (ShaderLibrary._instance == null)
+            ShaderLibrary._instance = new ShaderLibrary();
+
+        return ShaderLibrary._instance;
+    }
+
+    /** @return The amount of files that has been read. */
+    public long get_reads() {
+        return _reads.get();
+    }
+
+    /** @return The amount of loads, that reused a parsed source. */
+    public long get_hits() {
+        return _hits.get();
+    }
+
+    /**
+     * Gives the parsed sources of a shader file, which is only read if it isn't loaded or has been modified.
+     * @param path The path of the shader file.
+     * @param defines Defines to be injected into each stage, such as "MAX_LIGHTS 4".
+     * @return The parsed sources.
+     * @throws IOException If a file couldn't be read or has an unexpected type.
+     */
+    public ShaderSource load(String path, String... defines) throws IOException {
+        String key = path + '|' + String.join("|", defines);
+        Entry entry = _entries.get(key);
+
+        if (entry != null && entry.isCurrent()) {
+            _hits.incrementAndGet();
+            return entry.source();
+        }
+
+        List<Path> files = new ArrayList<>();
+        ShaderSource parsed = parse(path, Paths.get(path), defines, files),
+                     shared = _sources.putIfAbsent(parsed.get_hash(), parsed);
+        // Sources of another text with the same hash are kept apart, they just aren't shared.
+        if (shared != null && shared.get_vertex().equals(parsed.get_vertex())
+                && shared.get_fragment().equals(parsed.get_fragment()))
+            parsed = shared;
+
+        FileTime[] modified = new FileTime[files.size()];
+        for (int i = 0; i < modified.length; i++)
+            modified[i] = Files.getLastModifiedTime(files.get(i));
+        _entries.put(key, new Entry(parsed, files.toArray(new Path[0]), modified));
+
+        return parsed;
+    }
+
+    /** Removes all the parsed sources, so files will be read again. */
+    public void clear() {
+        _entries.clear();
+        _sources.clear();
+    }
+
+    /**
+     * Reads and parses a shader file without using or filling the cache.
+     * @param path The path that the source will be named by.
+     * @param file The file to read.
+     * @param defines Defines to be injected into each stage.
+     * @param files Is filled with the file and every included file.
+     * @return The parsed sources.
+     * @throws IOException If a file couldn't be read or has an unexpected type.
+     */
+    public ShaderSource parse(String path, Path file, String[] defines, List<Path> files) throws IOException {
+        Parsing parsing = new Parsing(path, defines, files);
+        parsing.file(file);
+
+        return parsing.result();
+    }
+
+    /** The state of parsing one shader file with its includes. */
+    private class Parsing {
+
+        /** The path that the source will be named by. */
+        private final String _path;
+
+        /** Defines to be injected into each stage. */
+        private final String[] _defines;
+
+        /** The files that has been read. */
+        private final List<Path> _files;
+
+        /** The files that are being included, to prevent including in a circle. */
+        private final Set<Path> _including = new HashSet<>();
+
+        /** The sources of the stages. */
+        private final StringBuilder _vertex = new StringBuilder(), _fragment = new StringBuilder();
+
+        /** The stage that lines are appended to, null before the first type. */
+        private StringBuilder _stage;
+
+        /** True if the defines still needs to be injected into the current stage. */
+        private boolean _pendingDefines;
+
+        /**
+         * Where the defines are injected if the stage doesn't have a #version, which is before its first line of code,
+         * or -1 before any line of code.
+         */
+        private int _defineAt;
+
+        /** True if the current line starts inside of a block comment. */
+        private boolean _inBlockComment;
+
+        Parsing(String path, String[] defines, List<Path> files) {
+            _path = path;
+            _defines = defines;
+            _files = files;
+        }
+
+        /**
+         * Reads a file and parses its lines.
+         * @param file The file to parse.
+         * @throws IOException If it couldn't be read, has an unexpected type or includes in a circle.
+         */
+        void file(Path file) throws IOException {
+            Path absolute = file.toAbsolutePath().normalize();
+            if (!_including.add(absolute))
+                throw new IOException("The file \"" + file + "\" includes itself in the shader \"" + _path + "\"...");
+
+            String text = Files.readString(file);
+            _reads.incrementAndGet();
+            _files.add(file);
+
+            int start = 0, length = text.length();
+            while (start < length) {
+                int end = start;
+                while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r')
+                    end++;
+
+                line(text, start, end, file);
+
+                if (end < length && text.charAt(end) == '\r')
+                    end++;
+                if (end < length && text.charAt(end) == '\n')
+                    end++;
+                start = end;
+            }
+
+            _including.remove(absolute);
+        }
+
+        /**
+         * Handles one line, which is either a directive of this library or appended to the current stage.
+         * @param text The text of the file.
+         * @param start The index of the first character of the line.
+         * @param end The index after the last character of the line.
+         * @param file The file of the line.
+         * @throws IOException If it is an unexpected type or an include couldn't be read.
+         */
+        private void line(String text, int start, int end, Path file) throws IOException {
+            int first = start;
+            while (first < end && Character.isWhitespace(text.charAt(first)))
+                first++;
+
+            if (text.startsWith("#type", first))
+                type(text.substring(first + 5, end).trim());
+            else if (text.startsWith("#include", first))
+                include(text.substring(first + 8, end).trim(), file);
+            else if (_stage != null) {
+                boolean code = isCode(text, first, end);
+
+                if (_pendingDefines && code && _defineAt < 0)
+                    _defineAt = _stage.length();
+                _stage.append(text, start, end).append('\n');
+                // The defines must follow the #version, even if comments are before it.
+                if (_pendingDefines && code && text.startsWith("#version", first)) {
+                    _stage.append(defines());
+                    _pendingDefines = false;
+                }
+            }
+            else if (first < end)
+                throw new IOException("Content before any \"#type\" in the file \"" + file + "\"...");
+        }
+
+        /**
+         * Starts appending to the stage of a type.
+         * @param type The name of the type.
+         * @throws IOException If it isn't vertex or fragment.
+         */
+        private void type(String type) throws IOException {
+            finish();
+            _stage = switch (type) {
+                case "vertex" -> _vertex;
+                case "fragment" -> _fragment;
+                default -> throw new IOException("Unexpected token \"" + type + "\" in the file \"" + _path + "\"...");
+            };
+            _pendingDefines = _defines.length > 0;
+            _defineAt = -1;
+            _inBlockComment = false;
+        }
+
+        /**
+         * Parses an included file into the current stage.
+         * @param name The name of the file in quotes.
+         * @param file The file that includes it.
+         * @throws IOException If it couldn't be read.
+         */
+        private void include(String name, Path file) throws IOException {
+            if (name.length() < 2 || name.charAt(0) != '"' || name.charAt(name.length() - 1) != '"')
+                throw new IOException("An include of \"" + file + "\" must be a path in quotes...");
+
+            Path directory = file.toAbsolutePath().getParent();
+            file(directory.resolve(name.substring(1, name.length() - 1)));
+        }
+
+        /** @return The lines of the defines. */
+        private String defines() {
+            StringBuilder lines = new StringBuilder();
+            for (String define : _defines)
+                lines.append("#define ").append(define).append('\n');
+
+            return lines.toString();
+        }
+
+        /**
+         * Injects the defines into a stage without a #version, before its first line of code,
+         * which is only known when the stage has ended.
+         */
+        private void finish() {
+            if (_stage != null && _pendingDefines)
+                _stage.insert(_defineAt < 0 ? _stage.length() : _defineAt, defines());
+            _pendingDefines = false;
+        }
+
+        /**
+         * Finds out if a line has anything but whitespace and comments, and keeps track of block comments.
+         * @param text The text of the file.
+         * @param first The index of the first character of the line, that isn't whitespace.
+         * @param end The index after the last character of the line.
+         * @return True if the line has code.
+         */
+        private boolean isCode(String text, int first, int end) {
+            boolean code = false;
+
+            for (int i = first; i < end; i++) {
+                if (_inBlockComment) {
+                    if (i + 1 < end && text.charAt(i) == '*' && text.charAt(i + 1) == '/') {
+                        _inBlockComment = false;
+                        i++;
+                    }
+                }
+                else if (i + 1 < end && text.charAt(i) == '/' && text.charAt(i + 1) == '/')
+                    break;
+                else if (i + 1 < end && text.charAt(i) == '/' && text.charAt(i + 1) == '*') {
+                    _inBlockComment = true;
+                    i++;
+                }
+                else if (!Character.isWhitespace(text.charAt(i)))
+                    code = true;
+            }
+
+            return code;
+        }
+
+        /**
+         * Creates the parsed sources with a hash of both stages.
+         * @return The parsed sources.
+         */
+        ShaderSource result() {
+            finish();
+            long hash = 0xcbf29ce484222325L;
+            for (CharSequence stage : new CharSequence[]{_vertex, "\0", _fragment})
+                for (int i = 0; i < stage.length(); i++) {
+                    hash ^= stage.charAt(i);
+                    hash *= 0x100000001b3L;
+                }
+
+            return new ShaderSource(_path, _vertex.toString(), _fragment.toString(), hash);
+        }
+    }
+}
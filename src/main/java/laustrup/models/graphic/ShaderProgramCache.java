@@ -0,0 +1,284 @@
+package laustrup.models.graphic;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.utilities.console.Printer;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares linked programs between scenes, so the same sources are only compiled once.
+ * Programs are kept by their device and the hash of their sources, which includes the defines,
+ * and counts their references.
+ * If a directory is set, the binaries of linked programs are saved in it and loaded at the next start,
+ * as long as they were created by the same driver.
+ * Should only be used from the thread of the graphics context.
+ * Is a singleton class.
+ */
+public class ShaderProgramCache {
+
+    /** The single instance of ShaderProgramCache. */
+    private static ShaderProgramCache _instance;
+
+    /** Identifies a file of a program binary. */
+    private static final int MAGIC = 0x43545350;
+
+    /** The version of the format of the binary files, files of other versions are ignored. */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The compiler of the programs.
+     * Is compiling with the device of the window, if none is set.
+     */
+    private ShaderCompiler _compiler;
+
+    /** The device that the compiler was created from, or null if the compiler was set. */
+    private GraphicsDevice _compilerDevice;
+
+    /** The directory to save program binaries in, or null to not save them. */
+    @Getter @Setter
+    private Path _directory;
+
+    /** The programs in use by their device and the hash of their sources. */
+    private final Map<Key, Entry> _entries = new HashMap<>();
+
+    /** The amount of programs compiled from sources. */
+    @Getter
+    private long _compiles;
+
+    /** The amount of programs loaded from saved binaries. */
+    @Getter
+    private long _binaryLoads;
+
+    /** The amount of acquires that got a program already in use. */
+    @Getter
+    private long _hits;
+
+    /** Identifies a shared program, which is only valid on the device it was linked on. */
+    private record Key(GraphicsDevice device, long hash) {}
+
+    /** A shared program with the amount of its references. */
+    private static class Entry {
+
+        /** The shared Shader of the program. */
+        private final Shader _shader;
+
+        /** The amount of acquires that hasn't been released. */
+        private int _references;
+
+        Entry(Shader shader) {
+            _shader = shader;
+        }
+    }
+
+    private ShaderProgramCache() {}
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * @return The singleton instance.
+     */
+    public static ShaderProgramCache get_instance() {
+        if (ShaderProgramCache._instance == null)
+            ShaderProgramCache._instance = new ShaderProgramCache();
+
+        return ShaderProgramCache._instance;
+    }
+
+    /**
+     * The compiler of the programs, which is created from the device of the window if none is set.
+     * It is created again if the device of the window has been changed, so programs are compiled on the same device,
+     * that their Shader uses.
+     * @return The compiler.
+     */
+    public ShaderCompiler get_compiler() {
+        GraphicsDevice device = Window.get_instance().get_device();
+        if (_compiler == null || _compilerDevice != null && _compilerDevice != device) {
+            _compiler = new DeviceShaderCompiler(device);
+            _compilerDevice = device;
+        }
+
+        return _compiler;
+    }
+
+    /**
+     * Replaces the compiler, the programs of the previous compiler are forgotten, so they aren't shared anymore.
+     * @param compiler The compiler of the programs, or null to compile with the device of the window.
+     */
+    public void set_compiler(ShaderCompiler compiler) {
+        _compiler = compiler;
+        _compilerDevice = null;
+        _entries.clear();
+    }
+
+    /**
+     * Gives the shared program of a shader file, loaded through the ShaderLibrary.
+     * @param path The path of the shader file.
+     * @param defines Defines to be injected into each stage.
+     * @return The shared Shader, which should be released when it isn't used anymore.
+     * @throws IOException If the file couldn't be read.
+     */
+    public Shader acquire(String path, String... defines) throws IOException {
+        return acquire(ShaderLibrary.get_instance().load(path, defines));
+    }
+
+    /**
+     * Gives the shared program of the sources.
+     * If it isn't in use, it is loaded from a saved binary or compiled.
+     * @param source The parsed sources.
+     * @return The shared Shader, which should be released when it isn't used anymore.
+     */
+    public Shader acquire(ShaderSource source) {
+        GraphicsDevice device = Window.get_instance().get_device();
+        Key key = new Key(device, source.get_hash());
+        Entry entry = _entries.get(key);
+
+        if (entry != null)
+            _hits++;
+        else {
+            entry = new Entry(new Shader(source, program(source), device));
+            _entries.put(key, entry);
+        }
+        entry._references++;
+
+        return entry._shader;
+    }
+
+    /**
+     * Removes a reference of a shared program, which is deleted on its own device when it isn't referenced anymore.
+     * @param shader The Shader given by acquire.
+     */
+    public void release(Shader shader) {
+        Key key = key(shader);
+        Entry entry = _entries.get(key);
+
+        if (entry != null && entry._shader == shader && --entry._references == 0) {
+            _entries.remove(key);
+            shader.delete();
+        }
+    }
+
+    /**
+     * The amount of references of a program.
+     * @param shader The Shader given by acquire.
+     * @return The amount, 0 if it isn't in use.
+     */
+    public int references(Shader shader) {
+        Entry entry = _entries.get(key(shader));
+        return entry != null && entry._shader == shader ? entry._references : 0;
+    }
+
+    /**
+     * @param shader A Shader given by acquire.
+     * @return The key of its program.
+     */
+    private static Key key(Shader shader) {
+        return new Key(shader.get_device(), shader.get_source().get_hash());
+    }
+
+    /**
+     * Loads the program from a saved binary, or compiles it and saves its binary.
+     * @param source The parsed sources.
+     * @return The id of the linked program.
+     */
+    private int program(ShaderSource source) {
+        int program = loadBinary(source);
+        if (program != 0) {
+            _binaryLoads++;
+            return program;
+        }
+
+        // The driver is only hinted to keep the binary, when it will be saved.
+        program = get_compiler().compile(source, file(source) != null);
+        _compiles++;
+        saveBinary(source, program);
+
+        return program;
+    }
+
+    /**
+     * Finds the file of the binary of some sources.
+     * @param source The parsed sources.
+     * @return The file, or null if there is no directory.
+     */
+    private Path file(ShaderSource source) {
+        return _directory == null ? null : _directory.resolve(Long.toHexString(source.get_hash()) + ".bin");
+    }
+
+    /**
+     * Loads a saved binary, if there is one of the same format version and driver.
+     * A binary that is rejected is deleted, so it will be saved again.
+     * @param source The parsed sources.
+     * @return The id of the program, or 0 if there wasn't any valid binary.
+     */
+    private int loadBinary(ShaderSource source) {
+        Path file = file(source);
+        if (file == null || !Files.exists(file))
+            return 0;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION
+                    || !input.readUTF().equals(get_compiler().driver()) || input.readLong() != source.get_hash())
+                return 0;
+
+            int format = input.readInt();
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+
+            ByteBuffer binary = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+            int program = get_compiler().load(format, binary);
+            if (program == 0)
+                Files.deleteIfExists(file);
+
+            return program;
+        } catch (IOException e) {
+            Printer.get_instance().print("Couldn't load the program binary \"" + file + "\"...", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Saves the binary of a program, if there is a directory and the compiler supports binaries.
+     * @param source The parsed sources.
+     * @param program The id of the linked program.
+     */
+    private void saveBinary(ShaderSource source, int program) {
+        Path file = file(source);
+        if (file == null)
+            return;
+
+        int[] format = new int[1];
+        ByteBuffer binary = get_compiler().binary(program, format);
+        if (binary == null)
+            return;
+
+        try {
+            Files.createDirectories(_directory);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                byte[] bytes = new byte[binary.remaining()];
+                binary.get(bytes);
+
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(get_compiler().driver());
+                output.writeLong(source.get_hash());
+                output.writeInt(format[0]);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        } catch (IOException e) {
+            Printer.get_instance().print("Couldn't save the program binary \"" + file + "\"...", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The parsed sources of the stages of a shader file.
+ * Is immutable, so the same object can be shared by every Shader of the same file.
+ */
+@ToString(of = {"_path", "_hash"})
+public class ShaderSource {
+
+    /** The path of the file that the sources are parsed from. */
+    @Getter
+    private final String _path;
+
+    /** The glsl source of the vertex stage. */
+    @Getter
+    private final String _vertex;
+
+    /** The glsl source of the fragment stage. */
+    @Getter
+    private final String _fragment;
+
+    /** A hash of the content of the file, its includes and the defines. */
+    @Getter
+    private final long _hash;
+
+    /**
+     * Initiates all the values.
+     * @param path The path of the file that the sources are parsed from.
+     * @param vertex The glsl source of the vertex stage.
+     * @param fragment The glsl source of the fragment stage.
+     * @param hash A hash of the content of the file, its includes and the defines.
+     */
+    public ShaderSource(String path, String vertex, String fragment, long hash) {
+        _path = path;
+        _vertex = vertex;
+        _fragment = fragment;
+        _hash = hash;
+    }
+}
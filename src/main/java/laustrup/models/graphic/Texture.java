@@ -0,0 +1,74 @@
+package laustrup.models.graphic;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+
+/**
+ * An image uploaded to the graphics card, that shaders can sample.
+ * Should only be created and used from the thread of the graphics context.
+ */
+@ToString(of = {"_id", "_width", "_height"})
+public class Texture {
+
+    /** The id of the texture, which is generated from the device. */
+    @Getter
+    private final int _id;
+
+    /** The amount of pixels of each row. */
+    @Getter
+    private final int _width;
+
+    /** The amount of rows. */
+    @Getter
+    private final int _height;
+
+    /** The device that the texture is uploaded to. */
+    private final GraphicsDevice _device;
+
+    /**
+     * Uploads the pixels of a decoded image, the image can be freed afterwards.
+     * @param image The decoded image.
+     * @param device The device to upload to.
+     */
+    public Texture(Image image, GraphicsDevice device) {
+        this(image.get_width(), image.get_height(), image.get_pixels(), device);
+    }
+
+    /**
+     * Uploads rgba pixels, which are sampled with nearest filtering and clamped at the edges.
+     * @param width The amount of pixels of each row.
+     * @param height The amount of rows.
+     * @param pixels The rgba pixels, or null to only allocate the storage.
+     * @param device The device to upload to.
+     */
+    public Texture(int width, int height, ByteBuffer pixels, GraphicsDevice device) {
+        _width = width;
+        _height = height;
+        _device = device;
+        _id = device.genTexture();
+
+        device.bindTexture(GL_TEXTURE_2D, _id);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        device.texImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+    }
+
+    /** Binds the texture to the active texture unit. */
+    public void bind() {
+        _device.bindTexture(GL_TEXTURE_2D, _id);
+    }
+
+    /** Deletes the texture from the device, it can't be used afterwards. */
+    public void delete() {
+        _device.deleteTexture(_id);
+    }
+}
@@ -3,52 +3,117 @@ package laustrup.models.graphic;
 import lombok.Getter;
 import lombok.ToString;
 
-/** Defines positions at the screen for use. */
-@ToString
+/**
+ * Defines positions at the screen for use.
+ * Is a view of a range of vertices in a VertexStore, so the values are not kept in this object itself.
+ */
+@ToString(of = {"_first", "_count"})
 public class Vertex {
 
-    /** The positions for this Vertex. */
+    /** The store containing the values of this Vertex. */
     @Getter
-    private float[] _positions;
+    private final VertexStore _store;
 
-    /** The colours applied to the positions of this Vertex. */
+    /** The index in the store of the first vertex of this Vertex. */
     @Getter
-    private float[] _colors;
+    private final int _first;
+
+    /** The amount of vertices in the store that this Vertex covers. */
+    @Getter
+    private int _count;
 
     /**
-     * Initiates positions and colors.
+     * Initiates positions and colors into a store of its own.
      * @param positions The positions for this Vertex.
      * @param colors The colors for the positions of this Vertex.
      */
     public Vertex(float[] positions, float[] colors) {
-        _positions = positions;
-        _colors = colors;
+        this(new VertexStore(positions.length / VertexStore.POSITION_SIZE), positions, colors);
+    }
+
+    /**
+     * Appends positions and colors into a shared store.
+     * @param store The store to append into.
+     * @param positions The positions for this Vertex.
+     * @param colors The colors for the positions of this Vertex.
+     */
+    public Vertex(VertexStore store, float[] positions, float[] colors) {
+        _store = store;
+        _first = store.addAll(positions, colors);
+        _count = positions.length / VertexStore.POSITION_SIZE;
+    }
+
+    /**
+     * A view of vertices that are already in a store.
+     * @param store The store containing the vertices.
+     * @param first The index of the first vertex.
+     * @param count The amount of vertices.
+     */
+    public Vertex(VertexStore store, int first, int count) {
+        _store = store;
+        _first = first;
+        _count = count;
+    }
+
+    /**
+     * Copies the positions of this Vertex out of the store.
+     * Is a copy, since the positions are a range of the shared store, changing it doesn't change this Vertex.
+     * @return The positions for this Vertex.
+     */
+    public float[] get_positions() {
+        float[] positions = new float[_count * VertexStore.POSITION_SIZE];
+        System.arraycopy(_store.get_positions(), _first * VertexStore.POSITION_SIZE, positions, 0, positions.length);
+
+        return positions;
+    }
+
+    /**
+     * Copies the colors of this Vertex out of the store.
+     * Is a copy, since the colors are a range of the shared store, changing it doesn't change this Vertex.
+     * @return The colours applied to the positions of this Vertex.
+     */
+    public float[] get_colors() {
+        float[] colors = new float[_count * VertexStore.COLOR_SIZE];
+        System.arraycopy(_store.get_colors(), _first * VertexStore.COLOR_SIZE, colors, 0, colors.length);
+
+        return colors;
     }
 
     /**
      * Appends new position and color data to this Vertex.
      * Length of positions must be modulus 3 == 0 and colors modulus 4 == 0.
+     * Only possible if this Vertex is the last in its store, otherwise it would overwrite other vertices.
+     * Copies all the values out of the store to return them, so extend should be used when appending many times.
      * @param positions The position values of the screen to be added.
      * @param colors The colors assign for the appending positions.
-     * @return The positions and colors of this Vertex.
+     * @return Copies of the positions and colors of this Vertex.
      */
     public float[][] append(float[] positions, float[] colors) {
-        if (3 % positions.length == 0 && 4 % colors.length == 0) {
-            float[] positionStorage = new float[_positions.length+ positions.length],
-                    colorStorage = new float[_colors.length+colors.length];
+        extend(positions, colors);
+
+        return new float[][]{
+            get_positions(),
+            get_colors()
+        };
+    }
 
-            for (int i = 0; i < positionStorage.length; i++)
-                positionStorage[i] = i < _positions.length ? _positions[i] : positions[i];
-            for (int i = 0; i < colorStorage.length; i++)
-                colorStorage[i] = i < _colors.length ? _colors[i] : colors[i];
+    /**
+     * Appends new position and color data to this Vertex, without copying any values out of the store.
+     * Length of positions must be modulus 3 == 0 and colors modulus 4 == 0.
+     * Only possible if this Vertex is the last in its store, otherwise it would overwrite other vertices.
+     * @param positions The position values of the screen to be added.
+     * @param colors The colors assign for the appending positions.
+     * @return This Vertex.
+     */
+    public Vertex extend(float[] positions, float[] colors) {
+        if (_first + _count != _store.get_size())
+            throw new IllegalStateException("Can only append to a Vertex at the end of its store...");
 
-            _positions = positionStorage;
-            _colors = colorStorage;
+        if (positions.length % VertexStore.POSITION_SIZE == 0 && colors.length % VertexStore.COLOR_SIZE == 0) {
+            _store.addAll(positions, colors);
+            _count += positions.length / VertexStore.POSITION_SIZE;
         }
 
-        return new float[][]{
-            _positions,
-            _colors
-        };
+        return this;
     }
 }
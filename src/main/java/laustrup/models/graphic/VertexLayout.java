@@ -0,0 +1,202 @@
+package laustrup.models.graphic;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+
+/**
+ * Describes how the values of a vertex are interleaved in a buffer.
+ * Is used both to set up the attribute pointers of gl and to write Vertex data in the same format.
+ * A layout with a divisor describes the values of instances instead, which advance once for each instance.
+ */
+@ToString(of = {"_attributes", "_stride", "_divisor"})
+public class VertexLayout {
+
+    /** The layout of the default shader, with positions and colors. */
+    public static final VertexLayout POSITION_COLOR = new VertexLayout(
+            new Attribute(Usage.POSITION, 3, Type.FLOAT),
+            new Attribute(Usage.COLOR, 4, Type.FLOAT)
+    );
+
+    /** The layout of textured meshes, with positions, colors and texture coordinates. */
+    public static final VertexLayout POSITION_COLOR_UV = new VertexLayout(
+            new Attribute(Usage.POSITION, 3, Type.FLOAT),
+            new Attribute(Usage.COLOR, 4, Type.FLOAT),
+            new Attribute(Usage.UV, 2, Type.FLOAT)
+    );
+
+    /**
+     * The layout of instances, with the rows of an affine transform, a color and the rectangle of texture coordinates,
+     * packed into 68 bytes, where the color is normalized bytes.
+     */
+    public static final VertexLayout INSTANCE = new VertexLayout(1,
+            new Attribute(Usage.TRANSFORM, 4, Type.FLOAT),
+            new Attribute(Usage.TRANSFORM, 4, Type.FLOAT),
+            new Attribute(Usage.TRANSFORM, 4, Type.FLOAT),
+            new Attribute(Usage.COLOR, 4, Type.UNSIGNED_BYTE),
+            new Attribute(Usage.UV_RECT, 4, Type.FLOAT)
+    );
+
+    /** Defines what values of a Vertex or an instance an attribute contains. */
+    public enum Usage {
+        POSITION,
+        COLOR,
+        UV,
+        TRANSFORM,
+        UV_RECT
+    }
+
+    /** Defines the types that the values of an attribute can be stored as. */
+    public enum Type {
+        FLOAT(GL_FLOAT, Float.BYTES),
+        UNSIGNED_BYTE(GL_UNSIGNED_BYTE, Byte.BYTES);
+
+        /** The constant of the type in gl. */
+        @Getter
+        private final int _glType;
+
+        /** The amount of bytes of one value. */
+        @Getter
+        private final int _bytes;
+
+        Type(int glType, int bytes) {
+            _glType = glType;
+            _bytes = bytes;
+        }
+    }
+
+    /**
+     * An attribute of the layout, where the location is the index in the layout.
+     * Is immutable, so the same attribute can be shared by many layouts.
+     */
+    @ToString
+    public static class Attribute {
+
+        /** What values of a Vertex this attribute contains. */
+        @Getter
+        private final Usage _usage;
+
+        /** The amount of values of the attribute. */
+        @Getter
+        private final int _components;
+
+        /** The type that the values are stored as. */
+        @Getter
+        private final Type _type;
+
+        /** True if integer values should be normalized into 0 to 1 by gl. */
+        @Getter
+        private final boolean _normalized;
+
+        /**
+         * Initiates an attribute, that will be normalized if its type isn't float.
+         * @param usage What values of a Vertex this attribute contains.
+         * @param components The amount of values of the attribute.
+         * @param type The type that the values are stored as.
+         */
+        public Attribute(Usage usage, int components, Type type) {
+            _usage = usage;
+            _components = components;
+            _type = type;
+            _normalized = type != Type.FLOAT;
+        }
+
+        /** @return The amount of bytes of the attribute. */
+        public int bytes() {
+            return _components * _type.get_bytes();
+        }
+    }
+
+    /** The attributes in the order of their locations. */
+    @Getter
+    private final Attribute[] _attributes;
+
+    /** The amount of bytes from the start of the vertex to each attribute, in the order of the attributes. */
+    private final int[] _offsets;
+
+    /** The amount of bytes of one vertex. */
+    @Getter
+    private final int _stride;
+
+    /** True if all attributes are floats, which allows writing into a FloatBuffer. */
+    @Getter
+    private final boolean _floatsOnly;
+
+    /** The amount of instances that share each value, or 0 if the values advance every vertex. */
+    @Getter
+    private final int _divisor;
+
+    /**
+     * Calculates the offsets of the attributes and the stride of a layout of vertices.
+     * @param attributes The attributes in the order of their locations.
+     */
+    public VertexLayout(Attribute... attributes) {
+        this(0, attributes);
+    }
+
+    /**
+     * Calculates the offsets of the attributes and the stride.
+     * @param divisor The amount of instances that share each value, or 0 if the values advance every vertex.
+     * @param attributes The attributes in the order of their locations.
+     */
+    public VertexLayout(int divisor, Attribute... attributes) {
+        _divisor = divisor;
+        _attributes = attributes.clone();
+        _offsets = new int[attributes.length];
+
+        int offset = 0;
+        boolean floatsOnly = true;
+        for (int i = 0; i < _attributes.length; i++) {
+            _offsets[i] = offset;
+            offset += _attributes[i].bytes();
+            floatsOnly &= _attributes[i].get_type() == Type.FLOAT;
+        }
+        _stride = offset;
+        _floatsOnly = floatsOnly;
+    }
+
+    /**
+     * @param location The location of the attribute, which is its index in the layout.
+     * @return The amount of bytes from the start of the vertex to the attribute.
+     */
+    public int offset(int location) {
+        return _offsets[location];
+    }
+
+    /** @return The amount of floats of one vertex, only useful if the layout is floats only. */
+    public int floats() {
+        return _stride / Float.BYTES;
+    }
+
+    /**
+     * Sets up the attribute pointers and enables them for the currently bound vertex array.
+     * Expects the vertex buffer to be bound.
+     * @param device The device of the vertex array.
+     */
+    public void configure(GraphicsDevice device) {
+        configure(device, 0, 0);
+    }
+
+    /**
+     * Sets up the attribute pointers after the attributes of another layout and enables them,
+     * for the currently bound vertex array, where the divisor is set if the layout has one.
+     * Expects the buffer of the values to be bound.
+     * @param device The device of the vertex array.
+     * @param firstLocation The location of the first attribute, such as the amount of attributes of the vertices.
+     * @param offset The amount of bytes from the start of the buffer to the first value, such as a streamed region.
+     */
+    public void configure(GraphicsDevice device, int firstLocation, long offset) {
+        for (int i = 0; i < _attributes.length; i++) {
+            Attribute attribute = _attributes[i];
+            device.vertexAttribPointer(firstLocation + i, attribute.get_components(), attribute.get_type().get_glType(),
+                    attribute.is_normalized(), _stride, offset + _offsets[i]);
+            device.enableVertexAttribArray(firstLocation + i);
+            if (_divisor != 0)
+                device.vertexAttribDivisor(firstLocation + i, _divisor);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package laustrup.models.graphic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores the values of many vertices in primitive arrays, one array for each kind of value.
+ * The arrays grows by doubling, so appending is amortized constant.
+ * The arrays can be longer than the stored values, the size tells how many vertices are in use.
+ */
+@ToString(of = {"_size"})
+public class VertexStore {
+
+    /** The amount of position values of each vertex. */
+    public static final int POSITION_SIZE = 3;
+
+    /** The amount of color values of each vertex. */
+    public static final int COLOR_SIZE = 4;
+
+    /** The amount of texture coordinate values of each vertex. */
+    public static final int UV_SIZE = 2;
+
+    /** The x, y and z positions of all the vertices after each other. */
+    @Getter
+    private float[] _positions;
+
+    /** The rgba colors of all the vertices after each other. */
+    @Getter
+    private float[] _colors;
+
+    /** The u and v texture coordinates of all the vertices after each other. */
+    @Getter
+    private float[] _uvs;
+
+    /** The amount of vertices stored. */
+    @Getter
+    private int _size;
+
+    /** Initiates with room for a few vertices. */
+    public VertexStore() {
+        this(4);
+    }
+
+    /**
+     * Initiates with room for an expected amount of vertices.
+     * @param capacity The amount of vertices there is room for before growing.
+     */
+    public VertexStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        _positions = new float[capacity * POSITION_SIZE];
+        _colors = new float[capacity * COLOR_SIZE];
+        _uvs = new float[capacity * UV_SIZE];
+    }
+
+    /**
+     * Appends a vertex without texture coordinates.
+     * @return The index of the added vertex.
+     */
+    public int add(float x, float y, float z, float r, float g, float b, float a) {
+        return add(x, y, z, r, g, b, a, 0, 0);
+    }
+
+    /**
+     * Appends a vertex.
+     * @return The index of the added vertex.
+     */
+    public int add(float x, float y, float z, float r, float g, float b, float a, float u, float v) {
+        ensureCapacity(_size + 1);
+        set(_size, x, y, z, r, g, b, a, u, v);
+
+        return _size++;
+    }
+
+    /**
+     * Appends many vertices at once, without texture coordinates like add.
+     * Length of positions must be modulus 3 == 0 and colors must have four values for each position.
+     * @param positions The x, y and z positions of the vertices.
+     * @param colors The rgba colors of the vertices.
+     * @return The index of the first added vertex.
+     */
+    public int addAll(float[] positions, float[] colors) {
+        int count = positions.length / POSITION_SIZE;
+        if (positions.length % POSITION_SIZE != 0 || colors.length != count * COLOR_SIZE)
+            throw new IllegalArgumentException("Positions and colors doesn't describe the same amount of vertices...");
+
+        int first = _size;
+        ensureCapacity(_size + count);
+        System.arraycopy(positions, 0, _positions, first * POSITION_SIZE, positions.length);
+        System.arraycopy(colors, 0, _colors, first * COLOR_SIZE, colors.length);
+        // The texture coordinates of vertices that were cleared would be kept otherwise.
+        Arrays.fill(_uvs, first * UV_SIZE, (first + count) * UV_SIZE, 0);
+        _size += count;
+
+        return first;
+    }
+
+    /** Updates all values of a vertex in place. */
+    public void set(int index, float x, float y, float z, float r, float g, float b, float a, float u, float v) {
+        setPosition(index, x, y, z);
+        setColor(index, r, g, b, a);
+        setUV(index, u, v);
+    }
+
+    /** Updates the position of a vertex in place. */
+    public void setPosition(int index, float x, float y, float z) {
+        int i = index * POSITION_SIZE;
+        _positions[i] = x;
+        _positions[i + 1] = y;
+        _positions[i + 2] = z;
+    }
+
+    /** Updates the color of a vertex in place. */
+    public void setColor(int index, float r, float g, float b, float a) {
+        int i = index * COLOR_SIZE;
+        _colors[i] = r;
+        _colors[i + 1] = g;
+        _colors[i + 2] = b;
+        _colors[i + 3] = a;
+    }
+
+    /** Updates the texture coordinates of a vertex in place. */
+    public void setUV(int index, float u, float v) {
+        int i = index * UV_SIZE;
+        _uvs[i] = u;
+        _uvs[i + 1] = v;
+    }
+
+    /**
+     * Finds a position value of a vertex.
+     * @param index The index of the vertex.
+     * @param component 0 for x, 1 for y and 2 for z.
+     * @return The found value.
+     */
+    public float position(int index, int component) {
+        return _positions[index * POSITION_SIZE + component];
+    }
+
+    /**
+     * Finds a color value of a vertex.
+     * @param index The index of the vertex.
+     * @param component 0 for red, 1 for green, 2 for blue and 3 for alpha.
+     * @return The found value.
+     */
+    public float color(int index, int component) {
+        return _colors[index * COLOR_SIZE + component];
+    }
+
+    /**
+     * Finds a texture coordinate value of a vertex.
+     * @param index The index of the vertex.
+     * @param component 0 for u and 1 for v.
+     * @return The found value.
+     */
+    public float uv(int index, int component) {
+        return _uvs[index * UV_SIZE + component];
+    }
+
+    /** Removes all vertices, but keeps the arrays for reuse. */
+    public void clear() {
+        _size = 0;
+    }
+
+    /**
+     * Copies the positions of all vertices into a buffer with one bulk put.
+     * @param buffer The buffer to be written into from its current position.
+     * @return The same buffer.
+     */
+    public FloatBuffer writePositions(FloatBuffer buffer) {
+        return buffer.put(_positions, 0, _size * POSITION_SIZE);
+    }
+
+    /**
+     * Copies the colors of all vertices into a buffer with one bulk put.
+     * @param buffer The buffer to be written into from its current position.
+     * @return The same buffer.
+     */
+    public FloatBuffer writeColors(FloatBuffer buffer) {
+        return buffer.put(_colors, 0, _size * COLOR_SIZE);
+    }
+
+    /**
+     * Makes sure that there is room for an amount of vertices, by doubling the arrays if needed.
+     * @param capacity The amount of vertices that there should be room for.
+     */
+    public void ensureCapacity(int capacity) {
+        int current = _positions.length / POSITION_SIZE;
+        if (capacity <= current)
+            return;
+
+        int grown = Math.max(capacity, current * 2);
+        _positions = grow(_positions, grown * POSITION_SIZE);
+        _colors = grow(_colors, grown * COLOR_SIZE);
+        _uvs = grow(_uvs, grown * UV_SIZE);
+    }
+
+    /**
+     * Copies an array into a longer one.
+     * @param array The array to be copied.
+     * @param length The length of the new array.
+     * @return The new array.
+     */
+    private static float[] grow(float[] array, int length) {
+        float[] grown = new float[length];
+        System.arraycopy(array, 0, grown, 0, array.length);
+
+        return grown;
+    }
+}
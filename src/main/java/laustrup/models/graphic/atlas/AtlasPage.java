@@ -0,0 +1,58 @@
+package laustrup.models.graphic.atlas;
+
+import laustrup.models.graphic.Texture;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One image of a TextureAtlas, with the rgba pixels of all its sprites.
+ * The pixels are kept in memory until the page is uploaded, so packing doesn't need a graphics context.
+ */
+@ToString(of = {"_width", "_height"})
+public class AtlasPage {
+
+    /** The width of the page in pixels. */
+    @Getter
+    private final int _width;
+
+    /** The height of the page in pixels. */
+    @Getter
+    private final int _height;
+
+    /** The rgba pixels with the first row at the bottom, null after it is uploaded. */
+    @Getter
+    private ByteBuffer _pixels;
+
+    /** The uploaded texture of the page, null until it is uploaded. */
+    @Getter
+    private Texture _texture;
+
+    /**
+     * @param width The width of the page in pixels.
+     * @param height The height of the page in pixels.
+     * @param pixels The rgba pixels with the first row at the bottom, must be direct.
+     */
+    public AtlasPage(int width, int height, ByteBuffer pixels) {
+        _width = width;
+        _height = height;
+        _pixels = pixels;
+    }
+
+    /**
+     * Uploads the pixels into a texture and lets go of them, must be called at the thread of the graphics context.
+     * @param device The device to upload to.
+     * @return The texture of the page.
+     */
+    public Texture upload(GraphicsDevice device) {
+        if (_texture == null) {
+            _texture = new Texture(_width, _height, _pixels.rewind(), device);
+            _pixels = null;
+        }
+
+        return _texture;
+    }
+}
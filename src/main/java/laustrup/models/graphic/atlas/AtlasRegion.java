@@ -0,0 +1,48 @@
+package laustrup.models.graphic.atlas;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The place of a sprite in a TextureAtlas, both in pixels and as texture coordinates.
+ * The rectangle excludes the padding around the sprite.
+ */
+@ToString(of = {"_name", "_page", "_x", "_y", "_width", "_height"})
+public class AtlasRegion {
+
+    /** The name the sprite was added with. */
+    @Getter
+    private final String _name;
+
+    /** The index of the page containing the sprite. */
+    @Getter
+    private final int _page;
+
+    /** The rectangle of the sprite in pixels of the page, where y is the bottom row. */
+    @Getter
+    private final int _x, _y, _width, _height;
+
+    /** The texture coordinates of the bottom left and top right corners of the sprite. */
+    @Getter
+    private final float _u0, _v0, _u1, _v1;
+
+    /**
+     * Calculates the texture coordinates from the rectangle.
+     * @param name The name the sprite was added with.
+     * @param page The index of the page containing the sprite.
+     * @param pageWidth The width of the page in pixels.
+     * @param pageHeight The height of the page in pixels.
+     */
+    public AtlasRegion(String name, int page, int x, int y, int width, int height, int pageWidth, int pageHeight) {
+        _name = name;
+        _page = page;
+        _x = x;
+        _y = y;
+        _width = width;
+        _height = height;
+        _u0 = (float) x / pageWidth;
+        _v0 = (float) y / pageHeight;
+        _u1 = (float) (x + width) / pageWidth;
+        _v1 = (float) (y + height) / pageHeight;
+    }
+}
@@ -0,0 +1,214 @@
+package laustrup.models.graphic.atlas;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Packs rectangles into an area with the MaxRects algorithm.
+ * Keeps every maximal free rectangle and places each rectangle in the free one, that leaves the shortest side,
+ * so the free space is split as little as possible.
+ * The rectangles are kept in primitive arrays, that are reused, so inserting doesn't allocate once they are grown.
+ */
+@ToString(of = {"_width", "_height", "_rectangles"})
+public class MaxRectsPacker {
+
+    /** The amount of values of each rectangle, x, y, width and height. */
+    private static final int SIZE = 4;
+
+    /** The width of the area. */
+    @Getter
+    private final int _width;
+
+    /** The height of the area. */
+    @Getter
+    private final int _height;
+
+    /** The amount of rectangles inserted. */
+    @Getter
+    private int _rectangles;
+
+    /** The area of all inserted rectangles. */
+    @Getter
+    private long _usedArea;
+
+    /** The right and top edges of the inserted rectangles, that are furthest away. */
+    @Getter
+    private int _usedWidth, _usedHeight;
+
+    /** The free rectangles, and the array they are split into at each insert. */
+    private int[] _free = new int[SIZE * 16], _split = new int[SIZE * 16];
+
+    /** The amount of free rectangles. */
+    private int _freeCount;
+
+    /**
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    public MaxRectsPacker(int width, int height) {
+        _width = width;
+        _height = height;
+        reset();
+    }
+
+    /** Removes all inserted rectangles, so the whole area is free. */
+    public void reset() {
+        _free[0] = 0;
+        _free[1] = 0;
+        _free[2] = _width;
+        _free[3] = _height;
+        _freeCount = 1;
+        _rectangles = 0;
+        _usedArea = 0;
+        _usedWidth = 0;
+        _usedHeight = 0;
+    }
+
+    /** @return The part of the area that is used, from 0 to 1. */
+    public float occupancy() {
+        return (float) _usedArea / ((long) _width * _height);
+    }
+
+    /**
+     * Places a rectangle in the free area.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @param position Is given the x and y of the placed rectangle at index 0 and 1.
+     * @return True if it was placed, false if there isn't room for it.
+     */
+    public boolean insert(int width, int height, int[] position) {
+        int best = -1, bestShort = Integer.MAX_VALUE, bestLong = Integer.MAX_VALUE;
+
+        for (int i = 0; i < _freeCount * SIZE; i += SIZE) {
+            int freeWidth = _free[i + 2], freeHeight = _free[i + 3];
+            if (freeWidth < width || freeHeight < height)
+                continue;
+
+            int horizontal = freeWidth - width, vertical = freeHeight - height,
+                shortSide = Math.min(horizontal, vertical), longSide = Math.max(horizontal, vertical);
+            if (shortSide < bestShort || (shortSide == bestShort && longSide < bestLong)) {
+                best = i;
+                bestShort = shortSide;
+                bestLong = longSide;
+            }
+        }
+
+        if (best < 0)
+            return false;
+
+        int x = _free[best], y = _free[best + 1];
+        place(x, y, width, height);
+        position[0] = x;
+        position[1] = y;
+
+        _rectangles++;
+        _usedArea += (long) width * height;
+        _usedWidth = Math.max(_usedWidth, x + width);
+        _usedHeight = Math.max(_usedHeight, y + height);
+
+        return true;
+    }
+
+    /**
+     * Splits every free rectangle that overlaps a placed rectangle into the free parts around it,
+     * afterwards removes the free rectangles that are inside others.
+     */
+    private void place(int x, int y, int width, int height) {
+        int right = x + width, top = y + height, kept = 0;
+
+        // The free rectangles that doesn't overlap are kept first, so only the new ones needs pruning against all.
+        for (int i = 0; i < _freeCount * SIZE; i += SIZE)
+            if (!overlaps(i, x, y, right, top))
+                kept = add(kept, _free[i], _free[i + 1], _free[i + 2], _free[i + 3]);
+        int amount = kept;
+
+        for (int i = 0; i < _freeCount * SIZE; i += SIZE) {
+            if (!overlaps(i, x, y, right, top))
+                continue;
+
+            int freeX = _free[i], freeY = _free[i + 1],
+                freeRight = freeX + _free[i + 2], freeTop = freeY + _free[i + 3];
+            if (x > freeX)
+                amount = add(amount, freeX, freeY, x - freeX, freeTop - freeY);
+            if (right < freeRight)
+                amount = add(amount, right, freeY, freeRight - right, freeTop - freeY);
+            if (y > freeY)
+                amount = add(amount, freeX, freeY, freeRight - freeX, y - freeY);
+            if (top < freeTop)
+                amount = add(amount, freeX, top, freeRight - freeX, freeTop - top);
+        }
+
+        prune(kept, amount);
+
+        int[] free = _free;
+        _free = _split;
+        _split = free;
+    }
+
+    /** @return True if the free rectangle at an index overlaps the area. */
+    private boolean overlaps(int i, int x, int y, int right, int top) {
+        return _free[i] < right && _free[i] + _free[i + 2] > x
+            && _free[i + 1] < top && _free[i + 1] + _free[i + 3] > y;
+    }
+
+    /**
+     * Appends a rectangle to the split rectangles.
+     * @param amount The amount of split rectangles.
+     * @return The new amount.
+     */
+    private int add(int amount, int x, int y, int width, int height) {
+        if ((amount + 1) * SIZE > _split.length)
+            _split = Arrays.copyOf(_split, _split.length * 2);
+
+        int i = amount * SIZE;
+        _split[i] = x;
+        _split[i + 1] = y;
+        _split[i + 2] = width;
+        _split[i + 3] = height;
+
+        return amount + 1;
+    }
+
+    /**
+     * Removes the split rectangles that are inside another and sets the amount of free rectangles.
+     * The kept rectangles can't be inside each other, so they are only checked against the new ones.
+     * @param kept The amount of rectangles that were kept, they are first.
+     * @param amount The amount of all split rectangles.
+     */
+    private void prune(int kept, int amount) {
+        for (int j = kept; j < amount; j++)
+            for (int k = 0; k < amount; k++)
+                if (k != j && _split[k * SIZE + 2] >= 0 && contains(k, j)) {
+                    _split[j * SIZE + 2] = -1;
+                    break;
+                }
+
+        for (int i = 0; i < kept; i++)
+            for (int j = kept; j < amount; j++)
+                if (_split[j * SIZE + 2] >= 0 && contains(j, i)) {
+                    _split[i * SIZE + 2] = -1;
+                    break;
+                }
+
+        int count = 0;
+        for (int i = 0; i < amount; i++)
+            if (_split[i * SIZE + 2] >= 0) {
+                System.arraycopy(_split, i * SIZE, _split, count * SIZE, SIZE);
+                count++;
+            }
+        _freeCount = count;
+
+        if (_free.length < _split.length)
+            _free = new int[_split.length];
+    }
+
+    /** @return True if the split rectangle outer contains the split rectangle inner. */
+    private boolean contains(int outer, int inner) {
+        int o = outer * SIZE, i = inner * SIZE;
+        return _split[i] >= _split[o] && _split[i + 1] >= _split[o + 1]
+            && _split[i] + _split[i + 2] <= _split[o] + _split[o + 2]
+            && _split[i + 1] + _split[i + 3] <= _split[o + 1] + _split[o + 3];
+    }
+}
@@ -0,0 +1,173 @@
+package laustrup.models.graphic.atlas;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Many sprites packed into a few pages, so sprites of the same page can be drawn with one texture and one draw call.
+ * Is created by a TextureAtlasBuilder, or loaded from a file it was saved in.
+ */
+@ToString(of = {"_pages"})
+public class TextureAtlas {
+
+    /** Identifies a file of a texture atlas. */
+    private static final int MAGIC = 0x43544158;
+
+    /** The version of the format of the files, files of other versions are ignored. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The pages in the order of their indices. */
+    @Getter
+    private final AtlasPage[] _pages;
+
+    /** The regions of the sprites by their names. */
+    private final Map<String, AtlasRegion> _regions;
+
+    /**
+     * @param pages The pages in the order of their indices.
+     * @param regions The regions of the sprites by their names.
+     */
+    public TextureAtlas(AtlasPage[] pages, Map<String, AtlasRegion> regions) {
+        _pages = pages;
+        _regions = regions;
+    }
+
+    /**
+     * @param name The name the sprite was added with.
+     * @return The region of the sprite, or null if there is no such sprite.
+     */
+    public AtlasRegion region(String name) {
+        return _regions.get(name);
+    }
+
+    /** @return The regions of all the sprites. */
+    public Collection<AtlasRegion> regions() {
+        return _regions.values();
+    }
+
+    /**
+     * Uploads every page into a texture, must be called at the thread of the graphics context.
+     * @param device The device to upload to.
+     */
+    public void upload(GraphicsDevice device) {
+        for (AtlasPage page : _pages)
+            page.upload(device);
+    }
+
+    /**
+     * Saves the pages and regions, so they can be loaded without packing again.
+     * The pages must not be uploaded yet, since their pixels are let go of.
+     * @param file The file to save into.
+     * @param key Identifies the sprites and settings that were packed.
+     * @throws IOException If the file couldn't be written.
+     */
+    public void save(Path file, long key) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(key);
+
+            output.writeInt(_pages.length);
+            byte[] row = new byte[0];
+            for (AtlasPage page : _pages) {
+                output.writeInt(page.get_width());
+                output.writeInt(page.get_height());
+
+                ByteBuffer pixels = page.get_pixels();
+                row = row.length < pixels.capacity() ? new byte[pixels.capacity()] : row;
+                pixels.get(0, row, 0, pixels.capacity());
+                output.write(row, 0, pixels.capacity());
+            }
+
+            output.writeInt(_regions.size());
+            for (AtlasRegion region : _regions.values()) {
+                output.writeUTF(region.get_name());
+                output.writeInt(region.get_page());
+                output.writeInt(region.get_x());
+                output.writeInt(region.get_y());
+                output.writeInt(region.get_width());
+                output.writeInt(region.get_height());
+            }
+        }
+    }
+
+    /**
+     * Loads an atlas that was saved, if it was saved with the same key.
+     * Every amount and size is checked against the size of the file before anything is allocated,
+     * so a corrupt file is treated as if there was no file.
+     * @param file The file it was saved in.
+     * @param key Identifies the sprites and settings that should be packed.
+     * @return The atlas, or null if there is no file, or it is incomplete, corrupt or of another format or key.
+     * @throws IOException If the file couldn't be read.
+     */
+    public static TextureAtlas load(Path file, long key) throws IOException {
+        if (!Files.exists(file))
+            return null;
+
+        long size = Files.size(file);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || input.readLong() != key)
+                return null;
+
+            // Each page takes at least its width and height in the file.
+            int count = input.readInt();
+            if (count < 0 || count > size / (2 * Integer.BYTES))
+                return null;
+
+            AtlasPage[] pages = new AtlasPage[count];
+            for (int i = 0; i < pages.length; i++) {
+                int width = input.readInt(), height = input.readInt();
+                long bytes = (long) width * height * 4;
+                if (width <= 0 || height <= 0 || bytes > size)
+                    return null;
+
+                byte[] pixels = new byte[(int) bytes];
+                input.readFully(pixels);
+                pages[i] = new AtlasPage(width, height, BufferUtils.createByteBuffer(pixels.length).put(pixels).flip());
+            }
+
+            // Each region takes at least the length of its name and its five ints in the file.
+            int amount = input.readInt();
+            if (amount < 0 || amount > size / (Short.BYTES + 5 * Integer.BYTES))
+                return null;
+
+            Map<String, AtlasRegion> regions = new HashMap<>(amount * 2);
+            for (int i = 0; i < amount; i++) {
+                String name = input.readUTF();
+                int page = input.readInt(), x = input.readInt(), y = input.readInt(),
+                    width = input.readInt(), height = input.readInt();
+                if (page < 0 || page >= pages.length || x < 0 || y < 0 || width < 0 || height < 0
+                        || (long) x + width > pages[page].get_width() || (long) y + height > pages[page].get_height())
+                    return null;
+
+                regions.put(name, new AtlasRegion(name, page, x, y, width, height,
+                        pages[page].get_width(), pages[page].get_height()));
+            }
+
+            return new TextureAtlas(pages, regions);
+        } catch (EOFException | UTFDataFormatException e) {
+            return null;
+        }
+    }
+}
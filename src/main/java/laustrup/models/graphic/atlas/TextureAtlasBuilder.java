@@ -0,0 +1,298 @@
+package laustrup.models.graphic.atlas;
+
+import laustrup.models.graphic.Image;
+import laustrup.models.logging.Logger;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Packs many sprites into as few pages of a TextureAtlas as possible.
+ * The sprites are placed from the largest to the smallest with a MaxRectsPacker,
+ * each with a padding around it, that is filled with its edge pixels, so filtering never samples a neighbour.
+ * Pages are only as large as their sprites needs, rounded up to a power of two.
+ * Packing is only work of the memory, the pages are uploaded afterwards by the atlas.
+ */
+public class TextureAtlasBuilder {
+
+    /** The largest width and height of each page. */
+    @Getter @Setter
+    private int _pageSize = 2048;
+
+    /** The amount of pixels between each sprite and the edges of its place. */
+    @Getter @Setter
+    private int _padding = 2;
+
+    /** True if the padding should be filled with the edge pixels of the sprite, otherwise it is transparent. */
+    @Getter @Setter
+    private boolean _bleeding = true;
+
+    /** The added sprites in the order they were added. */
+    private final List<Sprite> _sprites = new ArrayList<>();
+
+    /** A sprite to be packed, with its place after packing. */
+    private static class Sprite {
+
+        /** The name of the region of the sprite. */
+        private final String _name;
+
+        /** The path of the image file, or null if the pixels were given. */
+        private final String _path;
+
+        /** The size of the sprite in pixels, is known after the file is decoded. */
+        private int _width, _height;
+
+        /** The rgba pixels with the first row at the bottom. */
+        private ByteBuffer _pixels;
+
+        /** The image decoded by the builder, which is freed after packing. */
+        private Image _image;
+
+        /** The index of the page and the place of the sprite including the padding. */
+        private int _page, _x, _y;
+
+        Sprite(String name, String path, int width, int height, ByteBuffer pixels) {
+            _name = name;
+            _path = path;
+            _width = width;
+            _height = height;
+            _pixels = pixels;
+        }
+    }
+
+    /**
+     * Adds a sprite of rgba pixels.
+     * @param name The name of the region of the sprite.
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     * @param pixels The rgba pixels with the first row at the bottom, from index 0.
+     * @return This builder.
+     */
+    public TextureAtlasBuilder add(String name, int width, int height, ByteBuffer pixels) {
+        _sprites.add(new Sprite(name, null, width, height, pixels));
+        return this;
+    }
+
+    /**
+     * Adds a sprite of a decoded image, which isn't freed by the builder.
+     * @param name The name of the region of the sprite.
+     * @param image The decoded image.
+     * @return This builder.
+     */
+    public TextureAtlasBuilder add(String name, Image image) {
+        return add(name, image.get_width(), image.get_height(), image.get_pixels());
+    }
+
+    /**
+     * Adds a sprite of an image file, which is only decoded if the atlas needs to be packed.
+     * @param name The name of the region of the sprite.
+     * @param path The path of the image file.
+     * @return This builder.
+     */
+    public TextureAtlasBuilder add(String name, String path) {
+        _sprites.add(new Sprite(name, path, 0, 0, null));
+        return this;
+    }
+
+    /** @return The amount of added sprites. */
+    public int amount() {
+        return _sprites.size();
+    }
+
+    /**
+     * Loads the atlas from a file, if it was saved with the same sprites and settings,
+     * otherwise packs it and saves it in the file.
+     * Sprites of files are identified by their path, size and time of modification, so they aren't decoded when loaded.
+     * @param cache The file of the saved atlas.
+     * @return The atlas.
+     * @throws IOException If an image file couldn't be read or decoded.
+     */
+    public TextureAtlas build(Path cache) throws IOException {
+        long key = key();
+
+        try {
+            TextureAtlas atlas = TextureAtlas.load(cache, key);
+            if (atlas != null)
+                return atlas;
+        } catch (IOException e) {
+            Logger.get_instance().error("Couldn't load the texture atlas \"" + cache + "\", it is packed again...", e);
+        }
+
+        TextureAtlas atlas = build();
+        try {
+            atlas.save(cache, key);
+        } catch (IOException e) {
+            Logger.get_instance().error("Couldn't save the texture atlas \"" + cache + "\"...", e);
+        }
+
+        return atlas;
+    }
+
+    /**
+     * Packs the sprites into pages.
+     * @return The atlas.
+     * @throws IOException If an image file couldn't be read or decoded.
+     * @throws IllegalArgumentException If a sprite with its padding is larger than a page.
+     */
+    public TextureAtlas build() throws IOException {
+        try {
+            for (Sprite sprite : _sprites)
+                if (sprite._pixels == null) {
+                    sprite._image = Image.decode(sprite._path);
+                    sprite._width = sprite._image.get_width();
+                    sprite._height = sprite._image.get_height();
+                    sprite._pixels = sprite._image.get_pixels();
+                }
+
+            List<MaxRectsPacker> packers = pack();
+            AtlasPage[] pages = new AtlasPage[packers.size()];
+            for (int i = 0; i < pages.length; i++) {
+                int width = Math.min(_pageSize, ceilPowerOfTwo(packers.get(i).get_usedWidth())),
+                    height = Math.min(_pageSize, ceilPowerOfTwo(packers.get(i).get_usedHeight()));
+                pages[i] = new AtlasPage(width, height, BufferUtils.createByteBuffer(width * height * 4));
+            }
+
+            Map<String, AtlasRegion> regions = new HashMap<>(_sprites.size() * 2);
+            for (Sprite sprite : _sprites) {
+                AtlasPage page = pages[sprite._page];
+                copy(sprite, page);
+                regions.put(sprite._name, new AtlasRegion(sprite._name, sprite._page,
+                        sprite._x + _padding, sprite._y + _padding, sprite._width, sprite._height,
+                        page.get_width(), page.get_height()));
+            }
+
+            return new TextureAtlas(pages, regions);
+        } finally {
+            for (Sprite sprite : _sprites)
+                if (sprite._image != null) {
+                    sprite._image.free();
+                    sprite._image = null;
+                    sprite._pixels = null;
+                }
+        }
+    }
+
+    /**
+     * Places the sprites from the largest to the smallest, in the first page with room for it.
+     * @return The packers of the pages.
+     */
+    private List<MaxRectsPacker> pack() {
+        Sprite[] sorted = _sprites.toArray(new Sprite[0]);
+        Arrays.sort(sorted, (a, b) -> {
+            int side = Integer.compare(Math.max(b._width, b._height), Math.max(a._width, a._height));
+            return side != 0 ? side : Integer.compare(b._width * b._height, a._width * a._height);
+        });
+
+        List<MaxRectsPacker> packers = new ArrayList<>();
+        int[] position = new int[2];
+        for (Sprite sprite : sorted) {
+            int width = sprite._width + _padding * 2, height = sprite._height + _padding * 2;
+            if (width > _pageSize || height > _pageSize)
+                throw new IllegalArgumentException("The sprite \"" + sprite._name + "\" is larger than a page...");
+
+            int page = 0;
+            while (page < packers.size() && !packers.get(page).insert(width, height, position))
+                page++;
+            if (page == packers.size()) {
+                packers.add(new MaxRectsPacker(_pageSize, _pageSize));
+                packers.get(page).insert(width, height, position);
+            }
+
+            sprite._page = page;
+            sprite._x = position[0];
+            sprite._y = position[1];
+        }
+
+        return packers;
+    }
+
+    /**
+     * Copies the pixels of a sprite into its place of the page, and bleeds its edges into the padding.
+     * @param sprite The packed sprite.
+     * @param page The page of the sprite.
+     */
+    private void copy(Sprite sprite, AtlasPage page) {
+        ByteBuffer pixels = page.get_pixels();
+        int stride = page.get_width() * 4,
+            left = sprite._x + _padding, bottom = sprite._y + _padding,
+            right = left + sprite._width - 1, top = bottom + sprite._height - 1;
+
+        for (int row = 0; row < sprite._height; row++)
+            pixels.put((bottom + row) * stride + left * 4, sprite._pixels, row * sprite._width * 4, sprite._width * 4);
+
+        if (!_bleeding || _padding == 0)
+            return;
+
+        for (int row = bottom; row <= top; row++) {
+            int first = pixels.getInt(row * stride + left * 4), last = pixels.getInt(row * stride + right * 4);
+            for (int i = 1; i <= _padding; i++) {
+                pixels.putInt(row * stride + (left - i) * 4, first);
+                pixels.putInt(row * stride + (right + i) * 4, last);
+            }
+        }
+
+        int start = sprite._x * 4, length = (sprite._width + _padding * 2) * 4;
+        for (int i = 1; i <= _padding; i++) {
+            pixels.put((bottom - i) * stride + start, pixels, bottom * stride + start, length);
+            pixels.put((top + i) * stride + start, pixels, top * stride + start, length);
+        }
+    }
+
+    /**
+     * Identifies the sprites and settings, so a saved atlas is only used if nothing has changed.
+     * @return A hash of the settings, the names and either the files or pixels of the sprites.
+     * @throws IOException If the attributes of an image file couldn't be read.
+     */
+    public long key() throws IOException {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, _pageSize);
+        hash = hash(hash, _padding);
+        hash = hash(hash, _bleeding ? 1 : 0);
+
+        for (Sprite sprite : _sprites) {
+            hash = hash(hash, sprite._name);
+            if (sprite._path != null) {
+                Path file = Path.of(sprite._path);
+                hash = hash(hash, sprite._path);
+                hash = hash(hash, Files.size(file));
+                hash = hash(hash, Files.getLastModifiedTime(file).toMillis());
+            } else {
+                hash = hash(hash, sprite._width);
+                hash = hash(hash, sprite._height);
+                for (int i = 0; i < sprite._width * sprite._height * 4; i++)
+                    hash = (hash ^ (sprite._pixels.get(i) & 0xFF)) * 0x100000001b3L;
+            }
+        }
+
+        return hash;
+    }
+
+    /** Hashes a value into a FNV-1a hash. */
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++, value >>>= 8)
+            hash = (hash ^ (value & 0xFF)) * 0x100000001b3L;
+
+        return hash;
+    }
+
+    /** Hashes the characters of a text into a FNV-1a hash. */
+    private static long hash(long hash, String text) {
+        for (int i = 0; i < text.length(); i++)
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+
+        return hash;
+    }
+
+    /** @return The smallest power of two, that is at least the value. */
+    private static int ceilPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,213 @@
+package laustrup.models.graphic.batch;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Camera;
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.buffer.DynamicBuffer;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+
+/**
+ * Collects quads from a scene into as few draw calls as possible.
+ * Quads outside the view of the Camera are culled before they are batched.
+ * A new batch is only used when the current one is full or the Shader changes.
+ * The batches are kept between frames, so their buffers are reused.
+ * Their vertices are streamed into one DynamicBuffer, that is a few frames deep.
+ */
+@ToString(of = {"_batchesPerFrame", "_quadsPerFrame", "_submittedPerFrame", "_culledPerFrame"})
+public class BatchRenderer {
+
+    /** The default amount of quads of each batch. */
+    public static final int DEFAULT_BATCH_CAPACITY = 1000;
+
+    /** The amount of frames the stream has room for, before the oldest is waited for. */
+    public static final int FRAMES_IN_FLIGHT = 3;
+
+    /** The amount of full batches of each frame, that the stream has room for before it grows. */
+    private static final int BATCHES_PER_FRAME = 4;
+
+    /** The amount of quads of each batch. */
+    @Getter
+    private final int _batchCapacity;
+
+    /** The way the vertices are written into the stream. */
+    @Getter
+    private final DynamicBuffer.Strategy _strategy;
+
+    /** The buffer that the batches stream their vertices into, which is created at the first batch. */
+    @Getter
+    private DynamicBuffer _stream;
+
+    /** The batches created so far, the ones beyond the current index are free for reuse. */
+    private RenderBatch[] _batches = new RenderBatch[1];
+
+    /** The amount of batches in use of the current frame. */
+    private int _used;
+
+    /** The amount of quads batched in the current frame. */
+    private int _quads;
+
+    /** The amount of quads submitted and culled in the current frame. */
+    private int _submitted, _culled;
+
+    /** The Camera of the current frame, or null if quads are drawn in clip space. */
+    private Camera _camera;
+
+    /** Receives the bounds of transformed quads. */
+    private final Vector3f _min = new Vector3f(), _max = new Vector3f();
+
+    /** The amount of draw calls of the last ended frame. */
+    @Getter
+    private int _batchesPerFrame;
+
+    /** The amount of quads drawn in the last ended frame. */
+    @Getter
+    private int _quadsPerFrame;
+
+    /** The amount of quads submitted in the last ended frame, both drawn and culled. */
+    @Getter
+    private int _submittedPerFrame;
+
+    /** The amount of quads culled in the last ended frame, since they were outside the view. */
+    @Getter
+    private int _culledPerFrame;
+
+    /** Initiates with the default capacity of batches. */
+    public BatchRenderer() {
+        this(DEFAULT_BATCH_CAPACITY);
+    }
+
+    /**
+     * Initiates with a specific capacity of batches.
+     * @param batchCapacity The amount of quads each batch can contain.
+     */
+    public BatchRenderer(int batchCapacity) {
+        this(batchCapacity, DynamicBuffer.Strategy.UNSYNCHRONIZED_MAP);
+    }
+
+    /**
+     * Initiates with a specific capacity of batches and way of streaming their vertices.
+     * @param batchCapacity The amount of quads each batch can contain.
+     * @param strategy The way the vertices are written into the stream.
+     */
+    public BatchRenderer(int batchCapacity, DynamicBuffer.Strategy strategy) {
+        if (batchCapacity <= 0)
+            throw new IllegalArgumentException("A batch needs to be able to contain at least one quad...");
+
+        _batchCapacity = batchCapacity;
+        _strategy = strategy;
+    }
+
+    /** Starts a new frame, where no batches are in use and quads are drawn in clip space without culling. */
+    public void begin() {
+        begin(null);
+    }
+
+    /**
+     * Starts a new frame, where no batches are in use.
+     * @param camera The Camera that quads are viewed with and culled against, or null to draw in clip space.
+     */
+    public void begin(Camera camera) {
+        _camera = camera;
+        _used = 0;
+        _quads = 0;
+        _submitted = 0;
+        _culled = 0;
+    }
+
+    /**
+     * Adds a Quad to the current batch, unless it is outside the view of the Camera.
+     * If the batch is full or uses another Shader, it will be flushed and the next batch is started.
+     * @param quad The Quad to be drawn.
+     * @param shader The Shader that the Quad should be drawn with.
+     */
+    public void submit(Quad quad, Shader shader) {
+        submit(quad, shader, null);
+    }
+
+    /**
+     * Adds a Quad transformed by a world matrix to the current batch, unless it is outside the view of the Camera.
+     * If the batch is full or uses another Shader, it will be flushed and the next batch is started.
+     * @param quad The Quad to be drawn.
+     * @param shader The Shader that the Quad should be drawn with.
+     * @param world The world matrix of the Quad, such as of its SceneNode, or null if it is already in the world.
+     */
+    public void submit(Quad quad, Shader shader, Matrix4fc world) {
+        _submitted++;
+        if (_camera != null && !isVisible(quad, world)) {
+            _culled++;
+            return;
+        }
+
+        RenderBatch batch = _used > 0 ? _batches[_used - 1] : null;
+
+        if (batch == null || batch.is_full() || batch.get_shader() != shader) {
+            if (batch != null)
+                batch.flush();
+            batch = next(shader);
+        }
+
+        batch.add(quad, world);
+        _quads++;
+    }
+
+    /** Flushes the last batch, ends the frame of the stream and saves the statistics of the frame. */
+    public void end() {
+        if (_used > 0 && !_batches[_used - 1].flush())
+            _used--;
+        if (_stream != null)
+            _stream.endFrame();
+
+        _batchesPerFrame = _used;
+        _quadsPerFrame = _quads;
+        _submittedPerFrame = _submitted;
+        _culledPerFrame = _culled;
+    }
+
+    /**
+     * Tests a Quad against the view of the Camera, by the bounds of its transformed corners.
+     * @param quad The Quad.
+     * @param world The world matrix of the Quad, or null if it is already in the world.
+     * @return True if any part of it can be inside the view.
+     */
+    private boolean isVisible(Quad quad, Matrix4fc world) {
+        if (world == null)
+            return _camera.isVisible(quad);
+
+        float x = quad.get_x(), y = quad.get_y(), z = quad.get_z();
+        world.transformAab(x, y, z, x + quad.get_width(), y + quad.get_height(), z, _min, _max);
+        return _camera.isVisible(_min.x, _min.y, _min.z, _max.x, _max.y, _max.z);
+    }
+
+    /**
+     * Takes the next free batch, which will be created if there isn't any.
+     * The stream is created with the device of the window at the first batch.
+     * @param shader The Shader of the batch.
+     * @return The started batch.
+     */
+    private RenderBatch next(Shader shader) {
+        if (_used == _batches.length) {
+            RenderBatch[] batches = new RenderBatch[_batches.length * 2];
+            System.arraycopy(_batches, 0, batches, 0, _batches.length);
+            _batches = batches;
+        }
+        if (_stream == null)
+            _stream = new DynamicBuffer(Window.get_instance().get_device(), GL_ARRAY_BUFFER,
+                    (long) _batchCapacity * Quad.CORNERS * RenderBatch.LAYOUT.get_stride() * BATCHES_PER_FRAME,
+                    FRAMES_IN_FLIGHT, _strategy);
+        if (_batches[_used] == null)
+            _batches[_used] = new RenderBatch(_batchCapacity, _stream);
+
+        RenderBatch batch = _batches[_used++];
+        batch.start(shader, _camera);
+
+        return batch;
+    }
+}
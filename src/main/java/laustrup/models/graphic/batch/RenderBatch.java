@@ -0,0 +1,201 @@
+package laustrup.models.graphic.batch;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Camera;
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.VertexLayout;
+import laustrup.models.graphic.buffer.DynamicBuffer;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * A fixed amount of quads, that are drawn with one draw call.
+ * The buffers are allocated once and reused every time the batch is started.
+ * The vertices are streamed into a region of a DynamicBuffer shared by the batches,
+ * so the batch of a frame doesn't overwrite vertices that the previous frames are still drawn from.
+ */
+@ToString(of = {"_capacity", "_quads"})
+public class RenderBatch {
+
+    /** The layout that the quads are written after, which matches the default shader. */
+    public static final VertexLayout LAYOUT = VertexLayout.POSITION_COLOR;
+
+    /** The amount of color values of each corner. */
+    private static final int COLOR_SIZE = 4;
+
+    /** The amount of indices needed to draw one Quad as two triangles. */
+    public static final int INDICES_PER_QUAD = 6;
+
+    /** The maximum amount of quads this batch can contain. */
+    @Getter
+    private final int _capacity;
+
+    /** The amount of quads currently added since the batch was started. */
+    @Getter
+    private int _quads;
+
+    /** The Shader that the quads of this batch are drawn with. */
+    @Getter
+    private Shader _shader;
+
+    /** The Camera that the quads are viewed with, or null to draw them in clip space. */
+    @Getter
+    private Camera _camera;
+
+    /** The matrix of drawing in clip space, when there is no Camera. */
+    private static final Matrix4fc IDENTITY = new Matrix4f();
+
+    /** The vertex data of the added quads, that will be uploaded at flush. */
+    private final FloatBuffer _vertices;
+
+    /** The buffer that the vertices are streamed into at flush. */
+    private final DynamicBuffer _stream;
+
+    /** The ids of the objects generated from gl, which are generated at the first flush. */
+    private int _vertexArrayObjectID, _elementBufferObjectID;
+
+    /** The device that the objects are generated with, is the device of the window at the first flush. */
+    private GraphicsDevice _device;
+
+    /**
+     * Allocates the vertex data of the batch.
+     * @param capacity The maximum amount of quads of the batch.
+     * @param stream The buffer that the vertices are streamed into, which the vertex array reads from.
+     */
+    public RenderBatch(int capacity, DynamicBuffer stream) {
+        _capacity = capacity;
+        _stream = stream;
+        _vertices = BufferUtils.createFloatBuffer(capacity * Quad.CORNERS * LAYOUT.floats());
+    }
+
+    /**
+     * Empties the batch, so it can be filled with quads for another draw call.
+     * @param shader The Shader that the coming quads should be drawn with.
+     * @param camera The Camera that the coming quads are viewed with, or null to draw them in clip space.
+     */
+    public void start(Shader shader, Camera camera) {
+        _shader = shader;
+        _camera = camera;
+        _quads = 0;
+        _vertices.clear();
+    }
+
+    /**
+     * Writes the corners of a Quad into the vertex data.
+     * @param quad The Quad to be added.
+     * @return True if it was added, false if the batch is full.
+     */
+    public boolean add(Quad quad) {
+        return add(quad, null);
+    }
+
+    /**
+     * Writes the corners of a Quad transformed by a world matrix into the vertex data,
+     * so the Quad itself can stay where it was created while its node is moved.
+     * @param quad The Quad to be added.
+     * @param world The world matrix of the Quad, or null if its corners already are in the world.
+     * @return True if it was added, false if the batch is full.
+     */
+    public boolean add(Quad quad, Matrix4fc world) {
+        if (is_full())
+            return false;
+
+        float[] colors = quad.get_colors();
+        float z = quad.get_z();
+        for (int corner = 0; corner < Quad.CORNERS; corner++) {
+            float x = quad.cornerX(corner), y = quad.cornerY(corner);
+
+            if (world == null)
+                _vertices.put(x).put(y).put(z);
+            else
+                _vertices.put(world.m00() * x + world.m10() * y + world.m20() * z + world.m30())
+                        .put(world.m01() * x + world.m11() * y + world.m21() * z + world.m31())
+                        .put(world.m02() * x + world.m12() * y + world.m22() * z + world.m32());
+            _vertices.put(colors, corner * COLOR_SIZE, COLOR_SIZE);
+        }
+        _quads++;
+
+        return true;
+    }
+
+    /** @return True if no more quads can be added. */
+    public boolean is_full() {
+        return _quads >= _capacity;
+    }
+
+    /**
+     * Streams the vertex data into a region of the DynamicBuffer and draws all the quads of the batch with one draw call,
+     * where the first vertex of the region is added to the indices.
+     * The matrices of the camera are set as the uniforms uProjection and uView,
+     * which the shader only passes on to the device if they have changed.
+     * The program and vertex array are left bound, since the device skips binding them again.
+     * @return True if anything was drawn.
+     */
+    public boolean flush() {
+        if (_quads == 0)
+            return false;
+        if (_device == null)
+            initGPU(Window.get_instance().get_device());
+
+        _vertices.flip();
+        long offset = _stream.upload(_vertices, LAYOUT.get_stride());
+
+        _shader.use();
+        _shader.upload("uProjection", _camera != null ? _camera.get_projectionMatrix() : IDENTITY);
+        _shader.upload("uView", _camera != null ? _camera.get_viewMatrix() : IDENTITY);
+        _device.bindVertexArray(_vertexArrayObjectID);
+        _device.drawElementsBaseVertex(GL_TRIANGLES, _quads * INDICES_PER_QUAD, GL_UNSIGNED_INT, 0,
+                (int) (offset / LAYOUT.get_stride()));
+
+        return true;
+    }
+
+    /**
+     * Generates the objects of gl with the vertex array reading from the stream
+     * and an element buffer, that never changes since all quads share the same pattern.
+     * @param device The device to generate the objects with.
+     */
+    private void initGPU(GraphicsDevice device) {
+        _device = device;
+        _vertexArrayObjectID = _device.genVertexArray();
+        _device.bindVertexArray(_vertexArrayObjectID);
+
+        _device.bindBuffer(GL_ARRAY_BUFFER, _stream.get_id());
+
+        _elementBufferObjectID = _device.genBuffer();
+        _device.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, _elementBufferObjectID);
+        _device.bufferData(GL_ELEMENT_ARRAY_BUFFER, createIndices(), GL_STATIC_DRAW);
+
+        LAYOUT.configure(_device);
+
+        _device.bindVertexArray(0);
+    }
+
+    /**
+     * Creates the indices of every Quad of the capacity as two triangles.
+     * @return The element buffer with the created indices.
+     */
+    private IntBuffer createIndices() {
+        IntBuffer elementBuffer = BufferUtils.createIntBuffer(_capacity * INDICES_PER_QUAD);
+
+        for (int i = 0; i < _capacity; i++) {
+            int offset = i * Quad.CORNERS;
+            elementBuffer.put(offset + 2).put(offset + 1).put(offset)
+                    .put(offset).put(offset + 1).put(offset + 3);
+        }
+
+        return elementBuffer.flip();
+    }
+}
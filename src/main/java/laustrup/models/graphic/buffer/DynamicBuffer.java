@@ -0,0 +1,219 @@
+package laustrup.models.graphic.buffer;
+
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCopy;
+
+/**
+ * A buffer for data that changes every frame, such as animated or edited geometry.
+ * Each upload is written into a region of a ring, that is a few frames deep, so the data of a frame is written
+ * while the graphics card still draws the previous ones, instead of waiting for it as overwriting one region would.
+ * The regions are allocated by a RingAllocator, and are reused when the fence of their frame has been signaled.
+ * How the data is written depends on the Strategy, where mapping is the default and falls back to writing the data
+ * with bufferSubData, if the range can't be mapped.
+ * If the ring is full of frames in flight, the oldest fence is waited for, or the storage is orphaned.
+ */
+@ToString(of = {"_strategy", "_allocator", "_stalls", "_orphans"})
+public class DynamicBuffer {
+
+    /** The ways of writing data into the regions of the ring. */
+    public enum Strategy {
+        /** Maps the region without synchronizing, since the fences already keep it from being in flight. */
+        UNSYNCHRONIZED_MAP,
+        /** Writes the region with bufferSubData, which is synchronized by the fences. */
+        SUB_DATA,
+        /** Writes the region with bufferSubData, and orphans the storage when the ring is full, instead of using fences. */
+        ORPHAN
+    }
+
+    /** The access of mapping a region, that is only written and isn't in flight. */
+    private static final int MAP_ACCESS = GL_MAP_WRITE_BIT | GL_MAP_UNSYNCHRONIZED_BIT | GL_MAP_INVALIDATE_RANGE_BIT;
+
+    /** The nanoseconds of waiting for a fence, before checking it again. */
+    private static final long WAIT_NANOS = 1_000_000;
+
+    /** The device of the buffer. */
+    private final GraphicsDevice _device;
+
+    /** The target the buffer is bound to, such as GL_ARRAY_BUFFER. */
+    @Getter
+    private final int _target;
+
+    /** The id of the buffer. */
+    @Getter
+    private final int _id;
+
+    /** The way data is written. */
+    @Getter
+    private final Strategy _strategy;
+
+    /** Keeps track of the regions of the frames. */
+    @Getter
+    private RingAllocator _allocator;
+
+    /** The amount of times a fence had to be waited for, since the ring was full. */
+    @Getter
+    private int _stalls;
+
+    /** The amount of times the storage was orphaned. */
+    @Getter
+    private int _orphans;
+
+    /** The amount of times mapping failed, so the data was written with bufferSubData. */
+    @Getter
+    private int _fallbacks;
+
+    /** The amount of bytes uploaded since the buffer was created. */
+    @Getter
+    private long _uploadedBytes;
+
+    /**
+     * Generates the buffer with storage for a few frames of data.
+     * @param device The device to generate the buffer with.
+     * @param target The target to bind the buffer to, such as GL_ARRAY_BUFFER.
+     * @param bytesPerFrame The amount of bytes expected to be uploaded each frame.
+     * @param frames The amount of frames that can be in flight before waiting, usually 2 or 3.
+     * @param strategy The way data is written.
+     */
+    public DynamicBuffer(GraphicsDevice device, int target, long bytesPerFrame, int frames, Strategy strategy) {
+        if (frames <= 0)
+            throw new IllegalArgumentException("A dynamic buffer needs to be at least one frame deep...");
+
+        _device = device;
+        _target = target;
+        _strategy = strategy;
+        _allocator = new RingAllocator(bytesPerFrame * frames);
+
+        _id = _device.genBuffer();
+        _device.bindBuffer(_target, _id);
+        _device.bufferData(_target, _allocator.get_capacity(), GL_STREAM_DRAW);
+    }
+
+    /**
+     * Writes data into a region of the current frame, the buffer is left bound.
+     * The data should be drawn before the next upload, since a full ring may be orphaned.
+     * @param data The data from its position to its limit.
+     * @param alignment The amount of bytes the offset is a multiple of, such as the stride of a vertex.
+     * @return The offset of the data in the buffer, to draw from.
+     */
+    public long upload(Buffer data, int alignment) {
+        long size = GraphicsDevice.bytes(data);
+        _device.bindBuffer(_target, _id);
+        long offset = reserve(size, alignment);
+
+        if (_strategy != Strategy.UNSYNCHRONIZED_MAP || !map(offset, size, data)) {
+            if (_strategy == Strategy.UNSYNCHRONIZED_MAP)
+                _fallbacks++;
+            _device.bufferSubData(_target, offset, data);
+        }
+        _uploadedBytes += size;
+
+        return offset;
+    }
+
+    /**
+     * Ends the current frame, after its draw calls have been made.
+     * A fence is inserted after them, and the frames whose fences already are signaled are retired without waiting.
+     */
+    public void endFrame() {
+        if (_strategy == Strategy.ORPHAN) {
+            _allocator.endFrame(0);
+            return;
+        }
+
+        _allocator.endFrame(_device.fenceSync());
+        while (_allocator.get_inFlight() > 0 && isSignaled(_allocator.oldestFence(), 0))
+            _device.deleteSync(_allocator.retireOldest());
+    }
+
+    /** Deletes the fences and the buffer, it can't be uploaded to afterwards. */
+    public void delete() {
+        retireAll();
+        _device.deleteBuffer(_id);
+    }
+
+    /**
+     * Allocates a region, waiting for the oldest frames in flight or orphaning the storage when the ring is full.
+     * @param size The amount of bytes of the region.
+     * @param alignment The amount of bytes the offset is a multiple of.
+     * @return The offset of the region.
+     */
+    private long reserve(long size, int alignment) {
+        long offset = _allocator.allocate(size, alignment);
+
+        while (offset < 0 && _strategy != Strategy.ORPHAN && _allocator.get_inFlight() > 0) {
+            _stalls++;
+            while (!isSignaled(_allocator.oldestFence(), WAIT_NANOS));
+            _device.deleteSync(_allocator.retireOldest());
+            offset = _allocator.allocate(size, alignment);
+        }
+
+        if (offset < 0) {
+            orphan(size);
+            offset = _allocator.allocate(size, alignment);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Gives the buffer new storage, while the graphics card keeps the old one until it has drawn from it.
+     * The storage is doubled if the current frame alone doesn't fit into it.
+     * @param size The amount of bytes of the region, that didn't fit.
+     */
+    private void orphan(long size) {
+        long capacity = _allocator.get_capacity(), needed = _allocator.get_frameBytes() + size;
+        while (capacity < needed)
+            capacity *= 2;
+
+        retireAll();
+        if (capacity != _allocator.get_capacity())
+            _allocator = new RingAllocator(capacity);
+        _device.bufferData(_target, capacity, GL_STREAM_DRAW);
+        _orphans++;
+    }
+
+    /**
+     * Writes data into a mapped region.
+     * @param offset The offset of the region.
+     * @param size The amount of bytes of the data.
+     * @param data The data.
+     * @return False if the region couldn't be mapped or its storage was lost, so it must be written otherwise.
+     */
+    private boolean map(long offset, long size, Buffer data) {
+        ByteBuffer region = _device.mapBufferRange(_target, offset, size, MAP_ACCESS);
+        if (region == null)
+            return false;
+
+        memCopy(memAddress(data), memAddress(region), size);
+        return _device.unmapBuffer(_target);
+    }
+
+    /**
+     * Checks a fence.
+     * @param fence The fence.
+     * @param timeout The nanoseconds to wait at most.
+     * @return True if it is signaled, or waiting failed so it never will be.
+     */
+    private boolean isSignaled(long fence, long timeout) {
+        return _device.clientWaitSync(fence, timeout) != GL_TIMEOUT_EXPIRED;
+    }
+
+    /** Deletes the fences of every frame and frees all regions. */
+    private void retireAll() {
+        if (_strategy != Strategy.ORPHAN)
+            while (_allocator.get_inFlight() > 0)
+                _device.deleteSync(_allocator.retireOldest());
+        _allocator.reset();
+    }
+}
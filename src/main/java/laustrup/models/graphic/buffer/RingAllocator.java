@@ -0,0 +1,134 @@
+package laustrup.models.graphic.buffer;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Suballocates regions of a ring of bytes, where the regions of each frame are kept until its fence is retired.
+ * Only offsets are calculated, so it doesn't know of any buffer or device and can be used without a graphics card.
+ * Allocations continue after the last one, and wraps to the start when the end is reached, where the bytes left
+ * at the end are wasted until the frame they belong to is retired. When nothing is in use, it starts over from the start.
+ * The ended frames are kept in a circular queue of primitive arrays, which only grows if more frames are in flight.
+ */
+@ToString(of = {"_capacity", "_head", "_used", "_inFlight"})
+public class RingAllocator {
+
+    /** The amount of bytes of the ring. */
+    @Getter
+    private final long _capacity;
+
+    /** The offset of where the next allocation starts, before it is aligned. */
+    @Getter
+    private long _head;
+
+    /** The amount of bytes that can't be allocated, since they belong to the current frame or a frame in flight. */
+    @Getter
+    private long _used;
+
+    /** The amount of bytes of the current frame, that hasn't been ended yet. */
+    @Getter
+    private long _frameBytes;
+
+    /** The fences and amounts of bytes of the ended frames, oldest first from the index of the oldest. */
+    private long[] _fences = new long[4], _bytes = new long[4];
+
+    /** The index of the oldest ended frame in the queue. */
+    private int _oldest;
+
+    /** The amount of ended frames, whose bytes haven't been retired yet. */
+    @Getter
+    private int _inFlight;
+
+    /** @param capacity The amount of bytes of the ring. */
+    public RingAllocator(long capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("A ring needs to have at least one byte...");
+
+        _capacity = capacity;
+    }
+
+    /**
+     * Allocates a region of the current frame.
+     * @param size The amount of bytes of the region.
+     * @param alignment The amount of bytes the offset is a multiple of, such as the stride of a vertex.
+     * @return The offset of the region, or -1 if it would overlap bytes of the current frame or a frame in flight.
+     */
+    public long allocate(long size, int alignment) {
+        if (size <= 0 || alignment <= 0)
+            throw new IllegalArgumentException("A region of " + size + " bytes can't be aligned to " + alignment + " bytes...");
+
+        if (_used == 0)
+            _head = 0;
+
+        long offset = (_head + alignment - 1) / alignment * alignment;
+        if (offset + size > _capacity)
+            offset = 0;
+
+        long needed = offset >= _head ? offset - _head + size : _capacity - _head + size;
+        if (_used + needed > _capacity)
+            return -1;
+
+        _used += needed;
+        _frameBytes += needed;
+        _head = offset + size;
+
+        return offset;
+    }
+
+    /**
+     * Ends the current frame, whose regions are kept until its fence is retired.
+     * @param fence The fence that is signaled when the frame has been drawn.
+     */
+    public void endFrame(long fence) {
+        if (_inFlight == _fences.length) {
+            long[] fences = new long[_fences.length * 2], bytes = new long[_bytes.length * 2];
+            for (int i = 0; i < _inFlight; i++) {
+                fences[i] = _fences[(_oldest + i) % _fences.length];
+                bytes[i] = _bytes[(_oldest + i) % _bytes.length];
+            }
+            _fences = fences;
+            _bytes = bytes;
+            _oldest = 0;
+        }
+
+        int index = (_oldest + _inFlight) % _fences.length;
+        _fences[index] = fence;
+        _bytes[index] = _frameBytes;
+        _inFlight++;
+        _frameBytes = 0;
+    }
+
+    /** @return The fence of the oldest frame in flight, should only be called if there are frames in flight. */
+    public long oldestFence() {
+        if (_inFlight == 0)
+            throw new IllegalStateException("There isn't any frame in flight...");
+
+        return _fences[_oldest];
+    }
+
+    /**
+     * Frees the regions of the oldest frame in flight, since its fence has been signaled.
+     * @return The fence of the retired frame, which can be deleted afterwards.
+     */
+    public long retireOldest() {
+        long fence = oldestFence();
+
+        _used -= _bytes[_oldest];
+        _oldest = (_oldest + 1) % _fences.length;
+        _inFlight--;
+
+        return fence;
+    }
+
+    /** Frees every region and forgets the frames in flight, such as when the storage of the buffer is orphaned. */
+    public void reset() {
+        _head = 0;
+        _used = 0;
+        _frameBytes = 0;
+        _oldest = 0;
+        _inFlight = 0;
+        Arrays.fill(_fences, 0);
+    }
+}
@@ -0,0 +1,116 @@
+package laustrup.models.graphic.command;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Draw commands recorded by one thread, before they are merged and sorted by the RenderQueue.
+ * Each command is a sort key and the values of one draw call, stored in primitive arrays like a VertexStore,
+ * so recording only writes a few values and the arrays are reused each frame.
+ * Must only be recorded into by one thread at a time.
+ */
+@ToString(of = {"_size"})
+public class CommandBuffer {
+
+    /** The sort keys of the commands. */
+    long[] _keys;
+
+    /** The shader ids, texture ids, vertex array ids, first indices and amounts of indices of the commands. */
+    int[] _shaders, _textures, _vertexArrays, _firsts, _counts;
+
+    /** The amount of commands recorded since the buffer was cleared. */
+    @Getter
+    int _size;
+
+    /** Initiates with room for a few commands. */
+    public CommandBuffer() {
+        this(64);
+    }
+
+    /**
+     * Initiates with room for an expected amount of commands.
+     * @param capacity The amount of commands there is room for before growing.
+     */
+    public CommandBuffer(int capacity) {
+        capacity = Math.max(capacity, 1);
+        _keys = new long[capacity];
+        _shaders = new int[capacity];
+        _textures = new int[capacity];
+        _vertexArrays = new int[capacity];
+        _firsts = new int[capacity];
+        _counts = new int[capacity];
+    }
+
+    /**
+     * Records drawing a range of triangles of a vertex array with its element buffer.
+     * @param layer The layer, that is drawn in order.
+     * @param depth The depth from 0 to 1 inside the layer, where 0 is drawn first.
+     * @param shader The id of the shader from registering it in the queue.
+     * @param texture The id of the texture to bind, or 0 without a texture.
+     * @param vertexArray The id of the vertex array, such as of a Mesh.
+     * @param first The index of the first index of the range.
+     * @param count The amount of indices of the range.
+     */
+    public void draw(int layer, float depth, int shader, int texture, int vertexArray, int first, int count) {
+        draw(SortKey.of(layer, shader, texture, depth), shader, texture, vertexArray, first, count);
+    }
+
+    /**
+     * Records drawing a range of triangles with a key that is already packed.
+     * @param key The sort key of the command.
+     * @param shader The id of the shader from registering it in the queue.
+     * @param texture The id of the texture to bind, or 0 without a texture.
+     * @param vertexArray The id of the vertex array, such as of a Mesh.
+     * @param first The index of the first index of the range.
+     * @param count The amount of indices of the range.
+     */
+    public void draw(long key, int shader, int texture, int vertexArray, int first, int count) {
+        if (_size == _keys.length)
+            grow(_size * 2);
+
+        _keys[_size] = key;
+        _shaders[_size] = shader;
+        _textures[_size] = texture;
+        _vertexArrays[_size] = vertexArray;
+        _firsts[_size] = first;
+        _counts[_size] = count;
+        _size++;
+    }
+
+    /**
+     * Copies the commands of another buffer after the commands of this buffer.
+     * @param other The buffer to copy the commands of.
+     */
+    void append(CommandBuffer other) {
+        if (_size + other._size > _keys.length)
+            grow(Math.max(_size + other._size, _keys.length * 2));
+
+        System.arraycopy(other._keys, 0, _keys, _size, other._size);
+        System.arraycopy(other._shaders, 0, _shaders, _size, other._size);
+        System.arraycopy(other._textures, 0, _textures, _size, other._size);
+        System.arraycopy(other._vertexArrays, 0, _vertexArrays, _size, other._size);
+        System.arraycopy(other._firsts, 0, _firsts, _size, other._size);
+        System.arraycopy(other._counts, 0, _counts, _size, other._size);
+        _size += other._size;
+    }
+
+    /** Removes all commands, but keeps the arrays for reuse. */
+    public void clear() {
+        _size = 0;
+    }
+
+    /**
+     * Copies the arrays into longer ones.
+     * @param capacity The amount of commands there should be room for.
+     */
+    private void grow(int capacity) {
+        _keys = Arrays.copyOf(_keys, capacity);
+        _shaders = Arrays.copyOf(_shaders, capacity);
+        _textures = Arrays.copyOf(_textures, capacity);
+        _vertexArrays = Arrays.copyOf(_vertexArrays, capacity);
+        _firsts = Arrays.copyOf(_firsts, capacity);
+        _counts = Arrays.copyOf(_counts, capacity);
+    }
+}
@@ -0,0 +1,218 @@
+package laustrup.models.graphic.command;
+
+import laustrup.models.graphic.Camera;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.device.GraphicsDevice;
+import laustrup.models.profiling.FrameProfiler;
+import laustrup.utilities.SortUtility;
+import laustrup.utilities.TimeUtility;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Collects draw commands recorded by many threads, and submits them to the device in the order of their sort keys.
+ * Recording is split into tasks, that each records into a CommandBuffer of its own on a ForkJoin pool,
+ * so gathering what to draw runs on every core, while only the sorted submission runs on the thread of the graphics context.
+ * The commands are merged and radix sorted by their keys, so the program, texture and vertex array
+ * are only changed when the next command needs another.
+ * The amount of commands, state changes and the time of sorting are recorded in the FrameProfiler.
+ */
+@ToString(of = {"_commandsPerFrame", "_stateChangesPerFrame", "_sortNanos"})
+public class RenderQueue {
+
+    /** Records the commands of one task into its own buffer. */
+    public interface Recorder {
+
+        /**
+         * Records commands, is called on a thread of the pool.
+         * @param buffer The buffer of the task, that only this task records into.
+         * @param task The index of the task.
+         * @param tasks The amount of tasks, so each task can take its share of the work.
+         */
+        void record(CommandBuffer buffer, int task, int tasks);
+    }
+
+    /** The matrix of drawing in clip space, when there is no Camera. */
+    private static final Matrix4fc IDENTITY = new Matrix4f();
+
+    /** The pool that tasks of recording runs on. */
+    @Getter @Setter
+    private ForkJoinPool _pool = ForkJoinPool.commonPool();
+
+    /** The registered shaders, where the index is the id of the shader. */
+    private final List<Shader> _shaders = new ArrayList<>();
+
+    /** The buffers of the tasks, the buffer of the first task is also the buffer of recording on the calling thread. */
+    private CommandBuffer[] _buffers = { new CommandBuffer() };
+
+    /** The amount of buffers recorded into since the last submission. */
+    private int _recorded = 1;
+
+    /** The commands of all buffers merged, before they are sorted. */
+    private final CommandBuffer _merged = new CommandBuffer();
+
+    /** The indices of the merged commands, in the order they are submitted. */
+    private int[] _order = new int[0];
+
+    /** The arrays that the radix sort works in. */
+    private long[] _keyScratch = new long[0];
+    private int[] _orderScratch = new int[0];
+    private final int[] _counts = new int[8 * 256];
+
+    /** The amount of commands submitted in the last frame. */
+    @Getter
+    private int _commandsPerFrame;
+
+    /** The amount of programs, textures and vertex arrays bound in the last frame. */
+    @Getter
+    private int _stateChangesPerFrame;
+
+    /** The nanoseconds of merging and sorting in the last frame. */
+    @Getter
+    private long _sortNanos;
+
+    /** The ids of the scope and counters in the FrameProfiler. */
+    private final int _sortScope, _commandCounter, _stateCounter;
+
+    /** Registers the statistics in the FrameProfiler. */
+    public RenderQueue() {
+        FrameProfiler profiler = FrameProfiler.get_instance();
+        _sortScope = profiler.scope("render sort");
+        _commandCounter = profiler.counter("render commands");
+        _stateCounter = profiler.counter("render state changes");
+    }
+
+    /**
+     * Registers a shader, so commands can refer to it by its id.
+     * Should be done on the thread of the graphics context before recording, such as when the scene is initiated.
+     * @param shader The shader.
+     * @return The id of the shader, an already registered shader gives the same id.
+     */
+    public int register(Shader shader) {
+        for (int i = 0; i < _shaders.size(); i++)
+            if (_shaders.get(i) == shader)
+                return i;
+
+        if (_shaders.size() == 1 << SortKey.SHADER_BITS)
+            throw new IllegalStateException("There can't be registered more than " + (1 << SortKey.SHADER_BITS) + " shaders...");
+        _shaders.add(shader);
+
+        return _shaders.size() - 1;
+    }
+
+    /** @return The buffer for recording on the calling thread, which is the buffer of the first task. */
+    public CommandBuffer buffer() {
+        return _buffers[0];
+    }
+
+    /**
+     * Records commands in tasks on the pool, and waits for all of them.
+     * A single task is recorded on the calling thread.
+     * Recorders must only read shared state, such as a Camera whose matrices have been calculated before.
+     * @param tasks The amount of tasks, each with a buffer of its own.
+     * @param recorder Records the commands of each task.
+     */
+    public void record(int tasks, Recorder recorder) {
+        if (tasks > _buffers.length) {
+            int created = _buffers.length;
+            _buffers = Arrays.copyOf(_buffers, tasks);
+            for (int i = created; i < tasks; i++)
+                _buffers[i] = new CommandBuffer();
+        }
+        _recorded = Math.max(_recorded, tasks);
+
+        if (tasks == 1) {
+            recorder.record(_buffers[0], 0, 1);
+            return;
+        }
+
+        ForkJoinTask<?>[] running = new ForkJoinTask<?>[tasks];
+        for (int i = 0; i < tasks; i++) {
+            int task = i;
+            running[i] = _pool.submit(() -> recorder.record(_buffers[task], task, tasks));
+        }
+        for (ForkJoinTask<?> task : running)
+            task.join();
+    }
+
+    /**
+     * Merges and sorts the recorded commands, draws them with the device and clears the buffers.
+     * Must be called on the thread of the graphics context.
+     * @param device The device to draw with.
+     * @param camera The camera, whose matrices are set as uProjection and uView when a program is used,
+     *               or null to draw in clip space.
+     * @return The amount of commands that were drawn.
+     */
+    public int submit(GraphicsDevice device, Camera camera) {
+        FrameProfiler profiler = FrameProfiler.get_instance();
+        long start = TimeUtility.get_nanos();
+        profiler.begin(_sortScope);
+
+        _merged.clear();
+        for (int i = 0; i < _recorded; i++) {
+            _merged.append(_buffers[i]);
+            _buffers[i].clear();
+        }
+        _recorded = 1;
+
+        int size = _merged.get_size();
+        if (_order.length < size) {
+            _order = new int[_merged._keys.length];
+            _keyScratch = new long[_order.length];
+            _orderScratch = new int[_order.length];
+        }
+        for (int i = 0; i < size; i++)
+            _order[i] = i;
+        SortUtility.radixSort(_merged._keys, _order, size, _keyScratch, _orderScratch, _counts);
+
+        profiler.end(_sortScope);
+        _sortNanos = TimeUtility.get_nanos() - start;
+
+        int shader = -1, texture = -1, vertexArray = -1, changes = 0;
+        for (int i = 0; i < size; i++) {
+            int command = _order[i];
+
+            if (_merged._shaders[command] != shader) {
+                shader = _merged._shaders[command];
+                Shader program = _shaders.get(shader);
+                program.use();
+                program.upload("uProjection", camera != null ? camera.get_projectionMatrix() : IDENTITY);
+                program.upload("uView", camera != null ? camera.get_viewMatrix() : IDENTITY);
+                changes++;
+            }
+            if (_merged._textures[command] != texture) {
+                texture = _merged._textures[command];
+                device.bindTexture(GL_TEXTURE_2D, texture);
+                changes++;
+            }
+            if (_merged._vertexArrays[command] != vertexArray) {
+                vertexArray = _merged._vertexArrays[command];
+                device.bindVertexArray(vertexArray);
+                changes++;
+            }
+
+            device.drawElements(GL_TRIANGLES, _merged._counts[command], GL_UNSIGNED_INT,
+                    (long) _merged._firsts[command] * Integer.BYTES);
+        }
+
+        _commandsPerFrame = size;
+        _stateChangesPerFrame = changes;
+        profiler.count(_commandCounter, size);
+        profiler.count(_stateCounter, changes);
+
+        return size;
+    }
+}
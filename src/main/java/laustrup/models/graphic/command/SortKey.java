@@ -0,0 +1,70 @@
+package laustrup.models.graphic.command;
+
+/**
+ * Packs what a draw command is sorted by into a long, so commands are ordered by sorting longs.
+ * From the most significant bits it is 8 bits of layer, 16 bits of shader, 16 bits of texture and 24 bits of depth,
+ * so layers are drawn in order, and inside of a layer commands of the same shader and then texture are drawn together.
+ * The keys are compared as unsigned longs.
+ */
+public class SortKey {
+
+    /** The amount of bits of each part. */
+    public static final int LAYER_BITS = 8, SHADER_BITS = 16, TEXTURE_BITS = 16, DEPTH_BITS = 24;
+
+    /** The positions of the lowest bits of each part. */
+    private static final int DEPTH_SHIFT = 0,
+                             TEXTURE_SHIFT = DEPTH_SHIFT + DEPTH_BITS,
+                             SHADER_SHIFT = TEXTURE_SHIFT + TEXTURE_BITS,
+                             LAYER_SHIFT = SHADER_SHIFT + SHADER_BITS;
+
+    /** The highest depth value. */
+    private static final int DEPTH_MAX = (1 << DEPTH_BITS) - 1;
+
+    private SortKey() {}
+
+    /**
+     * Packs a key, where parts that are too large keep only their lowest bits.
+     * @param layer The layer, such as the background, the world and the interface, which are drawn in order.
+     * @param shader The id of the shader in the queue.
+     * @param texture The id of the texture, or 0 without a texture.
+     * @param depth The depth from 0 to 1, where 0 is drawn first, values outside are clamped.
+     *              Should be the distance from the camera for opaque layers, and one minus it for transparent layers.
+     * @return The key.
+     */
+    public static long of(int layer, int shader, int texture, float depth) {
+        long quantized = (long) (Math.min(Math.max(depth, 0f), 1f) * DEPTH_MAX);
+
+        return ((long) (layer & mask(LAYER_BITS)) << LAYER_SHIFT)
+                | ((long) (shader & mask(SHADER_BITS)) << SHADER_SHIFT)
+                | ((long) (texture & mask(TEXTURE_BITS)) << TEXTURE_SHIFT)
+                | (quantized << DEPTH_SHIFT);
+    }
+
+    /** @return The layer of a key. */
+    public static int layer(long key) {
+        return (int) (key >>> LAYER_SHIFT) & mask(LAYER_BITS);
+    }
+
+    /** @return The shader of a key. */
+    public static int shader(long key) {
+        return (int) (key >>> SHADER_SHIFT) & mask(SHADER_BITS);
+    }
+
+    /** @return The texture of a key. */
+    public static int texture(long key) {
+        return (int) (key >>> TEXTURE_SHIFT) & mask(TEXTURE_BITS);
+    }
+
+    /** @return The depth of a key from 0 to 1. */
+    public static float depth(long key) {
+        return (float) ((key >>> DEPTH_SHIFT) & DEPTH_MAX) / DEPTH_MAX;
+    }
+
+    /**
+     * @param bits An amount of bits.
+     * @return An int where that amount of lowest bits are set.
+     */
+    private static int mask(int bits) {
+        return (int) ((1L << bits) - 1);
+    }
+}
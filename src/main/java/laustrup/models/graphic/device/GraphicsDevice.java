@@ -0,0 +1,383 @@
+package laustrup.models.graphic.device;
+
+import java.nio.*;
+
+/**
+ * The operations of the graphics card, that the rendering is performed with.
+ * Follows the functions and constants of openGL, so the openGL implementation is a direct call,
+ * but other implementations can run without a context, such as for benchmarks and tests.
+ */
+public interface GraphicsDevice {
+
+    /**
+     * Calculates the amount of bytes that is remaining of a buffer.
+     * @param data The buffer of any type.
+     * @return The amount of bytes from its position to its limit.
+     */
+    static long bytes(Buffer data) {
+        int size;
+        if (data instanceof ByteBuffer)
+            size = Byte.BYTES;
+        else if (data instanceof ShortBuffer)
+            size = Short.BYTES;
+        else if (data instanceof IntBuffer || data instanceof FloatBuffer)
+            size = Integer.BYTES;
+        else
+            size = Long.BYTES;
+
+        return (long) data.remaining() * size;
+    }
+
+    /** @return The id of a new buffer. */
+    int genBuffer();
+
+    /**
+     * Binds a buffer to a target.
+     * @param target The target, such as GL_ARRAY_BUFFER.
+     * @param buffer The id of the buffer, 0 unbinds.
+     */
+    void bindBuffer(int target, int buffer);
+
+    /**
+     * Allocates the storage of the bound buffer without any data.
+     * @param target The target of the bound buffer.
+     * @param size The amount of bytes.
+     * @param usage The expected usage, such as GL_STATIC_DRAW.
+     */
+    void bufferData(int target, long size, int usage);
+
+    /**
+     * Allocates the storage of the bound buffer with the remaining data of a buffer.
+     * @param target The target of the bound buffer.
+     * @param data The data from its position to its limit.
+     * @param usage The expected usage, such as GL_STATIC_DRAW.
+     */
+    void bufferData(int target, Buffer data, int usage);
+
+    /**
+     * Replaces a part of the storage of the bound buffer.
+     * @param target The target of the bound buffer.
+     * @param offset The amount of bytes from the start of the storage.
+     * @param data The data from its position to its limit.
+     */
+    void bufferSubData(int target, long offset, Buffer data);
+
+    /** @param buffer The id of the buffer to delete. */
+    void deleteBuffer(int buffer);
+
+    /**
+     * Maps a range of the storage of the bound buffer into memory, so it can be written directly.
+     * @param target The target of the bound buffer.
+     * @param offset The amount of bytes from the start of the storage.
+     * @param length The amount of bytes of the range.
+     * @param access The access, such as GL_MAP_WRITE_BIT and GL_MAP_UNSYNCHRONIZED_BIT.
+     * @return The mapped range, or null if it couldn't be mapped.
+     */
+    ByteBuffer mapBufferRange(int target, long offset, long length, int access);
+
+    /**
+     * Ends the mapping of the bound buffer.
+     * @param target The target of the bound buffer.
+     * @return False if the storage was lost while it was mapped, so the range must be written again.
+     */
+    boolean unmapBuffer(int target);
+
+    /** @return A new fence after the commands so far, that is signaled when the graphics card has finished them. */
+    long fenceSync();
+
+    /**
+     * Waits for a fence to be signaled, flushing the commands before it.
+     * @param sync The fence.
+     * @param timeout The nanoseconds to wait at most, 0 only checks it.
+     * @return The status, such as GL_ALREADY_SIGNALED, GL_CONDITION_SATISFIED or GL_TIMEOUT_EXPIRED.
+     */
+    int clientWaitSync(long sync, long timeout);
+
+    /** @param sync The fence to delete. */
+    void deleteSync(long sync);
+
+    /** @return The id of a new vertex array. */
+    int genVertexArray();
+
+    /** @param array The id of the vertex array to bind, 0 unbinds. */
+    void bindVertexArray(int array);
+
+    /** @param array The id of the vertex array to delete. */
+    void deleteVertexArray(int array);
+
+    /**
+     * Describes an attribute of the bound vertex buffer for the bound vertex array.
+     * @param location The location of the attribute in the shader.
+     * @param size The amount of components.
+     * @param type The type of the components, such as GL_FLOAT.
+     * @param normalized True if integers should be normalized into 0 to 1.
+     * @param stride The amount of bytes of each vertex.
+     * @param offset The amount of bytes from the start of the vertex to the attribute.
+     */
+    void vertexAttribPointer(int location, int size, int type, boolean normalized, int stride, long offset);
+
+    /** @param location The location of the attribute to enable for the bound vertex array. */
+    void enableVertexAttribArray(int location);
+
+    /**
+     * Sets how often an attribute of the bound vertex array advances.
+     * @param location The location of the attribute.
+     * @param divisor 0 to advance every vertex, or the amount of instances that share each value.
+     */
+    void vertexAttribDivisor(int location, int divisor);
+
+    /** @param location The location of the attribute to disable for the bound vertex array. */
+    void disableVertexAttribArray(int location);
+
+    /**
+     * @param type The type of the shader, such as GL_VERTEX_SHADER.
+     * @return The id of a new shader.
+     */
+    int createShader(int type);
+
+    /**
+     * @param shader The id of the shader.
+     * @param source The glsl source of the shader.
+     */
+    void shaderSource(int shader, CharSequence source);
+
+    /** @param shader The id of the shader to compile. */
+    void compileShader(int shader);
+
+    /**
+     * @param shader The id of the shader.
+     * @param parameter The parameter, such as GL_COMPILE_STATUS.
+     * @return The value of the parameter.
+     */
+    int getShaderi(int shader, int parameter);
+
+    /**
+     * @param shader The id of the shader.
+     * @return The log of the compilation.
+     */
+    String getShaderInfoLog(int shader);
+
+    /** @param shader The id of the shader to delete. */
+    void deleteShader(int shader);
+
+    /** @return The id of a new program. */
+    int createProgram();
+
+    /**
+     * @param program The id of the program.
+     * @param shader The id of the shader to attach.
+     */
+    void attachShader(int program, int shader);
+
+    /** @param program The id of the program to link. */
+    void linkProgram(int program);
+
+    /**
+     * @param program The id of the program.
+     * @param parameter The parameter, such as GL_LINK_STATUS.
+     * @return The value of the parameter.
+     */
+    int getProgrami(int program, int parameter);
+
+    /**
+     * @param program The id of the program.
+     * @return The log of the link.
+     */
+    String getProgramInfoLog(int program);
+
+    /**
+     * @param program The id of the program.
+     * @param parameter The parameter, such as GL_PROGRAM_BINARY_RETRIEVABLE_HINT.
+     * @param value The value of the parameter.
+     */
+    void programParameteri(int program, int parameter, int value);
+
+    /**
+     * Retrieves the linked binary of a program.
+     * @param program The id of the linked program.
+     * @param format Is given the format of the binary at index 0.
+     * @return The binary, or null if the program has none.
+     */
+    ByteBuffer getProgramBinary(int program, int[] format);
+
+    /**
+     * Loads a binary into a program, the link status tells if the binary was accepted.
+     * @param program The id of the program.
+     * @param format The format of the binary.
+     * @param binary The binary from its position to its limit.
+     */
+    void programBinary(int program, int format, ByteBuffer binary);
+
+    /**
+     * @param name The name of the string, such as GL_VERSION.
+     * @return The string describing the driver.
+     */
+    String getString(int name);
+
+    /**
+     * @param name The name of the value, such as GL_NUM_PROGRAM_BINARY_FORMATS.
+     * @return The integer value of the driver.
+     */
+    int getInteger(int name);
+
+    /**
+     * @param program The id of the linked program.
+     * @param name The name of the uniform.
+     * @return The location of the uniform, or -1 if the program has no such active uniform.
+     */
+    int getUniformLocation(int program, CharSequence name);
+
+    /**
+     * Describes an active uniform of a program, the amount is given by GL_ACTIVE_UNIFORMS.
+     * @param program The id of the linked program.
+     * @param index The index of the active uniform.
+     * @param size Is given the size of the uniform at index 0.
+     * @param type Is given the type of the uniform at index 0.
+     * @return The name of the uniform.
+     */
+    String getActiveUniform(int program, int index, int[] size, int[] type);
+
+    /** Sets an int uniform of the program in use, such as a sampler. */
+    void uniform1i(int location, int value);
+
+    /** Sets a float uniform of the program in use. */
+    void uniform1f(int location, float x);
+
+    /** Sets a vec2 uniform of the program in use. */
+    void uniform2f(int location, float x, float y);
+
+    /** Sets a vec3 uniform of the program in use. */
+    void uniform3f(int location, float x, float y, float z);
+
+    /** Sets a vec4 uniform of the program in use. */
+    void uniform4f(int location, float x, float y, float z, float w);
+
+    /**
+     * Sets a mat3 uniform of the program in use.
+     * @param location The location of the uniform.
+     * @param transpose True if the values are in row major order.
+     * @param values The nine values from the position of the buffer.
+     */
+    void uniformMatrix3fv(int location, boolean transpose, FloatBuffer values);
+
+    /**
+     * Sets a mat4 uniform of the program in use.
+     * @param location The location of the uniform.
+     * @param transpose True if the values are in row major order.
+     * @param values The sixteen values from the position of the buffer.
+     */
+    void uniformMatrix4fv(int location, boolean transpose, FloatBuffer values);
+
+    /** @return The id of a new texture. */
+    int genTexture();
+
+    /**
+     * Binds a texture to a target of the active texture unit.
+     * @param target The target, such as GL_TEXTURE_2D.
+     * @param texture The id of the texture, 0 unbinds.
+     */
+    void bindTexture(int target, int texture);
+
+    /**
+     * @param target The target of the bound texture.
+     * @param parameter The parameter, such as GL_TEXTURE_MIN_FILTER.
+     * @param value The value of the parameter, such as GL_NEAREST.
+     */
+    void texParameteri(int target, int parameter, int value);
+
+    /**
+     * Allocates the storage of a level of the bound texture.
+     * @param target The target of the bound texture.
+     * @param level The level of detail, 0 is the base image.
+     * @param internalFormat The format of the storage, such as GL_RGBA8.
+     * @param width The amount of pixels of each row.
+     * @param height The amount of rows.
+     * @param format The format of the pixels, such as GL_RGBA.
+     * @param type The type of the components of the pixels, such as GL_UNSIGNED_BYTE.
+     * @param pixels The pixels from the position of the buffer, or null to only allocate.
+     */
+    void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, ByteBuffer pixels);
+
+    /**
+     * Replaces a rectangle of a level of the bound texture.
+     * @param target The target of the bound texture.
+     * @param level The level of detail, 0 is the base image.
+     * @param x The column of the left edge of the rectangle.
+     * @param y The row of the bottom edge of the rectangle.
+     * @param width The amount of pixels of each row.
+     * @param height The amount of rows.
+     * @param format The format of the pixels, such as GL_RGBA.
+     * @param type The type of the components of the pixels, such as GL_UNSIGNED_BYTE.
+     * @param pixels The pixels from the position of the buffer.
+     */
+    void texSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, ByteBuffer pixels);
+
+    /** @param texture The id of the texture to delete. */
+    void deleteTexture(int texture);
+
+    /** @param program The id of the program to use, 0 stops using any. */
+    void useProgram(int program);
+
+    /** @param program The id of the program to delete. */
+    void deleteProgram(int program);
+
+    /**
+     * Draws with the bound vertex array and element buffer.
+     * @param mode The primitives, such as GL_TRIANGLES.
+     * @param count The amount of indices.
+     * @param type The type of the indices, such as GL_UNSIGNED_INT.
+     * @param offset The amount of bytes from the start of the element buffer.
+     */
+    void drawElements(int mode, int count, int type, long offset);
+
+    /**
+     * Draws with the bound vertex array and element buffer, where a value is added to every index.
+     * @param mode The primitives, such as GL_TRIANGLES.
+     * @param count The amount of indices.
+     * @param type The type of the indices, such as GL_UNSIGNED_INT.
+     * @param offset The amount of bytes from the start of the element buffer.
+     * @param baseVertex The value added to every index, such as the first vertex of a range of a streamed buffer.
+     */
+    void drawElementsBaseVertex(int mode, int count, int type, long offset, int baseVertex);
+
+    /**
+     * Draws the indices of the bound vertex array and element buffer many times with one draw call,
+     * where the attributes with a divisor advance for each instance.
+     * @param mode The primitives, such as GL_TRIANGLES.
+     * @param count The amount of indices of each instance.
+     * @param type The type of the indices, such as GL_UNSIGNED_INT.
+     * @param offset The amount of bytes from the start of the element buffer.
+     * @param instances The amount of instances.
+     */
+    void drawElementsInstanced(int mode, int count, int type, long offset, int instances);
+
+    /** @param capability The capability to enable, such as GL_BLEND or GL_DEPTH_TEST. */
+    void enable(int capability);
+
+    /** @param capability The capability to disable, such as GL_BLEND or GL_DEPTH_TEST. */
+    void disable(int capability);
+
+    /**
+     * @param source The factor of the source color, such as GL_SRC_ALPHA.
+     * @param destination The factor of the destination color, such as GL_ONE_MINUS_SRC_ALPHA.
+     */
+    void blendFunc(int source, int destination);
+
+    /** @param function The comparison of the depth test, such as GL_LESS. */
+    void depthFunc(int function);
+
+    /**
+     * Sets the area of the window that is drawn into, in pixels from the bottom left corner.
+     * @param x The left edge.
+     * @param y The bottom edge.
+     * @param width The width.
+     * @param height The height.
+     */
+    void viewport(int x, int y, int width, int height);
+
+    /** Sets the color that clear will fill the color buffer with. */
+    void clearColor(float red, float green, float blue, float alpha);
+
+    /** @param mask The buffers to clear, such as GL_COLOR_BUFFER_BIT. */
+    void clear(int mask);
+}
@@ -0,0 +1,345 @@
+package laustrup.models.graphic.device;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL33.*;
+import static org.lwjgl.opengl.GL41.*;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+
+/**
+ * Performs the operations directly with openGL of lwjgl.
+ * Needs a current context of openGL.
+ */
+public class OpenGLDevice implements GraphicsDevice {
+
+    @Override
+    public int genBuffer() {
+        return glGenBuffers();
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        glBufferData(target, size, usage);
+    }
+
+    @Override
+    public void bufferData(int target, Buffer data, int usage) {
+        nglBufferData(target, GraphicsDevice.bytes(data), memAddress(data), usage);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, Buffer data) {
+        nglBufferSubData(target, offset, GraphicsDevice.bytes(data), memAddress(data));
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        glDeleteBuffers(buffer);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        return glMapBufferRange(target, offset, length, access);
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        return glUnmapBuffer(target);
+    }
+
+    @Override
+    public long fenceSync() {
+        return glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    @Override
+    public int clientWaitSync(long sync, long timeout) {
+        return glClientWaitSync(sync, GL_SYNC_FLUSH_COMMANDS_BIT, timeout);
+    }
+
+    @Override
+    public void deleteSync(long sync) {
+        glDeleteSync(sync);
+    }
+
+    @Override
+    public int genVertexArray() {
+        return glGenVertexArrays();
+    }
+
+    @Override
+    public void bindVertexArray(int array) {
+        glBindVertexArray(array);
+    }
+
+    @Override
+    public void deleteVertexArray(int array) {
+        glDeleteVertexArrays(array);
+    }
+
+    @Override
+    public void vertexAttribPointer(int location, int size, int type, boolean normalized, int stride, long offset) {
+        glVertexAttribPointer(location, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int location) {
+        glEnableVertexAttribArray(location);
+    }
+
+    @Override
+    public void vertexAttribDivisor(int location, int divisor) {
+        glVertexAttribDivisor(location, divisor);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int location) {
+        glDisableVertexAttribArray(location);
+    }
+
+    @Override
+    public int createShader(int type) {
+        return glCreateShader(type);
+    }
+
+    @Override
+    public void shaderSource(int shader, CharSequence source) {
+        glShaderSource(shader, source);
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        glCompileShader(shader);
+    }
+
+    @Override
+    public int getShaderi(int shader, int parameter) {
+        return glGetShaderi(shader, parameter);
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        glDeleteShader(shader);
+    }
+
+    @Override
+    public int createProgram() {
+        return glCreateProgram();
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        glAttachShader(program, shader);
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        glLinkProgram(program);
+    }
+
+    @Override
+    public int getProgrami(int program, int parameter) {
+        return glGetProgrami(program, parameter);
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void programParameteri(int program, int parameter, int value) {
+        glProgramParameteri(program, parameter, value);
+    }
+
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format) {
+        int length = glGetProgrami(program, GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0)
+            return null;
+
+        ByteBuffer binary = BufferUtils.createByteBuffer(length);
+        IntBuffer formats = BufferUtils.createIntBuffer(1);
+        glGetProgramBinary(program, null, formats, binary);
+        format[0] = formats.get(0);
+
+        return binary;
+    }
+
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary) {
+        glProgramBinary(program, format, binary);
+    }
+
+    @Override
+    public String getString(int name) {
+        return glGetString(name);
+    }
+
+    @Override
+    public int getInteger(int name) {
+        return glGetInteger(name);
+    }
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name) {
+        return glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public String getActiveUniform(int program, int index, int[] size, int[] type) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer sizes = stack.mallocInt(1), types = stack.mallocInt(1);
+            String name = glGetActiveUniform(program, index, sizes, types);
+            size[0] = sizes.get(0);
+            type[0] = types.get(0);
+
+            return name;
+        }
+    }
+
+    @Override
+    public void uniform1i(int location, int value) {
+        glUniform1i(location, value);
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        glUniform1f(location, x);
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        glUniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, boolean transpose, FloatBuffer values) {
+        glUniformMatrix3fv(location, transpose, values);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer values) {
+        glUniformMatrix4fv(location, transpose, values);
+    }
+
+    @Override
+    public int genTexture() {
+        return glGenTextures();
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        glBindTexture(target, texture);
+    }
+
+    @Override
+    public void texParameteri(int target, int parameter, int value) {
+        glTexParameteri(target, parameter, value);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, ByteBuffer pixels) {
+        glTexImage2D(target, level, internalFormat, width, height, 0, format, type, pixels);
+    }
+
+    @Override
+    public void texSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        glTexSubImage2D(target, level, x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        glDeleteTextures(texture);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        glUseProgram(program);
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        glDeleteProgram(program);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, long offset) {
+        glDrawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void drawElementsBaseVertex(int mode, int count, int type, long offset, int baseVertex) {
+        glDrawElementsBaseVertex(mode, count, type, offset, baseVertex);
+    }
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long offset, int instances) {
+        glDrawElementsInstanced(mode, count, type, offset, instances);
+    }
+
+    @Override
+    public void enable(int capability) {
+        glEnable(capability);
+    }
+
+    @Override
+    public void disable(int capability) {
+        glDisable(capability);
+    }
+
+    @Override
+    public void blendFunc(int source, int destination) {
+        glBlendFunc(source, destination);
+    }
+
+    @Override
+    public void depthFunc(int function) {
+        glDepthFunc(function);
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void clear(int mask) {
+        glClear(mask);
+    }
+}
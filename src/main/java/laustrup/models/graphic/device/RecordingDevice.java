@@ -0,0 +1,541 @@
+package laustrup.models.graphic.device;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL32.GL_ALREADY_SIGNALED;
+import static org.lwjgl.opengl.GL41.GL_NUM_PROGRAM_BINARY_FORMATS;
+
+/**
+ * Performs no graphics at all, but records the operations in memory.
+ * Counts each command, the bytes uploaded, the indices drawn and the changes of bound state,
+ * so rendering can be benchmarked and tested without a graphics card or a window.
+ */
+@ToString(of = {"_drawCalls", "_drawnIndices", "_uploadedBytes", "_stateChanges"})
+public class RecordingDevice implements GraphicsDevice {
+
+    /** The commands that are recorded. */
+    public enum Command {
+        GEN_BUFFER,
+        BIND_BUFFER,
+        BUFFER_DATA,
+        BUFFER_SUB_DATA,
+        DELETE_BUFFER,
+        MAP_BUFFER_RANGE,
+        UNMAP_BUFFER,
+        FENCE_SYNC,
+        CLIENT_WAIT_SYNC,
+        DELETE_SYNC,
+        GEN_VERTEX_ARRAY,
+        BIND_VERTEX_ARRAY,
+        DELETE_VERTEX_ARRAY,
+        VERTEX_ATTRIB_POINTER,
+        ENABLE_VERTEX_ATTRIB_ARRAY,
+        DISABLE_VERTEX_ATTRIB_ARRAY,
+        VERTEX_ATTRIB_DIVISOR,
+        CREATE_SHADER,
+        SHADER_SOURCE,
+        COMPILE_SHADER,
+        DELETE_SHADER,
+        CREATE_PROGRAM,
+        ATTACH_SHADER,
+        LINK_PROGRAM,
+        PROGRAM_PARAMETER,
+        GET_PROGRAM_BINARY,
+        PROGRAM_BINARY,
+        UNIFORM,
+        GEN_TEXTURE,
+        BIND_TEXTURE,
+        TEX_PARAMETER,
+        TEX_IMAGE,
+        TEX_SUB_IMAGE,
+        DELETE_TEXTURE,
+        USE_PROGRAM,
+        DELETE_PROGRAM,
+        DRAW_ELEMENTS,
+        DRAW_ELEMENTS_INSTANCED,
+        ENABLE,
+        DISABLE,
+        BLEND_FUNC,
+        DEPTH_FUNC,
+        VIEWPORT,
+        CLEAR_COLOR,
+        CLEAR
+    }
+
+    /** The amount of each command, in the order of the commands. */
+    private final long[] _counts = new long[Command.values().length];
+
+    /** The amount of draw calls. */
+    @Getter
+    private long _drawCalls;
+
+    /** The amount of indices of all draw calls, where each instance counts its indices. */
+    @Getter
+    private long _drawnIndices;
+
+    /** The amount of instances of all instanced draw calls. */
+    @Getter
+    private long _drawnInstances;
+
+    /** The amount of bytes passed to buffers and textures. */
+    @Getter
+    private long _uploadedBytes;
+
+    /** The amount of binds and uses, that changed what was bound. */
+    @Getter
+    private long _stateChanges;
+
+    /** The last generated id, ids are shared between all kinds of objects. */
+    private int _lastId;
+
+    /** The last created fence. */
+    private long _lastSync;
+
+    /** The memory that mapped ranges are written into, which is reused by every mapping. */
+    private ByteBuffer _mapped = ByteBuffer.allocateDirect(0);
+
+    /** The currently used program. */
+    @Getter
+    private int _program;
+
+    /** The currently bound vertex array. */
+    @Getter
+    private int _vertexArray;
+
+    /** The texture bound to GL_TEXTURE_2D. */
+    @Getter
+    private int _texture;
+
+    /** The locations given to the names of uniforms. */
+    private final Map<String, Integer> _uniformLocations = new HashMap<>();
+
+    /** The targets that has had buffers bound, with the bound buffer of the same index. */
+    private int[] _targets = new int[4], _buffers = new int[4];
+
+    /**
+     * The amount of times a command has been recorded.
+     * @param command The command to count.
+     * @return The amount.
+     */
+    public long count(Command command) {
+        return _counts[command.ordinal()];
+    }
+
+    /**
+     * Finds the buffer bound to a target.
+     * @param target The target, such as GL_ARRAY_BUFFER.
+     * @return The id of the buffer, or 0 if none is bound.
+     */
+    public int boundBuffer(int target) {
+        for (int i = 0; i < _targets.length; i++)
+            if (_targets[i] == target)
+                return _buffers[i];
+
+        return 0;
+    }
+
+    /** Removes all recorded counts, but keeps the bound state. */
+    public void reset() {
+        Arrays.fill(_counts, 0);
+        _drawCalls = 0;
+        _drawnIndices = 0;
+        _drawnInstances = 0;
+        _uploadedBytes = 0;
+        _stateChanges = 0;
+    }
+
+    /**
+     * Counts a command.
+     * @param command The command to count.
+     */
+    private void record(Command command) {
+        _counts[command.ordinal()]++;
+    }
+
+    /** @return A new id. */
+    private int generate() {
+        return ++_lastId;
+    }
+
+    @Override
+    public int genBuffer() {
+        record(Command.GEN_BUFFER);
+        return generate();
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        record(Command.BIND_BUFFER);
+
+        int free = -1;
+        for (int i = 0; i < _targets.length; i++) {
+            if (_targets[i] == target) {
+                if (_buffers[i] != buffer)
+                    _stateChanges++;
+                _buffers[i] = buffer;
+                return;
+            }
+            if (_targets[i] == 0 && free < 0)
+                free = i;
+        }
+
+        if (free < 0) {
+            free = _targets.length;
+            _targets = Arrays.copyOf(_targets, free * 2);
+            _buffers = Arrays.copyOf(_buffers, free * 2);
+        }
+        _targets[free] = target;
+        _buffers[free] = buffer;
+        if (buffer != 0)
+            _stateChanges++;
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        record(Command.BUFFER_DATA);
+    }
+
+    @Override
+    public void bufferData(int target, Buffer data, int usage) {
+        record(Command.BUFFER_DATA);
+        _uploadedBytes += GraphicsDevice.bytes(data);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, Buffer data) {
+        record(Command.BUFFER_SUB_DATA);
+        _uploadedBytes += GraphicsDevice.bytes(data);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        record(Command.DELETE_BUFFER);
+    }
+
+    /** The range is mapped into memory, that is shared by every mapping and never read. */
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        record(Command.MAP_BUFFER_RANGE);
+        if (_mapped.capacity() < length)
+            _mapped = ByteBuffer.allocateDirect((int) Math.max(length, _mapped.capacity() * 2L));
+        _uploadedBytes += length;
+
+        return _mapped.clear().limit((int) length).slice();
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        record(Command.UNMAP_BUFFER);
+        return true;
+    }
+
+    @Override
+    public long fenceSync() {
+        record(Command.FENCE_SYNC);
+        return ++_lastSync;
+    }
+
+    /** Every fence is signaled at once, since nothing is drawn. */
+    @Override
+    public int clientWaitSync(long sync, long timeout) {
+        record(Command.CLIENT_WAIT_SYNC);
+        return GL_ALREADY_SIGNALED;
+    }
+
+    @Override
+    public void deleteSync(long sync) {
+        record(Command.DELETE_SYNC);
+    }
+
+    @Override
+    public int genVertexArray() {
+        record(Command.GEN_VERTEX_ARRAY);
+        return generate();
+    }
+
+    @Override
+    public void bindVertexArray(int array) {
+        record(Command.BIND_VERTEX_ARRAY);
+        if (_vertexArray != array)
+            _stateChanges++;
+        _vertexArray = array;
+    }
+
+    @Override
+    public void deleteVertexArray(int array) {
+        record(Command.DELETE_VERTEX_ARRAY);
+    }
+
+    @Override
+    public void vertexAttribPointer(int location, int size, int type, boolean normalized, int stride, long offset) {
+        record(Command.VERTEX_ATTRIB_POINTER);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int location) {
+        record(Command.ENABLE_VERTEX_ATTRIB_ARRAY);
+    }
+
+    @Override
+    public void vertexAttribDivisor(int location, int divisor) {
+        record(Command.VERTEX_ATTRIB_DIVISOR);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int location) {
+        record(Command.DISABLE_VERTEX_ATTRIB_ARRAY);
+    }
+
+    @Override
+    public int createShader(int type) {
+        record(Command.CREATE_SHADER);
+        return generate();
+    }
+
+    @Override
+    public void shaderSource(int shader, CharSequence source) {
+        record(Command.SHADER_SOURCE);
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        record(Command.COMPILE_SHADER);
+    }
+
+    /** Every shader is compiled successfully and without any log. */
+    @Override
+    public int getShaderi(int shader, int parameter) {
+        return parameter == GL_COMPILE_STATUS ? GL_TRUE : 0;
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return "";
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        record(Command.DELETE_SHADER);
+    }
+
+    @Override
+    public int createProgram() {
+        record(Command.CREATE_PROGRAM);
+        return generate();
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        record(Command.ATTACH_SHADER);
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        record(Command.LINK_PROGRAM);
+    }
+
+    /** Every program is linked successfully and without any log. */
+    @Override
+    public int getProgrami(int program, int parameter) {
+        return parameter == GL_LINK_STATUS ? GL_TRUE : 0;
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return "";
+    }
+
+    @Override
+    public void programParameteri(int program, int parameter, int value) {
+        record(Command.PROGRAM_PARAMETER);
+    }
+
+    /** The binary is only the id of the program, with the format 0. */
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format) {
+        record(Command.GET_PROGRAM_BINARY);
+        format[0] = 0;
+
+        return ByteBuffer.allocateDirect(Integer.BYTES).putInt(0, program);
+    }
+
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary) {
+        record(Command.PROGRAM_BINARY);
+        _uploadedBytes += binary.remaining();
+    }
+
+    @Override
+    public String getString(int name) {
+        return RecordingDevice.class.getSimpleName();
+    }
+
+    /** Has the one binary format of its binaries, and 0 of everything else. */
+    @Override
+    public int getInteger(int name) {
+        return name == GL_NUM_PROGRAM_BINARY_FORMATS ? 1 : 0;
+    }
+
+    /** Each name is given its own location, which is the same for every program. */
+    @Override
+    public int getUniformLocation(int program, CharSequence name) {
+        return _uniformLocations.computeIfAbsent(name.toString(), key -> _uniformLocations.size());
+    }
+
+    /** There are no active uniforms, since nothing is compiled. */
+    @Override
+    public String getActiveUniform(int program, int index, int[] size, int[] type) {
+        return "";
+    }
+
+    @Override
+    public void uniform1i(int location, int value) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, boolean transpose, FloatBuffer values) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer values) {
+        record(Command.UNIFORM);
+    }
+
+    @Override
+    public int genTexture() {
+        record(Command.GEN_TEXTURE);
+        return generate();
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        record(Command.BIND_TEXTURE);
+        if (target == GL_TEXTURE_2D) {
+            if (_texture != texture)
+                _stateChanges++;
+            _texture = texture;
+        }
+    }
+
+    @Override
+    public void texParameteri(int target, int parameter, int value) {
+        record(Command.TEX_PARAMETER);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, ByteBuffer pixels) {
+        record(Command.TEX_IMAGE);
+        if (pixels != null)
+            _uploadedBytes += pixels.remaining();
+    }
+
+    @Override
+    public void texSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        record(Command.TEX_SUB_IMAGE);
+        _uploadedBytes += pixels.remaining();
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        record(Command.DELETE_TEXTURE);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        record(Command.USE_PROGRAM);
+        if (_program != program)
+            _stateChanges++;
+        _program = program;
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        record(Command.DELETE_PROGRAM);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, long offset) {
+        record(Command.DRAW_ELEMENTS);
+        _drawCalls++;
+        _drawnIndices += count;
+    }
+
+    @Override
+    public void drawElementsBaseVertex(int mode, int count, int type, long offset, int baseVertex) {
+        drawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long offset, int instances) {
+        record(Command.DRAW_ELEMENTS_INSTANCED);
+        _drawCalls++;
+        _drawnIndices += (long) count * instances;
+        _drawnInstances += instances;
+    }
+
+    @Override
+    public void enable(int capability) {
+        record(Command.ENABLE);
+    }
+
+    @Override
+    public void disable(int capability) {
+        record(Command.DISABLE);
+    }
+
+    @Override
+    public void blendFunc(int source, int destination) {
+        record(Command.BLEND_FUNC);
+    }
+
+    @Override
+    public void depthFunc(int function) {
+        record(Command.DEPTH_FUNC);
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        record(Command.VIEWPORT);
+    }
+
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        record(Command.CLEAR_COLOR);
+    }
+
+    @Override
+    public void clear(int mask) {
+        record(Command.CLEAR);
+    }
+}
@@ -0,0 +1,561 @@
+package laustrup.models.graphic.device;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_DEPTH_TEST;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+
+/**
+ * Wraps another device and keeps the state that has been set,
+ * so calls that wouldn't change the state are never passed on.
+ * Caches the program, the vertex array, the buffers of each target, the enabled attributes of each vertex array,
+ * the 2D texture, the clear color and the state of blending and depth testing.
+ * Everything is unknown at the start, so the first call of each state is always passed on.
+ * All rendering should go through this device, otherwise it should be invalidated.
+ */
+@ToString(of = {"_issued", "_elided"})
+public class StateCachingDevice implements GraphicsDevice {
+
+    /** The value of a state that isn't known. */
+    private static final int UNKNOWN = -1;
+
+    /** The device that the calls are passed on to. */
+    @Getter
+    private final GraphicsDevice _device;
+
+    /** The amount of calls of state, that were passed on. */
+    @Getter
+    private long _issued;
+
+    /** The amount of calls of state, that were skipped since they wouldn't change anything. */
+    @Getter
+    private long _elided;
+
+    /** The program in use. */
+    private int _program;
+
+    /** The bound vertex array. */
+    private int _vertexArray;
+
+    /** The texture bound to GL_TEXTURE_2D. */
+    private int _texture;
+
+    /** The targets that has had buffers bound, with the bound buffer of the same index. */
+    private int[] _targets, _buffers;
+
+    /** The enabled attributes of each vertex array, where the index is the id of the vertex array. */
+    private long[] _enabled;
+
+    /** The attributes that are known of each vertex array, where the index is the id of the vertex array. */
+    private long[] _known;
+
+    /** The color of clear. */
+    private final float[] _clearColor = new float[4];
+
+    /** True if the color of clear is known. */
+    private boolean _clearColorKnown;
+
+    /** 1 if enabled, 0 if disabled. */
+    private int _blend, _depthTest;
+
+    /** The functions of blending and depth testing. */
+    private int _blendSource, _blendDestination, _depthFunction;
+
+    /** @param device The device that the calls are passed on to. */
+    public StateCachingDevice(GraphicsDevice device) {
+        _device = device;
+        invalidate();
+    }
+
+    /** Forgets all the state, should be called if anything has changed the state without this device. */
+    public void invalidate() {
+        _program = UNKNOWN;
+        _vertexArray = UNKNOWN;
+        _texture = UNKNOWN;
+        _targets = new int[4];
+        _buffers = new int[4];
+        _enabled = new long[8];
+        _known = new long[8];
+        _clearColorKnown = false;
+        _blend = UNKNOWN;
+        _depthTest = UNKNOWN;
+        _blendSource = UNKNOWN;
+        _blendDestination = UNKNOWN;
+        _depthFunction = UNKNOWN;
+    }
+
+    /** Resets the counts of issued and elided calls. */
+    public void resetCounts() {
+        _issued = 0;
+        _elided = 0;
+    }
+
+    /**
+     * Counts a call of state.
+     * @param changes True if the call would change the state.
+     * @return The same as changes, so it can be used as the condition of passing it on.
+     */
+    private boolean count(boolean changes) {
+        if (changes)
+            _issued++;
+        else
+            _elided++;
+
+        return changes;
+    }
+
+    /**
+     * Finds the index of a target, it will be added if it isn't there.
+     * @param target The target of buffers.
+     * @return The index in the targets.
+     */
+    private int target(int target) {
+        for (int i = 0; i < _targets.length; i++)
+            if (_targets[i] == target)
+                return i;
+            else if (_targets[i] == 0) {
+                _targets[i] = target;
+                _buffers[i] = UNKNOWN;
+                return i;
+            }
+
+        int index = _targets.length;
+        _targets = Arrays.copyOf(_targets, index * 2);
+        _buffers = Arrays.copyOf(_buffers, index * 2);
+        _targets[index] = target;
+        _buffers[index] = UNKNOWN;
+
+        return index;
+    }
+
+    /**
+     * Makes sure that there is room for the attributes of a vertex array.
+     * @param array The id of the vertex array.
+     */
+    private void ensureAttributes(int array) {
+        if (array >= _enabled.length) {
+            _enabled = Arrays.copyOf(_enabled, Math.max(array + 1, _enabled.length * 2));
+            _known = Arrays.copyOf(_known, _enabled.length);
+        }
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        int index = target(target);
+        if (count(_buffers[index] != buffer)) {
+            _buffers[index] = buffer;
+            _device.bindBuffer(target, buffer);
+        }
+    }
+
+    @Override
+    public void bindVertexArray(int array) {
+        if (count(_vertexArray != array)) {
+            _vertexArray = array;
+            _device.bindVertexArray(array);
+            // The element buffer is part of the state of the vertex array.
+            _buffers[target(GL_ELEMENT_ARRAY_BUFFER)] = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void enableVertexAttribArray(int location) {
+        setAttribute(location, true);
+    }
+
+    @Override
+    public void vertexAttribDivisor(int location, int divisor) {
+        _device.vertexAttribDivisor(location, divisor);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int location) {
+        setAttribute(location, false);
+    }
+
+    /**
+     * Enables or disables an attribute of the bound vertex array, if it isn't already.
+     * Attributes beyond 64 or with an unknown vertex array are always passed on.
+     * @param location The location of the attribute.
+     * @param enable True to enable, false to disable.
+     */
+    private void setAttribute(int location, boolean enable) {
+        if (_vertexArray < 0 || location >= Long.SIZE) {
+            count(true);
+            passAttribute(location, enable);
+            return;
+        }
+
+        ensureAttributes(_vertexArray);
+        long bit = 1L << location;
+        boolean known = (_known[_vertexArray] & bit) != 0,
+                enabled = (_enabled[_vertexArray] & bit) != 0;
+
+        if (count(!known || enabled != enable)) {
+            _known[_vertexArray] |= bit;
+            _enabled[_vertexArray] = enable ? _enabled[_vertexArray] | bit : _enabled[_vertexArray] & ~bit;
+            passAttribute(location, enable);
+        }
+    }
+
+    /**
+     * Passes the enabling or disabling of an attribute on.
+     * @param location The location of the attribute.
+     * @param enable True to enable, false to disable.
+     */
+    private void passAttribute(int location, boolean enable) {
+        if (enable)
+            _device.enableVertexAttribArray(location);
+        else
+            _device.disableVertexAttribArray(location);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        if (count(_program != program)) {
+            _program = program;
+            _device.useProgram(program);
+        }
+    }
+
+    @Override
+    public void enable(int capability) {
+        setCapability(capability, 1);
+    }
+
+    @Override
+    public void disable(int capability) {
+        setCapability(capability, 0);
+    }
+
+    /**
+     * Enables or disables a capability, if it isn't already.
+     * Only blending and depth testing are cached, others are always passed on.
+     * @param capability The capability.
+     * @param value 1 to enable, 0 to disable.
+     */
+    private void setCapability(int capability, int value) {
+        boolean changes = switch (capability) {
+            case GL_BLEND -> _blend != value;
+            case GL_DEPTH_TEST -> _depthTest != value;
+            default -> true;
+        };
+
+        if (count(changes)) {
+            if (capability == GL_BLEND)
+                _blend = value;
+            else if (capability == GL_DEPTH_TEST)
+                _depthTest = value;
+
+            if (value == 1)
+                _device.enable(capability);
+            else
+                _device.disable(capability);
+        }
+    }
+
+    @Override
+    public void blendFunc(int source, int destination) {
+        if (count(_blendSource != source || _blendDestination != destination)) {
+            _blendSource = source;
+            _blendDestination = destination;
+            _device.blendFunc(source, destination);
+        }
+    }
+
+    @Override
+    public void depthFunc(int function) {
+        if (count(_depthFunction != function)) {
+            _depthFunction = function;
+            _device.depthFunc(function);
+        }
+    }
+
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        if (count(!_clearColorKnown || _clearColor[0] != red || _clearColor[1] != green
+                || _clearColor[2] != blue || _clearColor[3] != alpha)) {
+            _clearColorKnown = true;
+            _clearColor[0] = red;
+            _clearColor[1] = green;
+            _clearColor[2] = blue;
+            _clearColor[3] = alpha;
+            _device.clearColor(red, green, blue, alpha);
+        }
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        if (target != GL_TEXTURE_2D)
+            _device.bindTexture(target, texture);
+        else if (count(_texture != texture)) {
+            _texture = texture;
+            _device.bindTexture(target, texture);
+        }
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        if (_texture == texture)
+            _texture = 0;
+        _device.deleteTexture(texture);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        for (int i = 0; i < _targets.length; i++)
+            if (_buffers[i] == buffer)
+                _buffers[i] = 0;
+        _device.deleteBuffer(buffer);
+    }
+
+    @Override
+    public void deleteVertexArray(int array) {
+        if (_vertexArray == array)
+            _vertexArray = 0;
+        if (array < _enabled.length) {
+            _enabled[array] = 0;
+            _known[array] = 0;
+        }
+        _device.deleteVertexArray(array);
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        // A program in use is only deleted when it isn't in use anymore, so it stays in use.
+        _device.deleteProgram(program);
+    }
+
+    @Override
+    public int genBuffer() {
+        return _device.genBuffer();
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        _device.bufferData(target, size, usage);
+    }
+
+    @Override
+    public void bufferData(int target, Buffer data, int usage) {
+        _device.bufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, Buffer data) {
+        _device.bufferSubData(target, offset, data);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        return _device.mapBufferRange(target, offset, length, access);
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        return _device.unmapBuffer(target);
+    }
+
+    @Override
+    public long fenceSync() {
+        return _device.fenceSync();
+    }
+
+    @Override
+    public int clientWaitSync(long sync, long timeout) {
+        return _device.clientWaitSync(sync, timeout);
+    }
+
+    @Override
+    public void deleteSync(long sync) {
+        _device.deleteSync(sync);
+    }
+
+    @Override
+    public int genVertexArray() {
+        return _device.genVertexArray();
+    }
+
+    @Override
+    public void vertexAttribPointer(int location, int size, int type, boolean normalized, int stride, long offset) {
+        _device.vertexAttribPointer(location, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public int createShader(int type) {
+        return _device.createShader(type);
+    }
+
+    @Override
+    public void shaderSource(int shader, CharSequence source) {
+        _device.shaderSource(shader, source);
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        _device.compileShader(shader);
+    }
+
+    @Override
+    public int getShaderi(int shader, int parameter) {
+        return _device.getShaderi(shader, parameter);
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return _device.getShaderInfoLog(shader);
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        _device.deleteShader(shader);
+    }
+
+    @Override
+    public int createProgram() {
+        return _device.createProgram();
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        _device.attachShader(program, shader);
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        _device.linkProgram(program);
+    }
+
+    @Override
+    public int getProgrami(int program, int parameter) {
+        return _device.getProgrami(program, parameter);
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return _device.getProgramInfoLog(program);
+    }
+
+    @Override
+    public void programParameteri(int program, int parameter, int value) {
+        _device.programParameteri(program, parameter, value);
+    }
+
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format) {
+        return _device.getProgramBinary(program, format);
+    }
+
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary) {
+        _device.programBinary(program, format, binary);
+    }
+
+    @Override
+    public String getString(int name) {
+        return _device.getString(name);
+    }
+
+    @Override
+    public int getInteger(int name) {
+        return _device.getInteger(name);
+    }
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name) {
+        return _device.getUniformLocation(program, name);
+    }
+
+    @Override
+    public String getActiveUniform(int program, int index, int[] size, int[] type) {
+        return _device.getActiveUniform(program, index, size, type);
+    }
+
+    @Override
+    public void uniform1i(int location, int value) {
+        _device.uniform1i(location, value);
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        _device.uniform1f(location, x);
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        _device.uniform2f(location, x, y);
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        _device.uniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        _device.uniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, boolean transpose, FloatBuffer values) {
+        _device.uniformMatrix3fv(location, transpose, values);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer values) {
+        _device.uniformMatrix4fv(location, transpose, values);
+    }
+
+    @Override
+    public int genTexture() {
+        return _device.genTexture();
+    }
+
+    @Override
+    public void texParameteri(int target, int parameter, int value) {
+        _device.texParameteri(target, parameter, value);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, ByteBuffer pixels) {
+        _device.texImage2D(target, level, internalFormat, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void texSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        _device.texSubImage2D(target, level, x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, long offset) {
+        _device.drawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void drawElementsBaseVertex(int mode, int count, int type, long offset, int baseVertex) {
+        _device.drawElementsBaseVertex(mode, count, type, offset, baseVertex);
+    }
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long offset, int instances) {
+        _device.drawElementsInstanced(mode, count, type, offset, instances);
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        _device.viewport(x, y, width, height);
+    }
+
+    @Override
+    public void clear(int mask) {
+        _device.clear(mask);
+    }
+}
@@ -5,25 +5,53 @@ import laustrup.utilities.collections.lists.Liszt;
 import lombok.Getter;
 import lombok.ToString;
 
-import java.util.function.Supplier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
 
 /**
  * A collection of Fragment objects.
  * Also contains some method to be used.
+ * Keeps the nodes of all fragments packed into one array, which is updated when fragments are added or removed.
+ * Only the nodes after a removed fragment are moved, the array is never packed again from the fragments.
  */
-@ToString
+@ToString(of = {"_fragments", "_amount"})
 public class FragmentCollection {
 
-    /** The Collection of fragments of a Liszt Utility. */
+    /** The highest index that can be stored as an unsigned short. */
+    private static final int UNSIGNED_SHORT_MAX = 0xFFFF;
+
+    /** The Collection of fragments of a Liszt Utility, which is a copy so only this Collection changes it. */
+    private final Liszt<Fragment> _fragments;
+
+    /** The index of the first node of each fragment in the indices, in the order of the fragments. */
+    private int[] _offsets;
+
+    /**
+     * The nodes of all fragments after each other.
+     * Can be longer than the amount, the rest is free room for more fragments.
+     */
+    @Getter
+    private int[] _indices;
+
+    /** The amount of nodes in all fragments. */
+    private int _amount;
+
+    /** The highest node of all fragments, decides the type of the indices. */
     @Getter
-    private Liszt<Fragment> _fragments;
+    private int _maxIndex;
 
     /**
      * Initiates the fragments of the input into this Collection.
      * @param fragments The fragments the be initiated into this Collection.
      */
     public FragmentCollection(Liszt<Fragment> fragments) {
-        _fragments = fragments;
+        _fragments = new Liszt<>(fragments.toArray(new Fragment[0]));
+        pack();
     }
 
     /**
@@ -34,21 +62,132 @@ public class FragmentCollection {
         this(new Liszt<>(fragments));
     }
 
+    /** @return The fragments of this Collection, which can only be changed by adding and removing. */
+    public List<Fragment> get_fragments() {
+        return Collections.unmodifiableList(_fragments);
+    }
+
     /**
-     * Counts the amount of nodes in all fragments.
-     * @return The calculated amount.
+     * Adds a fragment and appends its nodes to the packed indices.
+     * @param fragment The fragment to be added.
      */
-    public int amount() {
-        return new Supplier<Integer>() {
-            @Override
-            public Integer get() {
-                int length = 0;
+    public void add(Fragment fragment) {
+        if (_fragments.size() == _offsets.length)
+            _offsets = Arrays.copyOf(_offsets, _offsets.length * 2);
+        _offsets[_fragments.size()] = _amount;
+        _fragments.add(fragment);
 
-                for (Fragment fragment : _fragments)
-                    length += fragment.get_nodes().length;
+        ensureCapacity(_amount + fragment.get_nodes().length);
+        append(fragment);
+    }
+
+    /**
+     * Removes a fragment and moves the nodes after it back over its nodes.
+     * The highest node is only found again, if the removed fragment had it.
+     * @param fragment The fragment to be removed.
+     * @return True if the fragment was in this Collection.
+     */
+    public boolean remove(Fragment fragment) {
+        int index = _fragments.indexOf(fragment);
+        if (index < 0)
+            return false;
+
+        int[] nodes = fragment.get_nodes();
+        int start = _offsets[index], end = start + nodes.length, size = _fragments.size();
+        System.arraycopy(_indices, end, _indices, start, _amount - end);
+        _amount -= nodes.length;
+
+        for (int i = index + 1; i < size; i++)
+            _offsets[i - 1] = _offsets[i] - nodes.length;
+        _fragments.remove(index);
 
-                return length;
+        for (int node : nodes)
+            if (node == _maxIndex) {
+                _maxIndex = 0;
+                for (int i = 0; i < _amount; i++)
+                    _maxIndex = Math.max(_maxIndex, _indices[i]);
+                break;
             }
-        }.get();
+
+        return true;
+    }
+
+    /**
+     * Gives the amount of nodes in all fragments, which is kept while fragments are added or removed.
+     * @return The amount.
+     */
+    public int amount() {
+        return _amount;
+    }
+
+    /**
+     * Determines the smallest type of gl, that can contain all the nodes.
+     * @return GL_UNSIGNED_SHORT if all nodes fits in 16 bits, otherwise GL_UNSIGNED_INT.
+     */
+    public int get_indexType() {
+        return _maxIndex <= UNSIGNED_SHORT_MAX ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT;
+    }
+
+    /** @return The amount of bytes of each index in the type of get_indexType(). */
+    public int indexBytes() {
+        return _maxIndex <= UNSIGNED_SHORT_MAX ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Writes the packed indices into a buffer in the type of get_indexType().
+     * @param buffer The buffer to be written into from its current position, in native order.
+     * @return The same buffer.
+     */
+    public ByteBuffer writeIndices(ByteBuffer buffer) {
+        if (indexBytes() == Short.BYTES)
+            for (int i = 0; i < _amount; i++)
+                buffer.putShort((short) _indices[i]);
+        else {
+            buffer.asIntBuffer().put(_indices, 0, _amount);
+            buffer.position(buffer.position() + _amount * Integer.BYTES);
+        }
+
+        return buffer;
+    }
+
+    /** Packs the nodes of all fragments into the indices from the start, when the Collection is created. */
+    private void pack() {
+        int amount = 0;
+        for (Fragment fragment : _fragments)
+            amount += fragment.get_nodes().length;
+
+        _indices = new int[Math.max(amount, 1)];
+        _offsets = new int[Math.max(_fragments.size(), 1)];
+        _amount = 0;
+        _maxIndex = 0;
+        int index = 0;
+        for (Fragment fragment : _fragments) {
+            _offsets[index++] = _amount;
+            append(fragment);
+        }
+    }
+
+    /**
+     * Puts the nodes of a fragment after the current indices, there must be room for them.
+     * @param fragment The fragment of the nodes.
+     */
+    private void append(Fragment fragment) {
+        for (int node : fragment.get_nodes()) {
+            _indices[_amount++] = node;
+            _maxIndex = Math.max(_maxIndex, node);
+        }
+    }
+
+    /**
+     * Makes sure that there is room for an amount of indices, by doubling the array if needed.
+     * @param capacity The amount of indices that there should be room for.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= _indices.length)
+            return;
+
+        int[] indices = new int[Math.max(capacity, _indices.length * 2)];
+        System.arraycopy(_indices, 0, indices, 0, _amount);
+        _indices = indices;
     }
 }
@@ -0,0 +1,162 @@
+package laustrup.models.graphic.instance;
+
+import laustrup.models.graphic.VertexLayout;
+import laustrup.models.graphic.atlas.AtlasRegion;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.Matrix4fc;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The values of instances packed in the layout of instances, before they are drawn by an InstancedMesh.
+ * Each instance is the rows of an affine transform, a color and a rectangle of texture coordinates,
+ * written with absolute puts into a direct buffer, that is reused each frame and only grows when it is full.
+ * Is only data of the memory, so it can be filled on any thread, but only by one at a time.
+ */
+@ToString(of = {"_instances"})
+public class InstanceBuffer {
+
+    /** The layout that the instances are packed after. */
+    public static final VertexLayout LAYOUT = VertexLayout.INSTANCE;
+
+    /** The amount of bytes of one instance. */
+    public static final int STRIDE = LAYOUT.get_stride();
+
+    /** The amount of bytes from the start of an instance to its color and to its rectangle of texture coordinates. */
+    private static final int COLOR_OFFSET = LAYOUT.offset(3),
+            UV_RECT_OFFSET = LAYOUT.offset(4);
+
+    /** The packed instances, from the start of the buffer. */
+    private ByteBuffer _data;
+
+    /** The amount of instances added since the buffer was cleared. */
+    @Getter
+    private int _instances;
+
+    /** Initiates with room for a few instances. */
+    public InstanceBuffer() {
+        this(256);
+    }
+
+    /**
+     * Initiates with room for an expected amount of instances.
+     * @param capacity The amount of instances there is room for before growing.
+     */
+    public InstanceBuffer(int capacity) {
+        _data = BufferUtils.createByteBuffer(Math.max(capacity, 1) * STRIDE);
+    }
+
+    /** Removes all instances, but keeps the buffer for reuse. */
+    public void clear() {
+        _instances = 0;
+    }
+
+    /**
+     * Adds an instance of the base mesh placed by a world matrix, such as of a SceneNode.
+     * @param world The world matrix, only its affine part is used.
+     * @param color The rgba color that the colors of the base mesh are multiplied by.
+     * @param region The region of the atlas, that the texture coordinates of the base mesh are mapped into.
+     */
+    public void add(Matrix4fc world, float[] color, AtlasRegion region) {
+        add(world, color[0], color[1], color[2], color[3],
+                region.get_u0(), region.get_v0(), region.get_u1(), region.get_v1());
+    }
+
+    /**
+     * Adds an instance of the base mesh placed by a world matrix, such as of a SceneNode.
+     * @param world The world matrix, only its affine part is used.
+     * @param r The red that the colors of the base mesh are multiplied by.
+     * @param g The green that the colors of the base mesh are multiplied by.
+     * @param b The blue that the colors of the base mesh are multiplied by.
+     * @param a The alpha that the colors of the base mesh are multiplied by.
+     * @param u0 The texture coordinate that the left of the base mesh is mapped to.
+     * @param v0 The texture coordinate that the bottom of the base mesh is mapped to.
+     * @param u1 The texture coordinate that the right of the base mesh is mapped to.
+     * @param v1 The texture coordinate that the top of the base mesh is mapped to.
+     */
+    public void add(Matrix4fc world, float r, float g, float b, float a, float u0, float v0, float u1, float v1) {
+        int at = next();
+
+        _data.putFloat(at, world.m00()).putFloat(at + 4, world.m10())
+                .putFloat(at + 8, world.m20()).putFloat(at + 12, world.m30())
+                .putFloat(at + 16, world.m01()).putFloat(at + 20, world.m11())
+                .putFloat(at + 24, world.m21()).putFloat(at + 28, world.m31())
+                .putFloat(at + 32, world.m02()).putFloat(at + 36, world.m12())
+                .putFloat(at + 40, world.m22()).putFloat(at + 44, world.m32());
+        put(at, r, g, b, a, u0, v0, u1, v1);
+    }
+
+    /**
+     * Adds an instance of the base mesh scaled and moved into a rectangle, such as a tile of a level,
+     * without the cost of a matrix.
+     * @param x The left of the rectangle.
+     * @param y The bottom of the rectangle.
+     * @param z The depth of the rectangle.
+     * @param width The width that the base mesh is scaled by.
+     * @param height The height that the base mesh is scaled by.
+     * @param r The red that the colors of the base mesh are multiplied by.
+     * @param g The green that the colors of the base mesh are multiplied by.
+     * @param b The blue that the colors of the base mesh are multiplied by.
+     * @param a The alpha that the colors of the base mesh are multiplied by.
+     * @param u0 The texture coordinate that the left of the base mesh is mapped to.
+     * @param v0 The texture coordinate that the bottom of the base mesh is mapped to.
+     * @param u1 The texture coordinate that the right of the base mesh is mapped to.
+     * @param v1 The texture coordinate that the top of the base mesh is mapped to.
+     */
+    public void add(float x, float y, float z, float width, float height,
+                    float r, float g, float b, float a, float u0, float v0, float u1, float v1) {
+        int at = next();
+
+        _data.putFloat(at, width).putFloat(at + 4, 0).putFloat(at + 8, 0).putFloat(at + 12, x)
+                .putFloat(at + 16, 0).putFloat(at + 20, height).putFloat(at + 24, 0).putFloat(at + 28, y)
+                .putFloat(at + 32, 0).putFloat(at + 36, 0).putFloat(at + 40, 1).putFloat(at + 44, z);
+        put(at, r, g, b, a, u0, v0, u1, v1);
+    }
+
+    /** @return The packed instances from the start of the buffer, ready to be uploaded. */
+    public ByteBuffer data() {
+        return _data.slice(0, _instances * STRIDE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Writes the color as normalized bytes and the rectangle of texture coordinates of an instance.
+     * @param at The byte of the start of the instance.
+     */
+    private void put(int at, float r, float g, float b, float a, float u0, float v0, float u1, float v1) {
+        int color = at + COLOR_OFFSET, rectangle = at + UV_RECT_OFFSET;
+
+        _data.put(color, normalized(r)).put(color + 1, normalized(g))
+                .put(color + 2, normalized(b)).put(color + 3, normalized(a));
+        _data.putFloat(rectangle, u0).putFloat(rectangle + 4, v0)
+                .putFloat(rectangle + 8, u1).putFloat(rectangle + 12, v1);
+    }
+
+    /**
+     * Converts a channel of a color into a normalized byte, channels outside of 0 to 1 are clamped,
+     * so they don't wrap around into another color.
+     * @param channel The channel from 0 to 1.
+     * @return The byte of 0 to 255, as an unsigned value.
+     */
+    private static byte normalized(float channel) {
+        return (byte) Math.round(Math.max(0f, Math.min(1f, channel)) * 255f);
+    }
+
+    /**
+     * Makes room for another instance, by copying the buffer into one twice as long if it is full.
+     * @return The byte of the start of the instance.
+     */
+    private int next() {
+        if ((_instances + 1) * STRIDE > _data.capacity()) {
+            ByteBuffer data = BufferUtils.createByteBuffer(_data.capacity() * 2);
+            data.put(0, _data, 0, _instances * STRIDE);
+            _data = data;
+        }
+
+        return _instances++ * STRIDE;
+    }
+}
@@ -0,0 +1,126 @@
+package laustrup.models.graphic.instance;
+
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.Texture;
+import laustrup.models.graphic.VertexStore;
+import laustrup.models.graphic.batch.BatchRenderer;
+import laustrup.models.graphic.buffer.DynamicBuffer;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.lwjgl.BufferUtils;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * Draws one copy of a Mesh many times with one draw call, where each instance is placed and colored
+ * by the values of an InstanceBuffer, instead of duplicating the vertices of the mesh for each of them.
+ * The instances are streamed into a DynamicBuffer each draw, and read by attributes with a divisor
+ * after the attributes of the mesh, so a tile only costs the bytes of one instance.
+ * Is drawn with the instanced shader, which multiplies the color and maps the texture coordinates into the rectangle of each instance.
+ * Instances without a texture are drawn with a white texture of one pixel, so the shader always has a texture to sample.
+ * Should only be created and used from the thread of the graphics context.
+ */
+@ToString(of = {"_mesh", "_drawnInstances"})
+public class InstancedMesh {
+
+    /** The amount of instances of each frame, that the stream has room for before it grows. */
+    private static final int INSTANCES_PER_FRAME = 4096;
+
+    /** The location of the first attribute of the instances, after the attributes of the vertices. */
+    private static final int FIRST_LOCATION = Mesh.LAYOUT.get_attributes().length;
+
+    /** The base geometry, that every instance is drawn from. */
+    @Getter
+    private final Mesh _mesh;
+
+    /** The buffer that the instances are streamed into. */
+    @Getter
+    private final DynamicBuffer _stream;
+
+    /** The device of the mesh. */
+    private final GraphicsDevice _device;
+
+    /** A white pixel, which is bound when instances are drawn without a texture, so only their colors are seen. */
+    private final Texture _white;
+
+    /** The amount of instances drawn since the last ended frame. */
+    @Getter
+    private int _drawnInstances;
+
+    /**
+     * Uses an uploaded mesh as the base geometry, which is deleted together with this.
+     * @param mesh The base geometry.
+     * @param device The device the mesh is uploaded to.
+     */
+    public InstancedMesh(Mesh mesh, GraphicsDevice device) {
+        _mesh = mesh;
+        _device = device;
+        _white = new Texture(1, 1, BufferUtils.createByteBuffer(4).putInt(0, 0xFFFFFFFF), device);
+        _stream = new DynamicBuffer(device, GL_ARRAY_BUFFER, (long) INSTANCES_PER_FRAME * InstanceBuffer.STRIDE,
+                BatchRenderer.FRAMES_IN_FLIGHT, DynamicBuffer.Strategy.UNSYNCHRONIZED_MAP);
+    }
+
+    /**
+     * Creates a square from 0 to 1 with white corners and texture coordinates from 0 to 1,
+     * with the corners in the same order as of a Quad, that tiles and sprites are instances of.
+     * @param device The device to upload to.
+     * @return The instanced square.
+     */
+    public static InstancedMesh quad(GraphicsDevice device) {
+        VertexStore corners = new VertexStore(4);
+        corners.add(1, 0, 0, 1, 1, 1, 1, 1, 0);
+        corners.add(0, 1, 0, 1, 1, 1, 1, 0, 1);
+        corners.add(1, 1, 0, 1, 1, 1, 1, 1, 1);
+        corners.add(0, 0, 0, 1, 1, 1, 1, 0, 0);
+
+        return new InstancedMesh(new Mesh(new MeshData(corners, new int[]{2, 1, 0, 0, 1, 3}), device), device);
+    }
+
+    /**
+     * Streams the instances and draws them all with one draw call, with the program in use and without a texture,
+     * so the instances are only their colors.
+     * @param instances The packed instances, which can be cleared and filled again afterwards.
+     * @return The amount of instances that were drawn.
+     */
+    public int draw(InstanceBuffer instances) {
+        return draw(instances, _white);
+    }
+
+    /**
+     * Streams the instances and draws them all with one draw call, with the program in use.
+     * @param instances The packed instances, which can be cleared and filled again afterwards.
+     * @param texture The texture that the rectangles of texture coordinates of the instances are of.
+     * @return The amount of instances that were drawn.
+     */
+    public int draw(InstanceBuffer instances, Texture texture) {
+        if (instances.get_instances() == 0)
+            return 0;
+
+        texture.bind();
+        long offset = _stream.upload(instances.data(), InstanceBuffer.STRIDE);
+
+        _device.bindVertexArray(_mesh.get_vertexArray());
+        InstanceBuffer.LAYOUT.configure(_device, FIRST_LOCATION, offset);
+        _device.drawElementsInstanced(GL_TRIANGLES, _mesh.get_count(), GL_UNSIGNED_INT, 0, instances.get_instances());
+        _drawnInstances += instances.get_instances();
+
+        return instances.get_instances();
+    }
+
+    /** Ends the frame of the stream, after the instances of the frame have been drawn. */
+    public void endFrame() {
+        _stream.endFrame();
+        _drawnInstances = 0;
+    }
+
+    /** Deletes the stream, the white texture and the base geometry, it can't be drawn afterwards. */
+    public void delete() {
+        _white.delete();
+        _stream.delete();
+        _mesh.delete();
+    }
+}
@@ -0,0 +1,200 @@
+package laustrup.models.level;
+
+import laustrup.models.graphic.Mesh;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A level file mapped into memory, where the vertices and indices are already in the format of the graphics card.
+ * Nothing is parsed when it is opened, except the header and the table of sections,
+ * so the blocks of vertices and indices are handed directly to the upload of buffers.
+ * <p>
+ * The file starts with a header of eight ints: the magic, the version, a marker of the byte order,
+ * the stride of a vertex and the amounts of sections, vertices, indices and meshes.
+ * After it follows the table of sections, where each entry is the type, a padding int, the offset and the length.
+ * Every section starts at a multiple of the alignment, so the mapped slices are aligned as well.
+ * Each mesh is the first index and the amount of indices of its range, followed by its bounds.
+ * The indices already include the offset of the first vertex of their mesh.
+ * </p>
+ */
+@ToString(of = {"_path", "_vertices", "_indices", "_meshes"})
+public class LevelFile {
+
+    /** Identifies a level file, it is "LEVL" in ascii. */
+    static final int MAGIC = 0x4C45564C;
+
+    /** The version of the format, files of other versions are refused. */
+    static final int FORMAT_VERSION = 1;
+
+    /** Is written in the byte order of the writer, so files of another byte order can be refused. */
+    static final int BYTE_ORDER_MARKER = 0x01020304;
+
+    /** The amount of bytes of the header. */
+    static final int HEADER_BYTES = 8 * Integer.BYTES;
+
+    /** The amount of bytes of an entry of the table of sections. */
+    static final int SECTION_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+
+    /** The amount of bytes that every section is aligned to, which is a cache line. */
+    static final int ALIGNMENT = 64;
+
+    /** The amount of bytes of each mesh, its range and its bounds. */
+    static final int MESH_BYTES = 2 * Integer.BYTES + 6 * Float.BYTES;
+
+    /** The types of the sections, the type is their index. */
+    enum Section {
+        VERTICES,
+        INDICES,
+        MESHES
+    }
+
+    /** The path of the file. */
+    @Getter
+    private final Path _path;
+
+    /** The amounts of vertices, indices and meshes. */
+    @Getter
+    private final int _vertices, _indices, _meshes;
+
+    /** The mapped vertices, indices and meshes, each from the start of its section. */
+    private final ByteBuffer _vertexBlock, _indexBlock, _meshBlock;
+
+    /** The whole mapped file. */
+    private final MappedByteBuffer _mapped;
+
+    /**
+     * Reads the header and sections of a mapped file.
+     * @param path The path of the file.
+     * @param mapped The whole file mapped in native order.
+     * @throws IOException If the file isn't a level file of this version and byte order, or doesn't fit the mesh layout.
+     */
+    private LevelFile(Path path, MappedByteBuffer mapped) throws IOException {
+        _path = path;
+        _mapped = mapped;
+
+        if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC)
+            throw new IOException(path + " isn't a level file...");
+        if (mapped.getInt(4) != FORMAT_VERSION)
+            throw new IOException(path + " is of version " + mapped.getInt(4) + ", but " + FORMAT_VERSION + " is expected...");
+        if (mapped.getInt(8) != BYTE_ORDER_MARKER)
+            throw new IOException(path + " is written in another byte order...");
+        if (mapped.getInt(12) != Mesh.LAYOUT.get_stride())
+            throw new IOException(path + " has vertices of " + mapped.getInt(12) + " bytes, but the meshes expects "
+                    + Mesh.LAYOUT.get_stride() + "...");
+
+        int sections = mapped.getInt(16);
+        _vertices = mapped.getInt(20);
+        _indices = mapped.getInt(24);
+        _meshes = mapped.getInt(28);
+
+        if (sections < 0 || HEADER_BYTES + (long) sections * SECTION_BYTES > mapped.capacity())
+            throw new IOException(path + " has a table of " + sections + " sections, that doesn't fit the file...");
+        if (_vertices < 0 || _indices < 0 || _meshes < 0)
+            throw new IOException(path + " has a negative amount of vertices, indices or meshes...");
+
+        ByteBuffer[] blocks = new ByteBuffer[Section.values().length];
+        for (int i = 0; i < sections; i++) {
+            int entry = HEADER_BYTES + i * SECTION_BYTES;
+            int type = mapped.getInt(entry);
+            long offset = mapped.getLong(entry + 8), length = mapped.getLong(entry + 16);
+
+            if (offset < 0 || length < 0 || offset + length > mapped.capacity())
+                throw new IOException(path + " has a section outside of the file...");
+            // Sections of types from newer writers are skipped.
+            if (type >= 0 && type < blocks.length)
+                blocks[type] = mapped.slice((int) offset, (int) length).order(ByteOrder.nativeOrder());
+        }
+
+        _vertexBlock = block(blocks, Section.VERTICES, (long) _vertices * Mesh.LAYOUT.get_stride());
+        _indexBlock = block(blocks, Section.INDICES, (long) _indices * Integer.BYTES);
+        _meshBlock = block(blocks, Section.MESHES, (long) _meshes * MESH_BYTES);
+    }
+
+    /**
+     * Maps a level file into memory and reads its header, the vertices and indices aren't read.
+     * @param path The path of the file.
+     * @return The mapped file.
+     * @throws IOException If the file couldn't be mapped, isn't a level file or is larger than 2 GB.
+     */
+    public static LevelFile open(Path path) throws IOException {
+        // The mapping stays valid after the channel is closed, until the buffer is collected.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(path + " is larger than what can be mapped at once...");
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.nativeOrder());
+
+            return new LevelFile(path, mapped);
+        }
+    }
+
+    /**
+     * Reads the whole file into physical memory, so uploading doesn't wait for the disk.
+     * Should be done on a worker thread, since it waits for every page of the file.
+     */
+    public void prefetch() {
+        _mapped.load();
+    }
+
+    /** @return The vertices in the layout of the meshes, as a read only view from the start. */
+    public ByteBuffer vertices() {
+        return _vertexBlock.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /** @return The unsigned int indices, as a read only view from the start. */
+    public ByteBuffer indices() {
+        return _indexBlock.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param mesh The index of the mesh.
+     * @return The index of the first index of the range of the mesh.
+     */
+    public int firstIndex(int mesh) {
+        return _meshBlock.getInt(mesh * MESH_BYTES);
+    }
+
+    /**
+     * @param mesh The index of the mesh.
+     * @return The amount of indices of the range of the mesh.
+     */
+    public int indexCount(int mesh) {
+        return _meshBlock.getInt(mesh * MESH_BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Finds a value of the bounds of a mesh.
+     * @param mesh The index of the mesh.
+     * @param component 0 to 2 for the minimum x, y and z, 3 to 5 for the maximum x, y and z.
+     * @return The found value.
+     */
+    public float bound(int mesh, int component) {
+        return _meshBlock.getFloat(mesh * MESH_BYTES + 2 * Integer.BYTES + component * Float.BYTES);
+    }
+
+    /**
+     * Finds the block of a section and checks that it has room for its content.
+     * @param blocks The blocks by their types.
+     * @param section The type of the section.
+     * @param bytes The amount of bytes the header says the section has.
+     * @return The block, which is read only as the mapping is.
+     * @throws IOException If the section is missing or too short.
+     */
+    private ByteBuffer block(ByteBuffer[] blocks, Section section, long bytes) throws IOException {
+        ByteBuffer block = blocks[section.ordinal()];
+        if (block == null || block.capacity() < bytes)
+            throw new IOException(_path + " is missing a part of the section " + section + "...");
+
+        return block.limit((int) bytes);
+    }
+}
@@ -0,0 +1,89 @@
+package laustrup.models.level;
+
+import laustrup.models.graphic.Camera;
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.command.CommandBuffer;
+import laustrup.models.graphic.device.GraphicsDevice;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The meshes of a level file uploaded into one Mesh, where each mesh is a range of its indices.
+ * The ranges and bounds are read from the mapped file, which is kept for them.
+ */
+@ToString(of = {"_mesh", "_file"})
+public class LevelMesh {
+
+    /** The layer of the commands of the level. */
+    public static final int LAYER = 1;
+
+    /** The vertices and indices of all meshes of the level. */
+    @Getter
+    private final Mesh _mesh;
+
+    /** The mapped file, that has the ranges and bounds of the meshes. */
+    @Getter
+    private final LevelFile _file;
+
+    /**
+     * Uploads the mapped vertices and indices of a level file directly, without reading them into objects.
+     * @param file The mapped level file.
+     * @param device The device to upload to.
+     */
+    public LevelMesh(LevelFile file, GraphicsDevice device) {
+        _file = file;
+        _mesh = new Mesh(file.vertices(), file.indices(), device);
+    }
+
+    /**
+     * Draws the meshes that are inside of the view of a camera, with the program in use.
+     * @param camera The camera that culls meshes outside of its view.
+     * @return The amount of meshes that were drawn.
+     */
+    public int draw(Camera camera) {
+        int drawn = 0;
+
+        for (int i = 0; i < _file.get_meshes(); i++) {
+            if (!camera.isVisible(_file.bound(i, 0), _file.bound(i, 1), _file.bound(i, 2),
+                    _file.bound(i, 3), _file.bound(i, 4), _file.bound(i, 5)))
+                continue;
+
+            _mesh.draw(_file.firstIndex(i), _file.indexCount(i));
+            drawn++;
+        }
+
+        return drawn;
+    }
+
+    /**
+     * Records drawing the meshes of a share of the level, that are inside of the view of a camera.
+     * Can be called from many threads at once with different buffers,
+     * when the matrices of the camera have been calculated before.
+     * @param buffer The buffer to record into.
+     * @param camera The camera that culls meshes outside of its view.
+     * @param shader The id of the shader in the queue.
+     * @param from The index of the first mesh.
+     * @param to The index after the last mesh.
+     * @return The amount of meshes that were recorded.
+     */
+    public int record(CommandBuffer buffer, Camera camera, int shader, int from, int to) {
+        int recorded = 0;
+
+        for (int i = from; i < to; i++) {
+            if (!camera.isVisible(_file.bound(i, 0), _file.bound(i, 1), _file.bound(i, 2),
+                    _file.bound(i, 3), _file.bound(i, 4), _file.bound(i, 5)))
+                continue;
+
+            buffer.draw(LAYER, 0, shader, 0, _mesh.get_vertexArray(), _file.firstIndex(i), _file.indexCount(i));
+            recorded++;
+        }
+
+        return recorded;
+    }
+
+    /** Deletes the uploaded mesh, the level can't be drawn afterwards. */
+    public void delete() {
+        _mesh.delete();
+    }
+}
@@ -0,0 +1,170 @@
+package laustrup.models.level;
+
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.Vertex;
+import laustrup.models.graphic.VertexStore;
+import laustrup.utilities.VertexUtility;
+
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.*;
+import static laustrup.models.level.LevelFile.*;
+
+/**
+ * Collects meshes of a level and writes them into a level file, that LevelFile maps without parsing.
+ * The vertices are written in the layout of the meshes and the byte order of this machine,
+ * through a buffer of a fixed size, so levels larger than the memory can be written.
+ */
+@ToString(of = {"_meshes", "_vertices", "_indices"})
+public class LevelWriter {
+
+    /** The amount of bytes that is written to the file at once. */
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    /** The meshes in the order they are written. */
+    private final List<MeshData> _meshes = new ArrayList<>();
+
+    /** The total amounts of vertices and indices. */
+    private long _vertices, _indices;
+
+    /**
+     * Adds a mesh to the level.
+     * @param mesh The vertices and indices of the mesh.
+     * @return The index of the mesh in the level.
+     */
+    public int add(MeshData mesh) {
+        _meshes.add(Objects.requireNonNull(mesh));
+        _vertices += mesh.get_vertices().get_size();
+        _indices += mesh.get_indices().length;
+
+        return _meshes.size() - 1;
+    }
+
+    /**
+     * Writes the level, replacing the file if it exists.
+     * @param path The path of the file.
+     * @throws IOException If the file couldn't be written, or the level is too large for the format.
+     */
+    public void write(Path path) throws IOException {
+        int stride = Mesh.LAYOUT.get_stride();
+        long[] lengths = {_vertices * stride, _indices * Integer.BYTES, (long) _meshes.size() * MESH_BYTES},
+               offsets = new long[lengths.length];
+
+        long end = HEADER_BYTES + (long) lengths.length * SECTION_BYTES;
+        for (int i = 0; i < lengths.length; i++) {
+            offsets[i] = align(end);
+            end = offsets[i] + lengths[i];
+        }
+        if (end > Integer.MAX_VALUE)
+            throw new IOException("The level is " + end + " bytes, which is larger than what can be mapped at once...");
+
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder());
+
+            chunk.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(BYTE_ORDER_MARKER).putInt(stride)
+                    .putInt(lengths.length).putInt((int) _vertices).putInt((int) _indices).putInt(_meshes.size());
+            for (int i = 0; i < lengths.length; i++)
+                chunk.putInt(i).putInt(0).putLong(offsets[i]).putLong(lengths[i]);
+            drain(channel, chunk);
+
+            channel.position(offsets[Section.VERTICES.ordinal()]);
+            int perChunk = CHUNK_BYTES / stride;
+            for (MeshData mesh : _meshes) {
+                VertexStore store = mesh.get_vertices();
+                for (int first = 0; first < store.get_size(); first += perChunk) {
+                    Vertex vertices = new Vertex(store, first, Math.min(perChunk, store.get_size() - first));
+                    VertexUtility.write(List.of(vertices), Mesh.LAYOUT, chunk);
+                    drain(channel, chunk);
+                }
+            }
+
+            channel.position(offsets[Section.INDICES.ordinal()]);
+            int base = 0;
+            for (MeshData mesh : _meshes) {
+                for (int index : mesh.get_indices()) {
+                    if (chunk.remaining() < Integer.BYTES)
+                        drain(channel, chunk);
+                    chunk.putInt(base + index);
+                }
+                base += mesh.get_vertices().get_size();
+            }
+            drain(channel, chunk);
+
+            channel.position(offsets[Section.MESHES.ordinal()]);
+            int first = 0;
+            for (MeshData mesh : _meshes) {
+                if (chunk.remaining() < MESH_BYTES)
+                    drain(channel, chunk);
+
+                chunk.putInt(first).putInt(mesh.get_indices().length);
+                putBounds(mesh.get_vertices(), chunk);
+                first += mesh.get_indices().length;
+            }
+            drain(channel, chunk);
+
+            // Empty sections at the end are still inside of the file, so their offsets can be mapped.
+            if (channel.size() < end)
+                channel.write(ByteBuffer.allocate(1), end - 1);
+        }
+    }
+
+    /**
+     * Writes the minimum and then the maximum position of all vertices of a store.
+     * A store without vertices has empty bounds at the origin.
+     * @param store The store of the vertices.
+     * @param buffer The buffer to write into.
+     */
+    private static void putBounds(VertexStore store, ByteBuffer buffer) {
+        float[] bounds = new float[6];
+        if (store.get_size() > 0)
+            for (int component = 0; component < VertexStore.POSITION_SIZE; component++) {
+                bounds[component] = Float.POSITIVE_INFINITY;
+                bounds[component + 3] = Float.NEGATIVE_INFINITY;
+            }
+
+        for (int i = 0; i < store.get_size(); i++)
+            for (int component = 0; component < VertexStore.POSITION_SIZE; component++) {
+                float value = store.position(i, component);
+                bounds[component] = Math.min(bounds[component], value);
+                bounds[component + 3] = Math.max(bounds[component + 3], value);
+            }
+
+        for (float bound : bounds)
+            buffer.putFloat(bound);
+    }
+
+    /**
+     * Writes what is in a buffer to the channel and clears the buffer.
+     * @param channel The channel at the position to write.
+     * @param buffer The buffer that has been written into.
+     * @throws IOException If the channel couldn't be written.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * @param offset An amount of bytes.
+     * @return The smallest multiple of the alignment, that isn't below the offset.
+     */
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
@@ -0,0 +1,146 @@
+package laustrup.models.listeners;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+/**
+ * A ring of input events, that the callbacks of glfw writes into and the window drains once each frame.
+ * All arrays are allocated at construction, so writing and draining never allocates.
+ * Is lock-free for one writing and one draining thread.
+ * When the ring is full, new events are dropped and counted.
+ * Is a singleton class.
+ */
+public class InputEventBuffer {
+
+    /** The single instance of InputEventBuffer. */
+    private static InputEventBuffer _instance;
+
+    /** The amount of events the ring can contain, must be a power of two. */
+    public static final int CAPACITY = 1 << 12;
+
+    /** The types of events. */
+    public static final int KEY = 0, BUTTON = 1, MOVE = 2, SCROLL = 3;
+
+    /** Is used to find the index of a sequence in the ring. */
+    private static final int MASK = CAPACITY - 1;
+
+    /** The type of each event. */
+    private final int[] _types = new int[CAPACITY];
+
+    /** The key or button of each event. */
+    private final int[] _codes = new int[CAPACITY];
+
+    /** The action of each event, such as GLFW_PRESS. */
+    private final int[] _actions = new int[CAPACITY];
+
+    /** The x and y values of each event, which are the position or scroll offsets. */
+    private final double[] _xs = new double[CAPACITY], _ys = new double[CAPACITY];
+
+    /** The sequence of the next event to be written. */
+    private final AtomicLong _head = new AtomicLong();
+
+    /** The sequence of the next event to be drained. */
+    private final AtomicLong _tail = new AtomicLong();
+
+    /** The amount of events that were dropped, since the ring was full. */
+    @Getter
+    private volatile long _dropped;
+
+    /** The snapshots that are filled every other frame. */
+    private final InputSnapshot[] _snapshots = {new InputSnapshot(), new InputSnapshot()};
+
+    /** The index of the latest snapshot. */
+    private int _current;
+
+    private InputEventBuffer() {}
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * @return The singleton instance.
+     */
+    public static InputEventBuffer get_instance() {
+        if (InputEventBuffer._instance == null)
+            InputEventBuffer._instance = new InputEventBuffer();
+
+        return InputEventBuffer._instance;
+    }
+
+    /**
+     * Writes an event into the ring.
+     * @param type The type of the event.
+     * @param code The key or button of the event.
+     * @param action The action of the event.
+     * @param x The x position or scroll offset.
+     * @param y The y position or scroll offset.
+     * @return True if it was written, false if the ring is full.
+     */
+    public boolean push(int type, int code, int action, double x, double y) {
+        long head = _head.get();
+        if (head - _tail.get() >= CAPACITY) {
+            _dropped++;
+            return false;
+        }
+
+        int index = (int) head & MASK;
+        _types[index] = type;
+        _codes[index] = code;
+        _actions[index] = action;
+        _xs[index] = x;
+        _ys[index] = y;
+        _head.lazySet(head + 1);
+
+        return true;
+    }
+
+    /** @return The amount of events waiting to be drained. */
+    public int size() {
+        return (int) (_head.get() - _tail.get());
+    }
+
+    /** @return The snapshot of the latest drain, which is valid until the next drain but one. */
+    public InputSnapshot latest() {
+        return _snapshots[_current];
+    }
+
+    /**
+     * Drains all the waiting events into a snapshot of the input of this frame.
+     * The snapshot starts with what was held in the previous snapshot, and edges and deltas of this frame only.
+     * Two snapshots are reused every other frame, so a snapshot is only valid until the next drain but one.
+     * @return The snapshot of this frame.
+     */
+    public InputSnapshot drain() {
+        InputSnapshot previous = _snapshots[_current];
+        _current ^= 1;
+        InputSnapshot snapshot = _snapshots[_current];
+        snapshot.continueFrom(previous);
+
+        long tail = _tail.get(),
+             head = _head.get();
+        for (; tail < head; tail++) {
+            int index = (int) tail & MASK;
+
+            switch (_types[index]) {
+                case KEY -> {
+                    if (_actions[index] == GLFW_PRESS)
+                        snapshot.press(_codes[index]);
+                    else if (_actions[index] == GLFW_RELEASE)
+                        snapshot.release(_codes[index]);
+                }
+                case BUTTON -> {
+                    if (_actions[index] == GLFW_PRESS)
+                        snapshot.pressButton(_codes[index]);
+                    else if (_actions[index] == GLFW_RELEASE)
+                        snapshot.releaseButton(_codes[index]);
+                }
+                case MOVE -> snapshot.move(_xs[index], _ys[index]);
+                case SCROLL -> snapshot.scroll(_xs[index], _ys[index]);
+            }
+        }
+        _tail.lazySet(tail);
+
+        return snapshot;
+    }
+}
@@ -0,0 +1,232 @@
+package laustrup.models.listeners;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LAST;
+
+/**
+ * The input of one frame, drained from the InputEventBuffer.
+ * Tells what is held at the end of the frame, and what was pressed and released during it,
+ * so a press and release within the same frame are both seen.
+ * Movement of the mouse and scrolling are accumulated for the frame.
+ * Can only be changed by the InputEventBuffer, scenes can only read it.
+ */
+@ToString(of = {"_x", "_y", "_dx", "_dy", "_scrollX", "_scrollY"})
+public class InputSnapshot {
+
+    /** The amount of longs needed for a bit of each key. */
+    private static final int KEY_WORDS = (GLFW_KEY_LAST + Long.SIZE) / Long.SIZE;
+
+    /** The keys held, pressed and released as bits. */
+    private final long[] _held = new long[KEY_WORDS], _pressed = new long[KEY_WORDS], _released = new long[KEY_WORDS];
+
+    /** The buttons of the mouse held, pressed and released as bits. */
+    private int _heldButtons, _pressedButtons, _releasedButtons;
+
+    /** The position of the mouse at the end of the frame. */
+    @Getter
+    private double _x, _y;
+
+    /** The movement of the mouse during the frame. */
+    @Getter
+    private double _dx, _dy;
+
+    /** The scrolling during the frame. */
+    @Getter
+    private double _scrollX, _scrollY;
+
+    /** True if the mouse has had a position, so the first position doesn't count as movement. */
+    private boolean _positioned;
+
+    /** Only the InputEventBuffer creates snapshots. */
+    InputSnapshot() {}
+
+    /**
+     * Determines if a key is held at the end of the frame.
+     * @param key The key, such as GLFW_KEY_A.
+     * @return True if it is held.
+     */
+    public boolean isHeld(int key) {
+        return is(_held, key);
+    }
+
+    /**
+     * Determines if a key was pressed during the frame, even if it was released again.
+     * @param key The key, such as GLFW_KEY_A.
+     * @return True if it was pressed.
+     */
+    public boolean isPressed(int key) {
+        return is(_pressed, key);
+    }
+
+    /**
+     * Determines if a key was released during the frame.
+     * @param key The key, such as GLFW_KEY_A.
+     * @return True if it was released.
+     */
+    public boolean isReleased(int key) {
+        return is(_released, key);
+    }
+
+    /**
+     * Determines if a button of the mouse is held at the end of the frame.
+     * @param button The button, such as GLFW_MOUSE_BUTTON_LEFT.
+     * @return True if it is held.
+     */
+    public boolean isButtonHeld(int button) {
+        return is(_heldButtons, button);
+    }
+
+    /**
+     * Determines if a button of the mouse was pressed during the frame.
+     * @param button The button, such as GLFW_MOUSE_BUTTON_LEFT.
+     * @return True if it was pressed.
+     */
+    public boolean isButtonPressed(int button) {
+        return is(_pressedButtons, button);
+    }
+
+    /**
+     * Determines if a button of the mouse was released during the frame.
+     * @param button The button, such as GLFW_MOUSE_BUTTON_LEFT.
+     * @return True if it was released.
+     */
+    public boolean isButtonReleased(int button) {
+        return is(_releasedButtons, button);
+    }
+
+    /** @return True if the mouse is moved while any button is held. */
+    public boolean isDragging() {
+        return _heldButtons != 0 && (_dx != 0 || _dy != 0);
+    }
+
+    /**
+     * Copies this snapshot, for keeping it longer than the frames it is valid.
+     * @return The copy.
+     */
+    public InputSnapshot copy() {
+        InputSnapshot copy = new InputSnapshot();
+        copy.continueFrom(this);
+        System.arraycopy(_pressed, 0, copy._pressed, 0, KEY_WORDS);
+        System.arraycopy(_released, 0, copy._released, 0, KEY_WORDS);
+        copy._pressedButtons = _pressedButtons;
+        copy._releasedButtons = _releasedButtons;
+        copy._dx = _dx;
+        copy._dy = _dy;
+        copy._scrollX = _scrollX;
+        copy._scrollY = _scrollY;
+
+        return copy;
+    }
+
+    /**
+     * Starts a new frame from the state at the end of the previous.
+     * @param previous The snapshot of the previous frame.
+     */
+    void continueFrom(InputSnapshot previous) {
+        System.arraycopy(previous._held, 0, _held, 0, KEY_WORDS);
+        for (int i = 0; i < KEY_WORDS; i++) {
+            _pressed[i] = 0;
+            _released[i] = 0;
+        }
+        _heldButtons = previous._heldButtons;
+        _pressedButtons = 0;
+        _releasedButtons = 0;
+        _x = previous._x;
+        _y = previous._y;
+        _positioned = previous._positioned;
+        _dx = 0;
+        _dy = 0;
+        _scrollX = 0;
+        _scrollY = 0;
+    }
+
+    /** @param key The key that was pressed, it is held until released. */
+    void press(int key) {
+        if (set(_pressed, key))
+            set(_held, key);
+    }
+
+    /** @param key The key that was released. */
+    void release(int key) {
+        if (set(_released, key))
+            _held[key >>> 6] &= ~(1L << key);
+    }
+
+    /** @param button The button that was pressed, it is held until released. */
+    void pressButton(int button) {
+        if (button >= 0 && button <= GLFW_MOUSE_BUTTON_LAST) {
+            _pressedButtons |= 1 << button;
+            _heldButtons |= 1 << button;
+        }
+    }
+
+    /** @param button The button that was released. */
+    void releaseButton(int button) {
+        if (button >= 0 && button <= GLFW_MOUSE_BUTTON_LAST) {
+            _releasedButtons |= 1 << button;
+            _heldButtons &= ~(1 << button);
+        }
+    }
+
+    /**
+     * Moves the mouse to a new position and accumulates the movement.
+     * @param x The new x position.
+     * @param y The new y position.
+     */
+    void move(double x, double y) {
+        if (_positioned) {
+            _dx += x - _x;
+            _dy += y - _y;
+        }
+        _x = x;
+        _y = y;
+        _positioned = true;
+    }
+
+    /**
+     * Accumulates scrolling.
+     * @param x The offset of the x-axis.
+     * @param y The offset of the y-axis.
+     */
+    void scroll(double x, double y) {
+        _scrollX += x;
+        _scrollY += y;
+    }
+
+    /**
+     * Sets the bit of a key.
+     * @param bits The bits of the keys.
+     * @param key The key, keys outside the range of glfw are ignored.
+     * @return True if the key was within the range.
+     */
+    private static boolean set(long[] bits, int key) {
+        if (key < 0 || key > GLFW_KEY_LAST)
+            return false;
+
+        bits[key >>> 6] |= 1L << key;
+        return true;
+    }
+
+    /**
+     * Determines if the bit of a key is set.
+     * @param bits The bits of the keys.
+     * @param key The key.
+     * @return True if it is set, keys outside the range of glfw are never set.
+     */
+    private static boolean is(long[] bits, int key) {
+        return key >= 0 && key <= GLFW_KEY_LAST && (bits[key >>> 6] & (1L << key)) != 0;
+    }
+
+    /**
+     * Determines if the bit of a button is set.
+     * @param bits The bits of the buttons.
+     * @param button The button.
+     * @return True if it is set.
+     */
+    private static boolean is(int bits, int button) {
+        return button >= 0 && button <= GLFW_MOUSE_BUTTON_LAST && (bits & (1 << button)) != 0;
+    }
+}
@@ -1,15 +1,15 @@
 package laustrup.models.listeners;
 
-import laustrup.utilities.console.Printer;
-
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
-import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
 
 /**
  * Listens to the actions of the keys.
- * Makes callbacks from the actions, that will have an impact of values and prints the impacts.
+ * Makes callbacks from the actions, that are written into the InputEventBuffer.
+ * Keeps no state of its own, scenes should read the InputSnapshot of the window,
+ * which also sees presses and releases within the same frame.
  * Is a singleton class.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -18,20 +18,17 @@ public class KeyListener {
     /** The single instance of KeyListener. */
     private static KeyListener _instance;
 
-    /** An array of all the possible keys available for actions. */
-    private boolean keyPressed[] = new boolean[350];
-
     /**
-     * Determine if a specific key has been pressed.
+     * Determine if a specific key is held, by the snapshot of the latest frame.
      * Can throw a ArrayIndexOutOfBoundsException, if the key is not recognised.
      * @param key The index of the key, that will be determined.
-     * @return True, if the indexed key has been pressed, otherwise not.
+     * @return True, if the indexed key is held, otherwise not.
      */
     public static boolean isKeyPressed(int key) {
-        if (key >= get_instance().keyPressed.length)
+        if (key > GLFW_KEY_LAST)
             throw new ArrayIndexOutOfBoundsException("The input of key that is pressed is not recognised as a key...");
 
-        return get_instance().keyPressed[key];
+        return InputEventBuffer.get_instance().latest().isHeld(key);
     }
 
     /**
@@ -47,6 +44,7 @@ public class KeyListener {
 
     /**
      * A callback function, that will be activated, when there is a change with one of the keys.
+     * Writes the event into the InputEventBuffer, where the window drains it into the snapshot of the frame.
      * @param window The window that will be affected.
      * @param key The key that is changing effect.
      * @param scancode Can be used to scan the key.
@@ -54,15 +52,6 @@ public class KeyListener {
      * @param mods Can modify the action.
      */
     public static void keyCallback(long window, int key, int scancode, int action, int mods) {
-        get_instance().keyPressed[key] = action == GLFW_PRESS;
-        Printer.get_instance().print(
-                glfwGetKeyName(key,scancode) + " is " +
-                (action == GLFW_PRESS
-                        ? "pressed"
-                        : (action == GLFW_RELEASE
-                            ? "released"
-                            : "unknown action")
-                )
-        );
+        InputEventBuffer.get_instance().push(InputEventBuffer.KEY, key, action, 0, 0);
     }
 }
@@ -0,0 +1,11 @@
+package laustrup.models.logging;
+
+/** The levels of messages, where a Logger only writes messages of its level or above. */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARNING,
+    ERROR,
+    /** Is only used as the level of a Logger, to write nothing at all. */
+    OFF
+}
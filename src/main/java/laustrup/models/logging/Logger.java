@@ -0,0 +1,226 @@
+package laustrup.models.logging;
+
+import laustrup.utilities.console.Printer;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Logs messages without writing them on the calling thread.
+ * Messages are put into a lock-free queue, that a background thread writes to the Printer in batches.
+ * Messages of suppliers are first created by the background thread, and never if their level is disabled,
+ * so suppliers run on another thread later and must capture the values of the message when they are logged,
+ * instead of reading state that can still change.
+ * A supplier that throws is written as an error, without stopping the background thread.
+ * The queue is bounded, messages beyond the capacity are dropped and counted.
+ * Is a singleton class.
+ */
+public class Logger {
+
+    /** The single instance of Logger. */
+    private static Logger _instance;
+
+    /** The lowest level of messages that are written. */
+    @Getter @Setter
+    private volatile Level _level = Level.INFO;
+
+    /** The amount of messages that can wait to be written, before new messages are dropped. */
+    @Getter @Setter
+    private int _capacity = 1 << 14;
+
+    /** The milliseconds the background thread waits between each batch. */
+    @Getter @Setter
+    private long _interval = 50;
+
+    /** The messages waiting to be written. */
+    private final Queue<Message> _queue = new ConcurrentLinkedQueue<>();
+
+    /** The amount of messages waiting to be written. */
+    private final AtomicInteger _size = new AtomicInteger();
+
+    /** The amount of messages that were dropped, since the queue was full. */
+    private final AtomicLong _dropped = new AtomicLong();
+
+    /** The amount of dropped messages that has been reported. */
+    private long _reportedDrops;
+
+    /** The thread writing the messages. */
+    private final Thread _writer;
+
+    /** A message waiting to be written. */
+    private record Message(Level level, String text, Supplier<String> supplier, Exception exception) {
+
+        /** @return The text of the message, created by the supplier if there isn't any text. */
+        String content() {
+            return "[" + level + "] " + (text != null ? text : supplier.get());
+        }
+    }
+
+    /** Starts the background thread, which is a daemon so it doesn't keep the program running. */
+    private Logger() {
+        _writer = new Thread(() -> {
+            while (true) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(_interval));
+                flush();
+            }
+        }, "CreeThor logger");
+        _writer.setDaemon(true);
+        _writer.start();
+    }
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * @return The singleton instance.
+     */
+    public static synchronized Logger get_instance() {
+        if (Logger._instance == null)
+            Logger._instance = new Logger();
+
+        return Logger._instance;
+    }
+
+    /** @return The amount of messages that were dropped, since the queue was full. */
+    public long get_dropped() {
+        return _dropped.get();
+    }
+
+    /**
+     * Determines if messages of a level will be written.
+     * @param level The level of the messages.
+     * @return True if they will be written.
+     */
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() >= _level.ordinal();
+    }
+
+    /**
+     * Logs a message that is already created.
+     * @param level The level of the message.
+     * @param message The message.
+     */
+    public void log(Level level, String message) {
+        if (isEnabled(level))
+            enqueue(new Message(level, message, null, null));
+    }
+
+    /**
+     * Logs a message, that is only created if the level is enabled, and then by the background thread.
+     * @param level The level of the message.
+     * @param message Creates the message on the background thread, it must only use captured values,
+     *                such as effectively final locals, and not state that can change after it is logged.
+     */
+    public void log(Level level, Supplier<String> message) {
+        if (isEnabled(level))
+            enqueue(new Message(level, null, message, null));
+    }
+
+    /**
+     * Logs a message with an exception.
+     * @param level The level of the message.
+     * @param message The message.
+     * @param exception The exception to be printed with the message.
+     */
+    public void log(Level level, String message, Exception exception) {
+        if (isEnabled(level))
+            enqueue(new Message(level, message, null, exception));
+    }
+
+    /** Logs a message of debug level, that is only created if the level is enabled. */
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    /** Logs a message of info level, that is only created if the level is enabled. */
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    /** Logs a message of info level. */
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    /** Logs a message of warning level. */
+    public void warning(String message) {
+        log(Level.WARNING, message);
+    }
+
+    /** Logs a message of error level with an exception. */
+    public void error(String message, Exception exception) {
+        log(Level.ERROR, message, exception);
+    }
+
+    /**
+     * Puts a message into the queue, unless it is full.
+     * @param message The message to be written.
+     */
+    private void enqueue(Message message) {
+        if (_size.incrementAndGet() > _capacity) {
+            _size.decrementAndGet();
+            _dropped.incrementAndGet();
+            return;
+        }
+
+        _queue.offer(message);
+    }
+
+    /**
+     * Writes all waiting messages on the calling thread.
+     * Messages without exceptions are written together in one print.
+     * Is called by the background thread, and should be called before the program ends.
+     */
+    public synchronized void flush() {
+        StringBuilder batch = new StringBuilder();
+        Message message;
+
+        while ((message = _queue.poll()) != null) {
+            _size.decrementAndGet();
+
+            String content;
+            try {
+                content = message.content();
+            } catch (RuntimeException e) {
+                // A failing supplier must not stop the background thread and the messages after it.
+                print(batch);
+                Printer.get_instance().print("[" + Level.ERROR + "] The message of a " + message.level()
+                        + " log couldn't be created...", e);
+                continue;
+            }
+
+            if (message.exception() != null) {
+                print(batch);
+                Printer.get_instance().print(content, message.exception());
+            }
+            else
+                batch.append(batch.isEmpty() ? "" : "\n").append(content);
+        }
+
+        long dropped = _dropped.get();
+        if (dropped > _reportedDrops) {
+            batch.append(batch.isEmpty() ? "" : "\n")
+                    .append("[").append(Level.WARNING).append("] ")
+                    .append(dropped - _reportedDrops).append(" log messages were dropped, since the queue was full...");
+            _reportedDrops = dropped;
+        }
+        print(batch);
+    }
+
+    /**
+     * Prints a batch of messages, if there are any, and empties it.
+     * @param batch The messages.
+     */
+    private static void print(StringBuilder batch) {
+        if (!batch.isEmpty()) {
+            Printer.get_instance().print(batch.toString());
+            batch.setLength(0);
+        }
+    }
+}
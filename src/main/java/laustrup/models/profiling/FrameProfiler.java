@@ -0,0 +1,302 @@
+package laustrup.models.profiling;
+
+import laustrup.models.logging.Level;
+import laustrup.models.logging.Logger;
+import laustrup.utilities.TimeUtility;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Times the phases of each frame of the window and scopes defined by scenes, and counts amounts each frame.
+ * The durations are recorded into histograms, so percentiles and hitches are available instead of only an average fps.
+ * Counters are recorded into histograms as well, such as the amount of draw commands of each frame.
+ * Recording doesn't allocate, only registering scopes and logging the summary does.
+ * Is a singleton class.
+ */
+public class FrameProfiler {
+
+    /** The single instance of FrameProfiler. */
+    private static FrameProfiler _instance;
+
+    /** The phases of the loop of the window. */
+    public enum Phase {
+        POLL,
+        UPLOAD,
+        UPDATE,
+        RENDER,
+        SWAP
+    }
+
+    /** True if durations should be recorded, otherwise all calls are ignored. */
+    @Getter @Setter
+    private boolean _enabled = true;
+
+    /** Frames that takes longer than this amount of nanoseconds are counted as hitches. */
+    @Getter @Setter
+    private long _hitchThreshold = TimeUtility.NANOS_PER_SECOND / 30;
+
+    /** The nanoseconds between each summary printed, or 0 to never print it. */
+    @Getter @Setter
+    private long _summaryInterval = 10 * TimeUtility.NANOS_PER_SECOND;
+
+    /** The durations of the whole frames. */
+    @Getter
+    private final Histogram _frames = new Histogram();
+
+    /** The amount of frames above the hitch threshold since the last reset. */
+    @Getter
+    private long _hitches;
+
+    /** The durations of each phase, in the order of the phases. */
+    private final Histogram[] _phases = new Histogram[Phase.values().length];
+
+    /** The starts of each phase in nanoseconds. */
+    private final long[] _phaseStarts = new long[Phase.values().length];
+
+    /** The names of the scopes, where the index is the id of the scope. */
+    private String[] _scopeNames = new String[0];
+
+    /** The durations of each scope. */
+    private Histogram[] _scopes = new Histogram[0];
+
+    /** The starts of each scope in nanoseconds. */
+    private long[] _scopeStarts = new long[0];
+
+    /** The names of the counters, where the index is the id of the counter. */
+    private String[] _counterNames = new String[0];
+
+    /** The amounts of each counter. */
+    private Histogram[] _counters = new Histogram[0];
+
+    /** The start of the current frame and of the last printed summary. */
+    private long _frameStart, _lastSummary = TimeUtility.get_nanos();
+
+    /** Creates the histograms of the phases. */
+    private FrameProfiler() {
+        for (int i = 0; i < _phases.length; i++)
+            _phases[i] = new Histogram();
+    }
+
+    /**
+     * if the singleton instance is null, it will create it.
+     * @return The singleton instance.
+     */
+    public static FrameProfiler get_instance() {
+        if (FrameProfiler._instance == null)
+            FrameProfiler._instance = new FrameProfiler();
+
+        return FrameProfiler._instance;
+    }
+
+    /** Marks the start of a frame. */
+    public void beginFrame() {
+        _frameStart = TimeUtility.get_nanos();
+    }
+
+    /**
+     * Records the duration of the frame and prints the summary, if the interval has passed.
+     * Hitches are counted from the threshold.
+     */
+    public void endFrame() {
+        if (!_enabled)
+            return;
+
+        long now = TimeUtility.get_nanos(),
+             duration = now - _frameStart;
+        _frames.record(duration);
+        if (duration > _hitchThreshold)
+            _hitches++;
+
+        if (_summaryInterval > 0 && now - _lastSummary >= _summaryInterval) {
+            _lastSummary = now;
+            if (Logger.get_instance().isEnabled(Level.INFO))
+                Logger.get_instance().info(summary());
+        }
+    }
+
+    /**
+     * Marks the start of a phase.
+     * @param phase The phase that is starting.
+     */
+    public void begin(Phase phase) {
+        _phaseStarts[phase.ordinal()] = TimeUtility.get_nanos();
+    }
+
+    /**
+     * Records the duration of a phase since it began.
+     * @param phase The phase that has ended.
+     */
+    public void end(Phase phase) {
+        if (_enabled)
+            _phases[phase.ordinal()].record(TimeUtility.get_nanos() - _phaseStarts[phase.ordinal()]);
+    }
+
+    /**
+     * Registers a scope, that can be timed with begin and end of the returned id.
+     * Should be done once, for example when a scene is initiated, since it allocates.
+     * @param name The name of the scope in the summary, an already registered name gives the same id.
+     * @return The id of the scope.
+     */
+    public int scope(String name) {
+        for (int i = 0; i < _scopeNames.length; i++)
+            if (_scopeNames[i].equals(name))
+                return i;
+
+        int id = _scopeNames.length;
+        String[] names = new String[id + 1];
+        Histogram[] scopes = new Histogram[id + 1];
+        long[] starts = new long[id + 1];
+        System.arraycopy(_scopeNames, 0, names, 0, id);
+        System.arraycopy(_scopes, 0, scopes, 0, id);
+        // Scopes that are open while registering keeps their starts.
+        System.arraycopy(_scopeStarts, 0, starts, 0, id);
+        names[id] = name;
+        scopes[id] = new Histogram();
+
+        _scopeNames = names;
+        _scopes = scopes;
+        _scopeStarts = starts;
+
+        return id;
+    }
+
+    /**
+     * Marks the start of a scope.
+     * @param scope The id of the scope from registering it.
+     */
+    public void begin(int scope) {
+        _scopeStarts[scope] = TimeUtility.get_nanos();
+    }
+
+    /**
+     * Records the duration of a scope since it began.
+     * @param scope The id of the scope from registering it.
+     */
+    public void end(int scope) {
+        if (_enabled)
+            _scopes[scope].record(TimeUtility.get_nanos() - _scopeStarts[scope]);
+    }
+
+    /**
+     * Registers a counter, that amounts can be recorded to with count of the returned id.
+     * Should be done once, since it allocates.
+     * @param name The name of the counter in the summary, an already registered name gives the same id.
+     * @return The id of the counter.
+     */
+    public int counter(String name) {
+        for (int i = 0; i < _counterNames.length; i++)
+            if (_counterNames[i].equals(name))
+                return i;
+
+        int id = _counterNames.length;
+        String[] names = new String[id + 1];
+        Histogram[] counters = new Histogram[id + 1];
+        System.arraycopy(_counterNames, 0, names, 0, id);
+        System.arraycopy(_counters, 0, counters, 0, id);
+        names[id] = name;
+        counters[id] = new Histogram();
+
+        _counterNames = names;
+        _counters = counters;
+
+        return id;
+    }
+
+    /**
+     * Records an amount of a frame.
+     * @param counter The id of the counter from registering it.
+     * @param amount The amount, such as the amount of draw commands.
+     */
+    public void count(int counter, long amount) {
+        if (_enabled)
+            _counters[counter].record(amount);
+    }
+
+    /**
+     * The recorded amounts of a counter.
+     * @param counter The id of the counter from registering it.
+     * @return The histogram of the counter.
+     */
+    public Histogram counts(int counter) {
+        return _counters[counter];
+    }
+
+    /**
+     * The recorded durations of a phase.
+     * @param phase The phase of the durations.
+     * @return The histogram of the phase.
+     */
+    public Histogram histogram(Phase phase) {
+        return _phases[phase.ordinal()];
+    }
+
+    /**
+     * The recorded durations of a scope.
+     * @param scope The id of the scope from registering it.
+     * @return The histogram of the scope.
+     */
+    public Histogram histogram(int scope) {
+        return _scopes[scope];
+    }
+
+    /** Removes all recorded durations and hitches. */
+    public void reset() {
+        _frames.reset();
+        _hitches = 0;
+        for (Histogram phase : _phases)
+            phase.reset();
+        for (Histogram scope : _scopes)
+            scope.reset();
+        for (Histogram counter : _counters)
+            counter.reset();
+    }
+
+    /**
+     * Describes the percentiles of the frames, phases and scopes in milliseconds, and of the counters.
+     * @return The description.
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder("Frame times of ")
+                .append(_frames.get_count()).append(" frames with ")
+                .append(_hitches).append(" hitches:\n");
+
+        describe(builder, "frame", _frames);
+        for (Phase phase : Phase.values())
+            describe(builder, phase.name().toLowerCase(), histogram(phase));
+        for (int i = 0; i < _scopes.length; i++)
+            describe(builder, _scopeNames[i], _scopes[i]);
+        for (int i = 0; i < _counters.length; i++)
+            builder.append(_counterNames[i])
+                    .append(": p50 = ").append(_counters[i].percentile(50))
+                    .append(" p95 = ").append(_counters[i].percentile(95))
+                    .append(" max = ").append(_counters[i].get_max())
+                    .append('\n');
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends a line with the percentiles of a histogram.
+     * @param builder The builder to append to.
+     * @param name The name of the histogram.
+     * @param histogram The histogram to describe.
+     */
+    private static void describe(StringBuilder builder, String name, Histogram histogram) {
+        builder.append(name)
+                .append(": p50 = ").append(milliseconds(histogram.percentile(50)))
+                .append(" p95 = ").append(milliseconds(histogram.percentile(95)))
+                .append(" p99 = ").append(milliseconds(histogram.percentile(99)))
+                .append(" max = ").append(milliseconds(histogram.get_max()))
+                .append(" ms\n");
+    }
+
+    /**
+     * Converts nanoseconds into milliseconds with two decimals.
+     * @param nanos The nanoseconds to convert.
+     * @return The milliseconds.
+     */
+    private static String milliseconds(long nanos) {
+        return String.format("%.2f", nanos / 1E6);
+    }
+}
@@ -0,0 +1,123 @@
+package laustrup.models.profiling;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Counts durations in nanoseconds into buckets, that grows with the size of the values.
+ * Each power of two is divided into 64 buckets, so percentiles are precise within about 1.5%.
+ * All buckets are allocated at construction, so recording never allocates.
+ */
+@ToString(of = {"_count", "_max"})
+public class Histogram {
+
+    /** The amount of bits used to divide each power of two into buckets. */
+    private static final int SUB_BITS = 6;
+
+    /** The amount of buckets for each power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** The counts of each bucket, enough buckets for every positive long. */
+    private final long[] _buckets = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+
+    /** The amount of recorded values. */
+    @Getter
+    private long _count;
+
+    /** The sum of all recorded values. */
+    @Getter
+    private long _total;
+
+    /** The highest recorded value. */
+    @Getter
+    private long _max;
+
+    /**
+     * Counts a value into its bucket.
+     * @param nanos The value to be recorded, negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        _buckets[bucket(nanos)]++;
+        _count++;
+        _total += nanos;
+        _max = Math.max(_max, nanos);
+    }
+
+    /**
+     * Finds the value that a percentage of the recorded values are below or equal to.
+     * @param percentile The percentage from 0 to 100.
+     * @return The upper value of the bucket of the percentile, or 0 if nothing is recorded.
+     */
+    public long percentile(double percentile) {
+        if (_count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(_count * percentile / 100.0)),
+             counted = 0;
+        for (int i = 0; i < _buckets.length; i++) {
+            counted += _buckets[i];
+            if (counted >= target)
+                return Math.min(upper(i), _max);
+        }
+
+        return _max;
+    }
+
+    /** @return The average of the recorded values, or 0 if nothing is recorded. */
+    public double mean() {
+        return _count == 0 ? 0 : (double) _total / _count;
+    }
+
+    /**
+     * Counts the values that are above a threshold, at the precision of the buckets.
+     * @param nanos The threshold.
+     * @return The amount of values in buckets above the bucket of the threshold.
+     */
+    public long countAbove(long nanos) {
+        long count = 0;
+        for (int i = bucket(Math.max(nanos, 0)) + 1; i < _buckets.length; i++)
+            count += _buckets[i];
+
+        return count;
+    }
+
+    /** Removes all the recorded values. */
+    public void reset() {
+        Arrays.fill(_buckets, 0);
+        _count = 0;
+        _total = 0;
+        _max = 0;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     * Values below two times the sub buckets have a bucket each,
+     * above that the highest bits decides the power of two and the following bits the bucket within it.
+     * @param value The positive value.
+     * @return The index of the bucket.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS * 2)
+            return (int) value;
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Finds the highest value of a bucket.
+     * @param bucket The index of the bucket.
+     * @return The highest value that would be counted in the bucket.
+     */
+    private static long upper(int bucket) {
+        if (bucket < SUB_BUCKETS * 2)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -6,10 +6,36 @@ package laustrup.models.scenes;
 public interface IScene {
 
     /**
-     * This will be run for each frame.
+     * This will be run for each frame, when the window isn't looping with a fixed timestep.
+     * Simulates with the change in time and renders afterwards.
      * @param dt The change in time, is needed to calculate fps.
      */
-    void update(float dt);
+    default void update(float dt) {
+        simulate(dt);
+        render(dt, 1f);
+    }
+
+    /**
+     * Advances the state of the scene, is run with a fixed step when the window loops with a fixed timestep.
+     * Scenes extending Scene runs the systems they have registered, instead of advancing the state themselves.
+     * @param step The time in seconds to advance.
+     */
+    void simulate(float step);
+
+    /**
+     * Draws the scene, which is run once for each frame.
+     * @param dt The change in time since the last frame, is needed to calculate fps.
+     * @param alpha How far the time is between the previous and the next simulation, from 0 to 1.
+     *              Can be used to interpolate between the two states.
+     */
+    void render(float dt, float alpha);
+
+    /**
+     * Follows the size of the framebuffer, is run when the scene is set and when the window is resized.
+     * @param width The width of the framebuffer in pixels.
+     * @param height The height of the framebuffer in pixels.
+     */
+    void resize(int width, int height);
 
     /**
      * Will set up the scene before updating.
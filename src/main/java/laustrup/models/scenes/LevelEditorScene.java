@@ -1,127 +1,65 @@
 package laustrup.models.scenes;
 
 import laustrup.Program;
+import laustrup.models.Window;
+import laustrup.models.assets.Asset;
+import laustrup.models.assets.AssetManager;
+import laustrup.models.graphic.Quad;
 import laustrup.models.graphic.Shader;
-import laustrup.models.graphic.fragment.Fragment;
-import laustrup.models.graphic.Vertex;
-import laustrup.models.graphic.fragment.FragmentCollection;
-import laustrup.services.FileService;
-import laustrup.utilities.FragmentUtility;
-import laustrup.utilities.VertexUtility;
-import laustrup.utilities.collections.lists.Liszt;
-import laustrup.utilities.console.Printer;
+import laustrup.models.listeners.InputSnapshot;
+import laustrup.models.spatial.SpatialHashGrid;
 
 import lombok.Getter;
 
-import org.lwjgl.BufferUtils;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.function.Supplier;
+import java.nio.file.Paths;
 
-import static org.lwjgl.opengl.GL20.*;
-import static org.lwjgl.opengl.GL30.glBindVertexArray;
-import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LEFT;
 
 public class LevelEditorScene extends Scene implements IScene {
 
-    /** Defines the options of Shaders. */
-    private enum ShaderTypes {
-        VERTEX("vertex"),
-        FRAGMENT("fragment");
-
-        @Getter
-        public String _value;
-        ShaderTypes(String value) {
-            _value = value;
-        }
-    }
-
-    private Shader _shader = new Shader(Program.get_path() + "\\assets\\shaders\\default.glsl");
+    /** The shared program of the default shader, which is requested at init and loaded in the background. */
+    private Asset<Shader> _shader;
 
     /**
-     * The source of a Vertex.
-     * Is defined from the default.glsl shader file.
+     * The preset of quads for this scene,
+     * with a color of each corner.
      */
-    private final String _vertexSource = defineShader(ShaderTypes.VERTEX);
+    private Quad[] _quads = new Quad[]{
+            Quad.ofCorners(-0.5f, -0.5f, 0.0f, 1.0f, 1.0f, new float[]{
+                    1.0f, 0.0f, 0.0f, 1.0f,
+                    0.0f, 1.0f, 0.0f, 1.0f,
+                    0.0f, 0.0f, 1.0f, 1.0f,
+                    1.0f, 1.0f, 0.0f, 1.0f
+            })
+    };
 
-    /**
-     * The source of a Vertex.
-     * Is defined from the default.glsl shader file.
-     */
-    private final String _fragmentSource = defineShader(ShaderTypes.FRAGMENT);
+    /** The quads by area, so the quad under the cursor is found without visiting every quad, ids are their indices. */
+    private final SpatialHashGrid _index = new SpatialHashGrid(0.25f, _quads.length);
 
-    /**
-     * Takes the content from default.glsl shader file that fits the input.
-     * @param type The type of shader that should be defined.
-     * @return The correct content for the shader type.
-     */
-    private String defineShader(ShaderTypes type) {
-        return FileService.get_instance().getContent(
-                Program.get_path() + "\\assets\\shaders\\default.glsl"
-        ).split("#type ")[switch (type) {
-            case VERTEX -> 1;
-            case FRAGMENT -> 2;
-//            default -> throw new IllegalStateException();
-        }].replace(type.get_value() + "\r\n","");
-    }
+    /** Receives the ids of the quads under the cursor. */
+    private final int[] _picked = new int[16];
 
-    /**
-     * The id that is created for the vertexes.
-     * Is generated from gl.
-     */
-    private int _vertexID;
+    /** Groups the quads, so they are moved together by moving it. */
+    private final SceneNode _group = _graph.create(null);
 
-    /**
-     * The id that is created for the fragments.
-     * Is generated from gl.
-     */
-    private int _fragmentID;
+    /** The node of each quad under the group, the indices are the same as of the quads. */
+    private final SceneNode[] _nodes = new SceneNode[_quads.length];
 
-    /**
-     * The id that is created for the program of shaders.
-     * Is generated from gl.
-     */
-    private int _program;
+    /** Receives the world matrix of a node. */
+    private final Matrix4f _transform = new Matrix4f();
 
-    /**
-     * The id that is created for the vertexes to the screen.
-     * Is generated from gl.
-     */
-    private int _vertexArrayObjectID;
-
-    /**
-     * The id that is created for thebuffer of vertexes.
-     * Is generated from gl.
-     */
-    private int _vertexBufferObjectID;
-
-    /**
-     * The id that is created for the buffer of elements.
-     * Is generated from gl.
-     */
-    private int _elementBufferObjectID;
+    /** Receives the bounds of a moved quad. */
+    private final Vector3f _min = new Vector3f(), _max = new Vector3f();
 
-    /**
-     * The preset of vertexes for this scene,
-     * with both positions and colors.
-     */
-    private Liszt<Vertex> _vertexes = new Liszt<>(new Vertex[]{
-            new Vertex(new float[]{0.5f, -0.5f, 0.0f}, new float[]{1.0f, 0.0f, 0.0f, 1.0f}),
-            new Vertex(new float[]{-0.5f, 0.5f, 0.0f}, new float[]{0.0f, 1.0f, 0.0f, 1.0f}),
-            new Vertex(new float[]{0.5f, 0.5f, 0.0f}, new float[]{0.0f, 0.0f, 1.0f, 1.0f}),
-            new Vertex(new float[]{-0.5f, -0.5f, 0.0f}, new float[]{1.0f, 1.0f, 0.0f, 1.0f})
-    });
+    /** The position of the cursor in the world. */
+    private final Vector3f _cursor = new Vector3f();
 
-    /**
-     * The preset of elements for this scene,
-     * consists of the vertexes.
-     */
-    private FragmentCollection _fragmentCollection = new FragmentCollection(new Liszt<>(new Fragment[]{
-            new Fragment(new int[]{2, 1, 0}),
-            new Fragment(new int[]{0, 1, 3})
-        })
-    );
+    /** The index of the quad selected with the mouse, or -1 if none is. */
+    @Getter
+    private int _selected = -1;
 
     /** Empty constructor. */
     public LevelEditorScene() {
@@ -130,108 +68,62 @@ public class LevelEditorScene extends Scene implements IScene {
 
     @Override
     public void init() {
-        _shader.compile();
-        initGPU();
+        _shader = AssetManager.get_instance()
+                .shader(Paths.get(Program.get_path(), "assets", "shaders", "default.glsl").toString());
+
+        for (int i = 0; i < _quads.length; i++) {
+            _nodes[i] = _group.createChild();
+            _index.insert(_quads[i].get_x(), _quads[i].get_y(),
+                    _quads[i].get_x() + _quads[i].get_width(), _quads[i].get_y() + _quads[i].get_height());
+        }
+        _graph.update();
     }
 
+    /** Runs the systems and moves the quads of moved nodes in the index. */
     @Override
-    public void update(float dt) {
-        _fps = 1.0f/dt;
-
-        _shader.use();
-        glBindVertexArray(_vertexArrayObjectID);
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
-
-        glDrawElements(GL_TRIANGLES, new Supplier<Integer>() {
-            @Override
-            public Integer get() {
-                int length = 0;
-
-                for (Fragment element : _fragmentCollection.get_fragments())
-                    length += element.get_nodes().length;
-
-                return length;
+    public void simulate(float step) {
+        super.simulate(step);
+
+        for (int i = 0; i < _quads.length; i++)
+            if (_nodes[i].isMoved()) {
+                Quad quad = _quads[i];
+                _nodes[i].world(_transform).transformAab(quad.get_x(), quad.get_y(), quad.get_z(),
+                        quad.get_x() + quad.get_width(), quad.get_y() + quad.get_height(), quad.get_z(), _min, _max);
+                _index.move(i, _min.x, _min.y, _max.x, _max.y);
             }
-        }.get(), GL_UNSIGNED_INT, 0);
-
-        glBindVertexArray(0);
-        _shader.detach();
-    }
-
-    /**
-     * Initialises the different objects, that is needed for the GPU.
-     * Which is performed by many other private methods.
-     */
-    private void initGPU() {
-        generateVertexArrayObject();
-        generateVertexBufferObject(generateFloatBuffer());
-        generateElementBufferObject(createIndices());
-
-        int positionsSize = 3, colorSize = 4, floatSizeBytes = 4, vertexSizeBytes = (positionsSize + colorSize) * floatSizeBytes;
-        glVertexAttribPointer(0, positionsSize, GL_FLOAT, false, vertexSizeBytes, 0);
-        glEnableVertexAttribArray(0);
-
-        glVertexAttribPointer(1, colorSize, GL_FLOAT, false, vertexSizeBytes, positionsSize * floatSizeBytes);
-        glEnableVertexAttribArray(1);
     }
 
     /**
-     * Generates and binds the VertexArrayObject.
-     * The id is also initialised.
+     * Selects the quad under the cursor and draws the quads.
+     * The quad is selected here, since the input is taken once each frame,
+     * where simulate can run any amount of times and would miss or repeat a press.
      */
-    private void generateVertexArrayObject() {
-        _vertexArrayObjectID = glGenVertexArrays();
-        glBindVertexArray(_vertexArrayObjectID);
-    }
-
-    /** Generates the vertexBuffer with the vertexes values. */
-    private FloatBuffer generateFloatBuffer() {
-        FloatBuffer vertexBuffer = BufferUtils.createFloatBuffer(new Supplier<Integer>() {
-            @Override
-            public Integer get() {
-                int length = 0;
-
-                for (Vertex vertex : _vertexes)
-                    length += vertex.get_positions().length + vertex.get_colors().length;
-
-                return length;
-            }
-        }.get());
-        vertexBuffer.put(VertexUtility.vertexIntoGraphicFormat(_vertexes)).flip();
-
-        return vertexBuffer;
-    }
+    @Override
+    public void render(float dt, float alpha) {
+        _fps = 1.0f/dt;
+        pick(Window.get_instance().get_input());
 
-    /**
-     * Vertex buffer is generated, binded with the data.
-     * @param vertexBuffer The data to be binded.
-     */
-    private void generateVertexBufferObject(FloatBuffer vertexBuffer) {
-        _vertexBufferObjectID = glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, _vertexBufferObjectID);
-        glBufferData(GL_ARRAY_BUFFER, vertexBuffer, GL_STATIC_DRAW);
-    }
+        Shader shader = _shader.get();
+        if (shader == null)
+            return;
 
-    /**
-     * Element buffer is generated, binded with the data.
-     * @param elementBuffer The data to be binded.
-     */
-    private void generateElementBufferObject(IntBuffer elementBuffer) {
-        _elementBufferObjectID = glGenBuffers();
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, _elementBufferObjectID);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, elementBuffer, GL_STATIC_DRAW);
+        _renderer.begin(_camera);
+        for (int i = 0; i < _quads.length; i++)
+            _renderer.submit(_quads[i], shader, _nodes[i].world(_transform));
+        _renderer.end();
     }
 
     /**
-     * Indices are created from the fragments.
-     * Afterwards put into the element buffer.
-     * @return The element buffer with the created indices.
+     * Selects the quad under the cursor, if the left button was pressed in the input of the frame.
+     * The cursor is scaled from the coordinates of the window into the pixels of the viewport.
+     * @param input The input of the frame.
      */
-    private IntBuffer createIndices() {
-        IntBuffer elementBuffer = BufferUtils.createIntBuffer(_fragmentCollection.amount());
-        elementBuffer.put(FragmentUtility.elementGraphicFormat(_fragmentCollection)).flip();
-
-        return elementBuffer;
+    private void pick(InputSnapshot input) {
+        if (input.isButtonPressed(GLFW_MOUSE_BUTTON_LEFT)) {
+            Window window = Window.get_instance();
+            _camera.screenToWorld(input.get_x() * window.get_cursorScaleX(),
+                    input.get_y() * window.get_cursorScaleY(), _cursor);
+            _selected = _index.query(_cursor.x, _cursor.y, _picked) > 0 ? _picked[0] : -1;
+        }
     }
 }
@@ -1,20 +1,100 @@
 package laustrup.models.scenes;
 
+import laustrup.Program;
+import laustrup.models.Window;
+import laustrup.models.assets.Asset;
+import laustrup.models.assets.AssetManager;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.VertexStore;
+import laustrup.models.level.LevelMesh;
+import laustrup.models.level.LevelWriter;
+import laustrup.models.logging.Logger;
 import laustrup.utilities.console.Printer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class LevelScene extends Scene implements IScene {
 
+    /** The least amount of meshes of each task of recording, fewer meshes aren't worth another thread. */
+    private static final int MESHES_PER_TASK = 256;
+
+    /** The amount of tiles of each side of the default level, which fills the clip space. */
+    private static final int DEFAULT_SIDE = 16;
+
+    /** The shared program of the default shader, which is requested at init and loaded in the background. */
+    private Asset<Shader> _shader;
+
+    /** The meshes of the level file, which is mapped and uploaded in the background. */
+    private Asset<LevelMesh> _level;
+
     public LevelScene() {
         Printer.get_instance().print("This is level");
     }
 
     @Override
-    public void update(float dt) {
+    public void render(float dt, float alpha) {
         _fps = 1.0f/dt;
+
+        Shader shader = _shader.get();
+        LevelMesh level = _level.get();
+        if (shader == null || level == null)
+            return;
+
+        Window window = Window.get_instance();
+        // The matrices are calculated before recording, so the recorders only reads the camera.
+        _camera.get_viewProjectionMatrix();
+
+        int meshes = level.get_file().get_meshes(),
+            tasks = Math.max(1, Math.min(_commands.get_pool().getParallelism(), meshes / MESHES_PER_TASK));
+        int shaderId = _commands.register(shader);
+        _commands.record(tasks, (buffer, task, count) ->
+                level.record(buffer, _camera, shaderId, meshes * task / count, meshes * (task + 1) / count));
+        _commands.submit(window.get_device(), _camera);
     }
 
+    /** Requests the shader and the level, the default level is written first if it doesn't exist. */
     @Override
     public void init() {
+        AssetManager assets = AssetManager.get_instance();
+        Path level = Paths.get(Program.get_path(), "assets", "levels", "default.level");
+
+        if (!Files.exists(level))
+            try {
+                writeDefaultLevel(level);
+            } catch (IOException e) {
+                Logger.get_instance().error("Couldn't write the default level \"" + level + "\"...", e);
+            }
+
+        _shader = assets.shader(Paths.get(Program.get_path(), "assets", "shaders", "default.glsl").toString());
+        _level = assets.level(level.toString());
+    }
+
+    /**
+     * Writes a level of tiles with the colors of a checkerboard, where each tile is a mesh, that covers the clip space.
+     * @param path The path of the level file.
+     * @throws IOException If the file couldn't be written.
+     */
+    static void writeDefaultLevel(Path path) throws IOException {
+        LevelWriter writer = new LevelWriter();
+        float size = 2f / DEFAULT_SIDE;
+
+        for (int y = 0; y < DEFAULT_SIDE; y++)
+            for (int x = 0; x < DEFAULT_SIDE; x++) {
+                float left = -1 + x * size, bottom = -1 + y * size, shade = (x + y) % 2 == 0 ? 0.8f : 0.4f;
+                VertexStore corners = new VertexStore(4);
+                corners.add(left, bottom, 0, shade, shade, shade, 1, 0, 0);
+                corners.add(left + size, bottom, 0, shade, shade, shade, 1, 1, 0);
+                corners.add(left + size, bottom + size, 0, shade, shade, shade, 1, 1, 1);
+                corners.add(left, bottom + size, 0, shade, shade, shade, 1, 0, 1);
+
+                writer.add(new MeshData(corners, new int[]{0, 1, 2, 2, 3, 0}));
+            }
 
+        writer.write(path);
+        Logger.get_instance().info("The default level was written to \"" + path + "\"...");
     }
 }
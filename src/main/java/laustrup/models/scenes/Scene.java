@@ -1,5 +1,11 @@
 package laustrup.models.scenes;
 
+import laustrup.models.ecs.SystemScheduler;
+import laustrup.models.ecs.World;
+import laustrup.models.graphic.Camera;
+import laustrup.models.graphic.batch.BatchRenderer;
+import laustrup.models.graphic.command.RenderQueue;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -9,4 +15,46 @@ public class Scene {
     @Getter
     protected float _fps;
 
+    /** Batches the quads of the scene into as few draw calls as possible. */
+    @Getter
+    protected BatchRenderer _renderer = new BatchRenderer();
+
+    /** Sorts draw commands, that can be recorded on many threads, before they are submitted. */
+    @Getter
+    protected final RenderQueue _commands = new RenderQueue();
+
+    /** Views the scene, quads outside of it are culled. */
+    @Getter
+    protected final Camera _camera = new Camera();
+
+    /** The transforms of the scene, their world matrices are updated after the systems. */
+    @Getter
+    protected final SceneGraph _graph = new SceneGraph();
+
+    /** The entities of the scene with their components. */
+    @Getter
+    protected final World _world = new World();
+
+    /** The systems that simulates the entities, scenes registers their systems at init. */
+    @Getter
+    protected final SystemScheduler _systems = new SystemScheduler();
+
+    /**
+     * Runs the registered systems on the entities of the scene and updates the world matrices of moved nodes.
+     * Scenes that needs more should still call this first.
+     * @param step The time in seconds to advance.
+     */
+    public void simulate(float step) {
+        _systems.run(_world, step);
+        _graph.update();
+    }
+
+    /**
+     * Resizes the viewport of the camera to the framebuffer.
+     * @param width The width of the framebuffer in pixels.
+     * @param height The height of the framebuffer in pixels.
+     */
+    public void resize(int width, int height) {
+        _camera.resize(width, height);
+    }
 }
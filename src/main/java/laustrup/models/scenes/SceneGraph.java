@@ -0,0 +1,402 @@
+package laustrup.models.scenes;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchy of transforms, where the world matrix of each node is its parent's world matrix times its local transform.
+ * The transforms are stored in flat arrays ordered so every parent comes before its children,
+ * so the world matrices are updated in one pass from the start, without recursion or following references.
+ * Only nodes that are changed, or whose parent was recalculated, are recalculated by an update.
+ * <p>
+ * Nodes are identified by ids that never change, while their slots in the arrays can change,
+ * when a node is moved under a parent that comes after it or when removed nodes are compacted.
+ * Nodes are used through SceneNode, which is a view of an id like Vertex is of a VertexStore.
+ * </p>
+ */
+@ToString(of = {"_size", "_pass"})
+public class SceneGraph {
+
+    /** The parent of a root node. */
+    public static final int NONE = -1;
+
+    /** The amount of values of each local position, rotation, scale and world matrix. */
+    private static final int POSITION_SIZE = 3, ROTATION_SIZE = 4, SCALE_SIZE = 3, MATRIX_SIZE = 16;
+
+    /** The amount of nodes. */
+    @Getter
+    private int _size;
+
+    /** The amount of slots in use, including nodes that are removed and not compacted yet. */
+    private int _slotCount;
+
+    /** The slot of each id, or NONE if the id is free. */
+    private int[] _slots;
+
+    /** The id of the node of each slot, or NONE if the node is removed. */
+    private int[] _ids;
+
+    /** The slot of the parent of each slot, or NONE for a root. */
+    private int[] _parents;
+
+    /** The local positions, rotations as quaternions and scales of each slot. */
+    private float[] _positions, _rotations, _scales;
+
+    /** The world matrix of each slot, in the column major order of JOML. */
+    private float[] _worlds;
+
+    /** True for slots whose local transform has changed since the last update. */
+    private boolean[] _dirty;
+
+    /** The pass of the last update, that recalculated the world matrix of each slot. */
+    private int[] _moved;
+
+    /** The ids that are free for reuse, and the amount of them. */
+    private int[] _free;
+    private int _freeCount;
+
+    /** The amount of updates so far. */
+    @Getter
+    private int _pass;
+
+    /** True if any local transform has changed since the last update. */
+    private boolean _changed;
+
+    /** True if a parent comes after its child or slots are removed, so the slots must be ordered again. */
+    private boolean _unordered;
+
+    /** Calculates the local transform of a node, and receives the world matrix of its parent. */
+    private final Matrix4f _local = new Matrix4f(), _parent = new Matrix4f();
+
+    /** Initiates with room for a few nodes. */
+    public SceneGraph() {
+        this(16);
+    }
+
+    /**
+     * Initiates with room for an expected amount of nodes.
+     * @param capacity The amount of nodes there is room for before growing.
+     */
+    public SceneGraph(int capacity) {
+        capacity = Math.max(capacity, 1);
+        _slots = new int[capacity];
+        _free = new int[capacity];
+        allocate(capacity);
+    }
+
+    /**
+     * Creates a node at the origin, with no rotation and a scale of one.
+     * @param parent The parent of the node, or null for a root.
+     * @return The node.
+     */
+    public SceneNode create(SceneNode parent) {
+        int parentSlot = NONE;
+        if (parent != null) {
+            if (parent.get_graph() != this || !contains(parent.get_id()))
+                throw new IllegalArgumentException(parent + " isn't a node of this graph...");
+            parentSlot = _slots[parent.get_id()];
+        }
+
+        int id = _freeCount > 0 ? _free[--_freeCount] : _size + _freeCount;
+        if (id >= _slots.length) {
+            _slots = Arrays.copyOf(_slots, _slots.length * 2);
+            _free = Arrays.copyOf(_free, _free.length * 2);
+        }
+        if (_slotCount == _ids.length)
+            grow(_ids.length * 2);
+
+        // Appending after every other slot keeps the parent before the child.
+        int slot = _slotCount++;
+        _slots[id] = slot;
+        _ids[slot] = id;
+        _parents[slot] = parentSlot;
+        Arrays.fill(_positions, slot * POSITION_SIZE, (slot + 1) * POSITION_SIZE, 0);
+        Arrays.fill(_rotations, slot * ROTATION_SIZE, (slot + 1) * ROTATION_SIZE, 0);
+        _rotations[slot * ROTATION_SIZE + 3] = 1;
+        Arrays.fill(_scales, slot * SCALE_SIZE, (slot + 1) * SCALE_SIZE, 1);
+        _dirty[slot] = true;
+        _moved[slot] = NONE;
+        _changed = true;
+        _size++;
+
+        return new SceneNode(this, id);
+    }
+
+    /**
+     * Removes a node and all of its descendants, their ids can be reused afterwards.
+     * @param id The id of the node.
+     */
+    public void remove(int id) {
+        if (_unordered)
+            order();
+        int root = slot(id);
+
+        // Descendants are always after their ancestors, so one pass from the node finds them all.
+        for (int slot = root; slot < _slotCount; slot++) {
+            if (_ids[slot] == NONE || (slot != root && !isRemoved(_parents[slot])))
+                continue;
+
+            _slots[_ids[slot]] = NONE;
+            _free[_freeCount++] = _ids[slot];
+            _ids[slot] = NONE;
+            _size--;
+        }
+        _unordered = true;
+    }
+
+    /**
+     * Moves a node under another parent, keeping its local transform.
+     * @param id The id of the node.
+     * @param parent The id of the parent, or NONE to make it a root.
+     */
+    public void setParent(int id, int parent) {
+        int slot = slot(id), parentSlot = parent == NONE ? NONE : slot(parent);
+
+        for (int ancestor = parentSlot; ancestor != NONE; ancestor = _parents[ancestor])
+            if (ancestor == slot)
+                throw new IllegalArgumentException("A node can't be moved under itself or its descendants...");
+
+        _parents[slot] = parentSlot;
+        _dirty[slot] = true;
+        _changed = true;
+        _unordered |= parentSlot > slot;
+    }
+
+    /**
+     * @param id The id of the node.
+     * @return The id of the parent, or NONE if it is a root.
+     */
+    public int parent(int id) {
+        int parent = _parents[slot(id)];
+        return parent == NONE ? NONE : _ids[parent];
+    }
+
+    /**
+     * @param id An id of a node.
+     * @return True if the id is of a node that isn't removed.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < _slots.length && id < _size + _freeCount && _slots[id] != NONE;
+    }
+
+    /** Places a node relative to its parent. */
+    public void setPosition(int id, float x, float y, float z) {
+        int i = slot(id) * POSITION_SIZE;
+        _positions[i] = x;
+        _positions[i + 1] = y;
+        _positions[i + 2] = z;
+        changed(i / POSITION_SIZE);
+    }
+
+    /** Moves a node from where it is, relative to its parent. */
+    public void move(int id, float x, float y, float z) {
+        int i = slot(id) * POSITION_SIZE;
+        setPosition(id, _positions[i] + x, _positions[i + 1] + y, _positions[i + 2] + z);
+    }
+
+    /** Rotates a node relative to its parent, by a normalized quaternion. */
+    public void setRotation(int id, float x, float y, float z, float w) {
+        int i = slot(id) * ROTATION_SIZE;
+        _rotations[i] = x;
+        _rotations[i + 1] = y;
+        _rotations[i + 2] = z;
+        _rotations[i + 3] = w;
+        changed(i / ROTATION_SIZE);
+    }
+
+    /** Scales a node relative to its parent. */
+    public void setScale(int id, float x, float y, float z) {
+        int i = slot(id) * SCALE_SIZE;
+        _scales[i] = x;
+        _scales[i + 1] = y;
+        _scales[i + 2] = z;
+        changed(i / SCALE_SIZE);
+    }
+
+    /**
+     * Finds a value of the local position of a node.
+     * @param id The id of the node.
+     * @param component 0 for x, 1 for y and 2 for z.
+     * @return The found value.
+     */
+    public float position(int id, int component) {
+        return _positions[slot(id) * POSITION_SIZE + component];
+    }
+
+    /**
+     * Copies the world matrix of a node, as it was at the last update.
+     * @param id The id of the node.
+     * @param destination Is given the world matrix.
+     * @return The destination.
+     */
+    public Matrix4f world(int id, Matrix4f destination) {
+        return destination.set(_worlds, slot(id) * MATRIX_SIZE);
+    }
+
+    /**
+     * @param id The id of the node.
+     * @return True if the world matrix of the node was recalculated by the last update.
+     */
+    public boolean isMoved(int id) {
+        return _moved[slot(id)] == _pass;
+    }
+
+    /**
+     * Recalculates the world matrices of the nodes that has changed and their descendants.
+     * Recalculates nothing if no node has changed since the last update.
+     * @return The amount of world matrices that were recalculated.
+     */
+    public int update() {
+        if (_unordered)
+            order();
+
+        // Is counted even without changes, so no node is seen as moved by the next update.
+        _pass++;
+        if (!_changed)
+            return 0;
+
+        int recalculated = 0;
+        for (int slot = 0; slot < _slotCount; slot++) {
+            int parent = _parents[slot];
+            if (!_dirty[slot] && (parent == NONE || _moved[parent] != _pass))
+                continue;
+
+            int p = slot * POSITION_SIZE, r = slot * ROTATION_SIZE, s = slot * SCALE_SIZE;
+            _local.translationRotateScale(_positions[p], _positions[p + 1], _positions[p + 2],
+                    _rotations[r], _rotations[r + 1], _rotations[r + 2], _rotations[r + 3],
+                    _scales[s], _scales[s + 1], _scales[s + 2]);
+            if (parent != NONE)
+                _parent.set(_worlds, parent * MATRIX_SIZE).mulAffine(_local, _local);
+
+            _local.get(_worlds, slot * MATRIX_SIZE);
+            _dirty[slot] = false;
+            _moved[slot] = _pass;
+            recalculated++;
+        }
+        _changed = false;
+
+        return recalculated;
+    }
+
+    /**
+     * Finds the slot of a node.
+     * @param id The id of the node.
+     * @return The slot.
+     */
+    private int slot(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("There is no node of the id " + id + "...");
+
+        return _slots[id];
+    }
+
+    /** @return True if the slot is of a removed node, or of a node that is removed with its ancestor. */
+    private boolean isRemoved(int slot) {
+        return slot != NONE && _ids[slot] == NONE;
+    }
+
+    /** Marks the local transform of a slot as changed. */
+    private void changed(int slot) {
+        _dirty[slot] = true;
+        _changed = true;
+    }
+
+    /**
+     * Orders the slots by the depth of their nodes and compacts the removed slots.
+     * Nodes of the same depth keep their order, so siblings that were next to each other still are.
+     */
+    private void order() {
+        int[] depths = new int[_slotCount];
+        int deepest = 0;
+        int[] counts = new int[1];
+
+        for (int slot = 0; slot < _slotCount; slot++) {
+            if (_ids[slot] == NONE)
+                continue;
+
+            int depth = 0;
+            for (int ancestor = _parents[slot]; ancestor != NONE; ancestor = _parents[ancestor])
+                depth++;
+            depths[slot] = depth;
+            if (depth > deepest) {
+                deepest = depth;
+                counts = Arrays.copyOf(counts, depth + 1);
+            }
+            counts[depth]++;
+        }
+
+        int[] starts = new int[deepest + 1];
+        for (int depth = 1; depth <= deepest; depth++)
+            starts[depth] = starts[depth - 1] + counts[depth - 1];
+
+        int[] destinations = new int[_slotCount];
+        for (int slot = 0; slot < _slotCount; slot++)
+            destinations[slot] = _ids[slot] == NONE ? NONE : starts[depths[slot]]++;
+
+        int[] ids = new int[_ids.length], parents = new int[_ids.length], moved = new int[_ids.length];
+        float[] positions = new float[_positions.length], rotations = new float[_rotations.length],
+                scales = new float[_scales.length], worlds = new float[_worlds.length];
+        boolean[] dirty = new boolean[_dirty.length];
+
+        for (int slot = 0; slot < _slotCount; slot++) {
+            int destination = destinations[slot];
+            if (destination == NONE)
+                continue;
+
+            ids[destination] = _ids[slot];
+            parents[destination] = _parents[slot] == NONE ? NONE : destinations[_parents[slot]];
+            moved[destination] = _moved[slot];
+            dirty[destination] = _dirty[slot];
+            System.arraycopy(_positions, slot * POSITION_SIZE, positions, destination * POSITION_SIZE, POSITION_SIZE);
+            System.arraycopy(_rotations, slot * ROTATION_SIZE, rotations, destination * ROTATION_SIZE, ROTATION_SIZE);
+            System.arraycopy(_scales, slot * SCALE_SIZE, scales, destination * SCALE_SIZE, SCALE_SIZE);
+            System.arraycopy(_worlds, slot * MATRIX_SIZE, worlds, destination * MATRIX_SIZE, MATRIX_SIZE);
+            _slots[_ids[slot]] = destination;
+        }
+
+        _ids = ids;
+        _parents = parents;
+        _moved = moved;
+        _dirty = dirty;
+        _positions = positions;
+        _rotations = rotations;
+        _scales = scales;
+        _worlds = worlds;
+        _slotCount = _size;
+        _unordered = false;
+    }
+
+    /**
+     * Copies the arrays of the slots into longer ones.
+     * @param capacity The amount of slots there should be room for.
+     */
+    private void grow(int capacity) {
+        _ids = Arrays.copyOf(_ids, capacity);
+        _parents = Arrays.copyOf(_parents, capacity);
+        _positions = Arrays.copyOf(_positions, capacity * POSITION_SIZE);
+        _rotations = Arrays.copyOf(_rotations, capacity * ROTATION_SIZE);
+        _scales = Arrays.copyOf(_scales, capacity * SCALE_SIZE);
+        _worlds = Arrays.copyOf(_worlds, capacity * MATRIX_SIZE);
+        _dirty = Arrays.copyOf(_dirty, capacity);
+        _moved = Arrays.copyOf(_moved, capacity);
+    }
+
+    /**
+     * Creates the arrays of the slots.
+     * @param capacity The amount of slots there is room for.
+     */
+    private void allocate(int capacity) {
+        _ids = new int[capacity];
+        _parents = new int[capacity];
+        _positions = new float[capacity * POSITION_SIZE];
+        _rotations = new float[capacity * ROTATION_SIZE];
+        _scales = new float[capacity * SCALE_SIZE];
+        _worlds = new float[capacity * MATRIX_SIZE];
+        _dirty = new boolean[capacity];
+        _moved = new int[capacity];
+    }
+}
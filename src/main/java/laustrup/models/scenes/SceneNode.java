@@ -0,0 +1,98 @@
+package laustrup.models.scenes;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionfc;
+
+/**
+ * A node of a SceneGraph with a local position, rotation and scale relative to its parent.
+ * Is a view of the node in the graph, so the transforms are not kept in this object itself.
+ * Changes are seen in the world matrix after the next update of the graph.
+ */
+@ToString(of = {"_id"})
+public class SceneNode {
+
+    /** The graph containing the transforms of this node. */
+    @Getter
+    private final SceneGraph _graph;
+
+    /** The id of the node in the graph, which never changes. */
+    @Getter
+    private final int _id;
+
+    /**
+     * A view of a node that is already in a graph.
+     * @param graph The graph containing the node.
+     * @param id The id of the node.
+     */
+    SceneNode(SceneGraph graph, int id) {
+        _graph = graph;
+        _id = id;
+    }
+
+    /** @return A new child of this node at its origin. */
+    public SceneNode createChild() {
+        return _graph.create(this);
+    }
+
+    /** @param parent The new parent of this node, or null to make it a root. */
+    public void setParent(SceneNode parent) {
+        _graph.setParent(_id, parent != null ? parent.get_id() : SceneGraph.NONE);
+    }
+
+    /** Places this node relative to its parent. */
+    public SceneNode setPosition(float x, float y, float z) {
+        _graph.setPosition(_id, x, y, z);
+        return this;
+    }
+
+    /** Moves this node from where it is, relative to its parent. */
+    public SceneNode move(float x, float y, float z) {
+        _graph.move(_id, x, y, z);
+        return this;
+    }
+
+    /** Rotates this node relative to its parent. */
+    public SceneNode setRotation(Quaternionfc rotation) {
+        _graph.setRotation(_id, rotation.x(), rotation.y(), rotation.z(), rotation.w());
+        return this;
+    }
+
+    /** Rotates this node around the z axis relative to its parent, as 2D objects are rotated. */
+    public SceneNode setRotation(float radians) {
+        _graph.setRotation(_id, 0, 0, (float) Math.sin(radians / 2), (float) Math.cos(radians / 2));
+        return this;
+    }
+
+    /** Scales this node relative to its parent. */
+    public SceneNode setScale(float x, float y, float z) {
+        _graph.setScale(_id, x, y, z);
+        return this;
+    }
+
+    /**
+     * Copies the world matrix of this node, as it was at the last update of the graph.
+     * @param destination Is given the world matrix.
+     * @return The destination.
+     */
+    public Matrix4f world(Matrix4f destination) {
+        return _graph.world(_id, destination);
+    }
+
+    /** @return True if the world matrix was recalculated by the last update of the graph. */
+    public boolean isMoved() {
+        return _graph.isMoved(_id);
+    }
+
+    /** @return True if this node hasn't been removed. */
+    public boolean exists() {
+        return _graph.contains(_id);
+    }
+
+    /** Removes this node and all of its descendants from the graph. */
+    public void remove() {
+        _graph.remove(_id);
+    }
+}
@@ -0,0 +1,463 @@
+package laustrup.models.spatial;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Finds the objects of a scene by area, such as for culling and picking with the mouse.
+ * Divides the plane into square cells of a uniform size, only the cells that contains objects are stored,
+ * in a hash table of open addressing.
+ * Each object is an axis aligned rectangle, which is listed in every cell it overlaps,
+ * so the cell size should be about the size of the common object.
+ * Objects are identified by ids given at insertion, and all values are kept in primitive arrays,
+ * so neither queries nor movements allocate once the arrays are grown.
+ */
+@ToString(of = {"_cellSize", "_size"})
+public class SpatialHashGrid {
+
+    /** The value of a missing index. */
+    private static final int NONE = -1;
+
+    /** The width and height of each cell. */
+    @Getter
+    private final float _cellSize;
+
+    /** One divided by the cell size. */
+    private final float _inverseCellSize;
+
+    /** The amount of objects in the grid. */
+    @Getter
+    private int _size;
+
+    /** The bounds of each object by its id. */
+    private float[] _minX, _minY, _maxX, _maxY;
+
+    /** The range of cells each object is listed in, by its id. */
+    private int[] _cellMinX, _cellMinY, _cellMaxX, _cellMaxY;
+
+    /** True for the ids of objects in the grid. */
+    private boolean[] _alive;
+
+    /** The query that last found each object, so objects of many cells are only found once in each query. */
+    private int[] _stamps;
+
+    /** The current query. */
+    private int _stamp;
+
+    /** The ids of removed objects, that can be given again. */
+    private int[] _freeIds;
+
+    /** The amount of free ids and the next id that has never been given. */
+    private int _freeIdCount, _nextId;
+
+    /**
+     * The coordinates of the cells packed into keys, and the first entry of each cell, by their slot.
+     * Every key is the coordinates of a valid cell, so a slot is only a cell if it is occupied.
+     */
+    private long[] _keys;
+    private int[] _heads;
+
+    /** True for the slots of the table with a cell. */
+    private boolean[] _occupied;
+
+    /** The amount of slots with cells, including cells that are empty. */
+    private int _cells;
+
+    /** The object of each entry and the next entry of the same cell. */
+    private int[] _entryObjects, _entryNext;
+
+    /** The first entry that is free, and the amount of entries that has ever been used. */
+    private int _freeEntry = NONE, _entries;
+
+    /**
+     * @param cellSize The width and height of each cell, which should be about the size of the common object.
+     * @param capacity The amount of objects there is room for before growing.
+     */
+    public SpatialHashGrid(float cellSize, int capacity) {
+        _cellSize = cellSize;
+        _inverseCellSize = 1f / cellSize;
+
+        capacity = Math.max(capacity, 16);
+        _minX = new float[capacity];
+        _minY = new float[capacity];
+        _maxX = new float[capacity];
+        _maxY = new float[capacity];
+        _cellMinX = new int[capacity];
+        _cellMinY = new int[capacity];
+        _cellMaxX = new int[capacity];
+        _cellMaxY = new int[capacity];
+        _alive = new boolean[capacity];
+        _stamps = new int[capacity];
+        _freeIds = new int[capacity];
+        _entryObjects = new int[capacity];
+        _entryNext = new int[capacity];
+        _keys = new long[Integer.highestOneBit(capacity - 1) << 2];
+        _heads = new int[_keys.length];
+        _occupied = new boolean[_keys.length];
+    }
+
+    /**
+     * Adds an object.
+     * @return The id of the object.
+     */
+    public int insert(float minX, float minY, float maxX, float maxY) {
+        int id = _freeIdCount > 0 ? _freeIds[--_freeIdCount] : _nextId++;
+        ensureObjects(id + 1);
+
+        _alive[id] = true;
+        _size++;
+        bounds(id, minX, minY, maxX, maxY);
+        link(id, _cellMinX[id], _cellMinY[id], _cellMaxX[id], _cellMaxY[id]);
+
+        return id;
+    }
+
+    /**
+     * Changes the bounds of an object.
+     * Is only updating the bounds if the object stays in the same cells,
+     * otherwise it is only unlisted from the cells it leaves and listed in the cells it enters.
+     * @param id The id of the object.
+     * @throws IllegalArgumentException If the id isn't of an object in the grid.
+     */
+    public void move(int id, float minX, float minY, float maxX, float maxY) {
+        if (!contains(id))
+            throw new IllegalArgumentException("There is no object of the id " + id + " in the grid...");
+
+        int oldMinX = _cellMinX[id], oldMinY = _cellMinY[id], oldMaxX = _cellMaxX[id], oldMaxY = _cellMaxY[id];
+        bounds(id, minX, minY, maxX, maxY);
+
+        int newMinX = _cellMinX[id], newMinY = _cellMinY[id], newMaxX = _cellMaxX[id], newMaxY = _cellMaxY[id];
+        if (oldMinX == newMinX && oldMinY == newMinY && oldMaxX == newMaxX && oldMaxY == newMaxY)
+            return;
+
+        for (int x = oldMinX; x <= oldMaxX; x++)
+            for (int y = oldMinY; y <= oldMaxY; y++)
+                if (x < newMinX || x > newMaxX || y < newMinY || y > newMaxY)
+                    unlink(id, x, y);
+
+        for (int x = newMinX; x <= newMaxX; x++)
+            for (int y = newMinY; y <= newMaxY; y++)
+                if (x < oldMinX || x > oldMaxX || y < oldMinY || y > oldMaxY)
+                    link(id, x, y);
+    }
+
+    /**
+     * Removes an object, its id can be given to another object afterwards.
+     * Removing an id that isn't in the grid does nothing, so an id is never freed twice.
+     * @param id The id of the object.
+     * @return True if the object was in the grid.
+     */
+    public boolean remove(int id) {
+        if (!contains(id))
+            return false;
+
+        for (int x = _cellMinX[id]; x <= _cellMaxX[id]; x++)
+            for (int y = _cellMinY[id]; y <= _cellMaxY[id]; y++)
+                unlink(id, x, y);
+
+        _alive[id] = false;
+        _size--;
+        _freeIds[_freeIdCount++] = id;
+
+        return true;
+    }
+
+    /**
+     * @param id The id of an object.
+     * @return True if the id is of an object in the grid.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < _nextId && _alive[id];
+    }
+
+    /** Removes all objects and cells, without shrinking the arrays. */
+    public void clear() {
+        Arrays.fill(_occupied, false);
+        Arrays.fill(_alive, 0, _nextId, false);
+        _cells = 0;
+        _size = 0;
+        _nextId = 0;
+        _freeIdCount = 0;
+        _freeEntry = NONE;
+        _entries = 0;
+    }
+
+    /**
+     * Replaces all objects at once, such as when a level is loaded.
+     * The objects are given the ids of their indices and the arrays are grown once.
+     * @param count The amount of objects.
+     * @param minX The left edges of the objects.
+     * @param minY The bottom edges of the objects.
+     * @param maxX The right edges of the objects.
+     * @param maxY The top edges of the objects.
+     */
+    public void rebuild(int count, float[] minX, float[] minY, float[] maxX, float[] maxY) {
+        clear();
+        ensureObjects(count);
+        ensureEntries(count);
+        if (count * 2 > _keys.length)
+            rehash(Integer.highestOneBit(count * 2 - 1) << 1);
+
+        for (int i = 0; i < count; i++)
+            insert(minX[i], minY[i], maxX[i], maxY[i]);
+    }
+
+    /**
+     * Finds the objects overlapping a rectangle, where touching edges counts as overlapping.
+     * Each object is found once, even if it is in many of the cells.
+     * @param results Is given the ids of the found objects, from index 0.
+     * @return The amount of found objects, which is larger than the length of results if they didn't fit,
+     *         then only the first are given.
+     */
+    public int query(float minX, float minY, float maxX, float maxY, int[] results) {
+        if (++_stamp == 0) {
+            Arrays.fill(_stamps, 0);
+            _stamp = 1;
+        }
+
+        int fromX = cell(minX), fromY = cell(minY), toX = cell(maxX), toY = cell(maxY), found = 0;
+
+        // A rectangle of more cells than the table has slots, is faster found by visiting the slots.
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) > _keys.length) {
+            for (int slot = 0; slot < _keys.length; slot++) {
+                if (!_occupied[slot])
+                    continue;
+
+                long key = _keys[slot];
+                int x = (int) (key >> 32), y = (int) key;
+                if (x >= fromX && x <= toX && y >= fromY && y <= toY)
+                    found = collect(_heads[slot], minX, minY, maxX, maxY, results, found);
+            }
+        }
+        else
+            for (int x = fromX; x <= toX; x++)
+                for (int y = fromY; y <= toY; y++) {
+                    int slot = find(x, y);
+                    if (slot != NONE)
+                        found = collect(_heads[slot], minX, minY, maxX, maxY, results, found);
+                }
+
+        return found;
+    }
+
+    /**
+     * Finds the objects containing a point, such as the cursor of the mouse.
+     * @param results Is given the ids of the found objects, from index 0.
+     * @return The amount of found objects, which is larger than the length of results if they didn't fit.
+     */
+    public int query(float x, float y, int[] results) {
+        return query(x, y, x, y, results);
+    }
+
+    /** @return The left edge of an object. */
+    public float minX(int id) {
+        return _minX[id];
+    }
+
+    /** @return The bottom edge of an object. */
+    public float minY(int id) {
+        return _minY[id];
+    }
+
+    /** @return The right edge of an object. */
+    public float maxX(int id) {
+        return _maxX[id];
+    }
+
+    /** @return The top edge of an object. */
+    public float maxY(int id) {
+        return _maxY[id];
+    }
+
+    /**
+     * Adds the overlapping objects of the entries of a cell, that hasn't been found by the query already.
+     * @return The amount of found objects.
+     */
+    private int collect(int entry, float minX, float minY, float maxX, float maxY, int[] results, int found) {
+        for (; entry != NONE; entry = _entryNext[entry]) {
+            int id = _entryObjects[entry];
+            if (_stamps[id] == _stamp)
+                continue;
+            _stamps[id] = _stamp;
+
+            if (_minX[id] <= maxX && _maxX[id] >= minX && _minY[id] <= maxY && _maxY[id] >= minY) {
+                if (found < results.length)
+                    results[found] = id;
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    /** Sets the bounds of an object and the range of cells it overlaps. */
+    private void bounds(int id, float minX, float minY, float maxX, float maxY) {
+        _minX[id] = minX;
+        _minY[id] = minY;
+        _maxX[id] = maxX;
+        _maxY[id] = maxY;
+        _cellMinX[id] = cell(minX);
+        _cellMinY[id] = cell(minY);
+        _cellMaxX[id] = cell(maxX);
+        _cellMaxY[id] = cell(maxY);
+    }
+
+    /** @return The coordinate of the cell containing a coordinate. */
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * _inverseCellSize);
+    }
+
+    /** Lists an object in every cell of a range. */
+    private void link(int id, int minX, int minY, int maxX, int maxY) {
+        for (int x = minX; x <= maxX; x++)
+            for (int y = minY; y <= maxY; y++)
+                link(id, x, y);
+    }
+
+    /** Lists an object first in a cell, the cell is created if it doesn't exist. */
+    private void link(int id, int x, int y) {
+        int slot = slot(x, y), entry;
+
+        if (_freeEntry != NONE) {
+            entry = _freeEntry;
+            _freeEntry = _entryNext[entry];
+        }
+        else {
+            ensureEntries(_entries + 1);
+            entry = _entries++;
+        }
+
+        _entryObjects[entry] = id;
+        _entryNext[entry] = _heads[slot];
+        _heads[slot] = entry;
+    }
+
+    /**
+     * Unlists an object of a cell, the cell is kept even if it is empty,
+     * since moving objects often enters it again, it is dropped when the table is grown.
+     */
+    private void unlink(int id, int x, int y) {
+        int slot = find(x, y);
+        if (slot == NONE)
+            return;
+
+        for (int entry = _heads[slot], previous = NONE; entry != NONE; previous = entry, entry = _entryNext[entry])
+            if (_entryObjects[entry] == id) {
+                if (previous == NONE)
+                    _heads[slot] = _entryNext[entry];
+                else
+                    _entryNext[previous] = _entryNext[entry];
+
+                _entryNext[entry] = _freeEntry;
+                _freeEntry = entry;
+                return;
+            }
+    }
+
+    /** @return The key of the coordinates of a cell. */
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /** @return The first slot to look for a key in, by a mix of its bits. */
+    private int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32)) & (_keys.length - 1);
+    }
+
+    /** @return The slot of a cell, or NONE if it doesn't exist. */
+    private int find(int x, int y) {
+        long key = key(x, y);
+
+        for (int slot = hash(key); ; slot = (slot + 1) & (_keys.length - 1)) {
+            if (!_occupied[slot])
+                return NONE;
+            if (_keys[slot] == key)
+                return slot;
+        }
+    }
+
+    /** @return The slot of a cell, which is created if it doesn't exist. */
+    private int slot(int x, int y) {
+        if ((_cells + 1) * 4 > _keys.length * 3)
+            rehash(_keys.length);
+
+        long key = key(x, y);
+        int slot = hash(key);
+        while (_occupied[slot] && _keys[slot] != key)
+            slot = (slot + 1) & (_keys.length - 1);
+
+        if (!_occupied[slot]) {
+            _occupied[slot] = true;
+            _keys[slot] = key;
+            _heads[slot] = NONE;
+            _cells++;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Moves the cells into a new table and drops the empty cells.
+     * The table is doubled if the cells that aren't empty would still fill more than half of it.
+     * @param length The least length of the new table, a power of two.
+     */
+    private void rehash(int length) {
+        long[] keys = _keys;
+        int[] heads = _heads;
+        boolean[] occupied = _occupied;
+
+        int live = 0;
+        for (int slot = 0; slot < keys.length; slot++)
+            if (occupied[slot] && heads[slot] != NONE)
+                live++;
+        while (live * 2 > length)
+            length *= 2;
+
+        _keys = new long[length];
+        _heads = new int[length];
+        _occupied = new boolean[length];
+        _cells = live;
+
+        for (int slot = 0; slot < keys.length; slot++)
+            if (occupied[slot] && heads[slot] != NONE) {
+                int target = hash(keys[slot]);
+                while (_occupied[target])
+                    target = (target + 1) & (length - 1);
+                _occupied[target] = true;
+                _keys[target] = keys[slot];
+                _heads[target] = heads[slot];
+            }
+    }
+
+    /** Makes sure there is room for an amount of object ids. */
+    private void ensureObjects(int capacity) {
+        if (capacity <= _alive.length)
+            return;
+
+        int length = Math.max(capacity, _alive.length * 2);
+        _minX = Arrays.copyOf(_minX, length);
+        _minY = Arrays.copyOf(_minY, length);
+        _maxX = Arrays.copyOf(_maxX, length);
+        _maxY = Arrays.copyOf(_maxY, length);
+        _cellMinX = Arrays.copyOf(_cellMinX, length);
+        _cellMinY = Arrays.copyOf(_cellMinY, length);
+        _cellMaxX = Arrays.copyOf(_cellMaxX, length);
+        _cellMaxY = Arrays.copyOf(_cellMaxY, length);
+        _alive = Arrays.copyOf(_alive, length);
+        _stamps = Arrays.copyOf(_stamps, length);
+        _freeIds = Arrays.copyOf(_freeIds, length);
+    }
+
+    /** Makes sure there is room for an amount of entries. */
+    private void ensureEntries(int capacity) {
+        if (capacity <= _entryObjects.length)
+            return;
+
+        int length = Math.max(capacity, _entryObjects.length * 2);
+        _entryObjects = Arrays.copyOf(_entryObjects, length);
+        _entryNext = Arrays.copyOf(_entryNext, length);
+    }
+}
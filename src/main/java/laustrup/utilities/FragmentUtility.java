@@ -1,21 +1,51 @@
 package laustrup.utilities;
 
+import laustrup.models.graphic.MeshData;
 import laustrup.models.graphic.fragment.Fragment;
 import laustrup.models.graphic.fragment.FragmentCollection;
 
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
 public class FragmentUtility {
 
+    /**
+     * Creates a fragment of each triangle of mesh data, such as of an imported model, in the order of the triangles.
+     * @param data The mesh data with the indices of the triangles.
+     * @return The collection of the fragments.
+     */
+    public static FragmentCollection fragments(MeshData data) {
+        int[] indices = data.get_indices();
+        Fragment[] fragments = new Fragment[data.triangles()];
+
+        for (int i = 0; i < fragments.length; i++)
+            fragments[i] = new Fragment(new int[]{indices[i * 3], indices[i * 3 + 1], indices[i * 3 + 2]});
+
+        return new FragmentCollection(fragments);
+    }
+
+    /**
+     * Copies the packed indices of the collection, which are already kept by the collection itself.
+     * @param collection The collection of the indices.
+     * @return The nodes of all fragments as ints.
+     */
     public static int[] elementGraphicFormat(FragmentCollection collection) {
         int[] data = new int[collection.amount()];
-        int elementIndex = 0;
-
-        for (Fragment element : collection.get_fragments()) {
-            for (int i = 0; i < element.get_nodes().length; i++) {
-                data[elementIndex] = element.get_node(i);
-                elementIndex++;
-            }
-        }
+        System.arraycopy(collection.get_indices(), 0, data, 0, data.length);
 
         return data;
     }
+
+    /**
+     * Creates an element buffer in the smallest type that can contain the nodes,
+     * which is 16 bits when the nodes fits in an unsigned short.
+     * @param collection The collection of the indices.
+     * @return The flipped element buffer, ready to be passed to gl.
+     */
+    public static ByteBuffer elementBuffer(FragmentCollection collection) {
+        return collection.writeIndices(
+                BufferUtils.createByteBuffer(collection.amount() * collection.indexBytes())
+        ).flip();
+    }
 }
@@ -0,0 +1,295 @@
+package laustrup.utilities;
+
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+
+import java.util.Arrays;
+
+import static laustrup.models.graphic.VertexStore.*;
+
+/**
+ * Optimizes the vertices and indices of meshes for drawing, such as after importing them.
+ * Everything works on primitive arrays in linear time, so meshes of millions of triangles are optimized in seconds.
+ */
+public class MeshUtility {
+
+    /** The amount of vertices of the simulated cache of transformed vertices, which is common for graphics cards. */
+    public static final int CACHE_SIZE = 32;
+
+    /** The scores of the optimization of the vertex cache, as suggested by Tom Forsyth. */
+    private static final float CACHE_DECAY_POWER = 1.5f, LAST_TRIANGLE_SCORE = 0.75f,
+            VALENCE_BOOST_SCALE = 2f, VALENCE_BOOST_POWER = 0.5f;
+
+    /** The amount of triangles of a vertex, that the valence scores are calculated in advance for. */
+    private static final int MAX_PRECOMPUTED_VALENCE = 64;
+
+    /** The scores of each position in the cache, the first three are the vertices of the last triangle. */
+    private static final float[] CACHE_SCORES = new float[CACHE_SIZE];
+
+    /** The scores of each amount of triangles that haven't been drawn, which favors finishing vertices. */
+    private static final float[] VALENCE_SCORES = new float[MAX_PRECOMPUTED_VALENCE];
+
+    static {
+        for (int position = 0; position < CACHE_SIZE; position++)
+            CACHE_SCORES[position] = position < 3 ? LAST_TRIANGLE_SCORE
+                    : (float) Math.pow(1f - (float) (position - 3) / (CACHE_SIZE - 3), CACHE_DECAY_POWER);
+        for (int valence = 1; valence < MAX_PRECOMPUTED_VALENCE; valence++)
+            VALENCE_SCORES[valence] = valenceScore(valence);
+    }
+
+    /**
+     * Merges vertices whose values are exactly the same, such as the corners shared by the faces of a model,
+     * by hashing their values into a table of open addressing.
+     * The order of the first occurrences is kept and the indices are changed into the merged vertices.
+     * @param data The vertices and indices.
+     * @return The merged vertices and their indices, the data isn't changed.
+     */
+    public static MeshData weld(MeshData data) {
+        VertexStore store = data.get_vertices();
+        int size = store.get_size();
+        VertexStore welded = new VertexStore(size);
+
+        int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1], remap = new int[size];
+        int mask = table.length - 1;
+        Arrays.fill(table, -1);
+
+        for (int vertex = 0; vertex < size; vertex++) {
+            int slot = hash(store, vertex) & mask;
+
+            while (table[slot] >= 0 && !same(welded, table[slot], store, vertex))
+                slot = (slot + 1) & mask;
+            if (table[slot] < 0)
+                table[slot] = copy(store, vertex, welded);
+
+            remap[vertex] = table[slot];
+        }
+
+        return new MeshData(welded, remapped(data.get_indices(), remap));
+    }
+
+    /**
+     * Orders the triangles, so vertices are used again while they are still in the cache of transformed vertices.
+     * Is the linear speed optimization of Tom Forsyth, which greedily draws the triangle of the highest score,
+     * where vertices score by their position in a simulated cache and by how few of their triangles are left.
+     * @param indices The indices of the triangles, three after each other.
+     * @param vertices The amount of vertices.
+     * @return The indices in the optimized order, the indices aren't changed.
+     */
+    public static int[] optimizeVertexCache(int[] indices, int vertices) {
+        int triangles = indices.length / 3;
+
+        // The triangles of each vertex, where the ones not drawn yet are first and the valence is their amount.
+        int[] valences = new int[vertices], starts = new int[vertices + 1], adjacency = new int[triangles * 3];
+        for (int i = 0; i < triangles * 3; i++)
+            valences[indices[i]]++;
+        for (int vertex = 0; vertex < vertices; vertex++)
+            starts[vertex + 1] = starts[vertex] + valences[vertex];
+        int[] filled = Arrays.copyOf(starts, vertices);
+        for (int i = 0; i < triangles * 3; i++)
+            adjacency[filled[indices[i]]++] = i / 3;
+
+        int[] positions = new int[vertices];
+        float[] vertexScores = new float[vertices], triangleScores = new float[triangles];
+        Arrays.fill(positions, -1);
+        for (int vertex = 0; vertex < vertices; vertex++)
+            vertexScores[vertex] = vertexScore(positions[vertex], valences[vertex]);
+
+        int best = -1;
+        for (int triangle = 0; triangle < triangles; triangle++) {
+            triangleScores[triangle] = vertexScores[indices[triangle * 3]]
+                    + vertexScores[indices[triangle * 3 + 1]] + vertexScores[indices[triangle * 3 + 2]];
+            if (best < 0 || triangleScores[triangle] > triangleScores[best])
+                best = triangle;
+        }
+
+        boolean[] drawn = new boolean[triangles];
+        int[] cache = new int[CACHE_SIZE + 3], next = new int[CACHE_SIZE + 3], optimized = new int[triangles * 3];
+        int cached = 0, unvisited = 0;
+
+        for (int output = 0; output < triangles; output++) {
+            // Without any triangle of the cached vertices, the next triangle that isn't drawn is taken.
+            if (best < 0) {
+                while (drawn[unvisited])
+                    unvisited++;
+                best = unvisited;
+            }
+
+            drawn[best] = true;
+            int a = indices[best * 3], b = indices[best * 3 + 1], c = indices[best * 3 + 2];
+            optimized[output * 3] = a;
+            optimized[output * 3 + 1] = b;
+            optimized[output * 3 + 2] = c;
+
+            int size = 0;
+            for (int corner = 0; corner < 3; corner++) {
+                int vertex = indices[best * 3 + corner];
+                int first = starts[vertex], last = first + --valences[vertex];
+                for (int i = first; i <= last; i++)
+                    if (adjacency[i] == best) {
+                        adjacency[i] = adjacency[last];
+                        adjacency[last] = best;
+                        break;
+                    }
+                next[size++] = vertex;
+            }
+            for (int i = 0; i < cached; i++)
+                if (cache[i] != a && cache[i] != b && cache[i] != c)
+                    next[size++] = cache[i];
+
+            for (int i = 0; i < size; i++) {
+                int vertex = next[i];
+                positions[vertex] = i < CACHE_SIZE ? i : -1;
+                vertexScores[vertex] = vertexScore(positions[vertex], valences[vertex]);
+            }
+
+            best = -1;
+            for (int i = 0; i < size; i++) {
+                int vertex = next[i];
+                for (int j = starts[vertex]; j < starts[vertex] + valences[vertex]; j++) {
+                    int triangle = adjacency[j];
+                    triangleScores[triangle] = vertexScores[indices[triangle * 3]]
+                            + vertexScores[indices[triangle * 3 + 1]] + vertexScores[indices[triangle * 3 + 2]];
+                    if (best < 0 || triangleScores[triangle] > triangleScores[best])
+                        best = triangle;
+                }
+            }
+
+            int[] swap = cache;
+            cache = next;
+            next = swap;
+            cached = Math.min(size, CACHE_SIZE);
+        }
+
+        return optimized;
+    }
+
+    /**
+     * Orders the vertices by when the indices first use them, so the vertices are fetched from memory in order,
+     * vertices that aren't used by any index are removed.
+     * @param data The vertices and indices, such as after optimizing the order of the triangles.
+     * @return The ordered vertices and their indices, the data isn't changed.
+     */
+    public static MeshData optimizeVertexFetch(MeshData data) {
+        VertexStore store = data.get_vertices();
+        VertexStore ordered = new VertexStore(store.get_size());
+        int[] remap = new int[store.get_size()];
+        Arrays.fill(remap, -1);
+
+        for (int index : data.get_indices())
+            if (remap[index] < 0)
+                remap[index] = copy(store, index, ordered);
+
+        return new MeshData(ordered, remapped(data.get_indices(), remap));
+    }
+
+    /**
+     * Calculates the average cache miss ratio, which is the amount of vertices transformed for each triangle,
+     * by simulating a first in first out cache of transformed vertices.
+     * It is 3 when no vertex is used again while cached, and goes towards 0.5 for large regular grids.
+     * @param indices The indices of the triangles, three after each other.
+     * @param vertices The amount of vertices.
+     * @param cacheSize The amount of vertices of the cache.
+     * @return The amount of misses for each triangle, 0 without any triangles.
+     */
+    public static float acmr(int[] indices, int vertices, int cacheSize) {
+        if (indices.length < 3)
+            return 0;
+
+        // A vertex is cached if fewer vertices than the size of the cache has been added after it.
+        int[] added = new int[vertices];
+        Arrays.fill(added, -cacheSize - 1);
+        int misses = 0;
+
+        for (int index : indices)
+            if (misses - added[index] > cacheSize)
+                added[index] = misses++;
+
+        return (float) misses / (indices.length / 3);
+    }
+
+    /**
+     * Scores a vertex by its position in the cache and its amount of triangles that aren't drawn yet.
+     * @param position The position in the cache, or -1 if it isn't cached.
+     * @param valence The amount of triangles that aren't drawn yet.
+     * @return The score, which is -1 when all its triangles are drawn.
+     */
+    private static float vertexScore(int position, int valence) {
+        if (valence == 0)
+            return -1;
+
+        return (position >= 0 ? CACHE_SCORES[position] : 0)
+                + (valence < MAX_PRECOMPUTED_VALENCE ? VALENCE_SCORES[valence] : valenceScore(valence));
+    }
+
+    /**
+     * @param valence The amount of triangles of a vertex that aren't drawn yet.
+     * @return The boost of the score, which is higher the fewer triangles are left.
+     */
+    private static float valenceScore(int valence) {
+        return VALENCE_BOOST_SCALE * (float) Math.pow(valence, -VALENCE_BOOST_POWER);
+    }
+
+    /**
+     * Changes the indices into new indices of their vertices.
+     * @param indices The indices.
+     * @param remap The new index of each vertex.
+     * @return The changed indices.
+     */
+    private static int[] remapped(int[] indices, int[] remap) {
+        int[] changed = new int[indices.length];
+        for (int i = 0; i < indices.length; i++)
+            changed[i] = remap[indices[i]];
+
+        return changed;
+    }
+
+    /**
+     * Appends the values of a vertex to another store.
+     * @return The index of the vertex in the other store.
+     */
+    private static int copy(VertexStore from, int vertex, VertexStore to) {
+        float[] positions = from.get_positions(), colors = from.get_colors(), uvs = from.get_uvs();
+        int p = vertex * POSITION_SIZE, c = vertex * COLOR_SIZE, t = vertex * UV_SIZE;
+
+        return to.add(positions[p], positions[p + 1], positions[p + 2],
+                colors[c], colors[c + 1], colors[c + 2], colors[c + 3], uvs[t], uvs[t + 1]);
+    }
+
+    /** @return A hash of all values of a vertex. */
+    private static int hash(VertexStore store, int vertex) {
+        int hash = hash(0, store.get_positions(), vertex * POSITION_SIZE, POSITION_SIZE);
+        hash = hash(hash, store.get_colors(), vertex * COLOR_SIZE, COLOR_SIZE);
+        hash = hash(hash, store.get_uvs(), vertex * UV_SIZE, UV_SIZE);
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /** @return The hash combined with the bits of some values. */
+    private static int hash(int hash, float[] values, int from, int amount) {
+        for (int i = from; i < from + amount; i++)
+            hash = (hash ^ bits(values[i])) * 0x9E3779B1;
+
+        return hash;
+    }
+
+    /** @return True if two vertices have exactly the same values. */
+    private static boolean same(VertexStore first, int a, VertexStore second, int b) {
+        return same(first.get_positions(), a * POSITION_SIZE, second.get_positions(), b * POSITION_SIZE, POSITION_SIZE)
+                && same(first.get_colors(), a * COLOR_SIZE, second.get_colors(), b * COLOR_SIZE, COLOR_SIZE)
+                && same(first.get_uvs(), a * UV_SIZE, second.get_uvs(), b * UV_SIZE, UV_SIZE);
+    }
+
+    /** @return True if two ranges of values have the same bits. */
+    private static boolean same(float[] first, int a, float[] second, int b, int amount) {
+        for (int i = 0; i < amount; i++)
+            if (bits(first[a + i]) != bits(second[b + i]))
+                return false;
+
+        return true;
+    }
+
+    /** @return The bits of a value, where both zeros are the same. */
+    private static int bits(float value) {
+        return value == 0 ? 0 : Float.floatToIntBits(value);
+    }
+}
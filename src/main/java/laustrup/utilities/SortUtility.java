@@ -0,0 +1,70 @@
+package laustrup.utilities;
+
+import java.util.Arrays;
+
+/** Sorts of primitive arrays, that doesn't allocate when they are given scratch arrays. */
+public class SortUtility {
+
+    /** The amount of bits sorted by each pass. */
+    private static final int DIGIT_BITS = 8;
+
+    /** The amount of values of a digit. */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /** The amount of passes of a long. */
+    private static final int PASSES = Long.SIZE / DIGIT_BITS;
+
+    /**
+     * Sorts keys as unsigned longs with a least significant digit radix sort, moving the values along with their keys.
+     * Keys that are equal keep their order. Passes of digits that are the same for all keys are skipped,
+     * so keys that only use some of their bits are sorted in fewer passes.
+     * @param keys The keys, the first size of them are sorted.
+     * @param values The values of the keys, such as the indices of what the keys describe.
+     * @param size The amount of keys to sort.
+     * @param keyScratch Room for at least size keys, its content is overwritten.
+     * @param valueScratch Room for at least size values, its content is overwritten.
+     * @param counts Room for 8 times 256 counts, its content is overwritten.
+     */
+    public static void radixSort(long[] keys, int[] values, int size, long[] keyScratch, int[] valueScratch, int[] counts) {
+        Arrays.fill(counts, 0, PASSES * RADIX, 0);
+        for (int i = 0; i < size; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < PASSES; pass++)
+                counts[pass * RADIX + ((int) (key >>> (pass * DIGIT_BITS)) & (RADIX - 1))]++;
+        }
+
+        long[] fromKeys = keys, toKeys = keyScratch;
+        int[] fromValues = values, toValues = valueScratch;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int offset = pass * RADIX, shift = pass * DIGIT_BITS;
+            if (size == 0 || counts[offset + ((int) (fromKeys[0] >>> shift) & (RADIX - 1))] == size)
+                continue;
+
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[offset + digit];
+                counts[offset + digit] = start;
+                start += count;
+            }
+
+            for (int i = 0; i < size; i++) {
+                int destination = counts[offset + ((int) (fromKeys[i] >>> shift) & (RADIX - 1))]++;
+                toKeys[destination] = fromKeys[i];
+                toValues[destination] = fromValues[i];
+            }
+
+            long[] keysSwap = fromKeys;
+            fromKeys = toKeys;
+            toKeys = keysSwap;
+            int[] valuesSwap = fromValues;
+            fromValues = toValues;
+            toValues = valuesSwap;
+        }
+
+        if (fromKeys != keys) {
+            System.arraycopy(fromKeys, 0, keys, 0, size);
+            System.arraycopy(fromValues, 0, values, 0, size);
+        }
+    }
+}
@@ -13,9 +13,35 @@ public class TimeUtility {
 
     private TimeUtility() {}
 
-    public static final float _startOfApplication = System.nanoTime();
+    /** The amount of nanoseconds in a second. */
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
 
-    public static float get_time() {
-        return (float)((System.nanoTime() - _startOfApplication) * 1E-9);
+    /** The nanoseconds of the clock, when the application started, kept as long to not lose precision. */
+    public static final long _startOfApplication = System.nanoTime();
+
+    /**
+     * The time since the application started.
+     * @return The time in nanoseconds.
+     */
+    public static long get_nanos() {
+        return System.nanoTime() - _startOfApplication;
+    }
+
+    /**
+     * The time since the application started.
+     * Is calculated from the nanoseconds as a double, so sub-millisecond precision is kept for long sessions.
+     * @return The time in seconds.
+     */
+    public static double get_time() {
+        return toSeconds(get_nanos());
+    }
+
+    /**
+     * Converts nanoseconds into seconds.
+     * @param nanos The nanoseconds to convert.
+     * @return The seconds.
+     */
+    public static double toSeconds(long nanos) {
+        return nanos * 1E-9;
     }
 }
@@ -1,36 +1,94 @@
 package laustrup.utilities;
 
 import laustrup.models.graphic.Vertex;
-import laustrup.utilities.collections.lists.Liszt;
+import laustrup.models.graphic.VertexLayout;
+import laustrup.models.graphic.VertexStore;
 
-import java.util.function.Supplier;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 
 public class VertexUtility {
 
-    public static float[] vertexIntoGraphicFormat(Liszt<Vertex> vertexes) {
-        float[] data = new float[new Supplier<Integer>() {
-            @Override
-            public Integer get() {
-                int length = 0;
+    /**
+     * Counts the amount of vertices in all the Vertex objects,
+     * since a Vertex can contain the positions of more than one.
+     * @param vertexes The Vertex objects to be counted.
+     * @return The calculated amount.
+     */
+    public static int count(Iterable<Vertex> vertexes) {
+        int count = 0;
 
-                for (Vertex vertex : vertexes)
-                    length += vertex.get_positions().length + vertex.get_colors().length;
+        for (Vertex vertex : vertexes)
+            count += vertex.get_count();
 
-                return length;
-            }
-        }.get()];
+        return count;
+    }
 
-        int dataIndex = 0;
+    /**
+     * Writes the vertexes directly into a buffer in the format of the layout, without any arrays in between.
+     * The buffer needs to have the room for the count of vertexes times the floats of the layout.
+     * @param vertexes The Vertex objects to be written.
+     * @param layout The layout to write after, it must only have float attributes.
+     * @param buffer The buffer that will be written into from its current position.
+     * @return The same buffer.
+     */
+    public static FloatBuffer write(Iterable<Vertex> vertexes, VertexLayout layout, FloatBuffer buffer) {
+        if (!layout.is_floatsOnly())
+            throw new IllegalArgumentException("Only layouts of floats can be written into a FloatBuffer...");
 
         for (Vertex vertex : vertexes) {
-            for (int i = 0; i < vertex.get_positions().length + vertex.get_colors().length; i++) {
-                data[dataIndex] = i < 3
-                        ? vertex.get_positions()[i]
-                        : vertex.get_colors()[i - 3];
-                dataIndex++;
-            }
+            VertexStore store = vertex.get_store();
+
+            for (int i = vertex.get_first(); i < vertex.get_first() + vertex.get_count(); i++)
+                for (VertexLayout.Attribute attribute : layout.get_attributes())
+                    for (int component = 0; component < attribute.get_components(); component++)
+                        buffer.put(value(store, attribute.get_usage(), i, component));
         }
 
-        return data;
+        return buffer;
+    }
+
+    /**
+     * Writes the vertexes directly into a buffer in the format of the layout, without any arrays in between.
+     * Attributes of unsigned bytes will be written as values of 0 to 255.
+     * @param vertexes The Vertex objects to be written.
+     * @param layout The layout to write after.
+     * @param buffer The buffer that will be written into from its current position, in native order.
+     * @return The same buffer.
+     */
+    public static ByteBuffer write(Iterable<Vertex> vertexes, VertexLayout layout, ByteBuffer buffer) {
+        for (Vertex vertex : vertexes) {
+            VertexStore store = vertex.get_store();
+
+            for (int i = vertex.get_first(); i < vertex.get_first() + vertex.get_count(); i++)
+                for (VertexLayout.Attribute attribute : layout.get_attributes())
+                    for (int component = 0; component < attribute.get_components(); component++) {
+                        float value = value(store, attribute.get_usage(), i, component);
+
+                        if (attribute.get_type() == VertexLayout.Type.FLOAT)
+                            buffer.putFloat(value);
+                        else
+                            buffer.put((byte) Math.round(value * 255f));
+                    }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Finds a value of a vertex in a store from the usage of an attribute.
+     * @param store The store of the vertex.
+     * @param usage What kind of value that is wanted.
+     * @param index The index of the vertex in the store.
+     * @param component The index of the value of the kind.
+     * @return The found value.
+     */
+    private static float value(VertexStore store, VertexLayout.Usage usage, int index, int component) {
+        return switch (usage) {
+            case POSITION -> store.position(index, component);
+            case COLOR -> store.color(index, component);
+            case UV -> store.uv(index, component);
+            case TRANSFORM, UV_RECT -> throw new IllegalArgumentException(usage + " is a value of instances, not of vertices...");
+        };
     }
 }
@@ -0,0 +1,99 @@
+package laustrup.models;
+
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.ShaderSource;
+import laustrup.models.graphic.batch.BatchRenderer;
+import laustrup.models.graphic.batch.RenderBatch;
+import laustrup.models.graphic.device.RecordingDevice;
+import laustrup.models.scenes.IScene;
+import laustrup.models.scenes.Scene;
+
+import org.junit.jupiter.api.Test;
+
+import static laustrup.models.graphic.device.RecordingDevice.Command.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowTest {
+
+    /** The amount of quads drawn each frame, which is more than one batch can contain. */
+    private static final int QUADS = BatchRenderer.DEFAULT_BATCH_CAPACITY + 500;
+
+    @Test
+    void runsScenesHeadlessAgainstARecordingDevice() {
+        CountingScene scene = new CountingScene();
+
+        RecordingDevice device = Window.get_instance().runHeadless(scene, 5);
+
+        assertEquals(NULL, Window.get_instance().get_window());
+        assertEquals(1, scene._inits);
+        assertEquals(5, scene._ticks);
+        assertEquals(5, scene._renders);
+        assertEquals(5, device.count(CLEAR));
+        assertEquals(5 * 2, device.get_drawCalls());
+        assertEquals(5L * QUADS * RenderBatch.INDICES_PER_QUAD, device.get_drawnIndices());
+        assertTrue(device.get_uploadedBytes() > 0);
+    }
+
+    @Test
+    void compilesTheShaderOfTheSceneOnTheRecordingDevice() {
+        RecordingDevice device = Window.get_instance().runHeadless(new CountingScene(), 1);
+
+        assertEquals(1, device.count(LINK_PROGRAM));
+        assertEquals(2, device.count(COMPILE_SHADER));
+    }
+
+    @Test
+    void initiatesTheSceneWithoutAnyFrames() {
+        CountingScene scene = new CountingScene();
+
+        RecordingDevice device = Window.get_instance().runHeadless(scene, 0);
+
+        assertEquals(1, scene._inits);
+        assertEquals(0, scene._renders);
+        assertEquals(0, device.get_drawCalls());
+    }
+
+    @Test
+    void keepsTheRenderingOfEachFrameTheSame() {
+        RecordingDevice first = Window.get_instance().runHeadless(new CountingScene(), 3),
+                        second = Window.get_instance().runHeadless(new CountingScene(), 3);
+
+        assertEquals(first.get_drawCalls(), second.get_drawCalls());
+        assertEquals(first.get_drawnIndices(), second.get_drawnIndices());
+        assertEquals(first.get_uploadedBytes(), second.get_uploadedBytes());
+    }
+
+    /** Draws the same quads each frame and counts what the window runs. */
+    private static class CountingScene extends Scene implements IScene {
+
+        /** The shader of the quads, compiled at init. */
+        private Shader _shader;
+
+        /** The amount of times the scene has been initiated, simulated and rendered. */
+        private int _inits, _ticks, _renders;
+
+        @Override
+        public void init() {
+            _shader = new Shader(new ShaderSource("test.glsl", "void main() {}", "void main() {}", 1));
+            _shader.compile();
+            _inits++;
+        }
+
+        @Override
+        public void simulate(float step) {
+            super.simulate(step);
+            _ticks++;
+        }
+
+        @Override
+        public void render(float dt, float alpha) {
+            _renderer.begin();
+            for (int i = 0; i < QUADS; i++)
+                _renderer.submit(new Quad(-0.5f, -0.5f, 0f, 1f, 1f, new float[]{1f, 1f, 1f, 1f}), _shader);
+            _renderer.end();
+            _renders++;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package laustrup.models.assets;
+
+import laustrup.models.graphic.Mesh;
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+import laustrup.models.level.LevelFile;
+import laustrup.models.level.LevelWriter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelLoaderTest {
+
+    /** The file that levels are written to. */
+    private Path _file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        _file = Files.createTempFile("creethor", ".level");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    @Test
+    void readsTheMeshesThatWereWritten() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(0, 0));
+        writer.add(square(5, -2));
+        writer.write(_file);
+
+        LevelFile file = new LevelLoader().decode(_file.toString());
+
+        assertEquals(8, file.get_vertices());
+        assertEquals(12, file.get_indices());
+        assertEquals(2, file.get_meshes());
+        assertEquals(0, file.firstIndex(0));
+        assertEquals(6, file.indexCount(0));
+        assertEquals(6, file.firstIndex(1));
+        assertEquals(6, file.indexCount(1));
+    }
+
+    @Test
+    void offsetsTheIndicesByTheFirstVertexOfTheirMesh() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(0, 0));
+        writer.add(square(5, -2));
+        writer.write(_file);
+
+        ByteBuffer indices = new LevelLoader().decode(_file.toString()).indices();
+
+        int[] expected = {0, 1, 2, 2, 3, 0, 4, 5, 6, 6, 7, 4};
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], indices.getInt(i * Integer.BYTES));
+    }
+
+    @Test
+    void keepsTheVerticesInTheLayoutOfTheMeshes() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(5, -2));
+        writer.write(_file);
+
+        ByteBuffer vertices = new LevelLoader().decode(_file.toString()).vertices();
+
+        assertEquals(4 * Mesh.LAYOUT.get_stride(), vertices.remaining());
+        // The third corner is at the top right, the position is first in the layout.
+        int third = 2 * Mesh.LAYOUT.get_stride();
+        assertEquals(6f, vertices.getFloat(third));
+        assertEquals(-1f, vertices.getFloat(third + Float.BYTES));
+        assertEquals(0f, vertices.getFloat(third + 2 * Float.BYTES));
+    }
+
+    @Test
+    void writesTheBoundsOfEachMesh() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(5, -2));
+        writer.write(_file);
+
+        LevelFile file = new LevelLoader().decode(_file.toString());
+
+        float[] expected = {5, -2, 0, 6, -1, 0};
+        for (int component = 0; component < expected.length; component++)
+            assertEquals(expected[component], file.bound(0, component));
+    }
+
+    @Test
+    void readsALevelWithoutMeshes() throws IOException {
+        new LevelWriter().write(_file);
+
+        LevelFile file = new LevelLoader().decode(_file.toString());
+
+        assertEquals(0, file.get_vertices());
+        assertEquals(0, file.get_meshes());
+    }
+
+    @Test
+    void refusesFilesThatArentLevels() throws IOException {
+        Files.writeString(_file, "Not a level");
+
+        assertThrows(IOException.class, () -> new LevelLoader().decode(_file.toString()));
+    }
+
+    @Test
+    void refusesACorruptAmountOfSections() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(0, 0));
+        writer.write(_file);
+
+        corrupt(16, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> new LevelLoader().decode(_file.toString()));
+        corrupt(16, -1);
+        assertThrows(IOException.class, () -> new LevelLoader().decode(_file.toString()));
+    }
+
+    @Test
+    void refusesACorruptAmountOfVertices() throws IOException {
+        LevelWriter writer = new LevelWriter();
+        writer.add(square(0, 0));
+        writer.write(_file);
+
+        corrupt(20, 1000);
+        assertThrows(IOException.class, () -> new LevelLoader().decode(_file.toString()));
+        corrupt(20, -1);
+        assertThrows(IOException.class, () -> new LevelLoader().decode(_file.toString()));
+    }
+
+    /**
+     * Overwrites an int of the header of the file.
+     * @param offset The offset of the int.
+     * @param value The value to write.
+     */
+    private void corrupt(int offset, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(_file, WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder()).putInt(0, value), offset);
+        }
+    }
+
+    /**
+     * Creates a white square of one unit, with its corners in counterclockwise order.
+     * @param x The left edge.
+     * @param y The bottom edge.
+     * @return The mesh of the square.
+     */
+    private static MeshData square(float x, float y) {
+        VertexStore corners = new VertexStore(4);
+        corners.add(x, y, 0, 1, 1, 1, 1, 0, 0);
+        corners.add(x + 1, y, 0, 1, 1, 1, 1, 1, 0);
+        corners.add(x + 1, y + 1, 0, 1, 1, 1, 1, 1, 1);
+        corners.add(x, y + 1, 0, 1, 1, 1, 1, 0, 1);
+
+        return new MeshData(corners, new int[]{0, 1, 2, 2, 3, 0});
+    }
+}
@@ -0,0 +1,82 @@
+package laustrup.models.ecs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchetypeTest {
+
+    private static final ComponentType POSITION = ComponentType.floats("Position", 2),
+                                       HEALTH = ComponentType.ints("Health", 1),
+                                       VELOCITY = ComponentType.floats("Velocity", 2);
+
+    @Test
+    void ordersItsTypesByTheirIds() {
+        Archetype archetype = new Archetype(new ComponentType[]{VELOCITY, HEALTH, POSITION});
+
+        ComponentType[] types = archetype.get_types();
+        for (int i = 1; i < types.length; i++)
+            assertTrue(types[i - 1].get_id() < types[i].get_id());
+        assertEquals(ComponentType.mask(POSITION, HEALTH, VELOCITY), archetype.get_mask());
+        assertEquals(-1, new Archetype(new ComponentType[]{POSITION}).index(HEALTH));
+    }
+
+    @Test
+    void fillsChunksBeforeAddingAnother() {
+        Archetype archetype = new Archetype(new ComponentType[]{POSITION});
+
+        for (int entity = 0; entity <= Chunk.CAPACITY; entity++)
+            assertEquals(entity, archetype.add(entity));
+
+        assertEquals(Chunk.CAPACITY + 1, archetype.get_size());
+        assertEquals(2, archetype.chunks());
+        assertTrue(archetype.chunk(0).isFull());
+        assertEquals(1, archetype.chunk(1).get_size());
+    }
+
+    @Test
+    void movesTheLastEntityIntoARemovedPlace() {
+        Archetype archetype = new Archetype(new ComponentType[]{POSITION, HEALTH});
+        for (int entity = 0; entity < 3; entity++) {
+            int location = archetype.add(entity);
+            archetype.chunkAt(location).floats(POSITION, 0)[location] = entity * 10f;
+            archetype.chunkAt(location).ints(HEALTH, 0)[location] = entity;
+        }
+
+        assertEquals(2, archetype.remove(0));
+
+        Chunk chunk = archetype.chunk(0);
+        assertEquals(2, archetype.get_size());
+        assertEquals(2, chunk.entity(0));
+        assertEquals(20f, chunk.floats(POSITION, 0)[0]);
+        assertEquals(2, chunk.ints(HEALTH, 0)[0]);
+        assertEquals(1, chunk.entity(1));
+    }
+
+    @Test
+    void movesNothingWhenTheLastEntityIsRemoved() {
+        Archetype archetype = new Archetype(new ComponentType[]{POSITION});
+        archetype.add(7);
+        archetype.add(8);
+
+        assertEquals(-1, archetype.remove(1));
+        assertEquals(1, archetype.get_size());
+        assertEquals(-1, archetype.remove(0));
+        assertEquals(0, archetype.chunks());
+    }
+
+    @Test
+    void swapsAcrossChunks() {
+        Archetype archetype = new Archetype(new ComponentType[]{POSITION});
+        for (int entity = 0; entity <= Chunk.CAPACITY; entity++) {
+            int location = archetype.add(entity);
+            archetype.chunkAt(location).floats(POSITION, 1)[location % Chunk.CAPACITY] = entity;
+        }
+
+        assertEquals(Chunk.CAPACITY, archetype.remove(5));
+
+        assertEquals(1, archetype.chunks());
+        assertEquals(Chunk.CAPACITY, archetype.chunk(0).entity(5));
+        assertEquals((float) Chunk.CAPACITY, archetype.chunk(0).floats(POSITION, 1)[5]);
+    }
+}
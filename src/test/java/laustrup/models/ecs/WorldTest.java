@@ -0,0 +1,110 @@
+package laustrup.models.ecs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldTest {
+
+    private static final ComponentType POSITION = ComponentType.floats("Position", 2),
+                                       HEALTH = ComponentType.ints("Health", 1),
+                                       VELOCITY = ComponentType.floats("Velocity", 2);
+
+    @Test
+    void internsTypesByTheirNames() {
+        ComponentType position = ComponentType.floats("Position", 2);
+
+        assertSame(POSITION, position);
+        assertEquals(POSITION.get_id(), position.get_id());
+        assertNotEquals(POSITION.get_id(), VELOCITY.get_id());
+        assertThrows(IllegalArgumentException.class, () -> ComponentType.ints("Position", 2));
+        assertThrows(IllegalArgumentException.class, () -> ComponentType.floats("Position", 3));
+    }
+
+    @Test
+    void createsEntitiesWithComponentsOfZeroValues() {
+        World world = new World();
+
+        int entity = world.create(POSITION, HEALTH);
+
+        assertTrue(world.isAlive(entity));
+        assertTrue(world.has(entity, POSITION));
+        assertFalse(world.has(entity, VELOCITY));
+        assertEquals(0f, world.getFloat(entity, POSITION, 1));
+        assertEquals(0, world.getInt(entity, HEALTH, 0));
+        assertEquals(1, world.get_size());
+        assertEquals(1, world.archetypes());
+    }
+
+    @Test
+    void keepsTheValuesWhenComponentsAreAddedAndRemoved() {
+        World world = new World();
+        int entity = world.create(POSITION);
+        world.setFloat(entity, POSITION, 0, 3f);
+        world.setFloat(entity, POSITION, 1, 4f);
+
+        world.add(entity, HEALTH);
+        world.setInt(entity, HEALTH, 0, 100);
+        world.add(entity, HEALTH);
+
+        assertEquals(3f, world.getFloat(entity, POSITION, 0));
+        assertEquals(100, world.getInt(entity, HEALTH, 0));
+        assertEquals(2, world.archetypes());
+
+        world.remove(entity, POSITION);
+        world.remove(entity, POSITION);
+
+        assertFalse(world.has(entity, POSITION));
+        assertEquals(100, world.getInt(entity, HEALTH, 0));
+        assertEquals(3, world.archetypes());
+    }
+
+    @Test
+    void keepsTheEntitySwappedIntoTheRemovedPlace() {
+        World world = new World();
+        int first = world.create(POSITION), second = world.create(POSITION), third = world.create(POSITION);
+        world.setFloat(second, POSITION, 0, 2f);
+        world.setFloat(third, POSITION, 0, 3f);
+
+        world.destroy(first);
+        world.add(second, VELOCITY);
+
+        assertFalse(world.isAlive(first));
+        assertEquals(2f, world.getFloat(second, POSITION, 0));
+        assertEquals(3f, world.getFloat(third, POSITION, 0));
+        assertEquals(2, world.get_size());
+        assertEquals(1, world.archetype(0).get_size());
+    }
+
+    @Test
+    void keepsValuesOfEntitiesInManyChunks() {
+        World world = new World();
+        int amount = Chunk.CAPACITY * 2 + 10;
+        for (int i = 0; i < amount; i++)
+            world.setFloat(world.create(POSITION, VELOCITY), VELOCITY, 1, i);
+
+        for (int i = 0; i < amount; i += 3)
+            world.remove(i, VELOCITY);
+
+        for (int i = 0; i < amount; i++)
+            if (i % 3 == 0) {
+                assertFalse(world.has(i, VELOCITY));
+                assertTrue(world.has(i, POSITION));
+            }
+            else
+                assertEquals(i, world.getFloat(i, VELOCITY, 1));
+    }
+
+    @Test
+    void givesTheIdsOfDestroyedEntitiesAgain() {
+        World world = new World();
+        int entity = world.create(POSITION);
+        world.create(POSITION);
+
+        world.destroy(entity);
+
+        assertEquals(entity, world.create(HEALTH));
+        assertTrue(world.has(entity, HEALTH));
+        assertFalse(world.has(entity, POSITION));
+    }
+}
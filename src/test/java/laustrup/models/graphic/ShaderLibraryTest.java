@@ -0,0 +1,76 @@
+package laustrup.models.graphic;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShaderLibraryTest {
+
+    /** A shader of both stages. */
+    private static final String SHADER = "#type vertex\n#version 330 core\nvoid main() {}\n"
+            + "#type fragment\n#version 330 core\nvoid main() {}\n";
+
+    private final ShaderLibrary _library = ShaderLibrary.get_instance();
+
+    /** The directory of the shader files. */
+    private Path _directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        _directory = Files.createTempDirectory("creethor");
+        _library.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        _library.clear();
+        try (var files = Files.list(_directory)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(_directory);
+    }
+
+    @Test
+    void sharesTheSourcesOfFilesWithTheSameText() throws IOException {
+        ShaderSource first = _library.load(write("first.glsl", SHADER)),
+                     second = _library.load(write("second.glsl", SHADER));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void keepsSourcesOfOtherTextsOrDefinesApart() throws IOException {
+        String path = write("first.glsl", SHADER);
+
+        ShaderSource plain = _library.load(path),
+                     defined = _library.load(path, "MAX_LIGHTS 4"),
+                     other = _library.load(write("second.glsl", SHADER.replace("{}", "{ }")));
+
+        assertNotSame(plain, defined);
+        assertNotSame(plain, other);
+        assertTrue(defined.get_vertex().contains("#define MAX_LIGHTS 4"));
+        assertNotEquals(plain.get_vertex(), other.get_vertex());
+    }
+
+    @Test
+    void reusesTheSourcesOfTheSamePathAndDefines() throws IOException {
+        String path = write("first.glsl", SHADER);
+        ShaderSource loaded = _library.load(path, "MAX_LIGHTS 4");
+        long reads = _library.get_reads();
+
+        assertSame(loaded, _library.load(path, "MAX_LIGHTS 4"));
+        assertEquals(reads, _library.get_reads());
+    }
+
+    /** @return The path of a written shader file. */
+    private String write(String name, String text) throws IOException {
+        return Files.writeString(_directory.resolve(name), text).toString();
+    }
+}
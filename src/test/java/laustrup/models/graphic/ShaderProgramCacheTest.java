@@ -0,0 +1,148 @@
+package laustrup.models.graphic;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.device.RecordingDevice;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static laustrup.models.graphic.device.RecordingDevice.Command.DELETE_PROGRAM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShaderProgramCacheTest {
+
+    /** The sources of the shared programs. */
+    private static final ShaderSource SOURCE = new ShaderSource("test.glsl", "void main() {}", "void main() {}", 1),
+                                      OTHER = new ShaderSource("other.glsl", "void main() {}", "void main() {}", 2);
+
+    private final ShaderProgramCache _cache = ShaderProgramCache.get_instance();
+
+    /** Counts the programs, without any graphics card. */
+    private FakeCompiler _compiler;
+
+    /** The device that the programs are used and deleted with. */
+    private RecordingDevice _device;
+
+    @BeforeEach
+    void setUp() {
+        _device = new RecordingDevice();
+        Window.get_instance().set_device(_device);
+        _compiler = new FakeCompiler();
+        _cache.set_compiler(_compiler);
+        _cache.set_directory(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        _cache.set_compiler(null);
+    }
+
+    @Test
+    void sharesTheProgramOfTheSameSources() {
+        long hits = _cache.get_hits();
+
+        Shader first = _cache.acquire(SOURCE), second = _cache.acquire(SOURCE);
+
+        assertSame(first, second);
+        assertEquals(1, _compiler._compiles);
+        assertEquals(hits + 1, _cache.get_hits());
+        assertEquals(2, _cache.references(first));
+    }
+
+    @Test
+    void compilesDifferentSourcesApart() {
+        Shader first = _cache.acquire(SOURCE), second = _cache.acquire(OTHER);
+
+        assertNotSame(first, second);
+        assertNotEquals(first.get_id(), second.get_id());
+        assertEquals(2, _compiler._compiles);
+    }
+
+    @Test
+    void deletesTheProgramWhenTheLastReferenceIsReleased() {
+        Shader shader = _cache.acquire(SOURCE);
+        _cache.acquire(SOURCE);
+
+        _cache.release(shader);
+        assertEquals(1, _cache.references(shader));
+        assertEquals(0, _device.count(DELETE_PROGRAM));
+
+        _cache.release(shader);
+        assertEquals(0, _cache.references(shader));
+        assertEquals(1, _device.count(DELETE_PROGRAM));
+
+        // Releasing again doesn't delete anything twice.
+        _cache.release(shader);
+        assertEquals(1, _device.count(DELETE_PROGRAM));
+    }
+
+    @Test
+    void compilesAgainAfterTheProgramIsReleased() {
+        Shader released = _cache.acquire(SOURCE);
+        _cache.release(released);
+
+        Shader acquired = _cache.acquire(SOURCE);
+
+        assertNotSame(released, acquired);
+        assertEquals(2, _compiler._compiles);
+    }
+
+    @Test
+    void compilesAgainOnAnotherDevice() {
+        Shader first = _cache.acquire(SOURCE);
+        RecordingDevice device = new RecordingDevice();
+        Window.get_instance().set_device(device);
+
+        Shader second = _cache.acquire(SOURCE);
+
+        assertNotSame(first, second);
+        assertSame(Window.get_instance().get_device(), second.get_device());
+        assertEquals(2, _compiler._compiles);
+
+        // Each program is deleted on the device it was linked on.
+        _cache.release(first);
+        assertEquals(1, _device.count(DELETE_PROGRAM));
+        assertEquals(0, device.count(DELETE_PROGRAM));
+    }
+
+    @Test
+    void forgetsTheProgramsOfAReplacedCompiler() {
+        _cache.acquire(SOURCE);
+        FakeCompiler compiler = new FakeCompiler();
+
+        _cache.set_compiler(compiler);
+        _cache.acquire(SOURCE);
+
+        assertEquals(1, compiler._compiles);
+    }
+
+    /** Gives each compiled program a new id, and doesn't support binaries. */
+    private static class FakeCompiler implements ShaderCompiler {
+
+        /** The amount of compiled programs. */
+        private int _compiles;
+
+        @Override
+        public int compile(ShaderSource source, boolean retrievable) {
+            return ++_compiles;
+        }
+
+        @Override
+        public ByteBuffer binary(int program, int[] format) {
+            return null;
+        }
+
+        @Override
+        public int load(int format, ByteBuffer binary) {
+            return 0;
+        }
+
+        @Override
+        public String driver() {
+            return FakeCompiler.class.getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package laustrup.models.graphic;
+
+import org.junit.jupiter.api.Test;
+
+import static laustrup.models.graphic.VertexLayout.Attribute;
+import static laustrup.models.graphic.VertexLayout.Type;
+import static laustrup.models.graphic.VertexLayout.Usage;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexLayoutTest {
+
+    @Test
+    void calculatesTheOffsetsAndStride() {
+        VertexLayout layout = VertexLayout.INSTANCE;
+
+        assertEquals(0, layout.offset(0));
+        assertEquals(16, layout.offset(1));
+        assertEquals(48, layout.offset(3));
+        assertEquals(52, layout.offset(4));
+        assertEquals(68, layout.get_stride());
+        assertFalse(layout.is_floatsOnly());
+    }
+
+    @Test
+    void sharesAttributesBetweenLayouts() {
+        Attribute color = new Attribute(Usage.COLOR, 4, Type.FLOAT);
+
+        VertexLayout first = new VertexLayout(color),
+                     second = new VertexLayout(new Attribute(Usage.POSITION, 3, Type.FLOAT), color);
+
+        assertEquals(0, first.offset(0));
+        assertEquals(12, second.offset(1));
+        assertEquals(16, first.get_stride());
+        assertEquals(28, second.get_stride());
+    }
+}
@@ -0,0 +1,50 @@
+package laustrup.models.graphic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexTest {
+
+    @Test
+    void appendGivesThePositionsAndColors() {
+        Vertex vertex = new Vertex(new float[]{0, 0, 0}, new float[]{1, 0, 0, 1});
+
+        float[][] values = vertex.append(new float[]{1, 2, 3}, new float[]{0, 1, 0, 1});
+
+        assertArrayEquals(new float[]{0, 0, 0, 1, 2, 3}, values[0]);
+        assertArrayEquals(new float[]{1, 0, 0, 1, 0, 1, 0, 1}, values[1]);
+        assertEquals(2, vertex.get_count());
+    }
+
+    @Test
+    void extendAppendsIntoTheStore() {
+        VertexStore store = new VertexStore();
+        Vertex vertex = new Vertex(store, new float[]{0, 0, 0}, new float[]{1, 1, 1, 1});
+
+        assertSame(vertex, vertex.extend(new float[]{1, 1, 1, 2, 2, 2}, new float[]{1, 1, 1, 1, 1, 1, 1, 1}));
+
+        assertEquals(3, vertex.get_count());
+        assertEquals(3, store.get_size());
+        assertEquals(2f, store.position(2, 1));
+    }
+
+    @Test
+    void givesCopiesOfTheValuesOfTheStore() {
+        VertexStore store = new VertexStore();
+        Vertex vertex = new Vertex(store, new float[]{0, 0, 0}, new float[]{1, 1, 1, 1});
+
+        vertex.get_positions()[0] = 5;
+
+        assertEquals(0f, store.position(0, 0));
+    }
+
+    @Test
+    void refusesAppendingToAVertexBeforeTheEndOfItsStore() {
+        VertexStore store = new VertexStore();
+        Vertex first = new Vertex(store, new float[]{0, 0, 0}, new float[]{1, 1, 1, 1});
+        new Vertex(store, new float[]{1, 1, 1}, new float[]{1, 1, 1, 1});
+
+        assertThrows(IllegalStateException.class, () -> first.append(new float[]{2, 2, 2}, new float[]{1, 1, 1, 1}));
+    }
+}
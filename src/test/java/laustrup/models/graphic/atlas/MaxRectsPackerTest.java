@@ -0,0 +1,98 @@
+package laustrup.models.graphic.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaxRectsPackerTest {
+
+    @Test
+    void placesTheFirstRectangleInTheCorner() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        int[] position = new int[2];
+
+        assertTrue(packer.insert(10, 20, position));
+        assertArrayEquals(new int[]{0, 0}, position);
+        assertEquals(1, packer.get_rectangles());
+        assertEquals(200, packer.get_usedArea());
+        assertEquals(10, packer.get_usedWidth());
+        assertEquals(20, packer.get_usedHeight());
+    }
+
+    @Test
+    void keepsRectanglesInsideTheAreaWithoutOverlaps() {
+        MaxRectsPacker packer = new MaxRectsPacker(256, 256);
+        Random random = new Random(42);
+        List<int[]> placed = new ArrayList<>();
+        int[] position = new int[2];
+
+        for (int i = 0; i < 200; i++) {
+            int width = 1 + random.nextInt(40), height = 1 + random.nextInt(40);
+            if (packer.insert(width, height, position))
+                placed.add(new int[]{position[0], position[1], width, height});
+        }
+
+        assertFalse(placed.isEmpty());
+        assertEquals(placed.size(), packer.get_rectangles());
+        for (int[] rectangle : placed) {
+            assertTrue(rectangle[0] >= 0 && rectangle[1] >= 0);
+            assertTrue(rectangle[0] + rectangle[2] <= 256 && rectangle[1] + rectangle[3] <= 256);
+            assertTrue(rectangle[0] + rectangle[2] <= packer.get_usedWidth());
+            assertTrue(rectangle[1] + rectangle[3] <= packer.get_usedHeight());
+        }
+        for (int i = 0; i < placed.size(); i++)
+            for (int j = i + 1; j < placed.size(); j++)
+                assertFalse(overlaps(placed.get(i), placed.get(j)), "Rectangle " + i + " overlaps rectangle " + j);
+    }
+
+    @Test
+    void fillsTheAreaExactly() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        int[] position = new int[2];
+
+        for (int i = 0; i < 16; i++)
+            assertTrue(packer.insert(16, 16, position));
+
+        assertEquals(1f, packer.occupancy());
+        assertFalse(packer.insert(1, 1, position));
+    }
+
+    @Test
+    void returnsFalseWhenThereIsNoRoom() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        int[] position = {-1, -1};
+
+        assertFalse(packer.insert(65, 1, position));
+        assertFalse(packer.insert(1, 65, position));
+        assertArrayEquals(new int[]{-1, -1}, position);
+
+        assertTrue(packer.insert(64, 40, position));
+        assertFalse(packer.insert(64, 25, position));
+        assertTrue(packer.insert(64, 24, position));
+        assertEquals(2, packer.get_rectangles());
+    }
+
+    @Test
+    void resetFreesTheWholeArea() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        int[] position = new int[2];
+        packer.insert(64, 64, position);
+
+        packer.reset();
+
+        assertEquals(0, packer.get_rectangles());
+        assertEquals(0f, packer.occupancy());
+        assertTrue(packer.insert(64, 64, position));
+        assertArrayEquals(new int[]{0, 0}, position);
+    }
+
+    /** @return True if the rectangles of x, y, width and height overlaps. */
+    private static boolean overlaps(int[] a, int[] b) {
+        return a[0] < b[0] + b[2] && b[0] < a[0] + a[2]
+            && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+    }
+}
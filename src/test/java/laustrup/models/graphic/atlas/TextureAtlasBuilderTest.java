@@ -0,0 +1,207 @@
+package laustrup.models.graphic.atlas;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextureAtlasBuilderTest {
+
+    /** The file that atlases are saved in. */
+    private Path _cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        _cache = Files.createTempFile("creethor", ".atlas");
+        Files.delete(_cache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(_cache);
+    }
+
+    @Test
+    void packsEverySpriteInsideItsPageWithoutOverlaps() throws IOException {
+        TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.set_pageSize(64);
+        for (int i = 0; i < 12; i++)
+            builder.add("sprite" + i, 8 + i, 20 - i, sprite(8 + i, 20 - i, i));
+
+        TextureAtlas atlas = builder.build();
+
+        List<AtlasRegion> regions = new ArrayList<>(atlas.regions());
+        assertEquals(12, regions.size());
+        for (AtlasRegion region : regions) {
+            AtlasPage page = atlas.get_pages()[region.get_page()];
+            // The padding is inside the page as well.
+            assertTrue(region.get_x() >= builder.get_padding() && region.get_y() >= builder.get_padding());
+            assertTrue(region.get_x() + region.get_width() + builder.get_padding() <= page.get_width());
+            assertTrue(region.get_y() + region.get_height() + builder.get_padding() <= page.get_height());
+        }
+        for (int i = 0; i < regions.size(); i++)
+            for (int j = i + 1; j < regions.size(); j++)
+                assertFalse(overlaps(regions.get(i), regions.get(j), builder.get_padding()),
+                        regions.get(i) + " overlaps " + regions.get(j));
+    }
+
+    @Test
+    void copiesThePixelsAndBleedsTheEdges() throws IOException {
+        TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.add("sprite", 4, 4, sprite(4, 4, 7));
+
+        TextureAtlas atlas = builder.build();
+
+        AtlasRegion region = atlas.region("sprite");
+        AtlasPage page = atlas.get_pages()[0];
+        assertEquals(8, page.get_width());
+        assertEquals(pixel(0, 0, 7), pixel(page, region.get_x(), region.get_y()));
+        assertEquals(pixel(3, 2, 7), pixel(page, region.get_x() + 3, region.get_y() + 2));
+        // The padding is the nearest edge pixel, both beside and below the corner.
+        assertEquals(pixel(0, 0, 7), pixel(page, 0, 0));
+        assertEquals(pixel(3, 3, 7), pixel(page, 7, 7));
+        assertEquals(0.25f, region.get_u0());
+        assertEquals(0.75f, region.get_u1());
+    }
+
+    @Test
+    void opensAnotherPageWhenOneIsFull() throws IOException {
+        TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.set_pageSize(32);
+        builder.set_padding(0);
+        for (int i = 0; i < 5; i++)
+            builder.add("sprite" + i, 16, 16, sprite(16, 16, i));
+
+        TextureAtlas atlas = builder.build();
+
+        assertEquals(2, atlas.get_pages().length);
+        assertEquals(1, atlas.regions().stream().filter(region -> region.get_page() == 1).count());
+    }
+
+    @Test
+    void refusesSpritesLargerThanAPage() {
+        TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.set_pageSize(16);
+        builder.add("sprite", 14, 14, sprite(14, 14, 0));
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    void loadsTheSavedAtlasOfTheSameSprites() throws IOException {
+        TextureAtlas packed = builder().build(_cache);
+        assertTrue(Files.exists(_cache));
+
+        TextureAtlas loaded = TextureAtlas.load(_cache, builder().key());
+
+        assertNotNull(loaded);
+        assertEquals(packed.get_pages().length, loaded.get_pages().length);
+        for (AtlasRegion region : packed.regions()) {
+            AtlasRegion other = loaded.region(region.get_name());
+            assertEquals(region.get_page(), other.get_page());
+            assertEquals(region.get_x(), other.get_x());
+            assertEquals(region.get_y(), other.get_y());
+            assertEquals(region.get_width(), other.get_width());
+            assertEquals(region.get_height(), other.get_height());
+        }
+        for (int i = 0; i < packed.get_pages().length; i++)
+            assertEquals(packed.get_pages()[i].get_pixels().rewind(), loaded.get_pages()[i].get_pixels().rewind());
+    }
+
+    @Test
+    void ignoresTheSavedAtlasOfOtherSprites() throws IOException {
+        builder().build(_cache);
+
+        TextureAtlasBuilder builder = builder().add("other", 2, 2, sprite(2, 2, 9));
+
+        assertNull(TextureAtlas.load(_cache, builder.key()));
+        assertNotNull(builder.build(_cache).region("other"));
+        assertNotNull(TextureAtlas.load(_cache, builder.key()));
+    }
+
+    @Test
+    void treatsACorruptFileAsMissing() throws IOException {
+        long key = builder().key();
+
+        assertNull(TextureAtlas.load(_cache, key));
+        assertNull(corrupt(key, Integer.MAX_VALUE, 0, 0));
+        assertNull(corrupt(key, -1, 0, 0));
+        assertNull(corrupt(key, 1, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertNull(corrupt(key, 1, 65536, 65536));
+        assertNull(corrupt(key, 1, -4, 4));
+
+        builder().build(_cache);
+        byte[] bytes = Files.readAllBytes(_cache);
+        Files.write(_cache, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(TextureAtlas.load(_cache, key));
+    }
+
+    /**
+     * Writes the start of an atlas file with corrupt sizes and loads it.
+     * @return The loaded atlas.
+     */
+    private TextureAtlas corrupt(long key, int pages, int width, int height) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(_cache))) {
+            output.writeInt(0x43544158);
+            output.writeInt(1);
+            output.writeLong(key);
+            output.writeInt(pages);
+            output.writeInt(width);
+            output.writeInt(height);
+        }
+
+        return TextureAtlas.load(_cache, key);
+    }
+
+    /** @return A builder of a few sprites. */
+    private static TextureAtlasBuilder builder() {
+        return new TextureAtlasBuilder()
+                .add("first", 10, 6, sprite(10, 6, 1))
+                .add("second", 3, 12, sprite(3, 12, 2))
+                .add("third", 5, 5, sprite(5, 5, 3));
+    }
+
+    /** @return True if the regions including their padding overlaps. */
+    private static boolean overlaps(AtlasRegion a, AtlasRegion b, int padding) {
+        return a.get_page() == b.get_page()
+            && a.get_x() - padding < b.get_x() + b.get_width() + padding
+            && b.get_x() - padding < a.get_x() + a.get_width() + padding
+            && a.get_y() - padding < b.get_y() + b.get_height() + padding
+            && b.get_y() - padding < a.get_y() + a.get_height() + padding;
+    }
+
+    /**
+     * Creates the pixels of a sprite, where each pixel is unique to its place and the seed.
+     * @return The direct rgba pixels.
+     */
+    private static ByteBuffer sprite(int width, int height, int seed) {
+        ByteBuffer pixels = BufferUtils.createByteBuffer(width * height * 4);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                pixels.putInt(pixel(x, y, seed));
+
+        return pixels.flip();
+    }
+
+    /** @return The pixel of a sprite at a place. */
+    private static int pixel(int x, int y, int seed) {
+        return x | y << 8 | seed << 16 | 0xFF << 24;
+    }
+
+    /** @return The pixel of a page at a place. */
+    private static int pixel(AtlasPage page, int x, int y) {
+        return page.get_pixels().getInt((y * page.get_width() + x) * 4);
+    }
+}
@@ -0,0 +1,127 @@
+package laustrup.models.graphic.batch;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Quad;
+import laustrup.models.graphic.Shader;
+import laustrup.models.graphic.ShaderSource;
+import laustrup.models.graphic.device.RecordingDevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static laustrup.models.graphic.device.RecordingDevice.Command.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRendererTest {
+
+    /** The amount of quads of each batch, which is small so a few quads fill a batch. */
+    private static final int CAPACITY = 10;
+
+    /** Records the draw calls of the renderer. */
+    private RecordingDevice _device;
+
+    /** The shaders that the quads are drawn with. */
+    private Shader _first, _second;
+
+    @BeforeEach
+    void setUp() {
+        _device = new RecordingDevice();
+        Window.get_instance().set_device(_device);
+        _first = shader(1);
+        _second = shader(2);
+        _device.reset();
+    }
+
+    @Test
+    void drawsQuadsOfOneShaderInOneDrawCall() {
+        BatchRenderer renderer = new BatchRenderer(CAPACITY);
+
+        draw(renderer, _first, CAPACITY);
+
+        assertEquals(1, renderer.get_batchesPerFrame());
+        assertEquals(CAPACITY, renderer.get_quadsPerFrame());
+        assertEquals(1, _device.get_drawCalls());
+        assertEquals(CAPACITY * RenderBatch.INDICES_PER_QUAD, _device.get_drawnIndices());
+    }
+
+    @Test
+    void splitsBatchesWhenTheyAreFull() {
+        BatchRenderer renderer = new BatchRenderer(CAPACITY);
+
+        draw(renderer, _first, CAPACITY * 2 + 5);
+
+        assertEquals(3, renderer.get_batchesPerFrame());
+        assertEquals(CAPACITY * 2 + 5, renderer.get_quadsPerFrame());
+        assertEquals(3, _device.get_drawCalls());
+        assertEquals((CAPACITY * 2 + 5) * RenderBatch.INDICES_PER_QUAD, _device.get_drawnIndices());
+    }
+
+    @Test
+    void splitsBatchesWhenTheShaderChanges() {
+        BatchRenderer renderer = new BatchRenderer(CAPACITY);
+
+        renderer.begin();
+        for (Shader shader : new Shader[]{_first, _first, _second, _second, _first})
+            renderer.submit(quad(), shader);
+        renderer.end();
+
+        assertEquals(3, renderer.get_batchesPerFrame());
+        assertEquals(5, renderer.get_quadsPerFrame());
+        assertEquals(3, _device.get_drawCalls());
+    }
+
+    @Test
+    void drawsNothingWithoutQuads() {
+        BatchRenderer renderer = new BatchRenderer(CAPACITY);
+
+        draw(renderer, _first, 0);
+
+        assertEquals(0, renderer.get_batchesPerFrame());
+        assertEquals(0, renderer.get_quadsPerFrame());
+        assertEquals(0, _device.get_drawCalls());
+    }
+
+    @Test
+    void reusesTheBatchesOfEarlierFrames() {
+        BatchRenderer renderer = new BatchRenderer(CAPACITY);
+        draw(renderer, _first, CAPACITY * 3);
+        _device.reset();
+
+        draw(renderer, _first, CAPACITY * 3);
+
+        assertEquals(3, renderer.get_batchesPerFrame());
+        assertEquals(3, _device.get_drawCalls());
+        assertEquals(0, _device.count(GEN_BUFFER));
+        assertEquals(0, _device.count(GEN_VERTEX_ARRAY));
+    }
+
+    /**
+     * Draws a frame of quads with one shader.
+     * @param renderer The renderer to draw with.
+     * @param shader The shader of every quad.
+     * @param quads The amount of quads.
+     */
+    private static void draw(BatchRenderer renderer, Shader shader, int quads) {
+        renderer.begin();
+        for (int i = 0; i < quads; i++)
+            renderer.submit(quad(), shader);
+        renderer.end();
+    }
+
+    /** @return A white quad in clip space. */
+    private static Quad quad() {
+        return new Quad(-0.5f, -0.5f, 0f, 1f, 1f, new float[]{1f, 1f, 1f, 1f});
+    }
+
+    /**
+     * Compiles a shader on the recording device, where any source links.
+     * @param hash The hash of the sources, which tells the shaders apart.
+     * @return The compiled shader.
+     */
+    private static Shader shader(long hash) {
+        Shader shader = new Shader(new ShaderSource("test.glsl", "void main() {}", "void main() {}", hash));
+        shader.compile();
+
+        return shader;
+    }
+}
@@ -0,0 +1,176 @@
+package laustrup.models.graphic.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingAllocatorTest {
+
+    @Test
+    void allocatesRegionsAfterEachOther() {
+        RingAllocator ring = new RingAllocator(100);
+
+        assertEquals(0, ring.allocate(10, 1));
+        assertEquals(10, ring.allocate(20, 1));
+        assertEquals(30, ring.get_head());
+        assertEquals(30, ring.get_used());
+        assertEquals(30, ring.get_frameBytes());
+    }
+
+    @Test
+    void alignsOffsetsAndCountsThePadding() {
+        RingAllocator ring = new RingAllocator(100);
+
+        assertEquals(0, ring.allocate(3, 1));
+        assertEquals(4, ring.allocate(8, 4));
+        assertEquals(12, ring.get_head());
+        // The byte skipped to align the second region is used as well.
+        assertEquals(12, ring.get_used());
+        assertEquals(16, ring.allocate(1, 16));
+        assertEquals(17, ring.get_used());
+    }
+
+    @Test
+    void wrapsToTheStartAndWastesTheTail() {
+        RingAllocator ring = new RingAllocator(100);
+        ring.allocate(60, 1);
+        ring.endFrame(1);
+        assertEquals(60, ring.allocate(30, 1));
+        ring.endFrame(2);
+        ring.retireOldest();
+
+        // Only 10 bytes are left at the end, so the region starts over and the 10 bytes are wasted.
+        assertEquals(0, ring.allocate(20, 1));
+        assertEquals(20, ring.get_head());
+        assertEquals(60, ring.get_used());
+        assertEquals(30, ring.get_frameBytes());
+
+        ring.endFrame(3);
+        ring.retireOldest();
+        assertEquals(30, ring.get_used());
+        ring.retireOldest();
+        assertEquals(0, ring.get_used());
+    }
+
+    @Test
+    void wrapsWhenTheAlignedOffsetDoesNotFit() {
+        RingAllocator ring = new RingAllocator(100);
+        ring.allocate(90, 1);
+        ring.endFrame(1);
+        ring.allocate(5, 1);
+        ring.endFrame(2);
+        ring.retireOldest();
+
+        // The head is at 95, the aligned offset of 96 would end after the ring.
+        assertEquals(0, ring.allocate(8, 8));
+        assertEquals(5 + 13, ring.get_used());
+    }
+
+    @Test
+    void returnsMinusOneWhenTheRegionOverlapsAFrameInFlight() {
+        RingAllocator ring = new RingAllocator(100);
+        ring.allocate(60, 1);
+        ring.endFrame(1);
+
+        assertEquals(-1, ring.allocate(50, 1));
+        assertEquals(60, ring.get_head());
+        assertEquals(60, ring.get_used());
+        assertEquals(0, ring.get_frameBytes());
+
+        // What fits before the end is still allocated.
+        assertEquals(60, ring.allocate(40, 1));
+        assertEquals(-1, ring.allocate(1, 1));
+    }
+
+    @Test
+    void returnsMinusOneWhenTheRegionOverlapsTheCurrentFrame() {
+        RingAllocator ring = new RingAllocator(100);
+
+        assertEquals(0, ring.allocate(100, 1));
+        assertEquals(-1, ring.allocate(1, 1));
+        assertEquals(-1, new RingAllocator(100).allocate(101, 1));
+    }
+
+    @Test
+    void retiresFramesInTheOrderTheyEnded() {
+        RingAllocator ring = new RingAllocator(100);
+        for (int frame = 1; frame <= 3; frame++) {
+            ring.allocate(frame * 10, 1);
+            ring.endFrame(frame);
+        }
+        assertEquals(3, ring.get_inFlight());
+        assertEquals(60, ring.get_used());
+
+        assertEquals(1, ring.oldestFence());
+        assertEquals(1, ring.retireOldest());
+        assertEquals(50, ring.get_used());
+        assertEquals(2, ring.retireOldest());
+        assertEquals(30, ring.get_used());
+        assertEquals(3, ring.retireOldest());
+        assertEquals(0, ring.get_used());
+        assertEquals(0, ring.get_inFlight());
+    }
+
+    @Test
+    void growsTheQueueOfFramesInFlight() {
+        RingAllocator ring = new RingAllocator(1000);
+        // Moves the oldest frame away from the first index, so the queue wraps before it grows.
+        for (int frame = 1; frame <= 3; frame++) {
+            ring.allocate(1, 1);
+            ring.endFrame(frame);
+        }
+        ring.retireOldest();
+        ring.retireOldest();
+
+        for (int frame = 4; frame <= 20; frame++) {
+            ring.allocate(frame, 1);
+            ring.endFrame(frame);
+        }
+        assertEquals(18, ring.get_inFlight());
+
+        long used = ring.get_used();
+        for (int frame = 3; frame <= 20; frame++) {
+            assertEquals(frame, ring.retireOldest());
+            used -= frame == 3 ? 1 : frame;
+            assertEquals(used, ring.get_used());
+        }
+        assertEquals(0, ring.get_used());
+    }
+
+    @Test
+    void startsOverWhenNothingIsInUse() {
+        RingAllocator ring = new RingAllocator(100);
+        ring.allocate(70, 1);
+        ring.endFrame(1);
+        ring.retireOldest();
+
+        // The region wouldn't fit after the head, but nothing is in use, so it isn't wasting the tail.
+        assertEquals(0, ring.allocate(50, 1));
+        assertEquals(50, ring.get_used());
+    }
+
+    @Test
+    void resetForgetsTheFramesInFlight() {
+        RingAllocator ring = new RingAllocator(100);
+        ring.allocate(50, 1);
+        ring.endFrame(1);
+        ring.allocate(20, 1);
+
+        ring.reset();
+        assertEquals(0, ring.get_used());
+        assertEquals(0, ring.get_inFlight());
+        assertEquals(0, ring.get_frameBytes());
+        assertThrows(IllegalStateException.class, ring::oldestFence);
+        assertEquals(0, ring.allocate(100, 1));
+    }
+
+    @Test
+    void rejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> new RingAllocator(0));
+
+        RingAllocator ring = new RingAllocator(100);
+        assertThrows(IllegalArgumentException.class, () -> ring.allocate(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ring.allocate(1, 0));
+        assertThrows(IllegalStateException.class, ring::retireOldest);
+    }
+}
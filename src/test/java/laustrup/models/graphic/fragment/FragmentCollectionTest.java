@@ -0,0 +1,67 @@
+package laustrup.models.graphic.fragment;
+
+import laustrup.utilities.collections.lists.Liszt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FragmentCollectionTest {
+
+    @Test
+    void movesTheNodesAfterARemovedFragment() {
+        Fragment first = new Fragment(new int[]{0, 1, 2}),
+                 second = new Fragment(new int[]{3, 4, 5}),
+                 third = new Fragment(new int[]{6, 7, 8});
+        FragmentCollection collection = new FragmentCollection(new Fragment[]{first, second, third});
+
+        assertTrue(collection.remove(second));
+        assertArrayEquals(new int[]{0, 1, 2, 6, 7, 8}, indices(collection));
+
+        collection.add(new Fragment(new int[]{9, 10, 11}));
+        assertTrue(collection.remove(first));
+        assertArrayEquals(new int[]{6, 7, 8, 9, 10, 11}, indices(collection));
+        assertEquals(2, collection.get_fragments().size());
+    }
+
+    @Test
+    void findsTheHighestNodeAgainWhenItIsRemoved() {
+        Fragment large = new Fragment(new int[]{0, 1, 70000});
+        FragmentCollection collection = new FragmentCollection(new Fragment[]{new Fragment(new int[]{0, 1, 2}), large});
+        assertEquals(GL_UNSIGNED_INT, collection.get_indexType());
+
+        collection.remove(large);
+
+        assertEquals(2, collection.get_maxIndex());
+        assertEquals(GL_UNSIGNED_SHORT, collection.get_indexType());
+    }
+
+    @Test
+    void ignoresFragmentsThatArentInTheCollection() {
+        FragmentCollection collection = new FragmentCollection(new Fragment[]{new Fragment(new int[]{0, 1, 2})});
+
+        assertFalse(collection.remove(new Fragment(new int[]{0, 1, 2})));
+        assertEquals(3, collection.amount());
+    }
+
+    @Test
+    void keepsItsOwnFragments() {
+        Liszt<Fragment> fragments = new Liszt<>(new Fragment[]{new Fragment(new int[]{0, 1, 2})});
+        FragmentCollection collection = new FragmentCollection(fragments);
+
+        fragments.add(new Fragment(new int[]{3, 4, 5}));
+
+        assertEquals(1, collection.get_fragments().size());
+        assertEquals(3, collection.amount());
+        assertThrows(UnsupportedOperationException.class, () -> collection.get_fragments().clear());
+    }
+
+    /** @return The packed indices of a collection, without the free room. */
+    private static int[] indices(FragmentCollection collection) {
+        return Arrays.copyOf(collection.get_indices(), collection.amount());
+    }
+}
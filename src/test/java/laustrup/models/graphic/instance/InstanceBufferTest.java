@@ -0,0 +1,54 @@
+package laustrup.models.graphic.instance;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceBufferTest {
+
+    /** The byte of the color of the first instance. */
+    private static final int COLOR = InstanceBuffer.LAYOUT.offset(3);
+
+    @Test
+    void packsTheColorAsNormalizedBytes() {
+        InstanceBuffer instances = new InstanceBuffer();
+
+        instances.add(0f, 0f, 0f, 1f, 1f, 1f, 0.5f, 0f, 0.2f, 0f, 0f, 1f, 1f);
+
+        ByteBuffer data = instances.data();
+        assertEquals(255, data.get(COLOR) & 0xFF);
+        assertEquals(128, data.get(COLOR + 1) & 0xFF);
+        assertEquals(0, data.get(COLOR + 2) & 0xFF);
+        assertEquals(51, data.get(COLOR + 3) & 0xFF);
+    }
+
+    @Test
+    void clampsChannelsOutsideOfTheRange() {
+        InstanceBuffer instances = new InstanceBuffer();
+
+        instances.add(0f, 0f, 0f, 1f, 1f, 1.5f, -0.5f, 2f, -1f, 0f, 0f, 1f, 1f);
+
+        ByteBuffer data = instances.data();
+        assertEquals(255, data.get(COLOR) & 0xFF);
+        assertEquals(0, data.get(COLOR + 1) & 0xFF);
+        assertEquals(255, data.get(COLOR + 2) & 0xFF);
+        assertEquals(0, data.get(COLOR + 3) & 0xFF);
+    }
+
+    @Test
+    void growsAndKeepsTheInstancesThatWereAdded() {
+        InstanceBuffer instances = new InstanceBuffer(1);
+
+        for (int i = 0; i < 10; i++)
+            instances.add(i, 0f, 0f, 1f, 1f, 1f, 1f, 1f, 1f, 0f, 0f, 1f, 1f);
+
+        ByteBuffer data = instances.data();
+        assertEquals(10, instances.get_instances());
+        assertEquals(10 * InstanceBuffer.STRIDE, data.remaining());
+        // The x position is the last value of the first row of the transform.
+        for (int i = 0; i < 10; i++)
+            assertEquals(i, data.getFloat(i * InstanceBuffer.STRIDE + 12));
+    }
+}
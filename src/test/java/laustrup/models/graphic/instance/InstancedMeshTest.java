@@ -0,0 +1,72 @@
+package laustrup.models.graphic.instance;
+
+import laustrup.models.Window;
+import laustrup.models.graphic.Texture;
+import laustrup.models.graphic.device.RecordingDevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static laustrup.models.graphic.device.RecordingDevice.Command.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstancedMeshTest {
+
+    /** Records the commands of the mesh. */
+    private RecordingDevice _device;
+
+    /** A few instances to draw. */
+    private InstanceBuffer _instances;
+
+    @BeforeEach
+    void setUp() {
+        _device = new RecordingDevice();
+        Window.get_instance().set_device(_device);
+        _instances = new InstanceBuffer();
+        for (int i = 0; i < 3; i++)
+            _instances.add(i, 0f, 0f, 1f, 1f, 1f, 0f, 0f, 1f, 0f, 0f, 1f, 1f);
+    }
+
+    @Test
+    void bindsAWhiteTextureWithoutATexture() {
+        InstancedMesh mesh = InstancedMesh.quad(_device);
+        _device.reset();
+
+        assertEquals(3, mesh.draw(_instances));
+
+        assertEquals(1, _device.count(BIND_TEXTURE));
+        assertEquals(1, _device.count(DRAW_ELEMENTS_INSTANCED));
+        assertEquals(3, mesh.get_drawnInstances());
+    }
+
+    @Test
+    void bindsTheGivenTexture() {
+        InstancedMesh mesh = InstancedMesh.quad(_device);
+        Texture texture = new Texture(2, 2, null, _device);
+        _device.reset();
+
+        assertEquals(3, mesh.draw(_instances, texture));
+
+        assertEquals(1, _device.count(BIND_TEXTURE));
+        assertEquals(1, _device.count(DRAW_ELEMENTS_INSTANCED));
+    }
+
+    @Test
+    void drawsNothingWithoutInstances() {
+        InstancedMesh mesh = InstancedMesh.quad(_device);
+        _device.reset();
+
+        assertEquals(0, mesh.draw(new InstanceBuffer()));
+
+        assertEquals(0, _device.count(DRAW_ELEMENTS_INSTANCED));
+    }
+
+    @Test
+    void deletesTheWhiteTexture() {
+        InstancedMesh mesh = InstancedMesh.quad(_device);
+
+        mesh.delete();
+
+        assertEquals(1, _device.count(DELETE_TEXTURE));
+    }
+}
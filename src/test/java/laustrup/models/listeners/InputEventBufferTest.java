@@ -0,0 +1,144 @@
+package laustrup.models.listeners;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.lwjgl.glfw.GLFW.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputEventBufferTest {
+
+    private final InputEventBuffer _buffer = InputEventBuffer.get_instance();
+
+    @BeforeEach
+    void setUp() {
+        // The buffer is a singleton, so what earlier tests held is released and drained away.
+        for (int key = 0; key <= GLFW_KEY_LAST; key++)
+            _buffer.push(InputEventBuffer.KEY, key, GLFW_RELEASE, 0, 0);
+        for (int button = 0; button <= GLFW_MOUSE_BUTTON_LAST; button++)
+            _buffer.push(InputEventBuffer.BUTTON, button, GLFW_RELEASE, 0, 0);
+        _buffer.push(InputEventBuffer.MOVE, 0, 0, 0, 0);
+        _buffer.drain();
+        _buffer.drain();
+    }
+
+    @Test
+    void drainsEveryWaitingEvent() {
+        KeyListener.keyCallback(0, GLFW_KEY_A, 0, GLFW_PRESS, 0);
+        MouseListener.scrollCallback(0, 0, 1);
+        assertEquals(2, _buffer.size());
+
+        _buffer.drain();
+
+        assertEquals(0, _buffer.size());
+    }
+
+    @Test
+    void seesAPressAndReleaseWithinTheSameFrame() {
+        KeyListener.keyCallback(0, GLFW_KEY_A, 0, GLFW_PRESS, 0);
+        KeyListener.keyCallback(0, GLFW_KEY_A, 0, GLFW_RELEASE, 0);
+
+        InputSnapshot snapshot = _buffer.drain();
+
+        assertTrue(snapshot.isPressed(GLFW_KEY_A));
+        assertTrue(snapshot.isReleased(GLFW_KEY_A));
+        assertFalse(snapshot.isHeld(GLFW_KEY_A));
+    }
+
+    @Test
+    void keepsHoldingKeysUntilTheyAreReleased() {
+        KeyListener.keyCallback(0, GLFW_KEY_W, 0, GLFW_PRESS, 0);
+        assertTrue(_buffer.drain().isPressed(GLFW_KEY_W));
+
+        InputSnapshot next = _buffer.drain();
+        assertTrue(next.isHeld(GLFW_KEY_W));
+        assertFalse(next.isPressed(GLFW_KEY_W));
+        assertTrue(KeyListener.isKeyPressed(GLFW_KEY_W));
+
+        KeyListener.keyCallback(0, GLFW_KEY_W, 0, GLFW_RELEASE, 0);
+        assertFalse(_buffer.drain().isHeld(GLFW_KEY_W));
+        assertFalse(KeyListener.isKeyPressed(GLFW_KEY_W));
+    }
+
+    @Test
+    void ignoresRepeatsAndUnknownKeys() {
+        KeyListener.keyCallback(0, GLFW_KEY_A, 0, GLFW_REPEAT, 0);
+        KeyListener.keyCallback(0, GLFW_KEY_UNKNOWN, 0, GLFW_PRESS, 0);
+
+        InputSnapshot snapshot = _buffer.drain();
+
+        assertFalse(snapshot.isPressed(GLFW_KEY_A));
+        assertFalse(snapshot.isHeld(GLFW_KEY_UNKNOWN));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> KeyListener.isKeyPressed(GLFW_KEY_LAST + 1));
+    }
+
+    @Test
+    void accumulatesTheMovementAndScrollingOfAFrame() {
+        MouseListener.positionCallback(0, 10, 10);
+        _buffer.drain();
+
+        MouseListener.positionCallback(0, 12, 13);
+        MouseListener.positionCallback(0, 15, 20);
+        MouseListener.scrollCallback(0, 0, 1);
+        MouseListener.scrollCallback(0, 0.5, 2);
+        InputSnapshot snapshot = _buffer.drain();
+
+        assertEquals(15, snapshot.get_x());
+        assertEquals(20, snapshot.get_y());
+        assertEquals(5, snapshot.get_dx());
+        assertEquals(10, snapshot.get_dy());
+        assertEquals(0.5, snapshot.get_scrollX());
+        assertEquals(3, snapshot.get_scrollY());
+
+        InputSnapshot next = _buffer.drain();
+        assertEquals(15, next.get_x());
+        assertEquals(0, next.get_dx());
+        assertEquals(0, next.get_scrollY());
+    }
+
+    @Test
+    void dragsWhileAButtonIsHeldAndTheMouseMoves() {
+        MouseListener.buttonCallback(0, GLFW_MOUSE_BUTTON_LEFT, GLFW_PRESS, 0);
+        MouseListener.positionCallback(0, 1, 1);
+
+        InputSnapshot snapshot = _buffer.drain();
+
+        assertTrue(snapshot.isButtonPressed(GLFW_MOUSE_BUTTON_LEFT));
+        assertTrue(snapshot.isDragging());
+        assertTrue(MouseListener.is_clicked(GLFW_MOUSE_BUTTON_LEFT));
+
+        MouseListener.buttonCallback(0, GLFW_MOUSE_BUTTON_LEFT, GLFW_RELEASE, 0);
+        InputSnapshot released = _buffer.drain();
+        assertTrue(released.isButtonReleased(GLFW_MOUSE_BUTTON_LEFT));
+        assertFalse(released.isDragging());
+        assertFalse(MouseListener.is_clicked(GLFW_MOUSE_BUTTON_LEFT));
+    }
+
+    @Test
+    void reusesTwoSnapshotsAndCopiesKeepTheirValues() {
+        KeyListener.keyCallback(0, GLFW_KEY_SPACE, 0, GLFW_PRESS, 0);
+        InputSnapshot first = _buffer.drain(), copy = first.copy();
+
+        InputSnapshot second = _buffer.drain(), third = _buffer.drain();
+
+        assertNotSame(first, second);
+        assertSame(first, third);
+        assertSame(third, _buffer.latest());
+        assertFalse(first.isPressed(GLFW_KEY_SPACE));
+        assertTrue(copy.isPressed(GLFW_KEY_SPACE));
+        assertTrue(copy.isHeld(GLFW_KEY_SPACE));
+    }
+
+    @Test
+    void dropsAndCountsEventsWhenTheRingIsFull() {
+        long dropped = _buffer.get_dropped();
+
+        for (int i = 0; i < InputEventBuffer.CAPACITY; i++)
+            assertTrue(_buffer.push(InputEventBuffer.SCROLL, 0, 0, 0, 1));
+        assertFalse(_buffer.push(InputEventBuffer.SCROLL, 0, 0, 0, 1));
+
+        assertEquals(dropped + 1, _buffer.get_dropped());
+        assertEquals(InputEventBuffer.CAPACITY, _buffer.drain().get_scrollY());
+        assertTrue(_buffer.push(InputEventBuffer.SCROLL, 0, 0, 0, 1));
+    }
+}
@@ -0,0 +1,143 @@
+package laustrup.models.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialHashGridTest {
+
+    /** Receives the ids of the found objects. */
+    private final int[] _results = new int[64];
+
+    @Test
+    void findsInsertedObjectsByArea() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int first = grid.insert(0f, 0f, 0.5f, 0.5f),
+            second = grid.insert(2f, 2f, 3.5f, 3.5f);
+
+        assertEquals(2, grid.get_size());
+        assertArrayEquals(new int[]{first}, found(grid, 0.25f, 0.25f, 0.25f, 0.25f));
+        assertArrayEquals(new int[]{second}, found(grid, 3f, 3f, 3f, 3f));
+        assertArrayEquals(new int[]{first, second}, found(grid, 0f, 0f, 2f, 2f));
+        assertEquals(0, grid.query(1f, 1f, 1.5f, 1.5f, _results));
+    }
+
+    @Test
+    void findsObjectsOfManyCellsOnce() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int id = grid.insert(-3f, -3f, 3f, 3f);
+
+        assertArrayEquals(new int[]{id}, found(grid, -10f, -10f, 10f, 10f));
+        // A rectangle of more cells than the table has slots visits the slots instead.
+        assertArrayEquals(new int[]{id}, found(grid, -1000f, -1000f, 1000f, 1000f));
+    }
+
+    @Test
+    void findsMovedObjectsOnlyAtTheirNewPlace() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int id = grid.insert(0f, 0f, 0.5f, 0.5f);
+
+        grid.move(id, 5.25f, 5.25f, 6.5f, 5.5f);
+
+        assertEquals(0, grid.query(0.25f, 0.25f, _results));
+        assertArrayEquals(new int[]{id}, found(grid, 6.25f, 5.25f, 6.25f, 5.25f));
+        assertEquals(5.25f, grid.minX(id));
+        assertEquals(6.5f, grid.maxX(id));
+
+        // Moving inside the same cells only changes the bounds.
+        grid.move(id, 5.5f, 5.5f, 6.75f, 5.75f);
+        assertEquals(0, grid.query(5.3f, 5.3f, _results));
+        assertArrayEquals(new int[]{id}, found(grid, 6.7f, 5.7f, 6.7f, 5.7f));
+    }
+
+    @Test
+    void removesObjectsAndGivesTheirIdsAgain() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int first = grid.insert(0f, 0f, 0.5f, 0.5f), second = grid.insert(0f, 0f, 0.5f, 0.5f);
+
+        assertTrue(grid.remove(first));
+
+        assertFalse(grid.contains(first));
+        assertEquals(1, grid.get_size());
+        assertArrayEquals(new int[]{second}, found(grid, 0f, 0f, 1f, 1f));
+        assertEquals(first, grid.insert(2f, 2f, 2.5f, 2.5f));
+    }
+
+    @Test
+    void ignoresRemovingAnIdTwice() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int id = grid.insert(0f, 0f, 0.5f, 0.5f);
+
+        assertTrue(grid.remove(id));
+        assertFalse(grid.remove(id));
+        assertFalse(grid.remove(-1));
+        assertFalse(grid.remove(100));
+
+        // The id is only free once, so two objects never get the same id.
+        assertNotEquals(grid.insert(0f, 0f, 1f, 1f), grid.insert(0f, 0f, 1f, 1f));
+        assertEquals(2, grid.get_size());
+    }
+
+    @Test
+    void refusesMovingAnIdThatIsntInTheGrid() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        int id = grid.insert(0f, 0f, 0.5f, 0.5f);
+        grid.remove(id);
+
+        assertThrows(IllegalArgumentException.class, () -> grid.move(id, 1f, 1f, 2f, 2f));
+    }
+
+    @Test
+    void findsObjectsInTheCellWithTheLowestKey() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        // The cell of the lowest x and a y of 0 has the lowest key of all cells.
+        float x = Integer.MIN_VALUE;
+        int id = grid.insert(x, 0.25f, x, 0.5f);
+
+        assertArrayEquals(new int[]{id}, found(grid, x, 0.25f, x, 0.25f));
+        grid.move(id, 0f, 0f, 0.5f, 0.5f);
+        assertEquals(0, grid.query(x, 0.25f, _results));
+    }
+
+    @Test
+    void keepsObjectsWhenTheTableGrows() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        for (int i = 0; i < 200; i++)
+            grid.insert(i, -i, i + 0.5f, -i + 0.5f);
+
+        assertEquals(200, grid.get_size());
+        for (int i = 0; i < 200; i += 17)
+            assertArrayEquals(new int[]{i}, found(grid, i + 0.25f, -i + 0.25f, i + 0.25f, -i + 0.25f));
+    }
+
+    @Test
+    void rebuildReplacesEveryObject() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        grid.insert(10f, 10f, 11f, 11f);
+
+        grid.rebuild(2, new float[]{0f, 3f}, new float[]{0f, 3f}, new float[]{1f, 4f}, new float[]{1f, 4f});
+
+        assertEquals(2, grid.get_size());
+        assertEquals(0, grid.query(10.5f, 10.5f, _results));
+        assertArrayEquals(new int[]{0, 1}, found(grid, 0f, 0f, 5f, 5f));
+    }
+
+    @Test
+    void countsTheObjectsThatDidntFitTheResults() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 4);
+        for (int i = 0; i < 3; i++)
+            grid.insert(0f, 0f, 1f, 1f);
+
+        assertEquals(3, grid.query(0.5f, 0.5f, new int[2]));
+    }
+
+    /** @return The sorted ids of the objects overlapping a rectangle. */
+    private int[] found(SpatialHashGrid grid, float minX, float minY, float maxX, float maxY) {
+        int[] found = Arrays.copyOf(_results, grid.query(minX, minY, maxX, maxY, _results));
+        Arrays.sort(found);
+
+        return found;
+    }
+}
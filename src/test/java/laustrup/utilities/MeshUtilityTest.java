@@ -0,0 +1,144 @@
+package laustrup.utilities;
+
+import laustrup.models.graphic.MeshData;
+import laustrup.models.graphic.VertexStore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshUtilityTest {
+
+    /** The amount of quads of each side of the grid. */
+    private static final int SIDE = 16;
+
+    @Test
+    void countsEveryVertexOfSeparateTrianglesAsMisses() {
+        assertEquals(3f, MeshUtility.acmr(new int[]{0, 1, 2, 3, 4, 5}, 6, MeshUtility.CACHE_SIZE));
+        assertEquals(0f, MeshUtility.acmr(new int[0], 0, MeshUtility.CACHE_SIZE));
+    }
+
+    @Test
+    void countsOnlyTheNewVertexOfTrianglesSharingAnEdge() {
+        // The second triangle only misses its fourth vertex.
+        assertEquals(2f, MeshUtility.acmr(new int[]{0, 1, 2, 2, 1, 3}, 4, MeshUtility.CACHE_SIZE));
+    }
+
+    @Test
+    void missesVerticesThatHaveLeftTheCache() {
+        // With room for three vertices, the first vertex is pushed out by the fourth before it is used again.
+        assertEquals(3f, MeshUtility.acmr(new int[]{0, 1, 2, 3, 4, 0}, 5, 3));
+        assertEquals(2.5f, MeshUtility.acmr(new int[]{0, 1, 2, 3, 4, 0}, 5, 5));
+    }
+
+    @Test
+    void lowersTheMissRatioOfAShuffledGrid() {
+        int[] shuffled = shuffled(grid(), new Random(7));
+        int vertices = (SIDE + 1) * (SIDE + 1);
+
+        int[] ordered = MeshUtility.optimizeVertexCache(shuffled, vertices);
+
+        float before = MeshUtility.acmr(shuffled, vertices, MeshUtility.CACHE_SIZE),
+              after = MeshUtility.acmr(ordered, vertices, MeshUtility.CACHE_SIZE);
+        assertTrue(before > 1.5f, "A shuffled grid should miss often, but had " + before);
+        assertTrue(after < 1f, "The optimized grid should miss less than once a triangle, but had " + after);
+        assertEquals(triangles(shuffled), triangles(ordered));
+    }
+
+    @Test
+    void keepsTheWindingOfEachTriangle() {
+        int[] indices = grid();
+
+        int[] ordered = MeshUtility.optimizeVertexCache(indices, (SIDE + 1) * (SIDE + 1));
+
+        List<String> original = triangles(indices);
+        for (int i = 0; i < ordered.length; i += 3)
+            assertTrue(original.contains(rotated(ordered[i], ordered[i + 1], ordered[i + 2])));
+    }
+
+    @Test
+    void weldsVerticesOfTheSameValues() {
+        VertexStore store = new VertexStore();
+        store.add(0, 0, 0, 1, 1, 1, 1);
+        store.add(1, 0, 0, 1, 1, 1, 1);
+        store.add(0, 1, 0, 1, 1, 1, 1);
+        store.add(1, 0, 0, 1, 1, 1, 1);
+        store.add(0, 1, 0, 1, 1, 1, 1);
+        store.add(1, 1, 0, 1, 1, 1, 1);
+
+        MeshData welded = MeshUtility.weld(new MeshData(store, new int[]{0, 1, 2, 3, 5, 4}));
+
+        assertEquals(4, welded.get_vertices().get_size());
+        assertArrayEquals(new int[]{0, 1, 2, 1, 3, 2}, welded.get_indices());
+        assertEquals(1f, welded.get_vertices().position(3, 0));
+        assertEquals(1f, welded.get_vertices().position(3, 1));
+    }
+
+    @Test
+    void ordersVerticesByTheirFirstUseAndDropsUnused() {
+        VertexStore store = new VertexStore();
+        for (int i = 0; i < 5; i++)
+            store.add(i, 0, 0, 1, 1, 1, 1);
+
+        MeshData ordered = MeshUtility.optimizeVertexFetch(new MeshData(store, new int[]{4, 2, 0, 0, 2, 3}));
+
+        assertEquals(4, ordered.get_vertices().get_size());
+        assertArrayEquals(new int[]{0, 1, 2, 2, 1, 3}, ordered.get_indices());
+        assertEquals(4f, ordered.get_vertices().position(0, 0));
+        assertEquals(3f, ordered.get_vertices().position(3, 0));
+    }
+
+    /** @return The indices of a grid of quads, each split into two counterclockwise triangles, row by row. */
+    private static int[] grid() {
+        int[] indices = new int[SIDE * SIDE * 6];
+        int i = 0;
+        for (int y = 0; y < SIDE; y++)
+            for (int x = 0; x < SIDE; x++) {
+                int corner = y * (SIDE + 1) + x;
+                int[] quad = {corner, corner + 1, corner + SIDE + 2, corner + SIDE + 2, corner + SIDE + 1, corner};
+                System.arraycopy(quad, 0, indices, i, 6);
+                i += 6;
+            }
+
+        return indices;
+    }
+
+    /** @return The triangles of the indices in a random order. */
+    private static int[] shuffled(int[] indices, Random random) {
+        List<int[]> triangles = new ArrayList<>();
+        for (int i = 0; i < indices.length; i += 3)
+            triangles.add(new int[]{indices[i], indices[i + 1], indices[i + 2]});
+        Collections.shuffle(triangles, random);
+
+        int[] shuffled = new int[indices.length];
+        for (int i = 0; i < triangles.size(); i++)
+            System.arraycopy(triangles.get(i), 0, shuffled, i * 3, 3);
+
+        return shuffled;
+    }
+
+    /** @return The triangles of the indices, each starting at its lowest vertex, sorted. */
+    private static List<String> triangles(int[] indices) {
+        List<String> triangles = new ArrayList<>();
+        for (int i = 0; i < indices.length; i += 3)
+            triangles.add(rotated(indices[i], indices[i + 1], indices[i + 2]));
+        Collections.sort(triangles);
+
+        return triangles;
+    }
+
+    /** @return The triangle rotated to start at its lowest vertex, which keeps its winding. */
+    private static String rotated(int a, int b, int c) {
+        if (b < a && b < c)
+            return b + " " + c + " " + a;
+        if (c < a && c < b)
+            return c + " " + a + " " + b;
+
+        return a + " " + b + " " + c;
+    }
+}